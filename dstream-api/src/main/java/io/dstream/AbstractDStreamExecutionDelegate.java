@@ -20,8 +20,10 @@ package io.dstream;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -32,7 +34,10 @@ import java.util.stream.Stream;
  * Base implementation of {@link DStreamExecutionDelegate} which invokes
  * {@link #doExecute(String, Properties, DStreamExecutionGraph...)} asynchronously
  * and wraps every result {@link Stream} in a proxy allowing calls to {@link Stream#close()}
- * to be delegated to the the close handler returned by the {@link #getCloseHandler()}.
+ * to be delegated to the the close handler returned by the {@link #getCloseHandler()}.<br>
+ * Prior to that, broadcast streams (see {@link DStream#broadcastJoin(DStream, SerializableStreamAssets.SerFunction, SerializableStreamAssets.SerFunction)})
+ * and sampling graphs of skewed joins (see {@link DStreamConstants#SKEW}) of the given execution graphs
+ * are executed (materialized) using the same {@link #doExecute(String, Properties, DStreamExecutionGraph...)}.
  */
 public abstract class AbstractDStreamExecutionDelegate implements DStreamExecutionDelegate {
 	/**
@@ -48,6 +53,7 @@ public abstract class AbstractDStreamExecutionDelegate implements DStreamExecuti
 				@Override
 				public Stream<Stream<?>> call() throws Exception {
 					try {
+						materializeDependencies(executionName, executionConfig, executionPipelines);
 						List<Stream<Stream<?>>> resultStreamsList = doExecute(executionName, executionConfig, executionPipelines);
 
 						@SuppressWarnings("rawtypes")
@@ -97,6 +103,78 @@ public abstract class AbstractDStreamExecutionDelegate implements DStreamExecuti
 	 */
 	protected abstract List<Stream<Stream<?>>> doExecute(String executionName, Properties executionConfig, DStreamExecutionGraph... executionGraphs);
 
+	/**
+	 * Executes broadcast streams and sampling graphs of skewed joins of the given execution graphs
+	 * (including the graphs they are combined with) collecting their results and setting them on
+	 * the corresponding {@link BroadcastJoinFunction} and {@link SkewedJoinSampler}.
+	 */
+	private void materializeDependencies(String executionName, Properties executionConfig, DStreamExecutionGraph... executionGraphs){
+		for (DStreamExecutionGraph executionGraph : executionGraphs) {
+			for (DStreamOperation operation : executionGraph.getOperations()) {
+				this.materializeDependencies(executionName, executionConfig, 
+						operation.getCombinableExecutionGraphs().toArray(new DStreamExecutionGraph[]{}));
+				for (BroadcastJoinFunction broadcastJoiner : operation.getBroadcastJoiners()) {
+					DStreamExecutionGraph broadcastGraph = broadcastJoiner.getBroadcastExecutionGraph();
+					broadcastJoiner.setBroadcastValues(this.executeDependency(executionName, executionConfig, 
+							broadcastGraph, "_broadcast_" + broadcastGraph.getName()));
+				}
+				for (SkewedJoinSampler skewedJoinSampler : operation.getSkewedJoinSamplers()) {
+					DStreamExecutionGraph leftSamplingGraph = skewedJoinSampler.getLeftSamplingGraph();
+					DStreamExecutionGraph rightSamplingGraph = skewedJoinSampler.getRightSamplingGraph();
+					skewedJoinSampler.resolveHotKeys(
+							this.executeDependency(executionName, executionConfig, leftSamplingGraph, "_sample_0_" + leftSamplingGraph.getName()), 
+							this.executeDependency(executionName, executionConfig, rightSamplingGraph, "_sample_1_" + rightSamplingGraph.getName()));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Executes the given execution graph (materializing its own dependencies first) collecting its results.<br>
+	 * Execution graph is executed with its own output (if applicable) which is derived from 
+	 * {@link DStreamConstants#OUTPUT}, the given suffix and a unique id, so it doesn't collide with the output 
+	 * of the main execution nor of the concurrent executions. Such output is deleted once results are collected
+	 * (see {@link #deleteOutput(String, Properties)}).
+	 */
+	private ArrayList<Object> executeDependency(String executionName, Properties executionConfig, DStreamExecutionGraph executionGraph, String outputSuffix){
+		this.materializeDependencies(executionName, executionConfig, executionGraph);
+		
+		Properties dependencyConfig = new Properties();
+		dependencyConfig.putAll(executionConfig);
+		String output = executionConfig.getProperty(DStreamConstants.OUTPUT, executionName).replaceAll("/+$", "") 
+				+ outputSuffix + "_" + UUID.randomUUID();
+		dependencyConfig.setProperty(DStreamConstants.OUTPUT, output);
+		
+		ArrayList<Object> results = new ArrayList<>();
+		try {
+			for (Stream<Stream<?>> resultPartitions : this.doExecute(executionName, dependencyConfig, executionGraph)) {
+				try (Stream<Stream<?>> partitions = resultPartitions){
+					partitions.forEach(partition -> {
+						try (Stream<?> values = partition){
+							values.forEach(results::add);
+						}
+					});
+				}
+			}
+		}
+		finally {
+			this.deleteOutput(output, dependencyConfig);
+		}
+		return results;
+	}
+
+	/**
+	 * Deletes the given output of the execution which materialized the dependency of the main execution
+	 * (see {@link #executeDependency(String, Properties, DStreamExecutionGraph, String)}).
+	 * Does nothing by default and should be overridden by sub-classes which write output.
+	 *
+	 * @param output the value of {@link DStreamConstants#OUTPUT} the dependency was executed with
+	 * @param executionConfig properties representing execution configuration of the dependency
+	 */
+	protected void deleteOutput(String output, Properties executionConfig) {
+		// noop
+	}
+
 	/**
 	 * Creates proxy over the result Stream to ensures that close() call is always delegated to
 	 * the close handler provided by the target ExecutionDelegate.
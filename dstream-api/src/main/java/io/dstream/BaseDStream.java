@@ -26,6 +26,8 @@ import io.dstream.SerializableStreamAssets.SerComparator;
 import io.dstream.SerializableStreamAssets.SerConsumer;
 import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.SerializableStreamAssets.SerPredicate;
+import io.dstream.SerializableStreamAssets.SerToDoubleFunction;
+import io.dstream.SerializableStreamAssets.SerToLongFunction;
 import io.dstream.support.Classifier;
 import io.dstream.support.HashClassifier;
 /**
@@ -52,7 +54,7 @@ interface BaseDStream<A, T> extends ExecutableDStream<A> {
 
 	/**
 	 * Returns a stream containing a single value representing the count of elements in
-	 * the previous stream.<br>
+	 * the previous stream (empty if the previous stream is empty).<br>
 	 *
 	 * This operation is a non-terminal equivalent of the
 	 * <i>Stream.count()</i>.<br>
@@ -299,6 +301,142 @@ interface BaseDStream<A, T> extends ExecutableDStream<A> {
 	 */
 	DStream<A> max(SerComparator<? super A> comparator);
 
+	/**
+	 * Returns a {@link DStream} containing a single value representing the sum of <i>long</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream.<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToLong(ToLongFunction).sum()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce long value from each element
+	 * @return new {@link DStream} of type {@link Long}
+	 */
+	DStream<Long> sumLong(SerToLongFunction<? super A> mapper);
+
+	/**
+	 * Returns a {@link DStream} containing a single value representing the sum of <i>double</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream.<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToDouble(ToDoubleFunction).sum()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce double value from each element
+	 * @return new {@link DStream} of type {@link Double}
+	 */
+	DStream<Double> sumDouble(SerToDoubleFunction<? super A> mapper);
+
+	/**
+	 * Returns a {@link DStream} containing a single value representing the minimum of <i>long</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream (empty if this stream is empty).<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToLong(ToLongFunction).min()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce long value from each element
+	 * @return new {@link DStream} of type {@link Long}
+	 */
+	DStream<Long> minLong(SerToLongFunction<? super A> mapper);
+
+	/**
+	 * Returns a {@link DStream} containing a single value representing the minimum of <i>double</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream (empty if this stream is empty).<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToDouble(ToDoubleFunction).min()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce double value from each element
+	 * @return new {@link DStream} of type {@link Double}
+	 */
+	DStream<Double> minDouble(SerToDoubleFunction<? super A> mapper);
+
+	/**
+	 * Returns a {@link DStream} containing a single value representing the maximum of <i>long</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream (empty if this stream is empty).<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToLong(ToLongFunction).max()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce long value from each element
+	 * @return new {@link DStream} of type {@link Long}
+	 */
+	DStream<Long> maxLong(SerToLongFunction<? super A> mapper);
+
+	/**
+	 * Returns a {@link DStream} containing a single value representing the maximum of <i>double</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream (empty if this stream is empty).<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToDouble(ToDoubleFunction).max()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce double value from each element
+	 * @return new {@link DStream} of type {@link Double}
+	 */
+	DStream<Double> maxDouble(SerToDoubleFunction<? super A> mapper);
+
+	/**
+	 * Returns a {@link DStream} containing a single value representing the average of <i>long</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream (empty if this stream is empty).<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToLong(ToLongFunction).average()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce long value from each element
+	 * @return new {@link DStream} of type {@link Double}
+	 */
+	DStream<Double> averageLong(SerToLongFunction<? super A> mapper);
+
+	/**
+	 * Returns a {@link DStream} containing a single value representing the average of <i>double</i> values
+	 * produced by the given <i>mapper</i> from the elements of this stream (empty if this stream is empty).<br>
+	 * Values are aggregated as primitives and are not boxed per element.<br>
+	 * <br>
+	 * This operation is a non-terminal equivalent of the
+	 * <i>Stream.mapToDouble(ToDoubleFunction).average()</i>.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param mapper a function to produce double value from each element
+	 * @return new {@link DStream} of type {@link Double}
+	 */
+	DStream<Double> averageDouble(SerToDoubleFunction<? super A> mapper);
+
 	/**
 	 * Returns a stream consisting of the elements of this stream, sorted
 	 * according to the provided {@code SerComparator}.
@@ -339,6 +477,12 @@ interface BaseDStream<A, T> extends ExecutableDStream<A> {
 	 * This operation is a non-terminal equivalent of the
 	 * <i>Stream.collect(Collectors.toMap(Function, Function, BinaryOperator))</i>.<br>
 	 * <br>
+	 * Map-side-combine is enabled for this operation by default (see {@link DStreamConstants#MAP_SIDE_COMBINE}),
+	 * so values of the same key are reduced in arbitrary groups and order before and after the shuffle.
+	 * Therefore the <i>valueReducer</i> must be associative and commutative (e.g., <i>Integer::sum</i>),
+	 * otherwise map-side-combine must be disabled
+	 * (see {@link #reduceValues(SerFunction, SerFunction, SerBinaryOperator, boolean)}).<br>
+	 * <br>
 	 * This is an <i>intermediate</i> operation.
 	 * <br>
 	 * This is a <i>shuffle</i> operation.
@@ -355,11 +499,38 @@ interface BaseDStream<A, T> extends ExecutableDStream<A> {
 			SerFunction<? super A, ? extends V> valueMapper,
 			SerBinaryOperator<V> valueReducer);
 
+	/**
+	 * Same as {@link #reduceValues(SerFunction, SerFunction, SerBinaryOperator)} while explicitly
+	 * enabling or disabling map-side-combine for this operation regardless of the
+	 * {@link DStreamConstants#MAP_SIDE_COMBINE} configuration (map-side-combine is
+	 * otherwise enabled automatically for this operation).<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>shuffle</i> operation.
+	 *
+	 * @param <K> The element type of the key
+	 * @param <V> The element type of the value
+	 * @param groupClassifier a mapping function to produce keys
+	 * @param valueMapper a mapping function to produce values
+	 * @param valueReducer a reduce function, used to resolve collisions between
+	 *                      values associated with the same key.
+	 * @param mapSideCombine whether values should be reduced before the shuffle
+	 * @return new {@link DStream} of Key/Value pairs represented as {@link Entry}&lt;K,V&gt;
+	 */
+	<K,V> DStream<Entry<K,V>> reduceValues(SerFunction<? super A, ? extends K> groupClassifier,
+			SerFunction<? super A, ? extends V> valueMapper,
+			SerBinaryOperator<V> valueReducer, boolean mapSideCombine);
+
 	/**
 	 * Returns a {@link DStream} of Key/Value pairs, where values mapped from the individual
 	 * elements of this stream are grouped on the given <i>groupClassifier</i> (e.g., key) and
 	 * aggregated into a {@link List}.<br>
 	 * <br>
+	 * When map-side-combine is enabled (see {@link DStreamConstants#MAP_SIDE_COMBINE_DEFAULT}), values
+	 * are aggregated into partial lists before the shuffle which are concatenated in arbitrary order
+	 * after it, so the order of values within the resulting {@link List} is unspecified.<br>
+	 * <br>
 	 * This is an <i>intermediate</i> operation.
 	 * <br>
 	 * This is a <i>shuffle</i> operation.
@@ -373,4 +544,39 @@ interface BaseDStream<A, T> extends ExecutableDStream<A> {
 	<K,V> DStream<Entry<K,List<V>>> aggregateValues(SerFunction<? super A, ? extends K> groupClassifier,
 			SerFunction<? super A, ? extends V> valueMapper);
 
+	/**
+	 * Same as {@link #aggregateValues(SerFunction, SerFunction)} while explicitly
+	 * enabling or disabling map-side-combine for this operation regardless of the
+	 * {@link DStreamConstants#MAP_SIDE_COMBINE} and {@link DStreamConstants#MAP_SIDE_COMBINE_DEFAULT}
+	 * configuration.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>shuffle</i> operation.
+	 *
+	 * @param <K> The element type of the key
+	 * @param <V> The element type of the value
+	 * @param groupClassifier a mapping function to produce keys
+	 * @param valueMapper a mapping function to produce values
+	 * @param mapSideCombine whether values should be aggregated before the shuffle
+	 * @return new {@link DStream} of Key/Value pairs represented as {@link Entry}&lt;K,List&lt;V&gt;&gt;
+	 */
+	<K,V> DStream<Entry<K,List<V>>> aggregateValues(SerFunction<? super A, ? extends K> groupClassifier,
+			SerFunction<? super A, ? extends V> valueMapper, boolean mapSideCombine);
+
+	/**
+	 * Will count elements of this stream per key produced by the given <i>groupClassifier</i>
+	 * returning a new {@link DStream} of Key/Value pairs where value is the count of the key.<br>
+	 * Counts are combined before the shuffle without boxing them per element.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>shuffle</i> operation.
+	 *
+	 * @param <K> The element type of the key
+	 * @param groupClassifier a mapping function to produce keys
+	 * @return new {@link DStream} of Key/Value pairs represented as {@link Entry}&lt;K,Long&gt;
+	 */
+	<K> DStream<Entry<K,Long>> countByKey(SerFunction<? super A, ? extends K> groupClassifier);
+
 }
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import io.dstream.SerializableStreamAssets.SerFunction;
+import io.dstream.support.CollectionFactory;
+import io.dstream.support.SharedReference;
+import io.dstream.utils.Assert;
+
+/**
+ * Implementation of {@link SerFunction} which joins elements of the {@link Stream} it is
+ * applied on with the elements of the (small) <i>broadcast</i> stream whose keys
+ * (produced by the key extractors) are equal, producing {@link Stream} of Tuple2[left, right].<br>
+ * Broadcast stream is represented by its {@link DStreamExecutionGraph} which is executed (materialized)
+ * once before the execution of the stream it is joined with (see {@link AbstractDStreamExecutionDelegate}).
+ * Its elements are then shared with each task via {@link SharedReference} where they are hashed
+ * by key upon first use, so the stream this function is applied on is never shuffled.<br>
+ * Elements with <i>null</i> keys are never joined.
+ */
+class BroadcastJoinFunction implements SerFunction<Stream<?>, Stream<?>> {
+	private static final long serialVersionUID = -1383727541578427862L;
+
+	private final SerFunction<Object, Object> keyExtractor;
+
+	private final SerFunction<Object, Object> broadcastKeyExtractor;
+
+	private final transient DStreamExecutionGraph broadcastExecutionGraph;
+
+	private SharedReference<ArrayList<Object>> broadcastValues;
+
+	private transient Map<Object, List<Object>> hashTable;
+
+	/**
+	 *
+	 */
+	BroadcastJoinFunction(DStreamExecutionGraph broadcastExecutionGraph,
+			SerFunction<Object, Object> keyExtractor, SerFunction<Object, Object> broadcastKeyExtractor){
+		Assert.notNull(broadcastExecutionGraph, "'broadcastExecutionGraph' must not be null");
+		Assert.notNull(keyExtractor, "'keyExtractor' must not be null");
+		Assert.notNull(broadcastKeyExtractor, "'broadcastKeyExtractor' must not be null");
+		this.broadcastExecutionGraph = broadcastExecutionGraph;
+		this.keyExtractor = keyExtractor;
+		this.broadcastKeyExtractor = broadcastKeyExtractor;
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public Stream<?> apply(Stream<?> streamIn) {
+		Assert.notNull(streamIn, "'streamIn' must not be null");
+		Map<Object, List<Object>> hashTable = this.getHashTable();
+		return streamIn.flatMap(lVal -> {
+			Object key = this.keyExtractor.apply(lVal);
+			List<Object> matches = key == null ? null : hashTable.get(key);
+			return matches == null ? Stream.empty() : matches.stream().map(rVal -> tuple2(lVal, rVal));
+		});
+	}
+
+	/**
+	 * Returns {@link DStreamExecutionGraph} of the broadcast stream.
+	 */
+	DStreamExecutionGraph getBroadcastExecutionGraph() {
+		return this.broadcastExecutionGraph;
+	}
+
+	/**
+	 * Sets materialized elements of the broadcast stream.
+	 */
+	void setBroadcastValues(ArrayList<Object> broadcastValues) {
+		this.broadcastValues = SharedReference.of(broadcastValues);
+	}
+
+	/**
+	 * Builds hash table of the broadcast elements (see {@link CollectionFactory}) once per instance 
+	 * of this function (i.e., task), since it may be shared by concurrently processed partitions.
+	 */
+	private synchronized Map<Object, List<Object>> getHashTable(){
+		if (this.hashTable == null){
+			Assert.isTrue(this.broadcastValues != null, "Broadcast stream was not materialized");
+			CollectionFactory collectionFactory = CollectionFactory.getInstance();
+			Map<Object, List<Object>> hashTable = collectionFactory.newMap();
+			for (Object rVal : this.broadcastValues.get()) {
+				Object key = this.broadcastKeyExtractor.apply(rVal);
+				if (key != null){
+					hashTable.computeIfAbsent(key, k -> collectionFactory.newList()).add(rVal);
+				}
+			}
+			this.hashTable = Collections.unmodifiableMap(hashTable);
+		}
+		return this.hashTable;
+	}
+}
@@ -24,6 +24,7 @@ import io.dstream.DStream.DStream3.DStream3WithPredicate;
 import io.dstream.DStream.DStream4.DStream4WithPredicate;
 import io.dstream.DStream.DStream5.DStream5WithPredicate;
 import io.dstream.DStream.DStream6.DStream6WithPredicate;
+import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.SerializableStreamAssets.SerPredicate;
 import io.dstream.utils.Assert;
 
@@ -163,6 +164,26 @@ public interface DStream<A> extends BaseDStream<A, DStream<A>> {
 	 */
 	<_A,_B,_C,_D,_E> DStream6WithPredicate<A,_A,_B,_C,_D,_E> join(DStream5<_A,_B,_C,_D,_E> ds);
 
+	/**
+	 * Will join elements of this {@link DStream} with elements of the given (small) {@link DStream}
+	 * whose keys (produced by the given key extractors) are equal, returning an instance of {@link DStream2}.
+	 * <br>
+	 * Unlike {@link #join(DStream)}, the given stream is materialized once, before this stream is executed, 
+	 * and shared (broadcast) with each task where it is hashed by key, so this stream is never shuffled.
+	 * Use it when the given stream fits in memory (e.g., dimension stream).
+	 * Elements with <i>null</i> keys are never joined.<br>
+	 * <br>
+	 * This is an <i>intermediate</i> operation.
+	 * <br>
+	 * This is a <i>composable-transformation</i> operation.
+	 *
+	 * @param ds (small) stream that is joined with this stream
+	 * @param keyExtractor a mapping function to produce join key from the element of this stream
+	 * @param broadcastKeyExtractor a mapping function to produce join key from the element of the given stream
+	 * @return new {@link DStream2} representing the result of the join.
+	 */
+	<_A> DStream2<A,_A> broadcastJoin(DStream<_A> ds, SerFunction<? super A, ?> keyExtractor, SerFunction<? super _A, ?> broadcastKeyExtractor);
+
 
 	/**
 	 * Strategy which defines the type of {@link DStream} that contains two types of elements.
@@ -180,6 +201,18 @@ public interface DStream<A> extends BaseDStream<A, DStream<A>> {
 		 */
 		public interface DStream2WithPredicate<A,B> extends DStream2<A,B>{
 			DStream2<A,B> on(SerPredicate<? super io.dstream.utils.Tuples.Tuple2<A,B>> predicate);
+
+			/**
+			 * Will join elements of both streams whose keys (produced by the given key extractors)
+			 * are equal, using hash join where the smaller of the two sides is hashed.
+			 * Elements with <i>null</i> keys are never joined.<br>
+			 * Additional (non-equi) predicate could still be provided via {@link #on(SerPredicate)}.
+			 *
+			 * @param leftKeyExtractor a mapping function to produce join key from the element of the left stream
+			 * @param rightKeyExtractor a mapping function to produce join key from the element of the right stream
+			 * @return new {@link DStream2WithPredicate}
+			 */
+			DStream2WithPredicate<A,B> onKeys(SerFunction<? super A, ?> leftKeyExtractor, SerFunction<? super B, ?> rightKeyExtractor);
 		}
 
 		/**
@@ -20,6 +20,10 @@ package io.dstream;
 import java.net.URI;
 
 import io.dstream.support.Classifier;
+import io.dstream.support.CollectionFactory;
+import io.dstream.support.DefaultSerializer;
+import io.dstream.support.OffHeapCollectionFactory;
+import io.dstream.support.Serializer;
 
 /**
  * Constant values used by the framework
@@ -86,7 +90,257 @@ public interface DStreamConstants {
 	 * <pre>
 	 * dstream.ms_combine.0_wc=true
 	 * </pre>
-	 * In the above '0_wc' identifies combination of 'stage id' + "_" + 'pipeline name'
+	 * In the above '0_wc' identifies combination of 'stage id' + "_" + 'pipeline name'<br>
+	 * Map-side-combine is enabled automatically for <i>reduceValues</i>, <i>count</i> and <i>reduce</i>
+	 * operations and for other operations is determined by {@link #MAP_SIDE_COMBINE_DEFAULT}. Both could
+	 * be overridden by this property or by the individual operation (e.g., <i>reduceValues(keyMapper, valueMapper, reducer, false)</i>).<br>
+	 * Since values of the same key are then combined in arbitrary groups and order (before and after the shuffle),
+	 * combining functions (e.g., reducer of <i>reduceValues</i>) must be associative and commutative.
 	 */
 	public static String MAP_SIDE_COMBINE = DSTR_PREFIX + "ms_combine.";
+
+	/**
+	 * Provides a hint if map-side-combine should be attempted for operations which
+	 * do not enable it automatically (e.g., <i>aggregateValues</i>). Default is <i>false</i>.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.ms_combine.default=true
+	 * </pre>
+	 */
+	public static String MAP_SIDE_COMBINE_DEFAULT = MAP_SIDE_COMBINE + "default";
+
+	/**
+	 * Identifies the maximum amount of keys held by the map-side-combine buffer. When
+	 * exceeded, the oldest key is emitted with its partially combined value. Default is 100000.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.ms_combine.buffer_size=10000
+	 * </pre>
+	 */
+	public static String MAP_SIDE_COMBINE_BUFFER_SIZE = MAP_SIDE_COMBINE + "buffer_size";
+
+	/**
+	 * Identifies the ratio of combined records to records (measured after every
+	 * {@link #MAP_SIDE_COMBINE_BUFFER_SIZE} records) above which map-side-combine
+	 * is abandoned and the remaining Key/Value pairs are passed through as is. Default is 0.5.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.ms_combine.max_ratio=0.8
+	 * </pre>
+	 */
+	public static String MAP_SIDE_COMBINE_MAX_RATIO = MAP_SIDE_COMBINE + "max_ratio";
+
+	/**
+	 * Enables sort-merge join for the <i>join</i> operations of the individual pipeline.
+	 * Applicable only when all joined streams are classified (e.g., <i>one.classify(..).join(two.classify(..))</i>),
+	 * since their Key/Values pairs are then merged by the sorted classification keys, so only the values of the
+	 * current key of each joining stream are buffered. Default is <i>false</i>.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.join.sort_merge.foo=true
+	 * </pre>
+	 * In the above 'foo' would be the name of the pipeline
+	 */
+	public static String JOIN_SORT_MERGE = DSTR_PREFIX + "join.sort_merge.";
+
+	/**
+	 * Identifies the amount of values of the joining stream the <i>join</i> buffers in memory
+	 * before spilling the rest of them to disk. Applicable to joins which buffer the entire joining
+	 * stream (i.e., cross product) or its key group (i.e., sort-merge join), since such buffer is
+	 * scanned for every value of the joined stream. It also bounds the build side of the hash join
+	 * (i.e., <i>onKeys</i>) held in memory, since build side exceeding it is joined as grace hash join
+	 * (both sides are partitioned to spill files by the hash of the key and joined one partition at a time).
+	 * If not provided join buffer is never spilled.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.join.spill.threshold=1000000
+	 * </pre>
+	 */
+	public static String JOIN_SPILL_THRESHOLD = DSTR_PREFIX + "join.spill.threshold";
+
+	/**
+	 * Identifies the directory where <i>join</i> creates spill files of its buffer
+	 * (see {@link #JOIN_SPILL_THRESHOLD}). Defaults to <i>java.io.tmpdir</i>.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.join.spill.dir=/tmp/dstream
+	 * </pre>
+	 */
+	public static String JOIN_SPILL_DIR = DSTR_PREFIX + "join.spill.dir";
+
+	/**
+	 * Enables skew handling for the <i>join</i> operations of the individual pipeline.<br>
+	 * For <i>join</i> of classified streams (e.g., <i>one.classify(..).join(two.classify(..))</i>) the classification
+	 * keys of both streams are sampled prior to execution (see {@link #SKEW_SAMPLE_FRACTION}) and each <i>hot</i> key
+	 * (see {@link #SKEW_HOT_KEY_RATIO}) is salted across {@link #SKEW_SALT} partitions on the side where it is more
+	 * frequent while its values on the other side are replicated to each of these partitions. Not applicable to
+	 * sort-merge join (see {@link #JOIN_SORT_MERGE}).<br>
+	 * <i>aggregateValues</i> is not skew-handled, since its values are collected into a single list per key,
+	 * so all values of a hot key are still shuffled to a single partition. Default is <i>false</i>.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.skew.foo=true
+	 * </pre>
+	 * In the above 'foo' would be the name of the pipeline
+	 */
+	public static String SKEW = DSTR_PREFIX + "skew.";
+
+	/**
+	 * Identifies the fraction of values of each joined stream sampled to determine hot keys
+	 * (see {@link #SKEW}). Default is 0.1.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.skew.sample_fraction=0.01
+	 * </pre>
+	 */
+	public static String SKEW_SAMPLE_FRACTION = SKEW + "sample_fraction";
+
+	/**
+	 * Identifies the share of sampled values of either joined stream above which the key is considered
+	 * <i>hot</i> (see {@link #SKEW}). Default is 0.1.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.skew.hot_key_ratio=0.05
+	 * </pre>
+	 */
+	public static String SKEW_HOT_KEY_RATIO = SKEW + "hot_key_ratio";
+
+	/**
+	 * Identifies the amount of salts each hot key is spread across (see {@link #SKEW}). Salts classified 
+	 * to the same partition share it, so hot key never spans more then {@link #PARALLELISM} partitions.
+	 * Defaults to {@link #PARALLELISM} (or 1 if not provided).<br>
+	 * For example:
+	 * <pre>
+	 * dstream.skew.salt=8
+	 * </pre>
+	 */
+	public static String SKEW_SALT = SKEW + "salt";
+
+	/**
+	 * Identifies the implementation of the {@link CollectionFactory} used by the framework components
+	 * which allocate potentially large collections (e.g., join and shuffle buffers). Since such collections
+	 * are allocated within each task, this is a JVM system property. Defaults to the first provider
+	 * specified in <i>META-INF/services/io.dstream.support.CollectionFactory</i>.<br>
+	 * For example:
+	 * <pre>
+	 * -Ddstream.collection_factory=io.dstream.support.OffHeapCollectionFactory
+	 * </pre>
+	 */
+	public static String COLLECTION_FACTORY = DSTR_PREFIX + "collection_factory";
+
+	/**
+	 * Identifies the amount of bytes all lists of the {@link OffHeapCollectionFactory} hold in direct
+	 * memory before allocating new pages in memory-mapped temporary files. This is a JVM system property.
+	 * Default is 268435456 (256MB).<br>
+	 * For example:
+	 * <pre>
+	 * -Ddstream.off_heap.mapped_threshold=1073741824
+	 * </pre>
+	 */
+	public static String OFF_HEAP_MAPPED_THRESHOLD = DSTR_PREFIX + "off_heap.mapped_threshold";
+
+	/**
+	 * Identifies the directory where lists of the {@link OffHeapCollectionFactory} create their memory-mapped
+	 * temporary files (see {@link #OFF_HEAP_MAPPED_THRESHOLD}). This is a JVM system property.
+	 * Defaults to <i>java.io.tmpdir</i>.<br>
+	 * For example:
+	 * <pre>
+	 * -Ddstream.off_heap.dir=/tmp/dstream
+	 * </pre>
+	 */
+	public static String OFF_HEAP_DIR = DSTR_PREFIX + "off_heap.dir";
+
+	/**
+	 * Identifies the implementation of the {@link Serializer} used to write values to binary form
+	 * (e.g., shuffle and spill files). Since values are written within each task, this is a JVM system property.
+	 * Defaults to the first provider specified in <i>META-INF/services/io.dstream.support.Serializer</i>
+	 * (see {@link DefaultSerializer}).<br>
+	 * For example:
+	 * <pre>
+	 * -Ddstream.serializer=com.foo.KryoSerializer
+	 * </pre>
+	 */
+	public static String SERIALIZER = DSTR_PREFIX + "serializer";
+
+	/**
+	 * Identifies the amount of worker threads used by the local (in-JVM) execution
+	 * engine to process partitions of each stage concurrently. If not provided
+	 * partitions are processed sequentially by the calling thread.<br>
+	 * Since the first stage of the pipeline reads its source as a single partition, only
+	 * stages following the shuffle (e.g., classify, reduceValues, join) are processed in parallel.
+	 * Not supported together with {@link #LOCAL_PIPELINED}.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.local.threads=8
+	 * </pre>
+	 */
+	public static String LOCAL_THREADS = DSTR_PREFIX + "local.threads";
+
+	/**
+	 * Enables pipelined (non-materializing) execution in the local (in-JVM) execution
+	 * engine. When enabled, stage results are not collected in memory. Instead each
+	 * partition is pulled lazily into the next shuffle (or by the consumer of the final
+	 * results), so data is only accumulated at shuffle boundaries, which are spilled to disk
+	 * after 1000000 values unless {@link #LOCAL_SPILL_THRESHOLD} is provided. Partitions are pulled by
+	 * the consuming thread, therefore execution fails if {@link #LOCAL_THREADS} is greater than 1.
+	 * Default is <i>false</i>.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.local.pipelined=true
+	 * </pre>
+	 */
+	public static String LOCAL_PIPELINED = DSTR_PREFIX + "local.pipelined";
+
+	/**
+	 * Identifies the shuffle mode used by the local (in-JVM) execution engine for the
+	 * individual pipeline. Supported modes are:<br>
+	 * <i>hash</i> - values are grouped by key without ordering the keys, which avoids sorting
+	 * and supports keys which are not {@link Comparable}.<br>
+	 * <i>sort</i> - keys of each shuffled partition are sorted, which requires them to
+	 * be {@link Comparable}. Set it when the consumer of the results relies on the key order.<br>
+	 * If not provided, the mode is determined by the operation consuming the shuffled values: <i>hash</i> for
+	 * operations which only group values by key (i.e., reduceValues, aggregateValues, countByKey, classify,
+	 * hash join and union), otherwise <i>sort</i>. Pipelines using sort-merge join
+	 * (see {@link #JOIN_SORT_MERGE}) are always sorted.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.local.shuffle.foo=sort
+	 * </pre>
+	 * In the above 'foo' would be the name of the pipeline
+	 */
+	public static String LOCAL_SHUFFLE = DSTR_PREFIX + "local.shuffle.";
+
+	/**
+	 * Identifies the amount of values the shuffle of the local (in-JVM) execution engine
+	 * buffers in memory before spilling them to disk. Value &lt;= 0 disables spilling. If not provided 
+	 * shuffle is never spilled, unless {@link #LOCAL_PIPELINED} is enabled, in which case it defaults to 1000000.<br>
+	 * This is a count of values (of keys, if values are combined during the shuffle) and not of bytes,
+	 * since the size of values is not known without serializing them, so it should be derived from
+	 * the expected size of the individual values and the available memory.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.local.spill.threshold=1000000
+	 * </pre>
+	 */
+	public static String LOCAL_SPILL_THRESHOLD = DSTR_PREFIX + "local.spill.threshold";
+
+	/**
+	 * Identifies the directory where the local (in-JVM) execution engine creates shuffle
+	 * spill files. Defaults to <i>java.io.tmpdir</i>.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.local.spill.dir=/tmp/dstream
+	 * </pre>
+	 */
+	public static String LOCAL_SPILL_DIR = DSTR_PREFIX + "local.spill.dir";
+
+	/**
+	 * Identifies the size (in bytes) of the I/O buffer used by the local (in-JVM) execution
+	 * engine to write and read shuffle spill files. Defaults to 65536.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.local.spill.buffer_size=131072
+	 * </pre>
+	 */
+	public static String LOCAL_SPILL_BUFFER_SIZE = DSTR_PREFIX + "local.spill.buffer_size";
 }
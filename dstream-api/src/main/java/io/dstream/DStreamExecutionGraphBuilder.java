@@ -26,21 +26,32 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import io.dstream.DStreamInvocationChain.DStreamInvocation;
+import io.dstream.SerializableStreamAssets.SerBiFunction;
 import io.dstream.SerializableStreamAssets.SerBinaryOperator;
 import io.dstream.SerializableStreamAssets.SerComparator;
 import io.dstream.SerializableStreamAssets.SerConsumer;
 import io.dstream.SerializableStreamAssets.SerFunction;
+import io.dstream.SerializableStreamAssets.SerPredicate;
+import io.dstream.SerializableStreamAssets.SerToDoubleFunction;
+import io.dstream.SerializableStreamAssets.SerToLongFunction;
 import io.dstream.function.BiFunctionToBinaryOperatorAdapter;
 import io.dstream.function.DStreamToStreamAdapterFunction;
+import io.dstream.function.KeyCountingFunction;
 import io.dstream.function.KeyValueMappingFunction;
+import io.dstream.function.PrimitiveAggregatingFunction;
+import io.dstream.function.PrimitiveAggregatingFunction.Aggregation;
 import io.dstream.function.ValuesAggregatingFunction;
 import io.dstream.function.ValuesReducingFunction;
 import io.dstream.support.Aggregators;
+import io.dstream.support.Classifier;
+import io.dstream.support.HashClassifier;
 import io.dstream.utils.Assert;
+import io.dstream.utils.ReflectionUtils;
 
 /**
  * Builder of DStreamOperations
@@ -125,6 +136,9 @@ final class DStreamExecutionGraphBuilder {
 		if (Ops.isTransformation(operation)){
 			this.addTransformationOperation(invocation);
 		}
+		else if (operation.equals(Ops.broadcastJoin)){
+			this.addBroadcastJoinOperation(invocation);
+		}
 		else if (Ops.isShuffle(operation)){
 			if (operation.equals(Ops.join) || operation.equals(Ops.union) ||operation.equals(Ops.unionAll)){
 				this.addStreamsCombineOperation(invocation);
@@ -135,6 +149,9 @@ final class DStreamExecutionGraphBuilder {
 				if (operation.equals(Ops.reduceValues) || operation.equals(Ops.aggregateValues)){
 					this.addAggregationOperation(invocation);
 				}
+				else if (operation.equals(Ops.countByKey)){
+					this.addKeyCountingOperation(invocation);
+				}
 				else if (operation.equals(Ops.classify)){
 					this.addClassifyOperation(invocation);
 				}
@@ -174,7 +191,7 @@ final class DStreamExecutionGraphBuilder {
 	/**
 	 * 
 	 */
-	@SuppressWarnings("rawtypes")
+	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private void addStreamsCombineOperation(DStreamInvocation invocation){
 		if (this.executionConfig.containsKey(DStreamConstants.PARALLELISM)){
 			int parallelism = Integer.parseInt(this.executionConfig.getProperty(DStreamConstants.PARALLELISM));
@@ -190,6 +207,7 @@ final class DStreamExecutionGraphBuilder {
 		
 		AbstractStreamMergingFunction streamsCombiner;
 		if (this.currentStreamOperation == null){
+			Assert.isFalse(this.isSortMergeJoin(operation), "Sort-merge join requires joined stream to be classified");
 			this.createDefaultExtractOperation();
 			// this condition possible when doing join without classification, so no need to 
 			streamsCombiner = this.createStreamCombiner(operation.name(), s -> s);
@@ -201,6 +219,15 @@ final class DStreamExecutionGraphBuilder {
 		else if (this.currentStreamOperation.isStreamsCombiner()) {
 			streamsCombiner = (AbstractStreamMergingFunction)(SerFunction)this.currentStreamOperation.getStreamOperationFunction();
 		}
+		else if (this.isSortMergeJoin(operation)) {
+			Assert.isTrue(this.currentStreamOperation.isClassify(), "Sort-merge join requires joined stream to be classified");
+			// classified Key/Values pairs are passed as is, so they could be merged by key
+			streamsCombiner = this.configureJoinBufferSpilling(new StreamJoinerFunction(s -> s, true));
+			DStreamOperation newStreamOperation = new DStreamOperation(this.operationIdCounter++, this.currentStreamOperation);
+
+			this.currentStreamOperation = newStreamOperation;
+			this.currentStreamOperation.setStreamsCombiner(operation.name(), streamsCombiner);
+		}
 		else {
 			streamsCombiner = this.createStreamCombiner(operation.name(), this.determineUnmapFunction(this.currentStreamOperation.getLastOperationName()));
 			DStreamOperation newStreamOperation = new DStreamOperation(this.operationIdCounter++, this.currentStreamOperation);
@@ -213,14 +240,113 @@ final class DStreamExecutionGraphBuilder {
 		DStreamExecutionGraphBuilder dependentBuilder = new DStreamExecutionGraphBuilder(dependentPipeline, this.executionConfig);
 		DStreamExecutionGraph dependentOperations = dependentBuilder.doBuild(true);
 		int joiningStreamsSize = dependentPipeline.getStreamType().getTypeParameters().length;
+		if (this.isSortMergeJoin(operation)){
+			Assert.isTrue(dependentOperations.getOperations().get(dependentOperations.getOperations().size()-1).isClassify(), 
+					"Sort-merge join requires joining stream to be classified");
+		}
+		
+		if (operation.equals(Ops.join) && this.isSkewHandlingEnabled() && !this.isSortMergeJoin(operation)){
+			this.addSkewHandling(invocation, dependentPipeline, dependentOperations);
+		}
 		
 		this.currentStreamOperation.addCombinableExecutionGraph(dependentOperations); 
 		streamsCombiner.addCheckPoint(joiningStreamsSize);
+		if (invocation.getJoinKeyExtractors() != null){
+			((StreamJoinerFunction)streamsCombiner).addJoinKeyExtractors(
+					(SerFunction) invocation.getJoinKeyExtractors()._1(), (SerFunction) invocation.getJoinKeyExtractors()._2());
+		}
 		if (invocation.getSupplementaryOperation() != null){
 			streamsCombiner.addTransformationOrPredicate(Ops.filter.name(), invocation.getSupplementaryOperation());
 		}
 	}
 	
+	/**
+	 * Adds {@link SkewSaltingFunction}s to the classify operations of both joined streams and registers
+	 * {@link SkewedJoinSampler} (see {@link DStreamConstants#SKEW}) with the join operation.
+	 * Sampling graphs are built from the invocations preceding the classify operation of each stream
+	 * followed by <i>compute</i> which counts the classification keys of the sampled values.<br>
+	 * Streams joined to the already skew-handled join (e.g., 3-way join) replicate the hot keys
+	 * determined by its sampler, so each combination of joined values still meets in a single partition.
+	 * Streams which are not classified are joined as is.
+	 */
+	private void addSkewHandling(DStreamInvocation invocation, DStreamInvocationChain dependentPipeline, DStreamExecutionGraph dependentOperations){
+		List<DStreamOperation> dependentOperationsList = dependentOperations.getOperations();
+		DStreamOperation dependentClassifyOperation = dependentOperationsList.get(dependentOperationsList.size()-1);
+		DStreamOperation classifyOperation = this.currentStreamOperation.getParent();
+		List<SkewedJoinSampler> skewedJoinSamplers = this.currentStreamOperation.getSkewedJoinSamplers();
+		boolean joinedBefore = !this.currentStreamOperation.getCombinableExecutionGraphs().isEmpty();
+		if (!dependentClassifyOperation.isClassify() || classifyOperation == null || !classifyOperation.isClassify() 
+				|| (joinedBefore && skewedJoinSamplers.isEmpty())){
+			return;
+		}
+		
+		int saltFactor = Integer.parseInt(this.executionConfig.getProperty(DStreamConstants.SKEW_SALT, 
+				this.executionConfig.getProperty(DStreamConstants.PARALLELISM, "1")));
+		Classifier classifier = this.determineClassifier();
+		SkewSaltingFunction dependentSaltingFunction = new SkewSaltingFunction(saltFactor, classifier);
+		dependentClassifyOperation.appendStreamOperationFunction(dependentSaltingFunction);
+		
+		if (!joinedBefore){
+			SkewSaltingFunction saltingFunction = new SkewSaltingFunction(saltFactor, classifier);
+			classifyOperation.appendStreamOperationFunction(saltingFunction);
+			
+			List<DStreamInvocation> invocations = this.invocationPipeline.getInvocations();
+			DStreamExecutionGraph samplingGraph = this.buildSamplingGraph(this.invocationPipeline, 
+					invocations.subList(0, invocations.indexOf(invocation)));
+			DStreamExecutionGraph dependentSamplingGraph = this.buildSamplingGraph(dependentPipeline, dependentPipeline.getInvocations());
+			
+			double hotKeyRatio = Double.parseDouble(this.executionConfig.getProperty(DStreamConstants.SKEW_HOT_KEY_RATIO, "0.1"));
+			this.currentStreamOperation.addSkewedJoinSampler(new SkewedJoinSampler(samplingGraph, dependentSamplingGraph, 
+					saltingFunction, dependentSaltingFunction, hotKeyRatio));
+		}
+		else {
+			skewedJoinSamplers.get(0).addReplicatingFunction(dependentSaltingFunction);
+		}
+	}
+	
+	/**
+	 * Creates {@link Classifier} the same way execution engines do for the shuffle
+	 * (see {@link DStreamConstants#PARALLELISM} and {@link DStreamConstants#CLASSIFIER}).
+	 */
+	private Classifier determineClassifier(){
+		String parallelizmProp = this.executionConfig.getProperty(DStreamConstants.PARALLELISM);
+		String classifierProp = this.executionConfig.getProperty(DStreamConstants.CLASSIFIER);
+
+		int parallelism = parallelizmProp == null ? 1 : Integer.parseInt(parallelizmProp);
+
+		return classifierProp != null
+				? ReflectionUtils.newInstance(classifierProp, new Class<?>[]{int.class}, new Object[]{parallelism})
+						: new HashClassifier(parallelism);
+	}
+	
+	/**
+	 * Builds {@link DStreamExecutionGraph} which counts classification keys of the values sampled
+	 * (see {@link DStreamConstants#SKEW_SAMPLE_FRACTION}) from the stream represented by the given 
+	 * invocations (the last of which must be <i>classify</i>) by replacing <i>classify</i> with
+	 * <i>filter</i> followed by <i>countByKey</i>, producing Key/Value pairs of key and its count.
+	 */
+	private DStreamExecutionGraph buildSamplingGraph(DStreamInvocationChain pipeline, List<DStreamInvocation> invocations){
+		DStreamInvocation classifyInvocation = invocations.get(invocations.size()-1);
+		Assert.isTrue(classifyInvocation.getMethod().getName().equals(Ops.classify.name()), "Sampled stream must be classified");
+		
+		double sampleFraction = Double.parseDouble(this.executionConfig.getProperty(DStreamConstants.SKEW_SAMPLE_FRACTION, "0.1"));
+		Assert.isTrue(sampleFraction > 0 && sampleFraction <= 1, "'" + DStreamConstants.SKEW_SAMPLE_FRACTION + "' must be > 0 and <= 1");
+		SerPredicate<Object> sampler = value -> sampleFraction == 1 || ThreadLocalRandom.current().nextDouble() < sampleFraction;
+		
+		DStreamInvocationChain samplingPipeline = new DStreamInvocationChain(pipeline.getSourceElementType(), 
+				pipeline.getSourceIdentifier(), pipeline.getStreamType());
+		samplingPipeline.addAllInvocations(invocations.subList(0, invocations.size()-1));
+		try {
+			samplingPipeline.addInvocation(new DStreamInvocation(BaseDStream.class.getMethod(Ops.filter.name(), SerPredicate.class), sampler));
+			samplingPipeline.addInvocation(new DStreamInvocation(BaseDStream.class.getMethod(Ops.countByKey.name(), SerFunction.class), 
+					classifyInvocation.getArguments()[0]));
+		}
+		catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Failed to create sampling operations", e);
+		}
+		return new DStreamExecutionGraphBuilder(samplingPipeline, this.executionConfig).build();
+	}
+	
 	/**
 	 * 
 	 */
@@ -251,6 +377,38 @@ final class DStreamExecutionGraphBuilder {
 		}
 	}
 	
+	/**
+	 * Unlike <i>join</i>, <i>broadcastJoin</i> is not a shuffle operation, therefore it is
+	 * composed with the current operation as any other transformation while the execution graph
+	 * of the broadcast stream is kept with its {@link BroadcastJoinFunction} to be materialized
+	 * prior to execution.
+	 */
+	@SuppressWarnings("unchecked")
+	private void addBroadcastJoinOperation(DStreamInvocation invocation){
+		Object[] arguments = invocation.getArguments();
+		
+		DStreamInvocationChain broadcastPipeline = (DStreamInvocationChain) arguments[0];
+		DStreamExecutionGraph broadcastOperations = new DStreamExecutionGraphBuilder(broadcastPipeline, this.executionConfig).build();
+		BroadcastJoinFunction broadcastJoiner = new BroadcastJoinFunction(broadcastOperations, 
+				(SerFunction<Object, Object>) arguments[1], (SerFunction<Object, Object>) arguments[2]);
+		
+		if (this.combiningStreams){
+			SerFunction<?,?> currentFunction = this.currentStreamOperation.getStreamOperationFunction();
+			AbstractStreamMergingFunction joiner = (AbstractStreamMergingFunction) currentFunction;
+			joiner.addTransformationOrPredicate(broadcastJoiner);
+		}
+		else {
+			if (this.currentStreamOperation == null){
+				this.currentStreamOperation = new DStreamOperation(this.operationIdCounter++);
+			} 
+			else if (this.currentStreamOperation.getLastOperationName().equals(Ops.classify.name())){
+				this.addPostShuffleNormalizer();
+			}
+			this.currentStreamOperation.addStreamOperationFunction(Ops.broadcastJoin.name(), broadcastJoiner);
+		}
+		this.currentStreamOperation.addBroadcastJoiner(broadcastJoiner);
+	}
+	
 	/**
 	 * 
 	 */
@@ -261,16 +419,31 @@ final class DStreamExecutionGraphBuilder {
 		
 		SerFunction<?,?> keyMapper = (SerFunction<?,?>) arguments[0];
 		SerFunction<?,?> valueMapper = (SerFunction<?,?>) arguments[1];
-		SerBinaryOperator<?> valueAggregator = operation.equals(Ops.reduceValues) 
-				? (SerBinaryOperator<?>)arguments[2]
-						: new BiFunctionToBinaryOperatorAdapter(Aggregators::aggregateToList);
 				
 		int operationId = this.currentStreamOperation == null ? 1 : this.currentStreamOperation.getId();
-		String propertyName = DStreamConstants.MAP_SIDE_COMBINE + operationId + "_" + this.invocationPipeline.getSourceIdentifier();
-		boolean mapSideCombine = Boolean.parseBoolean((String)this.executionConfig.getOrDefault(propertyName, "false"));
+		int mapSideCombineArgumentIndex = operation.equals(Ops.reduceValues) ? 3 : 2;
+		Boolean mapSideCombineOverride = arguments.length > mapSideCombineArgumentIndex ? (Boolean) arguments[mapSideCombineArgumentIndex] : null;
+		boolean mapSideCombine = this.determineMapSideCombine(operation, operationId, mapSideCombineOverride);
+		
+		SerBinaryOperator<?> valueAggregator;
+		if (operation.equals(Ops.reduceValues)){
+			valueAggregator = (SerBinaryOperator<?>)arguments[2];
+		}
+		else if (mapSideCombine){
+			/*
+			 * Combining buffer may emit more then one partially aggregated list for the same key
+			 * (see KeyValueMappingFunction), so each value is wrapped into a list and lists are merged
+			 * on both sides, otherwise lists produced by the map side would be nested on the reduce side.
+			 */
+			SerBiFunction<List<Object>, List<Object>, List<Object>> listMerger = Aggregators::mergeLists;
+			valueMapper = valueMapper.andThen(Aggregators::toSingletonList);
+			valueAggregator = new BiFunctionToBinaryOperatorAdapter(listMerger);
+		}
+		else {
+			valueAggregator = new BiFunctionToBinaryOperatorAdapter(Aggregators::aggregateToList);
+		}
 
-		@SuppressWarnings({ "unchecked", "rawtypes" })
-		SerFunction<?,?> kvMapper = new KeyValueMappingFunction(keyMapper, valueMapper, mapSideCombine ? valueAggregator : null);
+		SerFunction<?,?> kvMapper = this.createKeyValueMappingFunction(keyMapper, valueMapper, mapSideCombine ? valueAggregator : null);
 		
 		this.adjustCurrentStreamState();
 		
@@ -284,6 +457,63 @@ final class DStreamExecutionGraphBuilder {
 		this.currentStreamOperation = newStreamOperation;
 	}
 	
+	/**
+	 * 
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void addKeyCountingOperation(DStreamInvocation invocation) {
+		SerFunction<?,?> keyMapper = (SerFunction<?,?>) invocation.getArguments()[0];
+		SerFunction<?,?> keyCounter = new KeyCountingFunction(keyMapper, this.getCombineBufferSize());
+		
+		this.adjustCurrentStreamState();
+		
+		this.currentStreamOperation.addStreamOperationFunction(Ops.mapKeyValues.name(), keyCounter);
+
+		DStreamOperation newStreamOperation = new DStreamOperation(this.operationIdCounter++, this.currentStreamOperation);
+		newStreamOperation.addStreamOperationFunction(Ops.reduceValues.name(), 
+				new ValuesReducingFunction<>((SerBinaryOperator<Long>) (a, b) -> a + b));
+		this.currentStreamOperation = newStreamOperation;
+	}
+	
+	/**
+	 * Creates {@link KeyValueMappingFunction} with combining buffer configured via
+	 * {@link DStreamConstants#MAP_SIDE_COMBINE_BUFFER_SIZE} and {@link DStreamConstants#MAP_SIDE_COMBINE_MAX_RATIO}.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private SerFunction<?,?> createKeyValueMappingFunction(SerFunction<?,?> keyMapper, SerFunction<?,?> valueMapper, SerBinaryOperator<?> valueAggregator){
+		double maxCombineRatio = Double.parseDouble(this.executionConfig.getProperty(DStreamConstants.MAP_SIDE_COMBINE_MAX_RATIO,
+				String.valueOf(KeyValueMappingFunction.DEFAULT_MAX_COMBINE_RATIO)));
+		return new KeyValueMappingFunction(keyMapper, valueMapper, valueAggregator, this.getCombineBufferSize(), maxCombineRatio);
+	}
+	
+	/**
+	 * Returns the size of the map-side-combine buffer (see {@link DStreamConstants#MAP_SIDE_COMBINE_BUFFER_SIZE}).
+	 */
+	private int getCombineBufferSize(){
+		return Integer.parseInt(this.executionConfig.getProperty(DStreamConstants.MAP_SIDE_COMBINE_BUFFER_SIZE,
+				String.valueOf(KeyValueMappingFunction.DEFAULT_COMBINE_BUFFER_SIZE)));
+	}
+
+	/**
+	 * Determines if map-side-combine should be performed for a given aggregation operation in the
+	 * following order of precedence:<br>
+	 * - the value provided by the operation itself (e.g., <i>reduceValues(keyMapper, valueMapper, reducer, false)</i>)<br>
+	 * - the value of stage specific {@link DStreamConstants#MAP_SIDE_COMBINE} property<br>
+	 * - <i>true</i> for <i>reduceValues</i> since its reducer is associative<br>
+	 * - the value of {@link DStreamConstants#MAP_SIDE_COMBINE_DEFAULT} property (defaults to <i>false</i>)
+	 */
+	private boolean determineMapSideCombine(Ops operation, int operationId, Boolean mapSideCombineOverride){
+		if (mapSideCombineOverride != null){
+			return mapSideCombineOverride;
+		}
+		String propertyName = DStreamConstants.MAP_SIDE_COMBINE + operationId + "_" + this.invocationPipeline.getSourceIdentifier();
+		if (this.executionConfig.containsKey(propertyName)){
+			return Boolean.parseBoolean(this.executionConfig.getProperty(propertyName));
+		}
+		return operation.equals(Ops.reduceValues)
+				|| Boolean.parseBoolean(this.executionConfig.getProperty(DStreamConstants.MAP_SIDE_COMBINE_DEFAULT, "false"));
+	}
+
 	/**
 	 * 
 	 * @param invocation
@@ -311,25 +541,23 @@ final class DStreamExecutionGraphBuilder {
 	/**
 	 * 
 	 */
+	@SuppressWarnings("unchecked")
 	private void addStreamReduceOperation(DStreamInvocation invocation){	
 		Ops operation = Ops.valueOf(invocation.getMethod().getName());
-		SerFunction<?, Integer> keyMapper = s -> 0;
-		SerFunction<?,?> valueMapper;
+		SerFunction<?,?> kvMapper;
 		SerBinaryOperator<?> valueAggregator;
+		SerFunction<Object,Object> finisher = null;
 		
-		if (operation.equals(Ops.count)){
-			valueMapper = s -> 1L;
-			valueAggregator = (a, b) -> ((long)a) + ((long)b);
-		} 
-		else if (operation.equals(Ops.reduce)) {
-			valueMapper = s -> s;
+		if (operation.equals(Ops.reduce)) {
 			valueAggregator = (SerBinaryOperator<?>) invocation.getArguments()[0];
+			kvMapper = this.createKeyValueMappingFunction(s -> 0, s -> s, valueAggregator);
 		}
 		else {
-			throw new IllegalStateException("Unrecognized or unsupported operation: " + invocation.getMethod().getName());
+			PrimitiveAggregatingFunction<?> aggregatingFunction = this.createPrimitiveAggregatingFunction(operation, invocation.getArguments());
+			kvMapper = aggregatingFunction;
+			valueAggregator = aggregatingFunction.getCombiner();
+			finisher = aggregatingFunction.getFinisher();
 		}
-		@SuppressWarnings({ "unchecked", "rawtypes" })
-		SerFunction<?,?> kvMapper = new KeyValueMappingFunction(keyMapper, valueMapper, valueAggregator);
 		
 		this.adjustCurrentStreamState();
 		
@@ -343,20 +571,83 @@ final class DStreamExecutionGraphBuilder {
 		this.currentStreamOperation = valueReducingOperation;
 		
 		DStreamOperation mappingOperation = new DStreamOperation(this.operationIdCounter++, this.currentStreamOperation);
-		mappingOperation.addStreamOperationFunction(Ops.map.name(), this.shuffleResultNormalizer);
+		if (finisher == null){
+			mappingOperation.addStreamOperationFunction(Ops.map.name(), this.shuffleResultNormalizer);
+		}
+		else {
+			SerFunction<Object,Object> valueFinisher = finisher;
+			mappingOperation.addStreamOperationFunction(Ops.map.name(), 
+					this.shuffleResultNormalizer.andThen(stream -> stream.map(valueFinisher)));
+		}
 		this.currentStreamOperation = mappingOperation;
 	}
 	
+	/**
+	 * Creates {@link PrimitiveAggregatingFunction} for <i>count</i> and primitive 
+	 * reduce operations (see {@link Ops#isPrimitiveReduce(Ops)}).
+	 */
+	@SuppressWarnings("unchecked")
+	private PrimitiveAggregatingFunction<?> createPrimitiveAggregatingFunction(Ops operation, Object[] arguments){
+		switch (operation) {
+		case count:
+			return PrimitiveAggregatingFunction.counting();
+		case sumLong:
+			return PrimitiveAggregatingFunction.ofLongs(Aggregation.SUM, (SerToLongFunction<Object>) arguments[0]);
+		case minLong:
+			return PrimitiveAggregatingFunction.ofLongs(Aggregation.MIN, (SerToLongFunction<Object>) arguments[0]);
+		case maxLong:
+			return PrimitiveAggregatingFunction.ofLongs(Aggregation.MAX, (SerToLongFunction<Object>) arguments[0]);
+		case averageLong:
+			return PrimitiveAggregatingFunction.ofLongs(Aggregation.AVERAGE, (SerToLongFunction<Object>) arguments[0]);
+		case sumDouble:
+			return PrimitiveAggregatingFunction.ofDoubles(Aggregation.SUM, (SerToDoubleFunction<Object>) arguments[0]);
+		case minDouble:
+			return PrimitiveAggregatingFunction.ofDoubles(Aggregation.MIN, (SerToDoubleFunction<Object>) arguments[0]);
+		case maxDouble:
+			return PrimitiveAggregatingFunction.ofDoubles(Aggregation.MAX, (SerToDoubleFunction<Object>) arguments[0]);
+		case averageDouble:
+			return PrimitiveAggregatingFunction.ofDoubles(Aggregation.AVERAGE, (SerToDoubleFunction<Object>) arguments[0]);
+		default:
+			throw new IllegalStateException("Unrecognized or unsupported operation: " + operation);
+		}
+	}
+	
 	/**
 	 * 
 	 */
 	@SuppressWarnings({"unchecked", "rawtypes" })
 	private AbstractStreamMergingFunction createStreamCombiner(String operationName, SerFunction firstStreamPreProcessingFunction) {
 		return operationName.equals(Ops.join.name())
-				? new StreamJoinerFunction(firstStreamPreProcessingFunction)
+				? this.configureJoinBufferSpilling(new StreamJoinerFunction(firstStreamPreProcessingFunction))
 					: new StreamUnionFunction(operationName.equals(Ops.union.name()), firstStreamPreProcessingFunction);
 	}
 	
+	/**
+	 * Configures spilling of the join buffer (see {@link DStreamConstants#JOIN_SPILL_THRESHOLD}).
+	 */
+	private StreamJoinerFunction configureJoinBufferSpilling(StreamJoinerFunction joiner){
+		joiner.setJoinBufferSpilling(Long.parseLong(this.executionConfig.getProperty(DStreamConstants.JOIN_SPILL_THRESHOLD, "0")), 
+				this.executionConfig.getProperty(DStreamConstants.JOIN_SPILL_DIR, System.getProperty("java.io.tmpdir")));
+		return joiner;
+	}
+	
+	/**
+	 * Returns <i>true</i> if the given operation is <i>join</i> and sort-merge join
+	 * is enabled for this pipeline (see {@link DStreamConstants#JOIN_SORT_MERGE}).
+	 */
+	private boolean isSortMergeJoin(Ops operation){
+		return operation.equals(Ops.join) && Boolean.parseBoolean(this.executionConfig.getProperty(
+				DStreamConstants.JOIN_SORT_MERGE + this.invocationPipeline.getSourceIdentifier(), "false"));
+	}
+	
+	/**
+	 * Returns <i>true</i> if skew handling is enabled for this pipeline (see {@link DStreamConstants#SKEW}).
+	 */
+	private boolean isSkewHandlingEnabled(){
+		return Boolean.parseBoolean(this.executionConfig.getProperty(
+				DStreamConstants.SKEW + this.invocationPipeline.getSourceIdentifier(), "false"));
+	}
+	
 	/**
 	 * Will ensure that:<br>
 	 * if no stream operations were created, 
@@ -17,6 +17,8 @@
  */
 package io.dstream;
 
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -101,6 +103,10 @@ final class DStreamExecutionGraphsBuilder<T,R> {
 			StreamInvocationChainSupplier s =  (StreamInvocationChainSupplier) arguments[0];
 			arguments = new Object[]{s.get()};
 		}
+		else if (operation.equals(Ops.broadcastJoin)){
+			StreamInvocationChainSupplier s =  (StreamInvocationChainSupplier) arguments[0];
+			arguments = new Object[]{s.get(), arguments[1], arguments[2]};
+		}
 
 		DStreamExecutionGraphsBuilder clonedDistributable = new DStreamExecutionGraphsBuilder(this.invocationPipeline.getSourceElementType(), this.invocationPipeline.getSourceIdentifier(), 
 				method.getReturnType().isInterface() ? method.getReturnType() : this.currentStreamType);	
@@ -108,6 +114,9 @@ final class DStreamExecutionGraphsBuilder<T,R> {
 		if (operation.equals(Ops.on)){
 			clonedDistributable.invocationPipeline.getLastInvocation().setSupplementaryOperation(arguments[0]);
 		}
+		else if (operation.equals(Ops.onKeys)){
+			clonedDistributable.invocationPipeline.getLastInvocation().setJoinKeyExtractors(tuple2(arguments[0], arguments[1]));
+		}
 		else {
 			clonedDistributable.invocationPipeline.addInvocation(new DStreamInvocation(method, arguments));
 		}
@@ -23,6 +23,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import io.dstream.utils.Tuples.Tuple2;
+
 /**
  * A sequence of {@link DStreamInvocation}s
  */
@@ -124,6 +126,8 @@ final class DStreamInvocationChain {
 		private final Object[] arguments;
 		
 		private Object supplementaryOperation;
+		
+		private Tuple2<Object, Object> joinKeyExtractors;
 
 		/**
 		 * Constructs this invocation.
@@ -169,6 +173,23 @@ final class DStreamInvocationChain {
 			this.supplementaryOperation = supplementaryOperation;
 		}
 		
+		/**
+		 * Returns key extractors of the left and right streams of the equi-join
+		 * (see {@link DStream.DStream2.DStream2WithPredicate#onKeys}) or 
+		 * <i>null</i> if not provided.
+		 */
+		public Tuple2<Object, Object> getJoinKeyExtractors(){
+			return this.joinKeyExtractors;
+		}
+		
+		/**
+		 * 
+		 * @param joinKeyExtractors
+		 */
+		protected void setJoinKeyExtractors(Tuple2<Object, Object> joinKeyExtractors) {
+			this.joinKeyExtractors = joinKeyExtractors;
+		}
+		
 		/**
 		 * 
 		 */
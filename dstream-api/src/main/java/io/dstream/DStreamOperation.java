@@ -25,6 +25,7 @@ import java.util.stream.Stream;
 
 import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.function.KeyValueMappingFunction;
+import io.dstream.utils.Assert;
 
 /**
  * Represents an assembled and final unit of work (i.e., execution stage) to be 
@@ -58,10 +59,17 @@ public final class DStreamOperation {
 	@SuppressWarnings("rawtypes")
 	private SerFunction streamOperationFunction;
 
+	@SuppressWarnings("rawtypes")
+	private SerFunction rootStreamOperationFunction;
+
 	private List<String> operationNames;
 	
 	private List<DStreamExecutionGraph> combinableExecutionGraphs;
 	
+	private List<BroadcastJoinFunction> broadcastJoiners;
+	
+	private List<SkewedJoinSampler> skewedJoinSamplers;
+	
 	/**
 	 * Constructs this {@link DStreamOperation} with the given <i>id</i>.
 	 */
@@ -112,6 +120,26 @@ public final class DStreamOperation {
 						: Collections.unmodifiableList(this.combinableExecutionGraphs);
 	}
 	
+	/**
+	 * Returns the {@link List} of {@link BroadcastJoinFunction}s composing this operation
+	 * whose broadcast streams must be materialized before this operation is executed.
+	 */
+	List<BroadcastJoinFunction> getBroadcastJoiners(){
+		return this.broadcastJoiners == null 
+				? Collections.emptyList() 
+						: Collections.unmodifiableList(this.broadcastJoiners);
+	}
+	
+	/**
+	 * Returns the {@link List} of {@link SkewedJoinSampler}s of this operation whose
+	 * sampling graphs must be executed before this operation is executed.
+	 */
+	List<SkewedJoinSampler> getSkewedJoinSamplers(){
+		return this.skewedJoinSamplers == null 
+				? Collections.emptyList() 
+						: Collections.unmodifiableList(this.skewedJoinSamplers);
+	}
+	
 	/**
 	 * Returns <i>true</i> if the last operation which composes this {@link DStreamOperation}
 	 * if {@link Ops#classify}
@@ -145,6 +173,29 @@ public final class DStreamOperation {
 		return this.streamOperationFunction;
 	}
 	
+	/**
+	 * Returns the root {@link SerFunction} of this {@link DStreamOperation} (i.e., the function
+	 * of the first operation composing it), allowing target execution environment to optimize
+	 * the way its input is prepared (e.g., combining values during shuffle for 'reduceValues').
+	 */
+	public SerFunction<?,?> getRootStreamOperationFunction() {
+		return this.rootStreamOperationFunction;
+	}
+
+	/**
+	 * Returns the first operation which composes this {@link DStreamOperation}.<br>
+	 * Since every {@link DStreamOperation} other then the first one starts where the previous 
+	 * one was shuffled, this is the operation which consumes the shuffled values 
+	 * (e.g., 'reduceValues' in <i>[reduceValues, map]</i> or 'load' for the values 
+	 * partitioned by 'classify'), while {@link #getLastOperationName()} is the one
+	 * which produces the values to be shuffled.
+	 */
+	public String getFirstOperationName() {
+		return this.operationNames.size() > 0 
+				? this.operationNames.get(0)
+						: null;
+	}
+
 	/**
 	 * Returns the last operation which composes this {@link DStreamOperation}.<br>
 	 * For example:
@@ -179,6 +230,9 @@ public final class DStreamOperation {
 	@SuppressWarnings("unchecked")
 	void addStreamOperationFunction(String operationName, SerFunction<?,?> function){
 		this.operationNames.add(operationName);
+		if (this.rootStreamOperationFunction == null){
+			this.rootStreamOperationFunction = function;
+		}
 		this.streamOperationFunction = this.streamOperationFunction != null
 				? this.streamOperationFunction.andThen(function)
 						: function;
@@ -192,6 +246,17 @@ public final class DStreamOperation {
 		}
 	}
 	
+	/**
+	 * Will compose the given {@link SerFunction} with the current function of this {@link DStreamOperation}
+	 * without adding new operation name, so the given function becomes part of the last operation
+	 * (e.g., salting of the classified Key/Value pairs remains part of <i>classify</i>).
+	 */
+	@SuppressWarnings("unchecked")
+	void appendStreamOperationFunction(SerFunction<?,?> function){
+		Assert.isTrue(this.streamOperationFunction != null, "Function can only be appended to the existing operation");
+		this.streamOperationFunction = this.streamOperationFunction.andThen(function);
+	}
+	
 	/**
 	 * Sets the given instance of {@link AbstractStreamMergingFunction} as the 
 	 * function of this {@link DStreamOperation}.
@@ -199,6 +264,7 @@ public final class DStreamOperation {
 	void setStreamsCombiner(String operationName, AbstractStreamMergingFunction streamsCombiner) {
 		this.operationNames.add(operationName);
 		this.streamOperationFunction = streamsCombiner;
+		this.rootStreamOperationFunction = streamsCombiner;
 	}
 	
 	/**
@@ -219,4 +285,24 @@ public final class DStreamOperation {
 		}
 		this.combinableExecutionGraphs.add(combinableExecutionGraph);
 	}
+	
+	/**
+	 * Adds the given {@link BroadcastJoinFunction} to the {@link List} of broadcast joiners.
+	 */
+	void addBroadcastJoiner(BroadcastJoinFunction broadcastJoiner){
+		if (this.broadcastJoiners == null){
+			this.broadcastJoiners = new ArrayList<>();
+		}
+		this.broadcastJoiners.add(broadcastJoiner);
+	}
+	
+	/**
+	 * Ads the given {@link SkewedJoinSampler} to the {@link List} of skewed join samplers.
+	 */
+	void addSkewedJoinSampler(SkewedJoinSampler skewedJoinSampler){
+		if (this.skewedJoinSamplers == null){
+			this.skewedJoinSamplers = new ArrayList<>();
+		}
+		this.skewedJoinSamplers.add(skewedJoinSampler);
+	}
 }
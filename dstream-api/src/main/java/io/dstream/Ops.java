@@ -25,9 +25,13 @@ import java.util.stream.Stream;
  */
 public enum Ops {
 	aggregateValues, 
+	averageDouble,
+	averageLong,
+	broadcastJoin,
 	classify,
 	compute,
 	count,
+	countByKey,
 	distinct,
 	extract,
 	filter,
@@ -37,11 +41,18 @@ public enum Ops {
 	map,
 	mapKeyValues,
 	max, 
+	maxDouble,
+	maxLong,
 	min,
+	minDouble,
+	minLong,
 	on,
+	onKeys,
 	reduce,
 	reduceValues,
 	sorted,
+	sumDouble,
+	sumLong,
 	peek,
 	union,
 	unionAll;
@@ -81,6 +92,16 @@ public enum Ops {
 	public static boolean isStreamConsumer(String operationName) {
 		return isStreamConsumer(Ops.valueOf(operationName));
 	}
+
+	/**
+	 * Returns <i>true</i> if the operation identified by the given name only needs
+	 * the shuffled values it consumes grouped by key, regardless of the key order.
+	 * Decoration of the operation name (e.g., <i>mapKeyValues{reducingValues}</i>) is ignored.
+	 */
+	public static boolean isHashGrouping(String operationName){
+		int decorationIndex = operationName.indexOf('{');
+		return isHashGrouping(Ops.valueOf(decorationIndex < 0 ? operationName : operationName.substring(0, decorationIndex)));
+	}
 	
 	/**
 	 * Returns <i>true</i> if the operation identified by the given {@link Ops} is 
@@ -104,7 +125,23 @@ public enum Ops {
 	 */
 	public static boolean isStreamReduce(Ops operation){
 		return operation.equals(count) ||
-			   operation.equals(reduce);
+			   operation.equals(reduce) ||
+			   isPrimitiveReduce(operation);
+	}
+
+	/**
+	 * Returns <i>true</i> if the operation identified by the given {@link Ops} is
+	 * a <i>reduce</i> operation performed on primitive (long or double) values.
+	 */
+	public static boolean isPrimitiveReduce(Ops operation){
+		return operation.equals(sumLong) ||
+			   operation.equals(sumDouble) ||
+			   operation.equals(minLong) ||
+			   operation.equals(minDouble) ||
+			   operation.equals(maxLong) ||
+			   operation.equals(maxDouble) ||
+			   operation.equals(averageLong) ||
+			   operation.equals(averageDouble);
 	}
 	
 	/**
@@ -125,9 +162,26 @@ public enum Ops {
 	public static  boolean isShuffle(Ops operation){
 		return operation.equals(reduceValues) ||
 			   operation.equals(aggregateValues) ||
+			   operation.equals(countByKey) ||
 			   operation.equals(join) ||
 			   operation.equals(union) ||
 			   operation.equals(unionAll) ||
 			   operation.equals(classify);
 	}
+
+	/**
+	 * Returns <i>true</i> if the operation identified by the given {@link Ops} only needs
+	 * the shuffled values it consumes grouped by key, regardless of the key order, so
+	 * execution engines could group them by hash instead of sorting them by key.
+	 * Values partitioned by <i>classify</i> are consumed by <i>load</i>.
+	 */
+	public static boolean isHashGrouping(Ops operation){
+		return operation.equals(reduceValues) ||
+			   operation.equals(aggregateValues) ||
+			   operation.equals(countByKey) ||
+			   operation.equals(load) ||
+			   operation.equals(join) ||
+			   operation.equals(union) ||
+			   operation.equals(unionAll);
+	}
 }
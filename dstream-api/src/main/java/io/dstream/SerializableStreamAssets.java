@@ -26,6 +26,8 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 /**
  * Defines {@link Serializable} equivalents to strategies used by the {@link Stream} API.
@@ -88,4 +90,14 @@ public interface SerializableStreamAssets {
 	 * {@link Serializable} version of {@link Consumer}
 	 */
 	public static interface SerConsumer<T> extends Consumer<T>, Serializable{}
+
+	/**
+	 * {@link Serializable} version of {@link ToLongFunction}
+	 */
+	public static interface SerToLongFunction<T> extends ToLongFunction<T>, Serializable{}
+
+	/**
+	 * {@link Serializable} version of {@link ToDoubleFunction}
+	 */
+	public static interface SerToDoubleFunction<T> extends ToDoubleFunction<T>, Serializable{}
 }
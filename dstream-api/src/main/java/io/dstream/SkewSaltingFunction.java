@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import io.dstream.SerializableStreamAssets.SerFunction;
+import io.dstream.support.Classifier;
+import io.dstream.support.SharedReference;
+import io.dstream.utils.Assert;
+import io.dstream.utils.KVUtils;
+
+/**
+ * Implementation of {@link SerFunction} which spreads <i>hot</i> classification keys of the
+ * classified (i.e., [K,V]) {@link Stream} across multiple partitions before the shuffle.<br>
+ * Each hot key is either <i>salted</i> (i.e., key becomes Tuple2[K, salt] where salt is assigned
+ * round-robin from [0, saltFactor)) on the heavy side of the join, or <i>replicated</i>
+ * on the other side. Since joins are performed between the whole partitions, replicated
+ * Key/Value pair is emitted once for every distinct partition salted keys are classified to
+ * (as determined by the {@link Classifier} of the shuffle), so each salted value still meets 
+ * every value of the other side with the same key exactly once, regardless of how many salts 
+ * end up in the same partition.
+ * Keys which are not hot are passed as is.<br>
+ * Hot keys are determined by sampling prior to execution (see {@link SkewedJoinSampler}).
+ */
+class SkewSaltingFunction implements SerFunction<Stream<Entry<Object, Object>>, Stream<Entry<Object, Object>>> {
+	private static final long serialVersionUID = 5318127786390245427L;
+
+	private final int saltFactor;
+
+	private final Classifier classifier;
+
+	private SharedReference<HashMap<Object, Boolean>> hotKeys;
+
+	/**
+	 * @param saltFactor the amount of salts each hot key is spread across
+	 * @param classifier the {@link Classifier} used to partition the salted keys
+	 */
+	SkewSaltingFunction(int saltFactor, Classifier classifier){
+		Assert.isTrue(saltFactor > 0, "'saltFactor' must be > 0");
+		Assert.notNull(classifier, "'classifier' must not be null");
+		this.saltFactor = saltFactor;
+		this.classifier = classifier;
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public Stream<Entry<Object, Object>> apply(Stream<Entry<Object, Object>> streamIn) {
+		Assert.notNull(streamIn, "'streamIn' must not be null");
+		Assert.isTrue(this.hotKeys != null, "Hot keys were not sampled");
+		HashMap<Object, Boolean> hotKeys = this.hotKeys.get();
+		if (hotKeys.isEmpty()){
+			return streamIn;
+		}
+		int[] salt = new int[]{ThreadLocalRandom.current().nextInt(this.saltFactor)};
+		HashMap<Object, int[]> replicationSalts = new HashMap<>();
+		return streamIn.flatMap(entry -> {
+			Boolean salted = hotKeys.get(entry.getKey());
+			if (salted == null){
+				return Stream.of(entry);
+			}
+			else if (salted){
+				salt[0] = (salt[0] + 1) % this.saltFactor;
+				return Stream.of(KVUtils.kv(tuple2(entry.getKey(), salt[0]), entry.getValue()));
+			}
+			else {
+				int[] salts = replicationSalts.computeIfAbsent(entry.getKey(), this::determineReplicationSalts);
+				return IntStream.of(salts).mapToObj(s -> KVUtils.kv(tuple2(entry.getKey(), s), entry.getValue()));
+			}
+		});
+	}
+
+	/**
+	 * Returns salts of the given key, one for each distinct partition salted keys are classified to.
+	 */
+	private int[] determineReplicationSalts(Object key){
+		Map<Integer, Integer> partitionSalts = new LinkedHashMap<>();
+		for (int s = 0; s < this.saltFactor; s++) {
+			partitionSalts.putIfAbsent(this.classifier.getClassificationIdAsInt(tuple2(key, s)), s);
+		}
+		return partitionSalts.values().stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Sets hot keys where <i>true</i> identifies key which is salted and
+	 * <i>false</i> the key which is replicated.
+	 */
+	void setHotKeys(HashMap<Object, Boolean> hotKeys) {
+		this.hotKeys = SharedReference.of(hotKeys);
+	}
+}
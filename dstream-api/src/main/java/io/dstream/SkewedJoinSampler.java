@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import io.dstream.utils.Assert;
+
+/**
+ * Holds the execution graphs which sample classification keys of both sides of the join
+ * (each producing Key/Value pairs of sampled key and its count) together with the
+ * {@link SkewSaltingFunction}s of both sides.<br>
+ * Sampling graphs are executed prior to execution of the join (see {@link AbstractDStreamExecutionDelegate})
+ * and their results are provided to {@link #resolveHotKeys(List, List)} which determines hot keys
+ * (keys whose share of sampled values of either side exceeds the <i>hotKeyRatio</i>).
+ * Each hot key is salted on the side where it is more frequent and replicated on the other
+ * (as well as on any other stream joined with them).
+ */
+final class SkewedJoinSampler {
+
+	private static final Logger logger = Logger.getLogger(SkewedJoinSampler.class.getName());
+
+	private final DStreamExecutionGraph leftSamplingGraph;
+
+	private final DStreamExecutionGraph rightSamplingGraph;
+
+	private final SkewSaltingFunction leftSaltingFunction;
+
+	private final SkewSaltingFunction rightSaltingFunction;
+
+	private final double hotKeyRatio;
+
+	private final List<SkewSaltingFunction> replicatingFunctions;
+
+	/**
+	 *
+	 */
+	SkewedJoinSampler(DStreamExecutionGraph leftSamplingGraph, DStreamExecutionGraph rightSamplingGraph,
+			SkewSaltingFunction leftSaltingFunction, SkewSaltingFunction rightSaltingFunction, double hotKeyRatio){
+		Assert.isTrue(hotKeyRatio > 0 && hotKeyRatio <= 1, "'hotKeyRatio' must be > 0 and <= 1");
+		this.leftSamplingGraph = leftSamplingGraph;
+		this.rightSamplingGraph = rightSamplingGraph;
+		this.leftSaltingFunction = leftSaltingFunction;
+		this.rightSaltingFunction = rightSaltingFunction;
+		this.hotKeyRatio = hotKeyRatio;
+		this.replicatingFunctions = new ArrayList<>();
+	}
+
+	/**
+	 * Adds {@link SkewSaltingFunction} of the stream which is joined with the already sampled streams
+	 * (e.g., 3-way join) and therefore replicates all hot keys.
+	 */
+	void addReplicatingFunction(SkewSaltingFunction replicatingFunction){
+		this.replicatingFunctions.add(replicatingFunction);
+	}
+
+	/**
+	 * Returns the execution graph which samples the left (joined) side of the join.
+	 */
+	DStreamExecutionGraph getLeftSamplingGraph() {
+		return this.leftSamplingGraph;
+	}
+
+	/**
+	 * Returns the execution graph which samples the right (joining) side of the join.
+	 */
+	DStreamExecutionGraph getRightSamplingGraph() {
+		return this.rightSamplingGraph;
+	}
+
+	/**
+	 * Determines hot keys from the sampled key counts of each side (partial counts of the
+	 * same key are summed) and sets them on the {@link SkewSaltingFunction}s of both sides.
+	 */
+	void resolveHotKeys(List<Object> leftSamples, List<Object> rightSamples){
+		Map<Object, Long> leftCounts = this.sumCounts(leftSamples);
+		Map<Object, Long> rightCounts = this.sumCounts(rightSamples);
+		long leftTotal = leftCounts.values().stream().mapToLong(Long::longValue).sum();
+		long rightTotal = rightCounts.values().stream().mapToLong(Long::longValue).sum();
+
+		HashMap<Object, Boolean> leftHotKeys = new HashMap<>();
+		HashMap<Object, Boolean> rightHotKeys = new HashMap<>();
+		this.collectHotKeys(leftCounts, leftTotal).forEach(key -> this.assignHotKey(key, leftCounts, rightCounts, leftHotKeys, rightHotKeys));
+		this.collectHotKeys(rightCounts, rightTotal).forEach(key -> this.assignHotKey(key, leftCounts, rightCounts, leftHotKeys, rightHotKeys));
+
+		if (logger.isLoggable(Level.INFO)){
+			logger.info("Skewed join sampled " + leftTotal + "/" + rightTotal + " values of '" + this.leftSamplingGraph.getName()
+				+ "'/'" + this.rightSamplingGraph.getName() + "'. Hot keys: " + leftHotKeys);
+		}
+		this.leftSaltingFunction.setHotKeys(leftHotKeys);
+		this.rightSaltingFunction.setHotKeys(rightHotKeys);
+		HashMap<Object, Boolean> replicatedHotKeys = new HashMap<>();
+		leftHotKeys.keySet().forEach(key -> replicatedHotKeys.put(key, false));
+		this.replicatingFunctions.forEach(replicatingFunction -> replicatingFunction.setHotKeys(replicatedHotKeys));
+	}
+
+	/**
+	 *
+	 */
+	private List<Object> collectHotKeys(Map<Object, Long> counts, long total){
+		return counts.entrySet().stream()
+				.filter(entry -> entry.getValue() > total * this.hotKeyRatio)
+				.map(Entry::getKey)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Salts the key on the side where it is more frequent and replicates it on the other.
+	 */
+	private void assignHotKey(Object key, Map<Object, Long> leftCounts, Map<Object, Long> rightCounts,
+			Map<Object, Boolean> leftHotKeys, Map<Object, Boolean> rightHotKeys){
+		boolean saltLeft = leftCounts.getOrDefault(key, 0L) >= rightCounts.getOrDefault(key, 0L);
+		leftHotKeys.put(key, saltLeft);
+		rightHotKeys.put(key, !saltLeft);
+	}
+
+	/**
+	 *
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<Object, Long> sumCounts(List<Object> samples){
+		Map<Object, Long> counts = new HashMap<>();
+		for (Object sample : samples) {
+			Entry<Object, Long> keyCount = (Entry<Object, Long>) sample;
+			counts.merge(keyCount.getKey(), keyCount.getValue(), Long::sum);
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.dstream.utils.Assert;
+import io.dstream.utils.SpillCodec;
+import io.dstream.utils.SpillFile;
+import io.dstream.utils.SpillFile.SpillIterator;
+
+/**
+ * Buffer of the joining stream values which are scanned repeatedly (once for each value
+ * of the joined stream).<br>
+ * The first <i>spillThreshold</i> values are held in memory (in the provided {@link List}),
+ * while the remaining values are written to a temporary {@link SpillFile} (see {@link SpillCodec})
+ * which is then read sequentially by each scan. Value of <i>spillThreshold</i> &lt;= 0 disables spilling.<br>
+ * Values must be added before the buffer is {@link #seal()}ed and scanned.
+ * Spill file is deleted when the buffer is {@link #close()}d.<br>
+ * Instances of this class are not thread-safe.
+ */
+final class SpillableJoinBuffer implements AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(SpillableJoinBuffer.class.getName());
+
+	private final List<Object> bufferedValues;
+
+	private final long spillThreshold;
+
+	private final File spillDirectory;
+
+	private SpillFile spillFile;
+
+	private long spilledValues;
+
+	private int scanCount;
+
+	private boolean sealed;
+
+	/**
+	 * @param bufferedValues {@link List} to hold the in-memory portion of the values
+	 * @param spillThreshold the amount of values held in memory before the rest is spilled to disk
+	 * @param spillDirectory directory where spill file is created
+	 */
+	SpillableJoinBuffer(List<Object> bufferedValues, long spillThreshold, File spillDirectory){
+		Assert.notNull(bufferedValues, "'bufferedValues' must not be null");
+		this.bufferedValues = bufferedValues;
+		this.spillThreshold = spillThreshold;
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Adds value to this buffer.
+	 */
+	void add(Object value){
+		Assert.isFalse(this.sealed, "Values can not be added to the sealed buffer");
+		if (this.spillThreshold <= 0 || this.bufferedValues.size() < this.spillThreshold){
+			this.bufferedValues.add(value);
+		}
+		else {
+			if (this.spillFile == null){
+				this.spillFile = new SpillFile(this.spillDirectory, "dstream-join-");
+			}
+			try {
+				SpillCodec.write(value, this.spillFile.getOutput());
+				this.spilledValues++;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to spill join buffer to " + this.spillFile, e);
+			}
+		}
+	}
+
+	/**
+	 * Completes adding of values, so this buffer could be scanned.
+	 */
+	void seal(){
+		if (!this.sealed){
+			this.sealed = true;
+			if (this.spillFile != null){
+				this.spillFile.closeOutput();
+				if (logger.isLoggable(Level.INFO)){
+					logger.info("Join buffer spilled " + this.spilledValues + " value(s), " + this.getSpilledBytes()
+						+ " bytes to " + this.spillFile + " after buffering " + this.bufferedValues.size() + " value(s) in memory");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns <i>true</i> if this buffer is sealed.
+	 */
+	boolean isSealed(){
+		return this.sealed;
+	}
+
+	/**
+	 * Returns {@link Stream} over all values of this buffer, reading the spilled values sequentially
+	 * from the spill file.
+	 */
+	Stream<Object> stream(){
+		Assert.isTrue(this.sealed, "Buffer must be sealed before it is scanned");
+		this.scanCount++;
+		if (this.spilledValues == 0){
+			return this.bufferedValues.stream();
+		}
+		SpillIterator<Object> spillIterator = this.spillFile.iterator(this.spilledValues, SpillCodec::read, false);
+		Stream<Object> spilledValues = StreamSupport.stream(Spliterators.spliteratorUnknownSize(spillIterator, Spliterator.ORDERED), false)
+				.onClose(spillIterator::close);
+		return Stream.concat(this.bufferedValues.stream(), spilledValues);
+	}
+
+	/**
+	 * Returns the amount of values spilled to disk.
+	 */
+	long getSpilledValues(){
+		return this.spilledValues;
+	}
+
+	/**
+	 * Returns the amount of bytes spilled to disk.
+	 */
+	long getSpilledBytes(){
+		return this.spillFile == null ? 0 : this.spillFile.length();
+	}
+
+	/**
+	 * Returns the amount of times this buffer was scanned.
+	 */
+	int getScanCount(){
+		return this.scanCount;
+	}
+
+	/**
+	 * Deletes spill file, if any, and clears the in-memory portion of the values.
+	 */
+	@Override
+	public void close() {
+		this.seal();
+		this.bufferedValues.clear();
+		if (this.spillFile != null){
+			if (logger.isLoggable(Level.INFO)){
+				logger.info("Join buffer spill file " + this.spillFile + " was scanned " + this.scanCount + " time(s)");
+			}
+			this.spillFile.delete();
+			this.spillFile = null;
+		}
+	}
+}
@@ -17,40 +17,98 @@
  */
 package io.dstream;
 
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ServiceLoader;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.support.CollectionFactory;
 import io.dstream.utils.Assert;
+import io.dstream.utils.KVUtils;
+import io.dstream.utils.SpillCodec;
+import io.dstream.utils.SpillFile;
 import io.dstream.utils.Tuples.Tuple;
 import io.dstream.utils.Tuples.Tuple2;
 
 /**
  * Implementation of {@link SerFunction} which will join multiple streams
- * while applying user functionality at check points (see this{@link #addCheckPoint(int)}.
+ * while applying user functionality at check points (see this{@link #addCheckPoint(int)}.<br>
+ * Streams are joined as cross product (nested loop) unless join keys are provided for the
+ * check point (see {@link #addJoinKeyExtractors(SerFunction, SerFunction)}), in which case
+ * hash join is performed.<br>
+ * In <i>sort-merge</i> mode each stream is expected to consist of Key/Values pairs 
+ * (i.e., [K, Iterator[V]]) sorted by {@link Comparable} key (e.g., classified and shuffled streams).
+ * Streams are then joined by advancing their keys in lockstep, joining only the values of equal keys,
+ * so only values of the current key of the joining stream are buffered.<br>
+ * Buffered values of the joining stream may be spilled to disk (see {@link #setJoinBufferSpilling(long, String)}),
+ * in which case hash join whose build side exceeds the spill threshold is performed as grace hash join.
  */
 class StreamJoinerFunction extends AbstractStreamMergingFunction {
 	private static final long serialVersionUID = -3615487628958776468L;
 	
-	private static CollectionFactory collectionFactory;
-
-	static {
-		if (collectionFactory == null){
-			Iterator<CollectionFactory> sl = ServiceLoader
-		            .load(CollectionFactory.class, ClassLoader.getSystemClassLoader()).iterator();
-			
-			collectionFactory = sl.hasNext() ? sl.next() : null;
-			if (collectionFactory == null){
-				throw new IllegalStateException("Failed to find '" + CollectionFactory.class.getName() + "' provider.");
-			}
-		}
-	}
+	private static final CollectionFactory collectionFactory = CollectionFactory.getInstance();
+	
+	private static final int GRACE_FAN_OUT = 16;
+	
+	private static final int GRACE_MAX_LEVEL = 4;
+	
+	private final Map<Integer, Tuple2<SerFunction<Object, Object>, SerFunction<Object, Object>>> joinKeyExtractors = new HashMap<>();
+	
+	private final boolean sortMerge;
+	
+	private long spillThreshold;
+	
+	private String spillDirectory = System.getProperty("java.io.tmpdir");
 	
 	public StreamJoinerFunction(SerFunction<Stream<?>, Stream<?>> streamPreProcessingFunction) {
+		this(streamPreProcessingFunction, false);
+	}
+	
+	/**
+	 * Constructs this function in <i>sort-merge</i> mode if <i>sortMerge</i> is <i>true</i>.
+	 */
+	public StreamJoinerFunction(SerFunction<Stream<?>, Stream<?>> streamPreProcessingFunction, boolean sortMerge) {
 		super(streamPreProcessingFunction);
+		this.sortMerge = sortMerge;
+	}
+	
+	/**
+	 * Will add key extractors for the left (joined so far) and right (joining) streams 
+	 * to the last (current) checkpoint, so they are joined using hash join on equal keys.
+	 */
+	public void addJoinKeyExtractors(SerFunction<Object, Object> leftKeyExtractor, SerFunction<Object, Object> rightKeyExtractor) {
+		Assert.notNull(leftKeyExtractor, "'leftKeyExtractor' must not be null");
+		Assert.notNull(rightKeyExtractor, "'rightKeyExtractor' must not be null");
+		Assert.isTrue(this.checkPointProcedures.size() > 0, "Join keys can only be added to existing check point");
+		int checkPoint = this.checkPointProcedures.get(this.checkPointProcedures.size()-1)._1();
+		this.joinKeyExtractors.put(checkPoint, tuple2(leftKeyExtractor, rightKeyExtractor));
+	}
+	
+	/**
+	 * Will set the amount of values of the joining stream buffered in memory by the cross product
+	 * (nested loop) join after which the rest of the values are spilled to disk in the given directory.
+	 * The same threshold bounds the build side of the hash join held in memory (see {@link #doHashJoin(Stream, Stream, SerFunction, SerFunction)}).
+	 * Value of <i>spillThreshold</i> &lt;= 0 disables spilling.
+	 */
+	public void setJoinBufferSpilling(long spillThreshold, String spillDirectory) {
+		Assert.notEmpty(spillDirectory, "'spillDirectory' must not be null or empty");
+		this.spillThreshold = spillThreshold;
+		this.spillDirectory = spillDirectory;
 	}
 	
 	/**
@@ -70,7 +128,7 @@ class StreamJoinerFunction extends AbstractStreamMergingFunction {
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private Stream<?> join(List<Stream<?>> streams) {
-		Stream joinedStream = streams.remove(0);
+		Stream joinedStream = this.sortMerge ? this.toKeyGroups(streams.remove(0)) : streams.remove(0);
 		
 		int streamCount = 0;
 		int streamProcessedCounter = 2;
@@ -83,60 +141,457 @@ class StreamJoinerFunction extends AbstractStreamMergingFunction {
 					streamCount = postJoinProcedure._1();
 				}
 			}
-			joinedStream = this.doJoin(joinedStream, streams.remove(0));
+			Tuple2<SerFunction<Object, Object>, SerFunction<Object, Object>> keyExtractors = this.joinKeyExtractors.get(streamProcessedCounter);
+			if (this.sortMerge){
+				joinedStream = this.doSortMergeJoin(joinedStream, streams.remove(0), keyExtractors);
+			}
+			else {
+				joinedStream = keyExtractors == null 
+						? this.doJoin(joinedStream, streams.remove(0))
+								: this.doHashJoin(joinedStream, streams.remove(0), keyExtractors._1(), keyExtractors._2());
+			}
 			if (streamCount == streamProcessedCounter){
 				SerFunction<Stream, Stream> postJoinProcedureFunction = (SerFunction) postJoinProcedure._2();
 				if (postJoinProcedureFunction != null){
-					joinedStream = postJoinProcedureFunction.apply(joinedStream);
+					joinedStream = this.sortMerge 
+							? joinedStream.map(keyGroup -> KVUtils.kv(((Entry)keyGroup).getKey(), postJoinProcedureFunction.apply((Stream)((Entry)keyGroup).getValue())))
+									: postJoinProcedureFunction.apply(joinedStream);
 				}
 			}
 			streamProcessedCounter++;
 		} while (streams.size() > 0);
 		
-		return joinedStream;
+		return this.sortMerge ? joinedStream.flatMap(keyGroup -> (Stream)((Entry)keyGroup).getValue()) : joinedStream;
+	}
+	
+	/**
+	 * Converts {@link Stream} of [K, Iterator[V]] to {@link Stream} of [K, Stream[V]].
+	 */
+	@SuppressWarnings("unchecked")
+	private Stream<Entry<Object, Stream<?>>> toKeyGroups(Stream<?> stream){
+		return ((Stream<Entry<Object, Iterator<?>>>) stream).map(entry -> KVUtils.kv(entry.getKey(), this.toStream(entry.getValue())));
+	}
+	
+	/**
+	 * Joins key groups of the joined stream (i.e., [K, Stream[V]]) with the Key/Values pairs of the joining
+	 * stream (i.e., [K, Iterator[V]]) producing key groups of joined values for each key present in both streams.<br>
+	 * Values of the joined stream's key group are not consumed until the returned key group is consumed,
+	 * while values of the matching key of the joining stream are buffered.
+	 */
+	@SuppressWarnings("unchecked")
+	private Stream<Entry<Object, Stream<?>>> doSortMergeJoin(Stream<Entry<Object, Stream<?>>> joinedStream, Stream<?> joiningStream,
+			Tuple2<SerFunction<Object, Object>, SerFunction<Object, Object>> keyExtractors) {
+		Iterator<Entry<Object, Stream<?>>> leftIterator = joinedStream.iterator();
+		Iterator<Entry<Object, Iterator<?>>> rightIterator = ((Stream<Entry<Object, Iterator<?>>>) joiningStream).iterator();
+		Iterator<Entry<Object, Stream<?>>> mergingIterator = new Iterator<Entry<Object, Stream<?>>>() {
+			private Entry<Object, Iterator<?>> rightGroup;
+			
+			private Entry<Object, Stream<?>> next;
+			
+			@Override
+			public boolean hasNext() {
+				while (this.next == null && leftIterator.hasNext()){
+					Entry<Object, Stream<?>> leftGroup = leftIterator.next();
+					int comparison = -1;
+					while (this.rightGroup != null || rightIterator.hasNext()){
+						if (this.rightGroup == null){
+							this.rightGroup = rightIterator.next();
+						}
+						comparison = compareKeys(leftGroup.getKey(), this.rightGroup.getKey());
+						if (comparison > 0){
+							this.rightGroup = null;
+						}
+						else {
+							break;
+						}
+					}
+					if (comparison == 0){
+						SpillableJoinBuffer rightValues = newJoinBuffer();
+						this.rightGroup.getValue().forEachRemaining(rightValues::add);
+						rightValues.seal();
+						this.rightGroup = null;
+						this.next = KVUtils.kv(leftGroup.getKey(), joinKeyGroups(leftGroup.getValue(), rightValues, keyExtractors));
+					}
+				}
+				return this.next != null;
+			}
+
+			@Override
+			public Entry<Object, Stream<?>> next() {
+				if (!this.hasNext()){
+					throw new NoSuchElementException();
+				}
+				Entry<Object, Stream<?>> result = this.next;
+				this.next = null;
+				return result;
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(mergingIterator, Spliterator.ORDERED), false);
+	}
+	
+	/**
+	 * Joins values of the same key using hash join if key extractors are provided, 
+	 * otherwise as cross product. Buffered values are released once the resulting 
+	 * {@link Stream} is closed (e.g., by <i>flatMap</i>).
+	 */
+	private Stream<?> joinKeyGroups(Stream<?> leftValues, SpillableJoinBuffer rightValues, 
+			Tuple2<SerFunction<Object, Object>, SerFunction<Object, Object>> keyExtractors){
+		Stream<?> joinedValues = keyExtractors == null
+				? leftValues.flatMap(lVal -> rightValues.stream().map(rVal -> this.mergeValues(lVal, rVal)))
+						: this.doHashJoin(leftValues, rightValues.stream(), keyExtractors._1(), keyExtractors._2());
+		return joinedValues.onClose(rightValues::close);
 	}
 	
 	/**
 	 * 
 	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private int compareKeys(Object leftKey, Object rightKey){
+		try {
+			return ((Comparable)leftKey).compareTo(rightKey);
+		} 
+		catch (ClassCastException e) {
+			throw new IllegalStateException("Sort-merge join requires keys to be Comparable and of the same type. Was " 
+					+ leftKey.getClass().getName() + " and " + rightKey.getClass().getName(), e);
+		}
+	}
+	
+	/**
+	 * Joins two streams as cross product (nested loop), buffering the joining stream
+	 * (see {@link SpillableJoinBuffer}). The buffer is released as soon as the joined stream
+	 * is exhausted, since execution engines do not necessarily close the resulting {@link Stream},
+	 * as well as when the resulting {@link Stream} is closed.
+	 */
 	private Stream<?> doJoin(Stream<?> joinedStream, Stream<?> joiningStream) {
-		List<Object> joiningStreamCache = collectionFactory.newList();
-		return joinedStream.flatMap(lVal -> {
-			boolean cached = joiningStreamCache.size() > 0;
-			Stream<?> _joiningStream = cached ? joiningStreamCache.stream() : joiningStream;
-			try {
-				return _joiningStream.map(rVal -> {
-					if (!cached){
-						joiningStreamCache.add(rVal);
+		SpillableJoinBuffer joiningStreamBuffer = this.newJoinBuffer();
+		Iterator<?> leftIterator = joinedStream.iterator();
+		Iterator<Object> joiningIterator = new Iterator<Object>() {
+			private Object lVal;
+			
+			private Stream<Object> rightStream;
+			
+			private Iterator<Object> rightIterator;
+			
+			@Override
+			public boolean hasNext() {
+				while (this.rightIterator == null || !this.rightIterator.hasNext()){
+					if (this.rightStream != null){
+						this.rightStream.close();
+						this.rightStream = null;
+						this.rightIterator = null;
 					}
-					return this.mergeValues(lVal, rVal);
-				});
-			} catch (Exception e) {
-				throw new IllegalStateException("Failed to join partitions. Possible reason: The system may be trying to join on an empty partition. \n"
-						+ "This could happen due to the fact that your initial data was too small to be partitioned in the amount specified. \nPlease try"
-						+ " to lower dstream.parallelism size. ", e);
+					if (!leftIterator.hasNext()){
+						joiningStreamBuffer.close();
+						return false;
+					}
+					this.lVal = leftIterator.next();
+					this.rightStream = this.scanJoiningStream();
+					this.rightIterator = this.rightStream.iterator();
+				}
+				return true;
+			}
+
+			@Override
+			public Object next() {
+				if (!this.hasNext()){
+					throw new NoSuchElementException();
+				}
+				return mergeValues(this.lVal, this.rightIterator.next());
+			}
+			
+			private Stream<Object> scanJoiningStream(){
+				try {
+					if (!joiningStreamBuffer.isSealed()){
+						joiningStream.forEachOrdered(joiningStreamBuffer::add);
+						joiningStreamBuffer.seal();
+					}
+					return joiningStreamBuffer.stream();
+				} catch (Exception e) {
+					throw new IllegalStateException("Failed to join partitions. Possible reason: The system may be trying to join on an empty partition. \n"
+							+ "This could happen due to the fact that your initial data was too small to be partitioned in the amount specified. \nPlease try"
+							+ " to lower dstream.parallelism size. ", e);
+				}
 			}
-		});	
+		};
+		return this.toStream(joiningIterator).onClose(joinedStream::close).onClose(joiningStreamBuffer::close);
 	}
 	
 	/**
 	 * 
 	 */
-	private Tuple mergeValues(Object left, Object right) {
-		Tuple current = left instanceof MergableTuple ? (MergableTuple)left : new MergableTuple(left);
-		Tuple cloned = current.size() > 1 ? current.clone() : current;
-		cloned.add(right);
-		return cloned;
+	private SpillableJoinBuffer newJoinBuffer(){
+		return new SpillableJoinBuffer(collectionFactory.newList(), this.spillThreshold, new File(this.spillDirectory));
+	}
+	
+	/**
+	 * Joins two streams on equal keys. Both streams are read in lockstep until one of them 
+	 * is exhausted, so the smaller one becomes the build side (hash table) while the values 
+	 * read so far from the other one are buffered (see {@link SpillableJoinBuffer}) and probed 
+	 * followed by the rest of its values, which are probed as they are read. If both streams 
+	 * are exhausted at the same time the joining (right) stream is the build side.<br>
+	 * If the build side exceeds the spill threshold (i.e., it was spilled), the join is performed 
+	 * as grace hash join (see {@link #doGraceHashJoin(Iterator, SerFunction, Iterator, SerFunction, boolean, int, List)}),
+	 * so the hash table held in memory is bounded as well.
+	 */
+	private Stream<?> doHashJoin(Stream<?> leftStream, Stream<?> rightStream, 
+			SerFunction<Object, Object> leftKeyExtractor, SerFunction<Object, Object> rightKeyExtractor) {
+		SpillableJoinBuffer leftBuffer = this.newJoinBuffer();
+		SpillableJoinBuffer rightBuffer = this.newJoinBuffer();
+		List<SpillFile> partitionSpills = new ArrayList<>();
+		Iterator<Object> probingIterator = new Iterator<Object>() {
+			private Iterator<Object> joinedIterator;
+			
+			@Override
+			public boolean hasNext() {
+				if (this.joinedIterator == null){
+					Iterator<?> leftIterator = leftStream.iterator();
+					Iterator<?> rightIterator = rightStream.iterator();
+					while (leftIterator.hasNext() && rightIterator.hasNext()){
+						leftBuffer.add(leftIterator.next());
+						rightBuffer.add(rightIterator.next());
+					}
+					leftBuffer.seal();
+					rightBuffer.seal();
+					
+					boolean buildLeft = !leftIterator.hasNext() && rightIterator.hasNext();
+					SpillableJoinBuffer buildSide = buildLeft ? leftBuffer : rightBuffer;
+					SerFunction<Object, Object> buildKeyExtractor = buildLeft ? leftKeyExtractor : rightKeyExtractor;
+					SerFunction<Object, Object> probeKeyExtractor = buildLeft ? rightKeyExtractor : leftKeyExtractor;
+					Iterator<Object> probeValues = buildLeft ? drainAndClose(rightBuffer, rightIterator) : drainAndClose(leftBuffer, leftIterator);
+					try (Stream<Object> buildValues = buildSide.stream()){
+						if (buildSide.getSpilledValues() == 0){
+							Map<Object, List<Object>> hashTable = buildHashTable(buildValues.iterator(), buildKeyExtractor);
+							this.joinedIterator = probe(hashTable, probeValues, probeKeyExtractor, buildLeft);
+						}
+						else {
+							this.joinedIterator = doGraceHashJoin(buildValues.iterator(), buildKeyExtractor, 
+									probeValues, probeKeyExtractor, buildLeft, 0, partitionSpills);
+						}
+					}
+					buildSide.close();
+				}
+				return this.joinedIterator.hasNext();
+			}
+
+			@Override
+			public Object next() {
+				if (!this.hasNext()){
+					throw new NoSuchElementException();
+				}
+				return this.joinedIterator.next();
+			}
+		};
+		return this.toStream(probingIterator)
+				.onClose(leftStream::close).onClose(rightStream::close)
+				.onClose(leftBuffer::close).onClose(rightBuffer::close)
+				.onClose(() -> partitionSpills.forEach(SpillFile::delete));
+	}
+	
+	/**
+	 * Joins the build side values with the probe values grace hash join style. Values of both sides are 
+	 * partitioned by the hash of the key into spill files (see {@link SpillFile}), so values of equal keys
+	 * end up in the partitions of the same index, which are then joined one at a time by building the hash table 
+	 * from the build side partition. Build side partition which still exceeds the spill threshold is partitioned
+	 * again with the next bits of the hash unless {@link #GRACE_MAX_LEVEL} is reached (e.g., values of a single key 
+	 * exceeding the threshold), in which case it is hashed in memory regardless.<br>
+	 * Values with <i>null</i> key, as well as probe values of the empty build side partition, never match,
+	 * so they are not spilled. Spill files are deleted once read, the rest are deleted when the resulting
+	 * {@link Stream} is closed (see <i>partitionSpills</i>).
+	 */
+	private Iterator<Object> doGraceHashJoin(Iterator<?> buildValues, SerFunction<Object, Object> buildKeyExtractor,
+			Iterator<?> probeValues, SerFunction<Object, Object> probeKeyExtractor, boolean buildLeft, int level, List<SpillFile> partitionSpills){
+		SpillFile[] buildPartitions = new SpillFile[GRACE_FAN_OUT];
+		long[] buildCounts = new long[GRACE_FAN_OUT];
+		while (buildValues.hasNext()){
+			Object value = buildValues.next();
+			Object key = buildKeyExtractor.apply(value);
+			if (key != null){
+				int partition = this.partitionOf(key, level);
+				this.spill(buildPartitions, partition, value, partitionSpills);
+				buildCounts[partition]++;
+			}
+		}
+		SpillFile[] probePartitions = new SpillFile[GRACE_FAN_OUT];
+		long[] probeCounts = new long[GRACE_FAN_OUT];
+		while (probeValues.hasNext()){
+			Object value = probeValues.next();
+			Object key = probeKeyExtractor.apply(value);
+			if (key != null){
+				int partition = this.partitionOf(key, level);
+				if (buildCounts[partition] > 0){
+					this.spill(probePartitions, partition, value, partitionSpills);
+					probeCounts[partition]++;
+				}
+			}
+		}
+		
+		return new Iterator<Object>() {
+			private int partition = -1;
+			
+			private Iterator<Object> joinedIterator = Collections.emptyIterator();
+			
+			@Override
+			public boolean hasNext() {
+				while (!this.joinedIterator.hasNext()){
+					if (++this.partition == GRACE_FAN_OUT){
+						return false;
+					}
+					this.joinedIterator = this.joinPartition();
+				}
+				return true;
+			}
+
+			@Override
+			public Object next() {
+				if (!this.hasNext()){
+					throw new NoSuchElementException();
+				}
+				return this.joinedIterator.next();
+			}
+			
+			private Iterator<Object> joinPartition(){
+				SpillFile buildPartition = buildPartitions[this.partition];
+				SpillFile probePartition = probePartitions[this.partition];
+				if (probePartition == null){
+					if (buildPartition != null){
+						buildPartition.delete();
+					}
+					return Collections.emptyIterator();
+				}
+				Iterator<Object> buildPartitionValues = buildPartition.iterator(buildCounts[this.partition], SpillCodec::read, true);
+				Iterator<Object> probePartitionValues = probePartition.iterator(probeCounts[this.partition], SpillCodec::read, true);
+				if (buildCounts[this.partition] > spillThreshold && level + 1 < GRACE_MAX_LEVEL){
+					return doGraceHashJoin(buildPartitionValues, buildKeyExtractor, probePartitionValues, probeKeyExtractor, buildLeft, level + 1, partitionSpills);
+				}
+				Map<Object, List<Object>> hashTable = buildHashTable(buildPartitionValues, buildKeyExtractor);
+				return probe(hashTable, probePartitionValues, probeKeyExtractor, buildLeft);
+			}
+		};
+	}
+	
+	/**
+	 * Returns the grace hash join partition of the key, where each level partitions
+	 * by the next bits of the (spread) hash, so partitions split further.
+	 */
+	private int partitionOf(Object key, int level){
+		return ((Objects.hashCode(key) * 0x9E3779B9) >>> (28 - level * 4)) & (GRACE_FAN_OUT - 1);
+	}
+	
+	/**
+	 * Writes value to the spill file of the given partition, creating it if necessary.
+	 */
+	private void spill(SpillFile[] partitions, int partition, Object value, List<SpillFile> partitionSpills){
+		if (partitions[partition] == null){
+			partitions[partition] = new SpillFile(new File(this.spillDirectory), "dstream-join-partition-");
+			partitionSpills.add(partitions[partition]);
+		}
+		try {
+			SpillCodec.write(value, partitions[partition].getOutput());
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to spill join partition to " + partitions[partition], e);
+		}
+	}
+	
+	/**
+	 * Returns {@link Iterator} over the values of the given buffer followed by the remaining values
+	 * of the stream they were read from. The buffer is released as soon as its values were read.
+	 */
+	private Iterator<Object> drainAndClose(SpillableJoinBuffer buffer, Iterator<?> remainingValues){
+		Stream<Object> bufferedValues = buffer.stream();
+		Iterator<Object> bufferedIterator = bufferedValues.iterator();
+		return new Iterator<Object>() {
+			private boolean drained;
+			
+			@Override
+			public boolean hasNext() {
+				if (!this.drained){
+					if (bufferedIterator.hasNext()){
+						return true;
+					}
+					this.drained = true;
+					bufferedValues.close();
+					buffer.close();
+				}
+				return remainingValues.hasNext();
+			}
+
+			@Override
+			public Object next() {
+				if (!this.hasNext()){
+					throw new NoSuchElementException();
+				}
+				return this.drained ? remainingValues.next() : bufferedIterator.next();
+			}
+		};
+	}
+	
+	/**
+	 * Builds hash table from the given values.
+	 */
+	private Map<Object, List<Object>> buildHashTable(Iterator<?> buildValues, SerFunction<Object, Object> keyExtractor){
+		Map<Object, List<Object>> hashTable = collectionFactory.newMap();
+		buildValues.forEachRemaining(value -> {
+			Object key = keyExtractor.apply(value);
+			if (key != null){
+				List<Object> values = hashTable.get(key);
+				if (values == null){
+					values = collectionFactory.newList();
+					hashTable.put(key, values);
+				}
+				values.add(value);
+			}
+		});
+		return hashTable;
+	}
+	
+	/**
+	 * Returns {@link Iterator} over the values joined by probing the hash table with each of the
+	 * probe values, where values of the build side are on the left if <i>buildLeft</i> is <i>true</i>.
+	 */
+	private Iterator<Object> probe(Map<Object, List<Object>> hashTable, Iterator<Object> probeValues, 
+			SerFunction<Object, Object> probeKeyExtractor, boolean buildLeft){
+		return this.toStream(probeValues)
+				.flatMap(pVal -> this.probe(hashTable, probeKeyExtractor.apply(pVal))
+						.map(bVal -> (Object) (buildLeft ? this.mergeValues(bVal, pVal) : this.mergeValues(pVal, bVal))))
+				.iterator();
+	}
+	
+	/**
+	 * 
+	 */
+	private Stream<Object> probe(Map<Object, List<Object>> hashTable, Object key){
+		List<Object> values = key == null ? null : hashTable.get(key);
+		return values == null ? Stream.empty() : values.stream();
 	}
 	
 	/**
 	 * 
 	 */
+	private Stream<Object> toStream(Iterator<?> iterator){
+		@SuppressWarnings("unchecked")
+		Iterator<Object> objectIterator = (Iterator<Object>) iterator;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(objectIterator, Spliterator.ORDERED), false);
+	}
+	
+	/**
+	 * Appends the value of the joining stream to the values joined so far (see {@link MergableTuple}).
+	 * Since the same left value is merged with every matching right value, it is never modified, 
+	 * instead it is copied once into the new tuple of the exact size (see {@link Tuple#append(Object)}).
+	 */
+	private Tuple mergeValues(Object left, Object right) {
+		return left instanceof MergableTuple ? ((MergableTuple)left).append(right) : new MergableTuple(left, right);
+	}
+	
+	/**
+	 * Tuple produced by the join, so it could be distinguished from the 
+	 * {@link Tuple} values of the joined streams.
+	 */
 	private static class MergableTuple extends Tuple {
 		private static final long serialVersionUID = 6081720376172843799L;
 
-		MergableTuple(Object... values){
-			super(values);
+		MergableTuple(Object left, Object right){
+			super(left, right);
 		}
 	}
 }
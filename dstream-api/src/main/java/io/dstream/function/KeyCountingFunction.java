@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.function;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.dstream.SerializableStreamAssets.SerFunction;
+import io.dstream.utils.Assert;
+import io.dstream.utils.KVUtils;
+import io.dstream.utils.LongLongHashMap;
+import io.dstream.utils.PrimitiveKeyMap;
+
+/**
+ * Implementation of {@link SerFunction} which counts elements of a {@link Stream} per key
+ * produced by the <i>keyExtractor</i>, producing {@link Stream} of Key/Value pairs where
+ * value is the partial count of the key.<br>
+ * Counts are held in mutable <i>long</i> cells, so they are not boxed for every element
+ * ({@link Integer} and {@link Long} keys are not boxed either, see {@link LongLongHashMap}).
+ * At most <i>countBufferSize</i> keys are held at a time. When exceeded, the oldest key
+ * is emitted with its partial count.
+ *
+ * @param <T> the type of the source stream
+ * @param <K> the key type
+ */
+public class KeyCountingFunction<T,K> implements SerFunction<Stream<T>, Stream<Entry<K, Long>>> {
+	private static final long serialVersionUID = -2735329447137155373L;
+
+	private final SerFunction<T, K> keyExtractor;
+
+	private final int countBufferSize;
+
+	/**
+	 * Constructs this function.
+	 *
+	 * @param keyExtractor a mapping function to produce keys
+	 * @param countBufferSize the maximum amount of keys held at a time
+	 */
+	public KeyCountingFunction(SerFunction<T, K> keyExtractor, int countBufferSize) {
+		Assert.notNull(keyExtractor, "'keyExtractor' must not be null");
+		Assert.isTrue(countBufferSize > 0, "'countBufferSize' must be > 0");
+		this.keyExtractor = keyExtractor;
+		this.countBufferSize = countBufferSize;
+	}
+
+	/**
+	 * Will create a new {@link Stream} of Key/Value pairs where value is the partial count of the key.
+	 */
+	@Override
+	public Stream<Entry<K, Long>> apply(Stream<T> streamIn) {
+		Assert.notNull(streamIn, "'streamIn' must not be null");
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new CountingIterator(streamIn.iterator()), Spliterator.NONNULL), false)
+				.onClose(streamIn::close);
+	}
+
+	/**
+	 * {@link Iterator} which counts keys of the source elements in a bounded
+	 * (insertion ordered) buffer, emitting the oldest count whenever the buffer
+	 * overflows and the rest of the buffer once the source is exhausted.<br>
+	 * As long as all keys are {@link Long}s (or all keys are {@link Integer}s) they are counted
+	 * in {@link LongLongHashMap}, otherwise counts are moved to (and held by) bounded {@link PrimitiveKeyMap}.
+	 */
+	private class CountingIterator implements Iterator<Entry<K, Long>> {
+		private final Iterator<T> sourceIterator;
+
+		private final Queue<Entry<K, Long>> pending;
+
+		private LongLongHashMap primitiveCounts;
+
+		private Class<?> primitiveKeyType;
+
+		private PrimitiveKeyMap<K, long[]> counts;
+
+		private boolean finished;
+
+		CountingIterator(Iterator<T> sourceIterator){
+			this.sourceIterator = sourceIterator;
+			this.pending = new ArrayDeque<>();
+			this.primitiveCounts = new LongLongHashMap();
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.pending.isEmpty() && !this.finished){
+				if (this.sourceIterator.hasNext()){
+					this.count(keyExtractor.apply(this.sourceIterator.next()));
+				}
+				else {
+					if (this.primitiveCounts != null){
+						this.primitiveCounts.forEach((k, count) -> this.pending.add(KVUtils.kv(this.toKey(k), count)));
+						this.primitiveCounts.clear();
+					}
+					else {
+						this.counts.forEach((k, count) -> this.pending.add(KVUtils.kv(k, count[0])));
+						this.counts.clear();
+					}
+					this.finished = true;
+				}
+			}
+			return !this.pending.isEmpty();
+		}
+
+		@Override
+		public Entry<K, Long> next() {
+			if (!this.hasNext()){
+				throw new NoSuchElementException();
+			}
+			return this.pending.poll();
+		}
+
+		/**
+		 *
+		 */
+		private void count(K key){
+			if (this.primitiveCounts != null){
+				if (this.primitiveKeyType == null ? key instanceof Long || key instanceof Integer 
+						: key != null && key.getClass() == this.primitiveKeyType){
+					this.primitiveKeyType = key.getClass();
+					if (this.primitiveCounts.addTo(((Number)key).longValue(), 1) == 1 && this.primitiveCounts.size() > countBufferSize){
+						long eldestKey = this.primitiveCounts.firstKey();
+						this.pending.add(KVUtils.kv(this.toKey(eldestKey), this.primitiveCounts.remove(eldestKey, 0)));
+					}
+					return;
+				}
+				this.migrate();
+			}
+			long[] count = this.counts.get(key);
+			if (count == null){
+				this.counts.put(key, new long[]{1});
+			}
+			else {
+				count[0]++;
+			}
+		}
+
+		/**
+		 * Moves primitive counts to {@link PrimitiveKeyMap} preserving their order.
+		 */
+		private void migrate(){
+			this.counts = new PrimitiveKeyMap<K, long[]>(countBufferSize) {
+				@Override
+				protected void onEviction(K key, long[] count) {
+					pending.add(KVUtils.kv(key, count[0]));
+				}
+			};
+			this.primitiveCounts.forEach((k, count) -> this.counts.put(this.toKey(k), new long[]{count}));
+			this.primitiveCounts = null;
+		}
+
+		/**
+		 *
+		 */
+		@SuppressWarnings("unchecked")
+		private K toKey(long key){
+			Object boxedKey = this.primitiveKeyType == Integer.class ? (Object) Integer.valueOf((int) key) : (Object) Long.valueOf(key);
+			return (K) boxedKey;
+		}
+	}
+}
@@ -17,14 +17,23 @@
  */
 package io.dstream.function;
 
+import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.BinaryOperator;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.utils.Assert;
 import io.dstream.utils.KVUtils;
+import io.dstream.utils.PrimitiveKeyMap;
 
 /**
  * Implementation of {@link SerFunction} to produce {@link Stream} of Key/Value pairs
@@ -32,7 +41,15 @@ import io.dstream.utils.KVUtils;
  * Key/Value pairs represented as {@link Entry}
  * <br>
  * Key/Values are created using <i>keyExtractor</i> and <i>valueExtractor</i> provided
- * during the construction.
+ * during the construction.<br>
+ * If <i>aggregator</i> is provided, values of the same key are combined in a bounded
+ * buffer holding at most <i>combineBufferSize</i> keys. When the buffer is full the
+ * oldest key is emitted with its partially combined value to make room for the new one.
+ * The effectiveness of combining is checked after every <i>combineBufferSize</i> records. If the
+ * ratio of the combined records (emitted or newly buffered) to the records of the last such window
+ * exceeds <i>maxCombineRatio</i> (e.g., cardinality of keys rises) combining is deemed ineffective,
+ * the buffer is emitted and the remaining Key/Value pairs are passed through as is.<br>
+ * Buffer holds {@link Integer} and {@link Long} keys unboxed (see {@link PrimitiveKeyMap}).
  *
  * @param <T> the type of the source stream
  * @param <K> the key type
@@ -41,12 +58,28 @@ import io.dstream.utils.KVUtils;
 public class KeyValueMappingFunction<T,K,V> implements SerFunction<Stream<T>, Stream<Entry<K, V>>> {
 	private static final long serialVersionUID = -4257572937412682381L;
 
+	/**
+	 * Default amount of keys held by the combining buffer.
+	 */
+	public static final int DEFAULT_COMBINE_BUFFER_SIZE = 100000;
+
+	/**
+	 * Default ratio of combined records to records above which combining is abandoned.
+	 */
+	public static final double DEFAULT_MAX_COMBINE_RATIO = 0.5;
+
+	private static final Logger logger = Logger.getLogger(KeyValueMappingFunction.class.getName());
+
 	private final SerFunction<T, K> keyExtractor;
 
 	private final SerFunction<T, V> valueExtractor;
 
 	private final BinaryOperator<V> aggregator;
 
+	private final int combineBufferSize;
+
+	private final double maxCombineRatio;
+
 	/**
 	 * Constructs this function.
 	 *
@@ -62,14 +95,34 @@ public class KeyValueMappingFunction<T,K,V> implements SerFunction<Stream<T>, St
 	 *
 	 * @param keyExtractor a mapping function to produce keys
 	 * @param valueExtractor a mapping function to produce values
+	 * @param aggregator a function to combine values of the same key (could be null)
 	 */
 	public KeyValueMappingFunction(SerFunction<T, K> keyExtractor, SerFunction<T, V> valueExtractor, BinaryOperator<V> aggregator) {
+		this(keyExtractor, valueExtractor, aggregator, DEFAULT_COMBINE_BUFFER_SIZE, DEFAULT_MAX_COMBINE_RATIO);
+	}
+
+	/**
+	 * Constructs this function.
+	 *
+	 * @param keyExtractor a mapping function to produce keys
+	 * @param valueExtractor a mapping function to produce values
+	 * @param aggregator a function to combine values of the same key (could be null)
+	 * @param combineBufferSize the maximum amount of keys held by the combining buffer
+	 * @param maxCombineRatio the ratio of combined records to records (within each window of
+	 *                        <i>combineBufferSize</i> records) above which combining is abandoned
+	 */
+	public KeyValueMappingFunction(SerFunction<T, K> keyExtractor, SerFunction<T, V> valueExtractor, BinaryOperator<V> aggregator,
+			int combineBufferSize, double maxCombineRatio) {
 		Assert.notNull(keyExtractor, "'keyExtractor' must not be null");
 		Assert.notNull(valueExtractor, "'valueExtractor' must not be null");
+		Assert.isTrue(combineBufferSize > 0, "'combineBufferSize' must be > 0");
+		Assert.isTrue(maxCombineRatio > 0, "'maxCombineRatio' must be > 0");
 
 		this.keyExtractor = keyExtractor;
 		this.valueExtractor = valueExtractor;
 		this.aggregator = aggregator;
+		this.combineBufferSize = combineBufferSize;
+		this.maxCombineRatio = maxCombineRatio;
 	}
 
 	/**
@@ -79,13 +132,26 @@ public class KeyValueMappingFunction<T,K,V> implements SerFunction<Stream<T>, St
 	public Stream<Entry<K, V>> apply(Stream<T> streamIn) {
 		Assert.notNull(streamIn, "'streamIn' must not be null");
 		if (this.aggregator != null){
-			return streamIn.collect(Collectors.toMap(this.keyExtractor, this.valueExtractor, this.aggregator)).entrySet().stream();
+			Iterator<Entry<K, V>> combiningIterator = new CombiningIterator(streamIn.iterator());
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(combiningIterator, Spliterator.NONNULL), false)
+					.onClose(streamIn::close);
 		}
 		else {
 			return streamIn.map(val -> KVUtils.kv(this.keyExtractor.apply(val), this.valueExtractor.apply(val)));
 		}
 	}
 
+	/**
+	 * Reports the amount of records before and after values were combined (once per partition, hence at debug level).
+	 */
+	private void reportCombine(long recordsIn, long recordsOut, long passThroughAfter){
+		if (logger.isLoggable(Level.FINE)){
+			logger.fine("Map-side combine: records in " + recordsIn + ", records out " + recordsOut
+					+ (recordsIn > 0 ? String.format(" (ratio %.3f)", (double) recordsOut / recordsIn) : "")
+					+ (passThroughAfter > 0 ? ", switched to pass-through after " + passThroughAfter + " records" : ""));
+		}
+	}
+
 	/**
 	 * Returns true is this function will aggregate values
 	 * @return
@@ -93,4 +159,110 @@ public class KeyValueMappingFunction<T,K,V> implements SerFunction<Stream<T>, St
 	public boolean aggregatesValues(){
 		return this.aggregator != null;
 	}
+
+	/**
+	 * {@link Iterator} which combines values of the source elements in a bounded
+	 * (insertion ordered) buffer, emitting the oldest entry whenever the buffer
+	 * overflows and the rest of the buffer once the source is exhausted.
+	 */
+	private class CombiningIterator implements Iterator<Entry<K, V>> {
+		private final Iterator<T> sourceIterator;
+
+		private final PrimitiveKeyMap<K, V> buffer;
+
+		private final Queue<Entry<K, V>> pending;
+
+		private long recordsIn;
+
+		private long recordsOut;
+
+		private long recordsEvicted;
+
+		private long windowRecordsOut;
+
+		private long passThroughAfter;
+
+		private boolean passThrough;
+
+		private boolean finished;
+
+		CombiningIterator(Iterator<T> sourceIterator){
+			this.sourceIterator = sourceIterator;
+			this.pending = new ArrayDeque<>();
+			this.buffer = new PrimitiveKeyMap<K, V>(combineBufferSize) {
+				@Override
+				protected void onEviction(K key, V value) {
+					pending.add(KVUtils.kv(key, value));
+					recordsEvicted++;
+				}
+			};
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.pending.isEmpty() && !this.finished){
+				if (this.sourceIterator.hasNext()){
+					this.combine(this.sourceIterator.next());
+				}
+				else {
+					this.flush();
+					this.finished = true;
+					reportCombine(this.recordsIn, this.recordsOut + this.pending.size(), this.passThroughAfter);
+				}
+			}
+			return !this.pending.isEmpty();
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (!this.hasNext()){
+				throw new NoSuchElementException();
+			}
+			this.recordsOut++;
+			return this.pending.poll();
+		}
+
+		/**
+		 *
+		 */
+		private void combine(T element){
+			K key = keyExtractor.apply(element);
+			V value = valueExtractor.apply(element);
+			this.recordsIn++;
+			if (this.passThrough){
+				this.pending.add(KVUtils.kv(key, value));
+			}
+			else {
+				V currentValue = this.buffer.get(key);
+				this.buffer.put(key, currentValue == null ? value : aggregator.apply(currentValue, value));
+				if (this.recordsIn % combineBufferSize == 0){
+					this.checkCombineRatio();
+				}
+			}
+		}
+
+		/**
+		 * Switches to pass-through if the ratio of records combined (evicted or added to the buffer)
+		 * during the last window of <i>combineBufferSize</i> records exceeds <i>maxCombineRatio</i>.
+		 */
+		private void checkCombineRatio(){
+			long combinedRecordsOut = this.recordsEvicted + this.buffer.size();
+			if ((double) (combinedRecordsOut - this.windowRecordsOut) / combineBufferSize > maxCombineRatio){
+				this.passThrough = true;
+				this.passThroughAfter = this.recordsIn;
+				this.flush();
+			}
+			else {
+				this.windowRecordsOut = combinedRecordsOut;
+			}
+		}
+
+		/**
+		 *
+		 */
+		private void flush(){
+			this.buffer.forEach((k, v) -> this.pending.add(KVUtils.kv(k, v)));
+			this.buffer.clear();
+		}
+	}
 }
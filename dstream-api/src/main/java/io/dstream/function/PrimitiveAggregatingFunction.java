@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.function;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.Map.Entry;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import io.dstream.SerializableStreamAssets.SerBinaryOperator;
+import io.dstream.SerializableStreamAssets.SerFunction;
+import io.dstream.SerializableStreamAssets.SerToDoubleFunction;
+import io.dstream.SerializableStreamAssets.SerToLongFunction;
+import io.dstream.utils.Assert;
+import io.dstream.utils.KVUtils;
+
+/**
+ * Implementation of {@link SerFunction} which aggregates the entire {@link Stream}
+ * (e.g., partition) into a single partial result using primitive streams
+ * (i.e., {@link LongStream} and {@link DoubleStream}), so individual values are never boxed.<br>
+ * Partial result is emitted as Key/Value pair with the key of <i>0</i> so it could be
+ * shuffled into a single partition where partial results are combined using
+ * {@link #getCombiner()} and converted to the final value using {@link #getFinisher()}.<br>
+ * Partial results are: {@link Long} for <i>count</i>, {@link Long} or {@link Double}
+ * for <i>sum</i>, <i>min</i> and <i>max</i> and <i>long[]{sum, count}</i> or <i>double[]{sum, count}</i>
+ * for <i>average</i> (so <i>long</i> values are summed exactly and divided only by the finisher).<br>
+ * <i>count</i>, <i>min</i>, <i>max</i> and <i>average</i> of an empty {@link Stream} produce no partial result,
+ * so they produce no value at all if every partition is empty, while <i>sum</i> produces <i>0</i>.
+ *
+ * @param <T> the type of the source stream
+ */
+public class PrimitiveAggregatingFunction<T> implements SerFunction<Stream<T>, Stream<Entry<Integer, Object>>> {
+	private static final long serialVersionUID = 4916231585624470734L;
+
+	/**
+	 * Supported aggregations.
+	 */
+	public static enum Aggregation {
+		COUNT, SUM, MIN, MAX, AVERAGE
+	}
+
+	private final Aggregation aggregation;
+
+	private final SerToLongFunction<? super T> longMapper;
+
+	private final SerToDoubleFunction<? super T> doubleMapper;
+
+	/**
+	 *
+	 */
+	private PrimitiveAggregatingFunction(Aggregation aggregation, SerToLongFunction<? super T> longMapper, SerToDoubleFunction<? super T> doubleMapper) {
+		Assert.notNull(aggregation, "'aggregation' must not be null");
+		this.aggregation = aggregation;
+		this.longMapper = longMapper;
+		this.doubleMapper = doubleMapper;
+	}
+
+	/**
+	 * Creates function which counts elements of the {@link Stream}.
+	 */
+	public static <T> PrimitiveAggregatingFunction<T> counting(){
+		return new PrimitiveAggregatingFunction<>(Aggregation.COUNT, null, null);
+	}
+
+	/**
+	 * Creates function which performs the given {@link Aggregation} on <i>long</i>
+	 * values produced by the given <i>mapper</i>.
+	 */
+	public static <T> PrimitiveAggregatingFunction<T> ofLongs(Aggregation aggregation, SerToLongFunction<? super T> mapper){
+		Assert.notNull(mapper, "'mapper' must not be null");
+		return new PrimitiveAggregatingFunction<>(aggregation, mapper, null);
+	}
+
+	/**
+	 * Creates function which performs the given {@link Aggregation} on <i>double</i>
+	 * values produced by the given <i>mapper</i>.
+	 */
+	public static <T> PrimitiveAggregatingFunction<T> ofDoubles(Aggregation aggregation, SerToDoubleFunction<? super T> mapper){
+		Assert.notNull(mapper, "'mapper' must not be null");
+		return new PrimitiveAggregatingFunction<>(aggregation, null, mapper);
+	}
+
+	/**
+	 * Will aggregate the given {@link Stream} into a {@link Stream} of at most one
+	 * Key/Value pair holding the partial result.
+	 */
+	@Override
+	public Stream<Entry<Integer, Object>> apply(Stream<T> streamIn) {
+		Assert.notNull(streamIn, "'streamIn' must not be null");
+		Object partialResult;
+		if (this.aggregation == Aggregation.COUNT){
+			long count = streamIn.count();
+			partialResult = count > 0 ? count : null;
+		}
+		else if (this.longMapper != null){
+			partialResult = this.aggregateLongs(streamIn.mapToLong(this.longMapper));
+		}
+		else {
+			partialResult = this.aggregateDoubles(streamIn.mapToDouble(this.doubleMapper));
+		}
+		return partialResult == null ? Stream.empty() : Stream.of(KVUtils.kv(0, partialResult));
+	}
+
+	/**
+	 * Returns {@link SerBinaryOperator} to combine partial results produced by this function.
+	 */
+	@SuppressWarnings("rawtypes")
+	public SerBinaryOperator getCombiner() {
+		switch (this.aggregation) {
+		case COUNT:
+			return (SerBinaryOperator<Long>) (a, b) -> a + b;
+		case SUM:
+			return this.longMapper != null
+					? (SerBinaryOperator<Long>) (a, b) -> a + b
+							: (SerBinaryOperator<Double>) (a, b) -> a + b;
+		case MIN:
+			return this.longMapper != null
+					? (SerBinaryOperator<Long>) (a, b) -> Math.min(a, b)
+							: (SerBinaryOperator<Double>) (a, b) -> Math.min(a, b);
+		case MAX:
+			return this.longMapper != null
+					? (SerBinaryOperator<Long>) (a, b) -> Math.max(a, b)
+							: (SerBinaryOperator<Double>) (a, b) -> Math.max(a, b);
+		default:
+			return this.longMapper != null
+					? (SerBinaryOperator<long[]>) (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]}
+							: (SerBinaryOperator<double[]>) (a, b) -> new double[]{a[0] + b[0], a[1] + b[1]};
+		}
+	}
+
+	/**
+	 * Returns {@link SerFunction} to convert the combined partial result to the
+	 * final value or <i>null</i> if no conversion is required.
+	 */
+	public SerFunction<Object, Object> getFinisher() {
+		if (this.aggregation != Aggregation.AVERAGE){
+			return null;
+		}
+		return this.longMapper != null
+				? partialResult -> (double) ((long[])partialResult)[0] / ((long[])partialResult)[1]
+						: partialResult -> ((double[])partialResult)[0] / ((double[])partialResult)[1];
+	}
+
+	/**
+	 *
+	 */
+	private Object aggregateLongs(LongStream values){
+		switch (this.aggregation) {
+		case SUM:
+			return values.sum();
+		case MIN:
+			OptionalLong min = values.min();
+			return min.isPresent() ? min.getAsLong() : null;
+		case MAX:
+			OptionalLong max = values.max();
+			return max.isPresent() ? max.getAsLong() : null;
+		default:
+			LongSummaryStatistics statistics = values.summaryStatistics();
+			return statistics.getCount() > 0 ? new long[]{statistics.getSum(), statistics.getCount()} : null;
+		}
+	}
+
+	/**
+	 *
+	 */
+	private Object aggregateDoubles(DoubleStream values){
+		switch (this.aggregation) {
+		case SUM:
+			return values.sum();
+		case MIN:
+			OptionalDouble min = values.min();
+			return min.isPresent() ? min.getAsDouble() : null;
+		case MAX:
+			OptionalDouble max = values.max();
+			return max.isPresent() ? max.getAsDouble() : null;
+		default:
+			DoubleSummaryStatistics statistics = values.summaryStatistics();
+			return statistics.getCount() > 0 ? new double[]{statistics.getSum(), statistics.getCount()} : null;
+		}
+	}
+}
@@ -47,6 +47,15 @@ public class ValuesAggregatingFunction<K,V,T> extends  ValuesReducingFunction<K,
 		super(aggregator);
 	}
 	
+	/**
+	 * Always returns <i>null</i>, since aggregating values incrementally would not
+	 * reduce the amount of values associated with the same key.
+	 */
+	@Override
+	public SerBinaryOperator<V> getCombiner() {
+		return null;
+	}
+
 	/**
 	 * 
 	 */
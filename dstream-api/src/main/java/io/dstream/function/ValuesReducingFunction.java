@@ -53,6 +53,16 @@ public class ValuesReducingFunction<K,V,T> implements SerFunction<Stream<Entry<K
 		this.reducer = reducer;
 	}
 
+	/**
+	 * Returns the reducer of this function if values associated with the same key
+	 * could be reduced incrementally as they arrive (e.g., by a combiner during shuffle),
+	 * otherwise <i>null</i>.
+	 */
+	@SuppressWarnings("unchecked")
+	public SerBinaryOperator<V> getCombiner() {
+		return this.reducer;
+	}
+
 	/**
 	 * 
 	 */
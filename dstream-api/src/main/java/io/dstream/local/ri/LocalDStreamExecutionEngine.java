@@ -17,36 +17,47 @@
  */
 package io.dstream.local.ri;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import io.dstream.DStreamConstants;
 import io.dstream.DStreamExecutionGraph;
 import io.dstream.DStreamOperation;
+import io.dstream.Ops;
 import io.dstream.SerializableStreamAssets.SerFunction;
-import io.dstream.local.ri.ShuffleHelper.RefHolder;
+import io.dstream.function.ValuesReducingFunction;
 import io.dstream.support.AbstractPartitionedStreamProducingSourceSupplier;
-import io.dstream.support.Aggregators;
 import io.dstream.support.Classifier;
 import io.dstream.support.HashClassifier;
 import io.dstream.support.PartitionIdHelper;
 import io.dstream.support.SourceSupplier;
 import io.dstream.support.UriSourceSupplier;
+import io.dstream.utils.Assert;
 import io.dstream.utils.KVUtils;
 import io.dstream.utils.ReflectionUtils;
-import io.dstream.utils.SingleValueIterator;
+import io.dstream.utils.SpillFile;
 
 /**
  *
@@ -54,21 +65,53 @@ import io.dstream.utils.SingleValueIterator;
  */
 final class LocalDStreamExecutionEngine {
 
+	/*
+	 * Spill threshold applied to pipelined execution if none is configured (see DStreamConstants.LOCAL_SPILL_THRESHOLD),
+	 * so shuffle boundaries, where pipelined execution accumulates data, are bounded by default.
+	 */
+	private static final long DEFAULT_PIPELINED_SPILL_THRESHOLD = 1000000;
+
+	private final Logger logger = Logger.getLogger(this.getClass().getName());
+
 	private final Properties executionConfig;
 
 	private final String executionName;
 
 	private final Classifier classifier;
 
-	private List<List<?>> realizedStageResults;
+	private List<Entry<Integer, Supplier<Stream<?>>>> stageResults;
 
 	private final ThreadLocal<Integer> partitionIdHolder;
 
+	private final int threads;
+
+	private final boolean pipelined;
+
+	private String shuffleMode;
+
+	private boolean sortMergeJoin;
+
+	private final long spillThreshold;
+
+	private final File spillDirectory;
+
+	private final int spillBufferSize;
+
+	private ExecutorService executor;
+
 	@SuppressWarnings("unchecked")
 	public LocalDStreamExecutionEngine(String executionName, Properties executionConfig){
 		this.executionName = executionName;
 		this.executionConfig = executionConfig;
 		this.classifier = this.determineClassifier();
+		this.threads = Integer.parseInt(executionConfig.getProperty(DStreamConstants.LOCAL_THREADS, "1"));
+		this.pipelined = Boolean.parseBoolean(executionConfig.getProperty(DStreamConstants.LOCAL_PIPELINED, "false"));
+		Assert.isFalse(this.threads > 1 && this.pipelined, "'" + DStreamConstants.LOCAL_THREADS + "' is not supported when '"
+				+ DStreamConstants.LOCAL_PIPELINED + "' is enabled, since partitions are pulled by the consuming thread");
+		this.spillThreshold = Long.parseLong(executionConfig.getProperty(DStreamConstants.LOCAL_SPILL_THRESHOLD,
+				this.pipelined ? String.valueOf(DEFAULT_PIPELINED_SPILL_THRESHOLD) : "0"));
+		this.spillDirectory = new File(executionConfig.getProperty(DStreamConstants.LOCAL_SPILL_DIR, System.getProperty("java.io.tmpdir")));
+		this.spillBufferSize = Integer.parseInt(executionConfig.getProperty(DStreamConstants.LOCAL_SPILL_BUFFER_SIZE, String.valueOf(SpillFile.DEFAULT_BUFFER_SIZE)));
 		try {
 			Field tl = ReflectionUtils.findField(PartitionIdHelper.class, "partitionIdHolder", ThreadLocal.class);
 			tl.setAccessible(true);
@@ -82,20 +125,34 @@ final class LocalDStreamExecutionEngine {
 	 *
 	 */
 	public Stream<Stream<?>> execute(DStreamExecutionGraph pipeline) {
-		return this.execute(pipeline, false);
+		return this.execute(pipeline, false, false).stream().map(stageResult -> stageResult.getValue().get());
 	}
 
 	/**
-	 *
+	 * Keys are always sorted when the <i>pipeline</i> (or the pipeline it is joined with)
+	 * uses sort-merge join (see {@link DStreamConstants#JOIN_SORT_MERGE}), since merging relies on the key order.
 	 */
-	private Stream<Stream<?>> execute(DStreamExecutionGraph pipeline, boolean partition) {
+	private List<Entry<Integer, Supplier<Stream<?>>>> execute(DStreamExecutionGraph pipeline, boolean partition, boolean sortMergeJoin) {
 		List<DStreamOperation> streamOperations = pipeline.getOperations();
+		this.sortMergeJoin = sortMergeJoin
+				|| Boolean.parseBoolean(this.executionConfig.getProperty(DStreamConstants.JOIN_SORT_MERGE + pipeline.getName(), "false"));
+		this.shuffleMode = this.determineShuffleMode(pipeline.getName());
 
-		for (int i = 0; i < streamOperations.size(); i++) {
-			this.doExecuteStage(streamOperations.get(i), partition, pipeline.getName());
+		this.executor = this.threads > 1
+				? Executors.newFixedThreadPool(this.threads, new PartitionWorkerThreadFactory(pipeline.getName()))
+						: null;
+		try {
+			for (int i = 0; i < streamOperations.size(); i++) {
+				this.doExecuteStage(streamOperations.get(i), partition, pipeline.getName());
+			}
+		}
+		finally {
+			if (this.executor != null){
+				this.executor.shutdownNow();
+			}
 		}
 
-		return this.realizedStageResults.stream().map(list -> list.stream());
+		return this.stageResults;
 	}
 
 	/**
@@ -103,62 +160,160 @@ final class LocalDStreamExecutionEngine {
 	 * @param streamOperation
 	 * @param partition
 	 */
-	@SuppressWarnings("unchecked")
 	private void doExecuteStage(DStreamOperation streamOperation, boolean partition, String pipelineName){
 		SerFunction<Stream<?>, Stream<?>> streamFunction = streamOperation.getStreamOperationFunction();
 
-		if (this.realizedStageResults == null){
-			List<List<?>> realizedIntermediateResult = Stream.of( streamFunction.apply(this.createInitialStream(pipelineName)) )
-					.map(stream -> stream.collect(Collectors.toList()))
-					.collect(Collectors.toList());
+		if (this.stageResults == null){
+			List<Entry<Integer, Supplier<Stream<?>>>> initialPartitions =
+					Collections.singletonList(KVUtils.kv(0, () -> this.createInitialStream(pipelineName)));
+			this.stageResults = this.applyStageFunction(initialPartitions, streamFunction);
 
 			if (partition){
-				Stream<?> mergedStream = realizedIntermediateResult.stream().map(list -> ((Stream<Object>)list.stream())).reduce((a,b) -> Stream.concat(a, b)).get();
-				Stream<Entry<Integer, List<Object>>> partitionedStreamResult = this.partitionStream(mergedStream);
-				Stream<Stream<?>> partitionedStreamResultNoId = this.unmapPartitions(partitionedStreamResult);
-				realizedIntermediateResult = partitionedStreamResultNoId.map(stream -> stream.collect(Collectors.toList())).collect(Collectors.toList());
+				this.stageResults = this.shuffle(this.stageResults, null, this.sortShuffledKeys(null));
 			}
-
-			this.realizedStageResults = realizedIntermediateResult;
 		}
 		else {
-			Stream<?> mergedStream = this.realizedStageResults.stream().map(list -> ((Stream<Object>)list.stream())).reduce((a,b) -> Stream.concat(a, b)).get();
-
-			Stream<Entry<Integer, List<Object>>> partitionedStreamResult = this.partitionStream(mergedStream);
-			Stream<Stream<?>> partitionedStreamResultNoId = this.unmapPartitions(partitionedStreamResult);
+			List<Entry<Integer, Supplier<Stream<?>>>> partitions = this.shuffle(this.stageResults, this.determineCombiner(streamOperation),
+					this.sortShuffledKeys(streamOperation));
 
 			if (streamOperation.getCombinableExecutionGraphs().size() > 0){
-				List<Stream<?>> currentPartitions = partitionedStreamResultNoId.collect(Collectors.toList());
-				Map<Integer, Object> matchedPartitions = new LinkedHashMap<>();
-				for (int i = 0; i < currentPartitions.size(); i++) {
-					matchedPartitions.merge(i, currentPartitions.get(i), Aggregators::aggregateToList);
-				}
-
 				List<DStreamExecutionGraph> dependentPipelines = streamOperation.getCombinableExecutionGraphs();
+				List<List<Entry<Integer, Supplier<Stream<?>>>>> combinedPartitions = new ArrayList<>();
+				combinedPartitions.add(partitions);
 				for (DStreamExecutionGraph dependentPipeline : dependentPipelines) {
 					LocalDStreamExecutionEngine e = new LocalDStreamExecutionEngine(this.executionName, this.executionConfig);
-					Stream<Stream<?>> dependentStream = e.execute(dependentPipeline, true);
-					List<Stream<?>> dependentPartitions = dependentStream.collect(Collectors.toList());
-					for (int i = 0; i < dependentPartitions.size(); i++) {
-						matchedPartitions.merge(i, dependentPartitions.get(i), Aggregators::aggregateToList);
-					}
+					combinedPartitions.add(e.execute(dependentPipeline, true, this.sortMergeJoin));
 				}
-				partitionedStreamResultNoId = matchedPartitions.values().stream().map(list -> ((List<?>)list).stream());
+				partitions = this.matchPartitions(combinedPartitions);
 			}
 
-			Stream<Stream<?>> transformedStreams = partitionedStreamResultNoId.map(stream -> streamFunction.apply(stream));
-			List<List<?>> realizedIntermediateResult = transformedStreams.map(stream -> stream.collect(Collectors.toList())).collect(Collectors.toList());
-			this.realizedStageResults = realizedIntermediateResult;
+			this.stageResults = this.applyStageFunction(partitions, streamFunction);
 		}
 	}
 
 	/**
-	 *
-	 * @param shuffledPartitionStream
-	 * @return
+	 * Matches partitions of the combined (e.g., joined) streams by partition id, producing 
+	 * for each partition id the {@link Stream} of partition streams of every combined stream in order.
+	 * Since shuffle only produces non-empty partitions, empty {@link Stream} is used for 
+	 * partitions missing in some of the combined streams.
+	 */
+	private List<Entry<Integer, Supplier<Stream<?>>>> matchPartitions(List<List<Entry<Integer, Supplier<Stream<?>>>>> combinedPartitions){
+		Map<Integer, Stream<?>[]> matchedPartitions = new TreeMap<>();
+		for (int i = 0; i < combinedPartitions.size(); i++) {
+			for (Entry<Integer, Supplier<Stream<?>>> partition : combinedPartitions.get(i)) {
+				matchedPartitions.computeIfAbsent(partition.getKey(), partitionId -> new Stream<?>[combinedPartitions.size()])[i] = partition.getValue().get();
+			}
+		}
+		return matchedPartitions.entrySet().stream()
+				.map(entry -> KVUtils.kv(entry.getKey(), (Supplier<Stream<?>>) () -> Stream.of(entry.getValue())
+						.map(partitionStream -> partitionStream == null ? Stream.empty() : partitionStream)))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Applies stage function to each partition.<br>
+	 * If {@link DStreamConstants#LOCAL_PIPELINED} is <i>true</i> the function is only composed
+	 * with each partition's {@link Stream} and will be evaluated lazily when such {@link Stream}
+	 * is consumed (by the next shuffle or by the caller of {@link #execute(DStreamExecutionGraph)}),
+	 * otherwise partitions are realized (see {@link #realizePartitions(List)}).<br>
+	 * In both cases partition id is bound to the processing thread (see {@link PartitionIdHelper})
+	 * before the partition's {@link Stream} is created.
 	 */
-	private Stream<Stream<?>> unmapPartitions(Stream<Entry<Integer, List<Object>>> shuffledPartitionStream) {
-		return shuffledPartitionStream.map(entry -> entry.getValue().stream().map(val -> { this.partitionIdHolder.set(entry.getKey());  return val;}));
+	private List<Entry<Integer, Supplier<Stream<?>>>> applyStageFunction(List<Entry<Integer, Supplier<Stream<?>>>> partitions,
+			SerFunction<Stream<?>, Stream<?>> streamFunction){
+		List<Entry<Integer, Supplier<Stream<?>>>> stagePartitions = partitions.stream()
+				.map(partition -> KVUtils.kv(partition.getKey(), (Supplier<Stream<?>>) () -> {
+					Integer partitionId = partition.getKey();
+					this.partitionIdHolder.set(partitionId);
+					Stream<?> partitionStream = partition.getValue().get();
+					if (this.pipelined){
+						/*
+						 * Lazily evaluated partitions could be consumed in any order,
+						 * so partition id is bound for each element.
+						 */
+						partitionStream = partitionStream.map(val -> {
+							this.partitionIdHolder.set(partitionId);
+							return val;
+						});
+					}
+					return streamFunction.apply(partitionStream);
+				}))
+				.collect(Collectors.toList());
+
+		return this.pipelined ? stagePartitions : this.realizePartitions(stagePartitions);
+	}
+
+	/**
+	 * Realizes results of each partition.<br>
+	 * If {@link DStreamConstants#LOCAL_THREADS} is greater then 1 partitions are processed
+	 * concurrently by the worker threads of this engine, otherwise sequentially by the calling thread.
+	 */
+	private List<Entry<Integer, Supplier<Stream<?>>>> realizePartitions(List<Entry<Integer, Supplier<Stream<?>>>> partitions){
+		List<Callable<List<?>>> partitionTasks = partitions.stream()
+				.map(partition -> (Callable<List<?>>) () -> {
+					// closed once realized, releasing resources held by the stage (e.g., join buffers)
+					try (Stream<?> partitionStream = partition.getValue().get()){
+						return partitionStream.collect(Collectors.toList());
+					}
+				})
+				.collect(Collectors.toList());
+
+		List<Entry<Integer, Supplier<Stream<?>>>> realizedPartitions = new ArrayList<>();
+		try {
+			if (this.executor == null){
+				for (int i = 0; i < partitionTasks.size(); i++) {
+					List<?> realizedPartition = partitionTasks.get(i).call();
+					realizedPartitions.add(KVUtils.kv(partitions.get(i).getKey(), () -> realizedPartition.stream()));
+				}
+			}
+			else {
+				List<Future<List<?>>> partitionResults = this.executor.invokeAll(partitionTasks);
+				for (int i = 0; i < partitionResults.size(); i++) {
+					List<?> realizedPartition = partitionResults.get(i).get();
+					realizedPartitions.add(KVUtils.kv(partitions.get(i).getKey(), () -> realizedPartition.stream()));
+				}
+			}
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error){
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Failed to process partition", cause);
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new IllegalStateException("Failed to process partition", e);
+		}
+		return realizedPartitions;
+	}
+
+	/**
+	 * Shuffles the output of the previous stage into new partitions.<br>
+	 * Partitions of the previous stage are consumed one at the time directly into the
+	 * {@link ShuffleBuffer}, so shuffle buffers are the only place where stage data is accumulated.
+	 * If {@link DStreamConstants#LOCAL_SPILL_THRESHOLD} is provided, the buffer is spilled to disk
+	 * once such threshold is reached.<br>
+	 * If <i>combiner</i> is provided, values associated with the same key are reduced by
+	 * the shuffle as they arrive (see {@link #determineCombiner(DStreamOperation)}).
+	 * Keys of each shuffled partition are sorted only if <i>sortKeys</i> is <i>true</i>
+	 * (see {@link #sortShuffledKeys(DStreamOperation)}).
+	 */
+	private List<Entry<Integer, Supplier<Stream<?>>>> shuffle(List<Entry<Integer, Supplier<Stream<?>>>> partitions, BinaryOperator<?> combiner, boolean sortKeys){
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(this.classifier, combiner, sortKeys,
+				this.spillThreshold, this.spillDirectory, this.spillBufferSize);
+		partitions.stream().flatMap(partition -> partition.getValue().get()).forEach(shuffleBuffer::add);
+
+		if (shuffleBuffer.getSpillCount() > 0){
+			logger.info("Shuffle of '" + this.executionName + "' spilled " + shuffleBuffer.getSpillCount()
+					+ " time(s), " + shuffleBuffer.getSpilledBytes() + " bytes to " + this.spillDirectory);
+		}
+		return shuffleBuffer.getPartitions();
 	}
 
 	/**
@@ -196,57 +351,46 @@ final class LocalDStreamExecutionEngine {
 	}
 
 	/**
-	 *
-	 * @param streamToShuffle
-	 * @return
+	 * Returns the combiner to be used by the shuffle preceding the given {@link DStreamOperation}.
+	 * Combiner is available if the operation begins with reducing values (e.g., 'reduceValues', 'count'),
+	 * in which case values are reduced during shuffle, keeping a single value per key in memory
+	 * instead of all values.
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private Stream<Entry<Integer, List<Object>>> partitionStream(Stream<?> streamToShuffle){
-		//		Map collectedPartitions = streamToShuffle.collect(Collectors.groupingBy(element -> this.classifier.getClassificationId(element), Collectors.toList()));
-		//		Stream<Entry<Integer, List<Object>>> groupedPartitionsStream = collectedPartitions.entrySet().stream();
-		//		return groupedPartitionsStream;
-
-		Stream<Entry<Integer, Object>> partitionedStream = streamToShuffle
-				.map(element -> KVUtils.kv(this.classifier.getClassificationId(element), element));
-
-
-		/*
-		 * Groups elements for each partition using ShuffleHelper
-		 * If an element is a Key/Value Entry, then ShuffleHelper will group it as Key/List[Values]
-		 * 		The resulting partition entry will look like this: {0={key1=[v,v,v,v],key2=v}}
-		 * If an element is not a Key/Value Entry,then values will be grouped into a List - List[Values]
-		 * 		The resulting partition entry will look like this: {0=[v1,v2,v1,v3],v4}
-		 */
-		Stream<Map<Integer, ?>> groupedPartitionsStream = Stream.of(partitionedStream)
-				.map(stream -> stream.collect(Collectors.toMap((Entry<Integer, Object> s) -> s.getKey(), s -> (Object)new RefHolder(s.getValue()), ShuffleHelper::group)));
-
-		Stream<Entry<Integer, List<Object>>> normalizedPartitionStream = groupedPartitionsStream.flatMap(map -> map.entrySet().stream()).map(entry -> {
-			Object value = entry.getValue();
-			Entry<Integer, List<Object>> normalizedEntry = null;
-
-			if (value instanceof RefHolder){
-				Object realValue = ((RefHolder) value).ref;
-				if (realValue instanceof Entry){
-					value = Stream.of((Entry) realValue).collect(Collectors.toMap(e -> e.getKey(), e -> Collections.singletonList(e.getValue())));
-				}
-				else {
-					value = Stream.of(realValue).collect(Collectors.toList());
-				}
-			}
+	private BinaryOperator<?> determineCombiner(DStreamOperation streamOperation){
+		SerFunction<?,?> rootFunction = streamOperation.getRootStreamOperationFunction();
+		return rootFunction instanceof ValuesReducingFunction
+				? ((ValuesReducingFunction<?,?,?>)rootFunction).getCombiner()
+						: null;
+	}
 
-			if (value instanceof Map){
-				Map vMap = (Map) value;
-				vMap.forEach((k,v) -> vMap.replace(k, v instanceof List ? ((List)v).iterator() : new SingleValueIterator(v) ));
-				TreeMap<Object, Object> sortedMap = new TreeMap<>(vMap);
-				normalizedEntry = KVUtils.kv(entry.getKey(), new ArrayList<>(sortedMap.entrySet()));
-			}
-			else {
-				normalizedEntry = KVUtils.kv(entry.getKey(), (List)value);
-			}
+	/**
+	 * Returns <i>true</i> if keys of the partitions shuffled for the given (consuming) {@link DStreamOperation}
+	 * must be sorted, which is the case when the pipeline (or the pipeline it is joined with) uses sort-merge join, 
+	 * when 'sort' shuffle mode is configured for the pipeline (see {@link DStreamConstants#LOCAL_SHUFFLE}) or, 
+	 * if no shuffle mode is configured, when the first operation of the consuming {@link DStreamOperation}
+	 * does not only group values by key (see {@link Ops#isHashGrouping(String)}).<br>
+	 * <i>null</i> consuming operation identifies the shuffle of the pipeline combined with 
+	 * (e.g., joined to) another pipeline, which only needs its values grouped by key.
+	 */
+	private boolean sortShuffledKeys(DStreamOperation consumingOperation){
+		if (this.sortMergeJoin){
+			return true;
+		}
+		else if (this.shuffleMode != null){
+			return this.shuffleMode.equals("sort");
+		}
+		return consumingOperation != null && !Ops.isHashGrouping(consumingOperation.getFirstOperationName());
+	}
 
-			return normalizedEntry;
-		});
-		return normalizedPartitionStream;
+	/**
+	 * Returns shuffle mode configured for the given pipeline (see {@link DStreamConstants#LOCAL_SHUFFLE})
+	 * or <i>null</i> if not configured.
+	 */
+	private String determineShuffleMode(String pipelineName){
+		String shuffleMode = this.executionConfig.getProperty(DStreamConstants.LOCAL_SHUFFLE + pipelineName);
+		Assert.isTrue(shuffleMode == null || shuffleMode.equals("hash") || shuffleMode.equals("sort"),
+				"Unsupported shuffle mode '" + shuffleMode + "' for pipeline '" + pipelineName + "'. Supported modes are 'hash' and 'sort'");
+		return shuffleMode;
 	}
 
 	/**
@@ -262,4 +406,25 @@ final class LocalDStreamExecutionEngine {
 				? ReflectionUtils.newInstance(partitionerProp, new Class[]{int.class}, new Object[]{parallelism})
 						: new HashClassifier(parallelism);
 	}
+
+	/**
+	 * {@link ThreadFactory} which creates daemon threads used to process partitions
+	 * when {@link DStreamConstants#LOCAL_THREADS} is greater then 1.
+	 */
+	private static class PartitionWorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadCounter = new AtomicInteger();
+
+		private final String pipelineName;
+
+		PartitionWorkerThreadFactory(String pipelineName){
+			this.pipelineName = pipelineName;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "dstream-local-" + this.pipelineName + "-" + this.threadCounter.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
 }
@@ -0,0 +1,548 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.local.ri;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.dstream.support.Classifier;
+import io.dstream.support.CollectionFactory;
+import io.dstream.utils.Assert;
+import io.dstream.utils.KVUtils;
+import io.dstream.utils.PrimitiveKeyMap;
+import io.dstream.utils.SpillCodec;
+import io.dstream.utils.SpillFile;
+
+/**
+ * Buffers elements shuffled by the {@link LocalDStreamExecutionEngine}, grouping them
+ * into partitions identified by the {@link Classifier}.<br>
+ * If an element is a Key/Value {@link Entry}, its values are grouped by key and the resulting
+ * partition consists of Key/Iterator[Values] entries, otherwise partition consists of values.<br>
+ * <br>
+ * When the amount of buffered values reaches the <i>spill threshold</i> the content of each
+ * partition is written to its own {@link SpillFile} (see {@link SpillCodec}) as a run sorted by key
+ * (natural order if keys must be sorted, otherwise hash code order). Runs are merged back
+ * with a k-way merge when partition is consumed. Spill files are deleted once merged or when the
+ * {@link Stream} of the partition is closed, hence each partition could only be streamed once
+ * (regardless of whether it was spilled).<br>
+ * Spill threshold is a count of buffered values (or keys, if values are combined), not of bytes.<br>
+ * <br>
+ * If <i>combiner</i> is provided, values associated with the same key are reduced as they arrive,
+ * so only a single (accumulated) value per key is buffered (and spilled).<br>
+ * <br>
+ * Values are grouped in {@link PrimitiveKeyMap}, so {@link Integer} and {@link Long} keys are held unboxed,
+ * while partitions and grouped values are allocated by the {@link CollectionFactory} (see {@link CollectionFactory#getInstance()}).<br>
+ * <br>
+ * Instances of this class are not thread-safe.
+ */
+final class ShuffleBuffer {
+
+	private final Classifier classifier;
+
+	private final boolean sortKeys;
+
+	private final long spillThreshold;
+
+	private final File spillDirectory;
+
+	private final int spillBufferSize;
+
+	private final Object[] partitions;
+
+	private final boolean[] keyValuePartitions;
+
+	private final List<List<SpillFile>> partitionSpills;
+
+	private final Comparator<Object> keyComparator;
+
+	private final BinaryOperator<Object> combiner;
+
+	private final CollectionFactory collectionFactory;
+
+	private long bufferedValues;
+
+	private int spillCount;
+
+	private long spilledBytes;
+
+	/**
+	 * Constructs this instance.
+	 *
+	 * @param classifier the {@link Classifier} to determine partition of each element
+	 * @param combiner the function to reduce values associated with the same key as they
+	 * arrive. Could be <i>null</i> in which case all values are buffered.
+	 * @param sortKeys whether keys of each partition must be sorted
+	 * @param spillThreshold the amount of buffered values (not bytes) after which the buffer
+	 * is spilled to disk. Value &lt;= 0 disables spilling.
+	 * @param spillDirectory directory where spill files are created
+	 * @param spillBufferSize size (in bytes) of the I/O buffer used to write and read spill files
+	 */
+	@SuppressWarnings("unchecked")
+	ShuffleBuffer(Classifier classifier, BinaryOperator<?> combiner, boolean sortKeys, long spillThreshold, File spillDirectory, int spillBufferSize){
+		this.classifier = classifier;
+		this.combiner = (BinaryOperator<Object>) combiner;
+		this.sortKeys = sortKeys;
+		this.spillThreshold = spillThreshold;
+		this.spillDirectory = spillDirectory;
+		this.spillBufferSize = spillBufferSize;
+		this.partitions = new Object[classifier.getSize()];
+		this.keyValuePartitions = new boolean[classifier.getSize()];
+		this.partitionSpills = new ArrayList<>(classifier.getSize());
+		for (int i = 0; i < classifier.getSize(); i++) {
+			this.partitionSpills.add(new ArrayList<>());
+		}
+		this.keyComparator = sortKeys ? ShuffleBuffer::compareNatural : ShuffleBuffer::compareHash;
+		this.collectionFactory = CollectionFactory.getInstance();
+	}
+
+	/**
+	 * Adds element to the partition determined by the {@link Classifier}.
+	 */
+	@SuppressWarnings("unchecked")
+	void add(Object element){
+		int partitionId = this.classifier.getClassificationIdAsInt(element);
+		if (element instanceof Entry){
+			Map<Object, Object> partition = (Map<Object, Object>) this.partitions[partitionId];
+			if (partition == null){
+				partition = new PrimitiveKeyMap<>();
+				this.partitions[partitionId] = partition;
+				this.keyValuePartitions[partitionId] = true;
+			}
+			Entry<Object, Object> entry = (Entry<Object, Object>) element;
+			if (this.combiner != null){
+				int keysCount = partition.size();
+				partition.merge(entry.getKey(), entry.getValue(), this.combiner);
+				if (partition.size() == keysCount){
+					// value was folded into the existing accumulator, so nothing was added to the buffer
+					return;
+				}
+			}
+			else {
+				((List<Object>) partition.computeIfAbsent(entry.getKey(), key -> this.collectionFactory.newList())).add(entry.getValue());
+			}
+		}
+		else {
+			List<Object> partition = (List<Object>) this.partitions[partitionId];
+			if (partition == null){
+				partition = this.collectionFactory.newList();
+				this.partitions[partitionId] = partition;
+			}
+			partition.add(element);
+		}
+
+		if (this.spillThreshold > 0 && ++this.bufferedValues >= this.spillThreshold){
+			this.spill();
+		}
+	}
+
+	/**
+	 * Returns non-empty partitions of this buffer ordered by partition id, where each
+	 * partition is represented by the {@link Supplier} of its {@link Stream} which could only be called once.
+	 * Partitions which were spilled are merged lazily when their {@link Stream} is consumed.
+	 */
+	List<Entry<Integer, Supplier<Stream<?>>>> getPartitions(){
+		List<Entry<Integer, Supplier<Stream<?>>>> result = new ArrayList<>();
+		for (int partitionId = 0; partitionId < this.partitions.length; partitionId++) {
+			Object partition = this.partitions[partitionId];
+			List<SpillFile> spills = this.partitionSpills.get(partitionId);
+			if (partition != null || !spills.isEmpty()){
+				result.add(KVUtils.kv(partitionId, this.toPartitionSupplier(partitionId)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the amount of times this buffer was spilled to disk.
+	 */
+	int getSpillCount(){
+		return this.spillCount;
+	}
+
+	/**
+	 * Returns the total amount of bytes spilled to disk.
+	 */
+	long getSpilledBytes(){
+		return this.spilledBytes;
+	}
+
+	/**
+	 * Returns {@link Supplier} of the partition's {@link Stream} which fails if called more then once,
+	 * since spill files are deleted as they are read (or when the {@link Stream} is closed).
+	 */
+	private Supplier<Stream<?>> toPartitionSupplier(int partitionId){
+		Supplier<Stream<?>> partitionSupplier = this.toPartitionStreamSupplier(partitionId);
+		List<SpillFile> spills = this.partitionSpills.get(partitionId);
+		return new Supplier<Stream<?>>() {
+			private boolean streamed;
+			@Override
+			public Stream<?> get() {
+				Assert.isFalse(this.streamed, "Partition " + partitionId + " of the shuffle could only be streamed once");
+				this.streamed = true;
+				return partitionSupplier.get().onClose(() -> spills.forEach(SpillFile::delete));
+			}
+		};
+	}
+
+	/**
+	 *
+	 */
+	@SuppressWarnings("unchecked")
+	private Supplier<Stream<?>> toPartitionStreamSupplier(int partitionId){
+		Object partition = this.partitions[partitionId];
+		List<SpillFile> spills = this.partitionSpills.get(partitionId);
+		if (this.keyValuePartitions[partitionId]){
+			List<Entry<Object, List<Object>>> groupedValues = partition == null
+					? Collections.emptyList()
+							: this.toRun((Map<Object, Object>) partition, !spills.isEmpty());
+			return spills.isEmpty()
+					? () -> groupedValues.stream().map(entry -> KVUtils.kv(entry.getKey(), entry.getValue().iterator()))
+							: () -> this.streamMergedRuns(spills, groupedValues);
+		}
+		else {
+			List<Object> values = partition == null ? Collections.emptyList() : (List<Object>) partition;
+			return spills.isEmpty()
+					? () -> values.stream()
+							: () -> this.streamSpilledValues(spills, values);
+		}
+	}
+
+	/**
+	 * Writes the content of each partition to its own spill file.
+	 */
+	@SuppressWarnings("unchecked")
+	private void spill(){
+		for (int partitionId = 0; partitionId < this.partitions.length; partitionId++) {
+			Object partition = this.partitions[partitionId];
+			if (partition != null){
+				boolean keyValues = this.keyValuePartitions[partitionId];
+				SpillFile spillFile = new SpillFile(this.spillDirectory, "dstream-shuffle-" + partitionId + "-", this.spillBufferSize);
+				try {
+					DataOutputStream out = spillFile.getOutput();
+					if (keyValues){
+						List<Entry<Object, List<Object>>> run = this.toRun((Map<Object, Object>) partition, true);
+						out.writeInt(run.size());
+						for (Entry<Object, List<Object>> entry : run) {
+							SpillCodec.write(entry.getKey(), out);
+							out.writeInt(entry.getValue().size());
+							for (Object value : entry.getValue()) {
+								SpillCodec.write(value, out);
+							}
+						}
+					}
+					else {
+						List<Object> values = (List<Object>) partition;
+						out.writeInt(values.size());
+						for (Object value : values) {
+							SpillCodec.write(value, out);
+						}
+					}
+					spillFile.closeOutput();
+				}
+				catch (IOException e) {
+					spillFile.delete();
+					throw new UncheckedIOException("Failed to spill partition " + partitionId + " to " + spillFile, e);
+				}
+				this.spilledBytes += spillFile.length();
+				this.partitionSpills.get(partitionId).add(spillFile);
+				this.partitions[partitionId] = null;
+			}
+		}
+		this.spillCount++;
+		this.bufferedValues = 0;
+	}
+
+	/**
+	 * Returns grouped values of the partition as a run. Keys of the run are sorted if
+	 * required or if the run is to be merged (as defined by the {@link #keyComparator}).
+	 */
+	private List<Entry<Object, List<Object>>> toRun(Map<Object, Object> groupedValues, boolean merge){
+		try {
+			List<Entry<Object, List<Object>>> run = new ArrayList<>(groupedValues.size());
+			Map<Object, Object> orderedValues = this.sortKeys ? new TreeMap<>(groupedValues) : groupedValues;
+			orderedValues.forEach((key, values) -> run.add(KVUtils.kv(key, this.toValuesList(values))));
+			if (!this.sortKeys && merge){
+				run.sort((a, b) -> this.keyComparator.compare(a.getKey(), b.getKey()));
+			}
+			return run;
+		}
+		catch (ClassCastException e) {
+			throw new IllegalStateException("Shuffle mode 'sort' requires keys to be Comparable. Use 'hash' shuffle mode instead.", e);
+		}
+	}
+
+	/**
+	 *
+	 */
+	private Stream<?> streamSpilledValues(List<SpillFile> spills, List<Object> bufferedValues){
+		Iterator<Object> valuesIterator = new Iterator<Object>() {
+			private final Iterator<SpillFile> spillsIterator = spills.iterator();
+			private SpillReader currentReader;
+			private int remaining;
+			@Override
+			public boolean hasNext() {
+				while (this.remaining == 0 && this.spillsIterator.hasNext()){
+					if (this.currentReader != null){
+						this.currentReader.close();
+					}
+					this.currentReader = new SpillReader(this.spillsIterator.next());
+					this.remaining = this.currentReader.readInt();
+				}
+				if (this.remaining == 0 && this.currentReader != null){
+					this.currentReader.close();
+					this.currentReader = null;
+				}
+				return this.remaining > 0;
+			}
+			@Override
+			public Object next() {
+				if (!this.hasNext()){
+					throw new NoSuchElementException();
+				}
+				this.remaining--;
+				return this.currentReader.readValue();
+			}
+		};
+		Stream<Object> spilledValues = StreamSupport.stream(Spliterators.spliteratorUnknownSize(valuesIterator, Spliterator.ORDERED), false);
+		return Stream.concat(spilledValues, bufferedValues.stream());
+	}
+
+	/**
+	 * Performs k-way merge of spilled runs and the run remaining in memory.
+	 */
+	@SuppressWarnings("unchecked")
+	private Stream<?> streamMergedRuns(List<SpillFile> spills, List<Entry<Object, List<Object>>> bufferedRun){
+		List<RunCursor> cursors = new ArrayList<>();
+		for (SpillFile spill : spills) {
+			cursors.add(new SpilledRunCursor(cursors.size(), new SpillReader(spill)));
+		}
+		cursors.add(new BufferedRunCursor(cursors.size(), bufferedRun.iterator()));
+
+		Iterator<Entry<Object, Iterator<Object>>> mergingIterator = new Iterator<Entry<Object, Iterator<Object>>>() {
+			private final PriorityQueue<RunCursor> queue = new PriorityQueue<>(cursors.size(),
+					(a, b) -> {
+						int result = keyComparator.compare(a.key, b.key);
+						return result == 0 ? Integer.compare(a.runId, b.runId) : result;
+					});
+			private final ArrayDeque<Entry<Object, Iterator<Object>>> pending = new ArrayDeque<>();
+			{
+				for (RunCursor cursor : cursors) {
+					if (cursor.advance()){
+						this.queue.add(cursor);
+					}
+				}
+			}
+			@Override
+			public boolean hasNext() {
+				if (this.pending.isEmpty() && !this.queue.isEmpty()){
+					/*
+					 * Collects values of all keys equal (as defined by the keyComparator) to the smallest
+					 * key across runs. In hash order such keys may still be different, hence additional grouping.
+					 */
+					Object smallestKey = this.queue.peek().key;
+					Map<Object, Object> groupedValues = new LinkedHashMap<>();
+					while (!this.queue.isEmpty() && keyComparator.compare(this.queue.peek().key, smallestKey) == 0){
+						RunCursor cursor = this.queue.poll();
+						if (combiner != null){
+							for (Object value : cursor.values) {
+								groupedValues.merge(cursor.key, value, combiner);
+							}
+						}
+						else {
+							((List<Object>) groupedValues.computeIfAbsent(cursor.key, key -> collectionFactory.newList())).addAll(cursor.values);
+						}
+						if (cursor.advance()){
+							this.queue.add(cursor);
+						}
+					}
+					groupedValues.forEach((key, values) -> this.pending.add(KVUtils.kv(key, toValuesList(values).iterator())));
+				}
+				return !this.pending.isEmpty();
+			}
+			@Override
+			public Entry<Object, Iterator<Object>> next() {
+				if (!this.hasNext()){
+					throw new NoSuchElementException();
+				}
+				return this.pending.poll();
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(mergingIterator, Spliterator.ORDERED), false);
+	}
+
+	/**
+	 * Returns grouped values as {@link List}. If values are combined, the
+	 * given value is the accumulated value of the key.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Object> toValuesList(Object groupedValues){
+		return this.combiner != null ? Collections.singletonList(groupedValues) : (List<Object>) groupedValues;
+	}
+
+	/**
+	 *
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareNatural(Object a, Object b){
+		return ((Comparable)a).compareTo(b);
+	}
+
+	/**
+	 *
+	 */
+	private static int compareHash(Object a, Object b){
+		return Integer.compare(a == null ? 0 : a.hashCode(), b == null ? 0 : b.hashCode());
+	}
+
+	/**
+	 * Cursor over a single sorted run of grouped values.
+	 */
+	private static abstract class RunCursor {
+		final int runId;
+		Object key;
+		List<Object> values;
+
+		RunCursor(int runId){
+			this.runId = runId;
+		}
+
+		/**
+		 * Moves this cursor to the next key of the run returning <i>false</i>
+		 * if run is exhausted.
+		 */
+		abstract boolean advance();
+	}
+
+	/**
+	 *
+	 */
+	private static class BufferedRunCursor extends RunCursor {
+		private final Iterator<Entry<Object, List<Object>>> run;
+
+		BufferedRunCursor(int runId, Iterator<Entry<Object, List<Object>>> run){
+			super(runId);
+			this.run = run;
+		}
+
+		@Override
+		boolean advance() {
+			if (this.run.hasNext()){
+				Entry<Object, List<Object>> entry = this.run.next();
+				this.key = entry.getKey();
+				this.values = entry.getValue();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static class SpilledRunCursor extends RunCursor {
+		private final SpillReader reader;
+		private int remainingKeys;
+
+		SpilledRunCursor(int runId, SpillReader reader){
+			super(runId);
+			this.reader = reader;
+			this.remainingKeys = reader.readInt();
+		}
+
+		@Override
+		boolean advance() {
+			if (this.remainingKeys-- > 0){
+				this.key = this.reader.readValue();
+				int valuesCount = this.reader.readInt();
+				this.values = new ArrayList<>(valuesCount);
+				for (int i = 0; i < valuesCount; i++) {
+					this.values.add(this.reader.readValue());
+				}
+				return true;
+			}
+			this.reader.close();
+			return false;
+		}
+	}
+
+	/**
+	 * Reader of a single spill file which deletes the file when closed.
+	 */
+	private static class SpillReader {
+		private final SpillFile spillFile;
+		private final DataInputStream in;
+
+		SpillReader(SpillFile spillFile){
+			this.spillFile = spillFile;
+			this.in = spillFile.getInput();
+		}
+
+		int readInt(){
+			try {
+				return this.in.readInt();
+			}
+			catch (EOFException e) {
+				return 0;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to read spill file " + this.spillFile, e);
+			}
+		}
+
+		Object readValue(){
+			try {
+				return SpillCodec.read(this.in);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to read spill file " + this.spillFile, e);
+			}
+		}
+
+		void close(){
+			try {
+				this.in.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+			this.spillFile.delete();
+		}
+	}
+}
@@ -40,6 +40,33 @@ public abstract class Aggregators {
 		return (List<T>) aggregatedValues;
 	}
 
+	/**
+	 * Creates a single element {@link List} from the given value, so it could be aggregated 
+	 * with {@link #mergeLists(List, List)}.
+	 *
+	 * @param v value
+	 * @return
+	 */
+	public static <T> List<T> toSingletonList(T v) {
+		List<T> aggregatedValues = new ArrayList<T>();
+		aggregatedValues.add(v);
+		return aggregatedValues;
+	}
+
+	/**
+	 * Aggregation operation which merges (partially) aggregated {@link List}s of values.
+	 * Unlike {@link #aggregateToList(Object, Object)} it is associative, therefore
+	 * could be applied to values which were already aggregated (e.g., by map-side-combine).
+	 *
+	 * @param v1 first list which on each subsequent invocation is the result of the previous invocation
+	 * @param v2 second list
+	 * @return
+	 */
+	public static <T> List<T> mergeLists(List<T> v1, List<T> v2) {
+		v1.addAll(v2);
+		return v1;
+	}
+
 	/**
 	 *
 	 */
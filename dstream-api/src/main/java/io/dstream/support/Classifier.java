@@ -49,8 +49,16 @@ public abstract class Classifier implements Serializable {
 	 * Returns classification if computed on the instance of <i>input</i>.
 	 */
 	public Integer getClassificationId(Object input) {
-		int partId = this.doGetClassificationId(input);
-		return partId;
+		return this.getClassificationIdAsInt(input);
+	}
+
+	/**
+	 * Returns classification computed on the instance of <i>input</i> as primitive <i>int</i>.
+	 * Unlike {@link #getClassificationId(Object)} it does not box the result, therefore
+	 * it should be used when classifying each individual element (e.g., partitioning).
+	 */
+	public int getClassificationIdAsInt(Object input) {
+		return this.doGetClassificationId(input);
 	}
 
 	/**
@@ -19,14 +19,30 @@ package io.dstream.support;
 
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
 
+import io.dstream.DStreamConstants;
+
 /**
  * A general factory strategy to supply implementation of standard 
  * collections.
  *
  */
 public interface CollectionFactory {
+	
+	/**
+	 * Returns the instance of {@link CollectionFactory} shared by the framework components which allocate 
+	 * potentially large collections (e.g., join and shuffle buffers).<br>
+	 * Providers are discovered using standard Java service loader mechanism (see {@link ServiceLoader}).
+	 * The provider is selected by the {@link DStreamConstants#COLLECTION_FACTORY} system property, defaulting to
+	 * the first provider specified in <i>META-INF/services/io.dstream.support.CollectionFactory</i> file.
+	 * 
+	 * @return instance of {@link CollectionFactory}
+	 */
+	static CollectionFactory getInstance(){
+		return CollectionFactoryHolder.COLLECTION_FACTORY;
+	}
 
 	/**
 	 * Returns new instance of {@link List}
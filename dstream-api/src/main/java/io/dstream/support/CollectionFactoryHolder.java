@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+import io.dstream.DStreamConstants;
+
+/**
+ * Lazily loads the {@link CollectionFactory} returned by {@link CollectionFactory#getInstance()}.
+ */
+final class CollectionFactoryHolder {
+	
+	static final CollectionFactory COLLECTION_FACTORY = loadCollectionFactory();
+	
+	private CollectionFactoryHolder(){}
+	
+	/**
+	 * 
+	 */
+	private static CollectionFactory loadCollectionFactory(){
+		String collectionFactoryName = System.getProperty(DStreamConstants.COLLECTION_FACTORY);
+		Iterator<CollectionFactory> sl = ServiceLoader
+	            .load(CollectionFactory.class, ClassLoader.getSystemClassLoader()).iterator();
+		while (sl.hasNext()) {
+			CollectionFactory collectionFactory = sl.next();
+			if (collectionFactoryName == null || collectionFactory.getClass().getName().equals(collectionFactoryName)){
+				return collectionFactory;
+			}
+		}
+		if (collectionFactoryName != null){
+			try {
+				return (CollectionFactory) Class.forName(collectionFactoryName, true, ClassLoader.getSystemClassLoader()).getDeclaredConstructor().newInstance();
+			} 
+			catch (Exception e) {
+				throw new IllegalStateException("Failed to create '" + collectionFactoryName + "' provider.", e);
+			}
+		}
+		throw new IllegalStateException("Failed to find '" + CollectionFactory.class.getName() + "' provider.");
+	}
+}
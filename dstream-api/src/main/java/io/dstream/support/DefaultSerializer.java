@@ -0,0 +1,336 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.ServiceLoader;
+
+import io.dstream.utils.Assert;
+import io.dstream.utils.KVUtils;
+import io.dstream.utils.ScratchBuffer;
+import io.dstream.utils.Tuples.Tuple;
+
+/**
+ * Default implementation of {@link Serializer} which prefixes each value with a single type byte
+ * and writes common types in their compact binary form:<br>
+ * - {@link String} as UTF-8 bytes<br>
+ * - {@link Integer}, {@link Long}, {@link Short}, {@link Byte}, {@link Double}, {@link Float},
+ *   {@link Boolean} and {@link Character} in their fixed size binary form<br>
+ * - <i>byte[]</i>, {@link Tuple}, {@link ArrayList} and {@link Entry} (read as {@link KVUtils#kv(Object, Object)})
+ *   as their length (or arity) followed by their elements<br>
+ * - values of user types for which {@link TypeCodec} is registered, using such codec<br>
+ * All other values are written using Java serialization and therefore must be {@link java.io.Serializable}.<br>
+ * Lengths are written as variable length integers (7 bits per byte).<br>
+ * Values are written directly to the provided {@link DataOutput}, while {@link String}s and Java serialized
+ * values (whose length precedes their bytes) are first encoded into the {@link ScratchBuffer} reused by each thread,
+ * so writing values does not allocate in steady state (other than Java serialization itself).<br>
+ * {@link TypeCodec}s are loaded using standard Java service loader mechanism (see {@link ServiceLoader}), 
+ * while subclasses may register them explicitly via {@link #DefaultSerializer(Collection)}. 
+ * Registered codecs are identified in binary form by their position in the list of codecs ordered by 
+ * the name of their type, so the same codecs must be registered wherever values are read.
+ */
+public class DefaultSerializer implements Serializer {
+
+	private static final byte NULL = 0;
+
+	private static final byte STRING = 1;
+
+	private static final byte INTEGER = 2;
+
+	private static final byte LONG = 3;
+
+	private static final byte DOUBLE = 4;
+
+	private static final byte BOOLEAN = 5;
+
+	private static final byte ENTRY = 6;
+
+	private static final byte OBJECT = 7;
+
+	private static final byte SHORT = 8;
+
+	private static final byte BYTE = 9;
+
+	private static final byte FLOAT = 10;
+
+	private static final byte CHARACTER = 11;
+
+	private static final byte BYTES = 12;
+
+	private static final byte TUPLE = 13;
+
+	private static final byte LIST = 14;
+
+	private static final byte REGISTERED = 15;
+
+	private static final ThreadLocal<ScratchBuffer> STRING_BUFFER = ThreadLocal.withInitial(ScratchBuffer::new);
+
+	private static final ThreadLocal<ScratchBuffer> OBJECT_BUFFER = ThreadLocal.withInitial(ScratchBuffer::new);
+
+	private final TypeCodec<Object>[] typeCodecs;
+
+	private final Map<Class<?>, Integer> typeCodecIds;
+
+	/**
+	 * Creates serializer with {@link TypeCodec}s loaded using standard Java service loader mechanism.
+	 */
+	public DefaultSerializer(){
+		this(loadTypeCodecs());
+	}
+
+	/**
+	 * Creates serializer with the given {@link TypeCodec}s.
+	 */
+	protected DefaultSerializer(Collection<TypeCodec<?>> typeCodecs){
+		Assert.notNull(typeCodecs, "'typeCodecs' must not be null");
+		List<TypeCodec<?>> orderedTypeCodecs = new ArrayList<>(typeCodecs);
+		orderedTypeCodecs.sort(Comparator.comparing(typeCodec -> typeCodec.getType().getName()));
+		@SuppressWarnings("unchecked")
+		TypeCodec<Object>[] orderedTypeCodecArray = (TypeCodec<Object>[]) new TypeCodec<?>[orderedTypeCodecs.size()];
+		this.typeCodecs = orderedTypeCodecs.toArray(orderedTypeCodecArray);
+		this.typeCodecIds = new HashMap<>();
+		for (int i = 0; i < this.typeCodecs.length; i++) {
+			Class<?> type = this.typeCodecs[i].getType();
+			Assert.isTrue(this.typeCodecIds.put(type, i) == null, "More than one TypeCodec is registered for " + type.getName());
+		}
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public void write(Object value, DataOutput out) throws IOException {
+		if (value == null){
+			out.writeByte(NULL);
+		}
+		else if (value instanceof String){
+			ScratchBuffer buffer = STRING_BUFFER.get();
+			buffer.reset();
+			buffer.writeUtf8((String)value);
+			out.writeByte(STRING);
+			writeLength(buffer.size(), out);
+			buffer.writeTo(out);
+		}
+		else if (value instanceof Integer){
+			out.writeByte(INTEGER);
+			out.writeInt((Integer)value);
+		}
+		else if (value instanceof Long){
+			out.writeByte(LONG);
+			out.writeLong((Long)value);
+		}
+		else if (value instanceof Entry){
+			Entry<?,?> entry = (Entry<?,?>) value;
+			out.writeByte(ENTRY);
+			this.write(entry.getKey(), out);
+			this.write(entry.getValue(), out);
+		}
+		else if (value.getClass() == Tuple.class){
+			Tuple tuple = (Tuple) value;
+			out.writeByte(TUPLE);
+			writeLength(tuple.size(), out);
+			for (int i = 0; i < tuple.size(); i++) {
+				this.write(tuple.get(i), out);
+			}
+		}
+		else if (value.getClass() == ArrayList.class){
+			List<?> list = (List<?>) value;
+			out.writeByte(LIST);
+			writeLength(list.size(), out);
+			for (Object element : list) {
+				this.write(element, out);
+			}
+		}
+		else if (value instanceof Double){
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double)value);
+		}
+		else if (value instanceof Boolean){
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean)value);
+		}
+		else if (value instanceof Short){
+			out.writeByte(SHORT);
+			out.writeShort((Short)value);
+		}
+		else if (value instanceof Byte){
+			out.writeByte(BYTE);
+			out.writeByte((Byte)value);
+		}
+		else if (value instanceof Float){
+			out.writeByte(FLOAT);
+			out.writeFloat((Float)value);
+		}
+		else if (value instanceof Character){
+			out.writeByte(CHARACTER);
+			out.writeChar((Character)value);
+		}
+		else if (value instanceof byte[]){
+			out.writeByte(BYTES);
+			writeBytes((byte[])value, out);
+		}
+		else {
+			Integer typeCodecId = this.typeCodecIds.isEmpty() ? null : this.typeCodecIds.get(value.getClass());
+			if (typeCodecId != null){
+				out.writeByte(REGISTERED);
+				writeLength(typeCodecId, out);
+				this.typeCodecs[typeCodecId].write(value, out, this);
+			}
+			else {
+				ScratchBuffer buffer = OBJECT_BUFFER.get();
+				buffer.reset();
+				try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
+					oos.writeObject(value);
+				}
+				out.writeByte(OBJECT);
+				writeLength(buffer.size(), out);
+				buffer.writeTo(out);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public Object read(DataInput in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case NULL:
+			return null;
+		case STRING:
+			return new String(readBytes(in), StandardCharsets.UTF_8);
+		case INTEGER:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case ENTRY:
+			Object key = this.read(in);
+			return KVUtils.kv(key, this.read(in));
+		case TUPLE:
+			Object[] values = new Object[readLength(in)];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = this.read(in);
+			}
+			return new Tuple(values);
+		case LIST:
+			int size = readLength(in);
+			List<Object> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(this.read(in));
+			}
+			return list;
+		case DOUBLE:
+			return in.readDouble();
+		case BOOLEAN:
+			return in.readBoolean();
+		case SHORT:
+			return in.readShort();
+		case BYTE:
+			return in.readByte();
+		case FLOAT:
+			return in.readFloat();
+		case CHARACTER:
+			return in.readChar();
+		case BYTES:
+			return readBytes(in);
+		case REGISTERED:
+			int typeCodecId = readLength(in);
+			if (typeCodecId >= this.typeCodecs.length){
+				throw new IllegalStateException("TypeCodec with id " + typeCodecId + " is not registered. Registered: " 
+						+ this.typeCodecIds.keySet());
+			}
+			return this.typeCodecs[typeCodecId].read(in, this);
+		case OBJECT:
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+				return ois.readObject();
+			}
+			catch (ClassNotFoundException e) {
+				throw new IllegalStateException("Failed to deserialize value", e);
+			}
+		default:
+			throw new IllegalStateException("Unsupported or unrecognized value type: " + type);
+		}
+	}
+
+	/**
+	 * 
+	 */
+	private static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+		writeLength(bytes.length, out);
+		out.write(bytes);
+	}
+
+	/**
+	 * 
+	 */
+	private static byte[] readBytes(DataInput in) throws IOException {
+		byte[] bytes = new byte[readLength(in)];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Writes non-negative int in 7 bit groups (least significant first), where the high bit 
+	 * of each byte signals that more bytes follow.
+	 */
+	private static void writeLength(int length, DataOutput out) throws IOException {
+		while ((length & ~0x7F) != 0){
+			out.writeByte((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		out.writeByte(length);
+	}
+
+	/**
+	 * 
+	 */
+	private static int readLength(DataInput in) throws IOException {
+		int length = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = in.readByte();
+			length |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0){
+				return length;
+			}
+		}
+		throw new IllegalStateException("Malformed length");
+	}
+
+	/**
+	 * 
+	 */
+	private static List<TypeCodec<?>> loadTypeCodecs(){
+		List<TypeCodec<?>> typeCodecs = new ArrayList<>();
+		ServiceLoader.load(TypeCodec.class, ClassLoader.getSystemClassLoader()).forEach(typeCodecs::add);
+		return typeCodecs;
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.dstream.DStreamConstants;
+
+/**
+ * An implementation of {@link CollectionFactory} which supplies {@link List}s holding
+ * their (serialized) elements outside of the Java heap, in pages of direct {@link java.nio.ByteBuffer}s
+ * or, once all lists of this factory hold more than {@link DStreamConstants#OFF_HEAP_MAPPED_THRESHOLD} direct bytes,
+ * in memory-mapped temporary files, so large buffers (e.g., join and shuffle buffers) do not contribute to GC pressure.<br>
+ * {@link Map}s and {@link Set}s are hash-based and remain on the heap since their keys are hashed and
+ * compared, however the {@link List}s of values held by them (e.g., grouped values) are off-heap.<br>
+ * Elements must be either of common types (see {@link io.dstream.utils.SpillCodec}) or {@link java.io.Serializable}.<br>
+ * To use it, set {@link DStreamConstants#COLLECTION_FACTORY} system property to the name of this class.
+ */
+public class OffHeapCollectionFactory implements CollectionFactory {
+	
+	public static final int DEFAULT_MAX_PAGE_SIZE = 1024 * 1024;
+	
+	public static final long DEFAULT_MAPPED_THRESHOLD = 256L * 1024 * 1024;
+	
+	private final int maxPageSize;
+	
+	private final OffHeapPageAllocator pageAllocator;
+	
+	/**
+	 * Constructs this factory configured via {@link DStreamConstants#OFF_HEAP_MAPPED_THRESHOLD} and
+	 * {@link DStreamConstants#OFF_HEAP_DIR} system properties.
+	 */
+	public OffHeapCollectionFactory(){
+		this(DEFAULT_MAX_PAGE_SIZE, 
+				Long.parseLong(System.getProperty(DStreamConstants.OFF_HEAP_MAPPED_THRESHOLD, String.valueOf(DEFAULT_MAPPED_THRESHOLD))), 
+				new File(System.getProperty(DStreamConstants.OFF_HEAP_DIR, System.getProperty("java.io.tmpdir"))));
+	}
+	
+	/**
+	 * @param maxPageSize the maximum size (in bytes) of the page of each list
+	 * @param mappedThreshold the amount of direct bytes held by all lists of this factory after which pages are memory-mapped
+	 * @param mappingDirectory directory where files backing memory-mapped pages are created
+	 */
+	public OffHeapCollectionFactory(int maxPageSize, long mappedThreshold, File mappingDirectory){
+		this.maxPageSize = maxPageSize;
+		this.pageAllocator = new OffHeapPageAllocator(mappedThreshold, mappingDirectory);
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public <T> List<T> newList() {
+		return new OffHeapList<T>(this.maxPageSize, this.pageAllocator);
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public <K, V> Map<K, V> newMap() {
+		return new HashMap<K, V>();
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public <T> Set<T> newSet() {
+		return new HashSet<>();
+	}
+}
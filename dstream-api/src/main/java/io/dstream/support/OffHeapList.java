@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import io.dstream.utils.Assert;
+import io.dstream.utils.SpillCodec;
+
+/**
+ * Append-only {@link List} which holds its elements outside of the Java heap.<br>
+ * Elements are serialized (see {@link SpillCodec}) into pages growing from {@value #MIN_PAGE_SIZE} bytes
+ * up to <i>maxPageSize</i>. Pages are allocated by the {@link OffHeapPageAllocator} shared by all lists of
+ * the same {@link OffHeapCollectionFactory} and are either direct {@link ByteBuffer}s or, once those lists
+ * hold more direct bytes than its threshold, memory-mapped regions of a temporary file, so the size of
+ * this list is not bound by the direct memory limit.
+ * Only the addresses of elements (8 bytes per element) are held on the heap.<br>
+ * Each call to {@link #get(int)} deserializes the element, so elements must be either of types 
+ * natively supported by {@link SpillCodec} or {@link Serializable}.<br>
+ * Elements can only be appended (i.e., {@link #set(int, Object)} and {@link #remove(int)} are not supported),
+ * while {@link #clear()} releases all pages and deletes the mapped file, if any.<br>
+ * This list is serialized as {@link ArrayList}.<br>
+ * Instances of this class are not thread-safe.
+ */
+final class OffHeapList<T> extends AbstractList<T> implements RandomAccess, Serializable {
+	private static final long serialVersionUID = 2541735486473839627L;
+
+	static final int MIN_PAGE_SIZE = 256;
+
+	private final int maxPageSize;
+
+	private final transient OffHeapPageAllocator.Pages pages;
+
+	private final transient ExposedByteArrayOutputStream serializedElement;
+
+	private final transient DataOutputStream serializedElementOutput;
+
+	private transient long[] addresses;
+
+	private transient int size;
+
+	/**
+	 * @param maxPageSize the maximum size (in bytes) of the page (larger elements get their own page)
+	 * @param pageAllocator allocator of the pages of this list
+	 */
+	OffHeapList(int maxPageSize, OffHeapPageAllocator pageAllocator){
+		Assert.isTrue(maxPageSize >= MIN_PAGE_SIZE, "'maxPageSize' must be >= " + MIN_PAGE_SIZE);
+		Assert.notNull(pageAllocator, "'pageAllocator' must not be null");
+		this.maxPageSize = maxPageSize;
+		this.pages = pageAllocator.newPages(this);
+		this.serializedElement = new ExposedByteArrayOutputStream();
+		this.serializedElementOutput = new DataOutputStream(this.serializedElement);
+		this.addresses = new long[16];
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public boolean add(T element) {
+		try {
+			this.serializedElement.reset();
+			SpillCodec.write(element, this.serializedElementOutput);
+			this.serializedElementOutput.flush();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to serialize element " + element, e);
+		}
+		int length = this.serializedElement.size();
+		ByteBuffer page = this.pages.size() == 0 ? null : this.pages.get(this.pages.size()-1);
+		if (page == null || page.remaining() < length){
+			page = this.allocatePage(length, page == null ? 0 : page.capacity());
+		}
+		if (this.size == this.addresses.length){
+			this.addresses = Arrays.copyOf(this.addresses, this.size * 2);
+		}
+		this.addresses[this.size++] = ((long)(this.pages.size()-1) << 32) | page.position();
+		page.put(this.serializedElement.getBuffer(), 0, length);
+		this.modCount++;
+		return true;
+	}
+
+	/**
+	 * Supports only appending (i.e., <i>index</i> equals to {@link #size()}).
+	 */
+	@Override
+	public void add(int index, T element) {
+		if (index != this.size){
+			throw new UnsupportedOperationException("Elements can only be appended to " + this.getClass().getSimpleName());
+		}
+		this.add(element);
+	}
+
+	/**
+	 *
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= this.size){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		long address = this.addresses[index];
+		ByteBuffer page = this.pages.get((int) (address >>> 32)).duplicate();
+		page.position((int) address);
+		try {
+			return (T) SpillCodec.read(new DataInputStream(new ByteBufferInputStream(page)));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to deserialize element " + index, e);
+		}
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Releases all pages and deletes the file backing memory-mapped pages, if any.
+	 */
+	@Override
+	public void clear() {
+		this.pages.release();
+		this.addresses = new long[16];
+		this.size = 0;
+		this.modCount++;
+	}
+
+	/**
+	 * Returns the amount of bytes allocated by the pages of this list.
+	 */
+	long getAllocatedBytes(){
+		return this.pages.getDirectBytes() + this.pages.getMappedBytes();
+	}
+
+	/**
+	 * Returns the amount of bytes allocated by the memory-mapped pages of this list.
+	 */
+	long getMappedBytes(){
+		return this.pages.getMappedBytes();
+	}
+
+	/**
+	 * Allocates new page which is twice the size of the previous page (bound by <i>maxPageSize</i>)
+	 * but no smaller than the given <i>length</i>.
+	 */
+	private ByteBuffer allocatePage(int length, int previousPageSize){
+		int pageSize = Math.max(length, Math.min(this.maxPageSize, Math.max(MIN_PAGE_SIZE, previousPageSize * 2)));
+		return this.pages.allocate(pageSize);
+	}
+
+	/**
+	 * Serializes this list as {@link ArrayList}, since its pages can not be serialized.
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return new ArrayList<>(this);
+	}
+
+	/**
+	 * {@link ByteArrayOutputStream} which exposes its buffer to avoid copying.
+	 */
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+		byte[] getBuffer(){
+			return this.buf;
+		}
+	}
+
+	/**
+	 * {@link InputStream} which reads from the current position of the {@link ByteBuffer}.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer){
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (!this.buffer.hasRemaining()){
+				return -1;
+			}
+			int readLength = Math.min(length, this.buffer.remaining());
+			this.buffer.get(bytes, offset, readLength);
+			return readLength;
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.dstream.utils.Assert;
+
+/**
+ * Allocates pages of all {@link OffHeapList}s created by the same {@link OffHeapCollectionFactory}.<br>
+ * Pages are direct {@link ByteBuffer}s as long as the amount of direct bytes held by all lists
+ * does not exceed <i>mappedThreshold</i>, otherwise pages are memory-mapped regions of a temporary
+ * file of the list (created in <i>mappingDirectory</i>). The channel used to map a region is closed
+ * right after mapping, since the mapping does not depend on it.<br>
+ * Pages of a list are released (and its file deleted) when the list is cleared or, since most lists
+ * are simply discarded, once the list is garbage collected (checked upon subsequent allocations).<br>
+ * Instances of this class are thread-safe, while each {@link Pages} is confined to its list.
+ */
+final class OffHeapPageAllocator {
+
+	private final long mappedThreshold;
+
+	private final File mappingDirectory;
+
+	private final AtomicLong directBytes;
+
+	private final ReferenceQueue<Object> collectedOwners;
+
+	/*
+	 * Keeps Pages (phantom references to their lists) reachable until
+	 * their lists are collected and their pages released.
+	 */
+	private final Set<Pages> ownedPages;
+
+	/**
+	 * @param mappedThreshold the amount of direct bytes held by all lists after which pages are memory-mapped
+	 * @param mappingDirectory directory where files backing memory-mapped pages are created
+	 */
+	OffHeapPageAllocator(long mappedThreshold, File mappingDirectory){
+		Assert.notNull(mappingDirectory, "'mappingDirectory' must not be null");
+		this.mappedThreshold = mappedThreshold;
+		this.mappingDirectory = mappingDirectory;
+		this.directBytes = new AtomicLong();
+		this.collectedOwners = new ReferenceQueue<>();
+		this.ownedPages = ConcurrentHashMap.newKeySet();
+	}
+
+	/**
+	 * Creates new (empty) {@link Pages} for the given <i>owner</i>, which are released once the
+	 * <i>owner</i> is garbage collected.
+	 */
+	Pages newPages(Object owner){
+		this.releaseCollectedPages();
+		Pages pages = new Pages(owner);
+		this.ownedPages.add(pages);
+		return pages;
+	}
+
+	/**
+	 * Returns the amount of bytes held in direct {@link ByteBuffer}s by all lists of this allocator.
+	 */
+	long getDirectBytes(){
+		return this.directBytes.get();
+	}
+
+	/**
+	 *
+	 */
+	private void releaseCollectedPages(){
+		Reference<?> collectedOwner;
+		while ((collectedOwner = this.collectedOwners.poll()) != null){
+			Pages pages = (Pages) collectedOwner;
+			pages.release();
+			this.ownedPages.remove(pages);
+		}
+	}
+
+	/**
+	 * Pages of a single list.
+	 */
+	final class Pages extends PhantomReference<Object> {
+		private final List<ByteBuffer> pageBuffers;
+
+		private long directBytes;
+
+		private long mappedBytes;
+
+		private File mappedFile;
+
+		private Pages(Object owner){
+			super(owner, collectedOwners);
+			this.pageBuffers = new ArrayList<>();
+		}
+
+		/**
+		 * Allocates and appends new page of the given size.
+		 */
+		ByteBuffer allocate(int pageSize){
+			releaseCollectedPages();
+			ByteBuffer page;
+			if (OffHeapPageAllocator.this.directBytes.addAndGet(pageSize) <= mappedThreshold){
+				page = ByteBuffer.allocateDirect(pageSize);
+				this.directBytes += pageSize;
+			}
+			else {
+				OffHeapPageAllocator.this.directBytes.addAndGet(-pageSize);
+				page = this.map(pageSize);
+				this.mappedBytes += pageSize;
+			}
+			this.pageBuffers.add(page);
+			return page;
+		}
+
+		/**
+		 *
+		 */
+		ByteBuffer get(int index){
+			return this.pageBuffers.get(index);
+		}
+
+		/**
+		 *
+		 */
+		int size(){
+			return this.pageBuffers.size();
+		}
+
+		/**
+		 *
+		 */
+		long getDirectBytes(){
+			return this.directBytes;
+		}
+
+		/**
+		 *
+		 */
+		long getMappedBytes(){
+			return this.mappedBytes;
+		}
+
+		/**
+		 * Releases all pages and deletes the file backing memory-mapped pages, if any.
+		 * These {@link Pages} remain usable.
+		 */
+		synchronized void release(){
+			OffHeapPageAllocator.this.directBytes.addAndGet(-this.directBytes);
+			this.directBytes = 0;
+			this.mappedBytes = 0;
+			this.pageBuffers.clear();
+			if (this.mappedFile != null){
+				this.mappedFile.delete();
+				this.mappedFile = null;
+			}
+		}
+
+		/**
+		 *
+		 */
+		private ByteBuffer map(int pageSize){
+			try {
+				if (this.mappedFile == null){
+					mappingDirectory.mkdirs();
+					this.mappedFile = File.createTempFile("dstream-offheap-", ".pages", mappingDirectory);
+					this.mappedFile.deleteOnExit();
+				}
+				try (FileChannel mappedFileChannel = FileChannel.open(this.mappedFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)){
+					return mappedFileChannel.map(MapMode.READ_WRITE, this.mappedBytes, pageSize);
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to map page of " + pageSize + " bytes in " + mappingDirectory, e);
+			}
+		}
+	}
+}
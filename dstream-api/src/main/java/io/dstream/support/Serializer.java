@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ServiceLoader;
+
+import io.dstream.DStreamConstants;
+
+/**
+ * Strategy to write values to (and read them from) binary form, used wherever values 
+ * leave the heap (e.g., shuffle, spill files and off-heap collections).
+ *
+ */
+public interface Serializer {
+
+	/**
+	 * Returns the instance of {@link Serializer} shared by the framework components.<br>
+	 * Providers are discovered using standard Java service loader mechanism (see {@link ServiceLoader}).
+	 * The provider is selected by the {@link DStreamConstants#SERIALIZER} system property, defaulting to
+	 * the first provider specified in <i>META-INF/services/io.dstream.support.Serializer</i> file.
+	 * 
+	 * @return instance of {@link Serializer}
+	 */
+	static Serializer getInstance(){
+		return SerializerHolder.SERIALIZER;
+	}
+
+	/**
+	 * Writes the given value (which may be <i>null</i>) to the given {@link DataOutput}.
+	 * 
+	 * @param value value to write
+	 * @param out {@link DataOutput} to write to
+	 */
+	void write(Object value, DataOutput out) throws IOException;
+
+	/**
+	 * Reads the value previously written by {@link #write(Object, DataOutput)}
+	 * from the given {@link DataInput}.
+	 * 
+	 * @param in {@link DataInput} to read from
+	 * @return value
+	 */
+	Object read(DataInput in) throws IOException;
+}
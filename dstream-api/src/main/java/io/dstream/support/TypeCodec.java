@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ServiceLoader;
+
+/**
+ * Strategy to write values of the user type in compact binary form (e.g., instead of Java serialization).<br>
+ * Implementations are registered with {@link DefaultSerializer} either via standard Java service loader 
+ * mechanism (see {@link ServiceLoader}) in <i>META-INF/services/io.dstream.support.TypeCodec</i> file
+ * or explicitly by the subclass of {@link DefaultSerializer}.<br>
+ * Only values of exactly the {@link #getType()} type are written by the codec.
+ *
+ * @param <T> type of values written by this codec
+ */
+public interface TypeCodec<T> {
+
+	/**
+	 * Returns the type of values written by this codec.
+	 */
+	Class<T> getType();
+
+	/**
+	 * Writes the given (non-null) value to the given {@link DataOutput}.
+	 * Values nested in the given value could be written by the provided {@link Serializer}.
+	 */
+	void write(T value, DataOutput out, Serializer serializer) throws IOException;
+
+	/**
+	 * Reads the value previously written by {@link #write(Object, DataOutput, Serializer)}
+	 * from the given {@link DataInput}.
+	 */
+	T read(DataInput in, Serializer serializer) throws IOException;
+}
@@ -0,0 +1,287 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Base class of the open-addressing hash maps with primitive <i>long</i> keys.<br>
+ * Keys are held in a <i>long</i> array probed linearly, so neither keys nor entries are
+ * allocated on the heap. Removed slots are marked as deleted and reclaimed when the map
+ * is rehashed. Slots are also linked in insertion order, so the map is iterated (and its
+ * oldest key could be polled) in the order keys were first inserted.<br>
+ * Sub-classes hold the values in the array (of their own type) indexed by slot.<br>
+ * Instances of this class are not thread-safe.
+ */
+abstract class AbstractLongHashMap {
+
+	private static final byte EMPTY = 0;
+
+	private static final byte FULL = 1;
+
+	private static final byte DELETED = 2;
+
+	private static final int NONE = -1;
+
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private long[] keys;
+
+	private byte[] states;
+
+	private int[] before;
+
+	private int[] after;
+
+	private int head;
+
+	private int tail;
+
+	private int size;
+
+	private int usedSlots;
+
+	private int mask;
+
+	/**
+	 * @param expectedSize the amount of keys this map is expected to hold without rehashing
+	 */
+	AbstractLongHashMap(int expectedSize){
+		Assert.isTrue(expectedSize >= 0, "'expectedSize' must be >= 0");
+		this.allocate(this.capacityFor(expectedSize));
+	}
+
+	/**
+	 * Returns the amount of keys in this map.
+	 */
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Returns <i>true</i> if this map holds no keys.
+	 */
+	public boolean isEmpty(){
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns <i>true</i> if this map holds the given key.
+	 */
+	public boolean containsKey(long key){
+		return this.findSlot(key) != NONE;
+	}
+
+	/**
+	 * Returns the oldest (first inserted) key of this map.
+	 */
+	public long firstKey(){
+		if (this.size == 0){
+			throw new NoSuchElementException();
+		}
+		return this.keys[this.head];
+	}
+
+	/**
+	 * Removes all keys from this map.
+	 */
+	public void clear(){
+		Arrays.fill(this.states, EMPTY);
+		this.head = NONE;
+		this.tail = NONE;
+		this.size = 0;
+		this.usedSlots = 0;
+		this.clearValues();
+	}
+
+	/**
+	 * Returns the slot of the given key or -1 if key is not present.
+	 */
+	final int findSlot(long key){
+		int slot = this.hash(key);
+		while (this.states[slot] != EMPTY){
+			if (this.states[slot] == FULL && this.keys[slot] == key){
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Returns the slot of the given key inserting the key if it is not present, in which
+	 * case the returned slot is encoded as <i>-(slot + 1)</i>.
+	 */
+	final int insertSlot(long key){
+		int slot = this.findSlot(key);
+		if (slot != NONE){
+			return slot;
+		}
+		if (this.usedSlots + 1 > this.keys.length * LOAD_FACTOR){
+			this.rehash(this.size + 1 > this.keys.length / 2 * LOAD_FACTOR ? this.keys.length * 2 : this.keys.length);
+		}
+		return -(this.insertNew(key) + 1);
+	}
+
+	/**
+	 * Removes the key held by the given slot.
+	 */
+	final void removeSlot(int slot){
+		this.states[slot] = DELETED;
+		this.size--;
+		int previous = this.before[slot];
+		int next = this.after[slot];
+		if (previous == NONE){
+			this.head = next;
+		}
+		else {
+			this.after[previous] = next;
+		}
+		if (next == NONE){
+			this.tail = previous;
+		}
+		else {
+			this.before[next] = previous;
+		}
+		this.clearValue(slot);
+	}
+
+	/**
+	 * Returns the slot of the oldest key or -1 if map is empty.
+	 */
+	final int firstSlot(){
+		return this.head;
+	}
+
+	/**
+	 * Returns the slot of the key inserted after the key of the given slot or -1 if none.
+	 */
+	final int nextSlot(int slot){
+		return this.after[slot];
+	}
+
+	/**
+	 * Returns the key held by the given slot.
+	 */
+	final long keyAt(int slot){
+		return this.keys[slot];
+	}
+
+	/**
+	 * Allocates values array of the given capacity, retaining the current one
+	 * until {@link #moveValue(int, int)} calls are completed.
+	 */
+	abstract void allocateValues(int capacity);
+
+	/**
+	 * Moves value from the slot of the previous values array to the slot of the current one.
+	 */
+	abstract void moveValue(int fromSlot, int toSlot);
+
+	/**
+	 * Releases the previous values array once all values were moved.
+	 */
+	abstract void releasePreviousValues();
+
+	/**
+	 * Releases the value held by the given slot.
+	 */
+	abstract void clearValue(int slot);
+
+	/**
+	 * Releases all values.
+	 */
+	abstract void clearValues();
+
+	/**
+	 *
+	 */
+	private int insertNew(long key){
+		int slot = this.hash(key);
+		while (this.states[slot] == FULL){
+			slot = (slot + 1) & this.mask;
+		}
+		if (this.states[slot] == EMPTY){
+			this.usedSlots++;
+		}
+		this.states[slot] = FULL;
+		this.keys[slot] = key;
+		this.before[slot] = this.tail;
+		this.after[slot] = NONE;
+		if (this.tail == NONE){
+			this.head = slot;
+		}
+		else {
+			this.after[this.tail] = slot;
+		}
+		this.tail = slot;
+		this.size++;
+		return slot;
+	}
+
+	/**
+	 * Re-inserts all keys (in insertion order) into the arrays of the given capacity,
+	 * reclaiming deleted slots.
+	 */
+	private void rehash(int capacity){
+		long[] oldKeys = this.keys;
+		int[] oldAfter = this.after;
+		int oldHead = this.head;
+		this.allocate(capacity);
+		for (int slot = oldHead; slot != NONE; slot = oldAfter[slot]) {
+			this.moveValue(slot, this.insertNew(oldKeys[slot]));
+		}
+		this.releasePreviousValues();
+	}
+
+	/**
+	 *
+	 */
+	private void allocate(int capacity){
+		this.keys = new long[capacity];
+		this.states = new byte[capacity];
+		this.before = new int[capacity];
+		this.after = new int[capacity];
+		this.mask = capacity - 1;
+		this.head = NONE;
+		this.tail = NONE;
+		this.size = 0;
+		this.usedSlots = 0;
+		this.allocateValues(capacity);
+	}
+
+	/**
+	 * Returns power of two capacity which holds the given amount of keys without rehashing.
+	 */
+	private int capacityFor(int expectedSize){
+		int capacity = 8;
+		while (capacity * LOAD_FACTOR < expectedSize + 1){
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 *
+	 */
+	private int hash(long key){
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & this.mask;
+	}
+}
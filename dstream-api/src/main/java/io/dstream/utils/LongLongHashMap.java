@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+/**
+ * Insertion ordered open-addressing hash map of primitive <i>long</i> keys to primitive
+ * <i>long</i> values (see {@link AbstractLongHashMap}), typically used to count keys.
+ */
+public class LongLongHashMap extends AbstractLongHashMap {
+
+	private long[] values;
+
+	private long[] previousValues;
+
+	/**
+	 * Constructs this map with default expected size.
+	 */
+	public LongLongHashMap(){
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize the amount of keys this map is expected to hold without rehashing
+	 */
+	public LongLongHashMap(int expectedSize){
+		super(expectedSize);
+	}
+
+	/**
+	 * Returns the value of the given key or <i>defaultValue</i> if key is not present.
+	 */
+	public long get(long key, long defaultValue){
+		int slot = this.findSlot(key);
+		return slot < 0 ? defaultValue : this.values[slot];
+	}
+
+	/**
+	 * Associates the given value with the given key.
+	 */
+	public void put(long key, long value){
+		int slot = this.insertSlot(key);
+		this.values[slot < 0 ? -(slot + 1) : slot] = value;
+	}
+
+	/**
+	 * Adds the given delta to the value of the given key (inserting the key with
+	 * value equal to <i>delta</i> if it is not present), returning the new value.
+	 */
+	public long addTo(long key, long delta){
+		int slot = this.insertSlot(key);
+		if (slot < 0){
+			this.values[-(slot + 1)] = delta;
+			return delta;
+		}
+		return this.values[slot] += delta;
+	}
+
+	/**
+	 * Removes the given key, returning its value or <i>defaultValue</i> if key is not present.
+	 */
+	public long remove(long key, long defaultValue){
+		int slot = this.findSlot(key);
+		if (slot < 0){
+			return defaultValue;
+		}
+		long value = this.values[slot];
+		this.removeSlot(slot);
+		return value;
+	}
+
+	/**
+	 * Performs the given action for each key and value in insertion order.
+	 */
+	public void forEach(LongLongConsumer action){
+		for (int slot = this.firstSlot(); slot >= 0; slot = this.nextSlot(slot)) {
+			action.accept(this.keyAt(slot), this.values[slot]);
+		}
+	}
+
+	@Override
+	void allocateValues(int capacity) {
+		this.previousValues = this.values;
+		this.values = new long[capacity];
+	}
+
+	@Override
+	void moveValue(int fromSlot, int toSlot) {
+		this.values[toSlot] = this.previousValues[fromSlot];
+	}
+
+	@Override
+	void releasePreviousValues() {
+		this.previousValues = null;
+	}
+
+	@Override
+	void clearValue(int slot) {
+		// noop
+	}
+
+	@Override
+	void clearValues() {
+		// noop
+	}
+
+	/**
+	 * Action performed on each key and value of {@link LongLongHashMap}.
+	 */
+	@FunctionalInterface
+	public interface LongLongConsumer {
+		void accept(long key, long value);
+	}
+}
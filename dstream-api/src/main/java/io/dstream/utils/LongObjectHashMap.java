@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import java.util.Arrays;
+
+/**
+ * Insertion ordered open-addressing hash map of primitive <i>long</i> keys to object values
+ * (see {@link AbstractLongHashMap}).
+ *
+ * @param <V> the value type
+ */
+public class LongObjectHashMap<V> extends AbstractLongHashMap {
+
+	private Object[] values;
+
+	private Object[] previousValues;
+
+	/**
+	 * Constructs this map with default expected size.
+	 */
+	public LongObjectHashMap(){
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize the amount of keys this map is expected to hold without rehashing
+	 */
+	public LongObjectHashMap(int expectedSize){
+		super(expectedSize);
+	}
+
+	/**
+	 * Returns the value of the given key or <i>null</i> if key is not present.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key){
+		int slot = this.findSlot(key);
+		return slot < 0 ? null : (V) this.values[slot];
+	}
+
+	/**
+	 * Associates the given value with the given key, returning the previous value, if any.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value){
+		int slot = this.insertSlot(key);
+		if (slot < 0){
+			this.values[-(slot + 1)] = value;
+			return null;
+		}
+		V previousValue = (V) this.values[slot];
+		this.values[slot] = value;
+		return previousValue;
+	}
+
+	/**
+	 * Removes the given key, returning its value, if any.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key){
+		int slot = this.findSlot(key);
+		if (slot < 0){
+			return null;
+		}
+		V value = (V) this.values[slot];
+		this.removeSlot(slot);
+		return value;
+	}
+
+	/**
+	 * Performs the given action for each key and value in insertion order.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(LongObjectConsumer<? super V> action){
+		for (int slot = this.firstSlot(); slot >= 0; slot = this.nextSlot(slot)) {
+			action.accept(this.keyAt(slot), (V) this.values[slot]);
+		}
+	}
+
+	/**
+	 * Returns the value held by the given slot.
+	 */
+	@SuppressWarnings("unchecked")
+	final V valueAt(int slot){
+		return (V) this.values[slot];
+	}
+
+	/**
+	 * Sets the value held by the given slot.
+	 */
+	final void setValueAt(int slot, V value){
+		this.values[slot] = value;
+	}
+
+	@Override
+	void allocateValues(int capacity) {
+		this.previousValues = this.values;
+		this.values = new Object[capacity];
+	}
+
+	@Override
+	void moveValue(int fromSlot, int toSlot) {
+		this.values[toSlot] = this.previousValues[fromSlot];
+	}
+
+	@Override
+	void releasePreviousValues() {
+		this.previousValues = null;
+	}
+
+	@Override
+	void clearValue(int slot) {
+		this.values[slot] = null;
+	}
+
+	@Override
+	void clearValues() {
+		Arrays.fill(this.values, null);
+	}
+
+	/**
+	 * Action performed on each key and value of {@link LongObjectHashMap}.
+	 */
+	@FunctionalInterface
+	public interface LongObjectConsumer<V> {
+		void accept(long key, V value);
+	}
+}
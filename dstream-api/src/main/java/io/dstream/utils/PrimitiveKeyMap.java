@@ -0,0 +1,279 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Insertion ordered {@link Map} which detects primitive key types from the keys it holds.<br>
+ * As long as all keys are {@link Long}s (or all keys are {@link Integer}s) they are held unboxed
+ * in the {@link LongObjectHashMap}, so no key objects or entry nodes are retained per key.
+ * Once a key of any other type (or <i>null</i>) is inserted, the content is migrated to
+ * {@link LinkedHashMap} which is used from then on (until the map is {@link #clear()}ed).<br>
+ * If <i>maxSize</i> is provided, inserting a key beyond it removes the oldest key which is then
+ * passed to {@link #onEviction(Object, Object)} (e.g., to emit partially combined values).<br>
+ * Instances of this class are not thread-safe.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class PrimitiveKeyMap<K,V> extends AbstractMap<K,V> {
+
+	private final int maxSize;
+
+	private LongObjectHashMap<V> primitiveMap;
+
+	private Class<?> primitiveKeyType;
+
+	private LinkedHashMap<K, V> boxedMap;
+
+	/**
+	 * Constructs this map without size limit.
+	 */
+	public PrimitiveKeyMap(){
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxSize the maximum amount of keys held by this map (see {@link #onEviction(Object, Object)})
+	 */
+	public PrimitiveKeyMap(int maxSize){
+		Assert.isTrue(maxSize > 0, "'maxSize' must be > 0");
+		this.maxSize = maxSize;
+		this.primitiveMap = new LongObjectHashMap<>();
+	}
+
+	/**
+	 * Returns <i>true</i> if keys of this map are held unboxed.
+	 */
+	public boolean isPrimitive(){
+		return this.primitiveMap != null;
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public int size() {
+		return this.primitiveMap != null ? this.primitiveMap.size() : this.boxedMap.size();
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		if (this.primitiveMap != null){
+			return this.isPrimitiveKey(key) && this.primitiveMap.containsKey(((Number)key).longValue());
+		}
+		return this.boxedMap.containsKey(key);
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public V get(Object key) {
+		if (this.primitiveMap != null){
+			return this.isPrimitiveKey(key) ? this.primitiveMap.get(((Number)key).longValue()) : null;
+		}
+		return this.boxedMap.get(key);
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public V put(K key, V value) {
+		if (this.primitiveMap != null && !this.isPrimitiveKey(key)){
+			this.migrate();
+		}
+		V previousValue;
+		int size = this.size();
+		if (this.primitiveMap != null){
+			this.primitiveKeyType = key.getClass();
+			previousValue = this.primitiveMap.put(((Number)key).longValue(), value);
+		}
+		else {
+			previousValue = this.boxedMap.put(key, value);
+		}
+		if (this.size() > size && this.size() > this.maxSize){
+			this.evictOldest();
+		}
+		return previousValue;
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public V remove(Object key) {
+		if (this.primitiveMap != null){
+			return this.isPrimitiveKey(key) ? this.primitiveMap.remove(((Number)key).longValue()) : null;
+		}
+		return this.boxedMap.remove(key);
+	}
+
+	/**
+	 * Removes all keys, so primitive key type is detected again.
+	 */
+	@Override
+	public void clear() {
+		if (this.primitiveMap != null){
+			this.primitiveMap.clear();
+		}
+		else {
+			this.boxedMap = null;
+			this.primitiveMap = new LongObjectHashMap<>();
+		}
+		this.primitiveKeyType = null;
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		if (this.primitiveMap != null){
+			this.primitiveMap.forEach((key, value) -> action.accept(this.toKey(key), value));
+		}
+		else {
+			this.boxedMap.forEach(action);
+		}
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<Entry<K,V>>() {
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return primitiveMap != null ? new PrimitiveEntryIterator() : boxedMap.entrySet().iterator();
+			}
+			@Override
+			public int size() {
+				return PrimitiveKeyMap.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Invoked with the oldest key and its value removed from this map once its size exceeded <i>maxSize</i>.
+	 * Default implementation does nothing.
+	 */
+	protected void onEviction(K key, V value) {
+		// noop
+	}
+
+	/**
+	 *
+	 */
+	private void evictOldest(){
+		K key;
+		V value;
+		if (this.primitiveMap != null){
+			long primitiveKey = this.primitiveMap.firstKey();
+			key = this.toKey(primitiveKey);
+			value = this.primitiveMap.remove(primitiveKey);
+		}
+		else {
+			Iterator<Entry<K, V>> entries = this.boxedMap.entrySet().iterator();
+			Entry<K, V> eldest = entries.next();
+			key = eldest.getKey();
+			value = eldest.getValue();
+			entries.remove();
+		}
+		this.onEviction(key, value);
+	}
+
+	/**
+	 * Moves keys to {@link LinkedHashMap} preserving their order.
+	 */
+	private void migrate(){
+		this.boxedMap = new LinkedHashMap<>();
+		this.primitiveMap.forEach((key, value) -> this.boxedMap.put(this.toKey(key), value));
+		this.primitiveMap = null;
+		this.primitiveKeyType = null;
+	}
+
+	/**
+	 * Returns <i>true</i> if the given key could be held by the {@link LongObjectHashMap}.
+	 */
+	private boolean isPrimitiveKey(Object key){
+		return this.primitiveKeyType == null
+				? key instanceof Long || key instanceof Integer
+						: key != null && key.getClass() == this.primitiveKeyType;
+	}
+
+	/**
+	 *
+	 */
+	@SuppressWarnings("unchecked")
+	private K toKey(long key){
+		Object boxedKey = this.primitiveKeyType == Integer.class ? (Object) Integer.valueOf((int) key) : (Object) Long.valueOf(key);
+		return (K) boxedKey;
+	}
+
+	/**
+	 * {@link Iterator} over entries of the {@link LongObjectHashMap} in insertion order.
+	 */
+	private class PrimitiveEntryIterator implements Iterator<Entry<K, V>> {
+		private int nextSlot = primitiveMap.firstSlot();
+
+		private int currentSlot = -1;
+
+		@Override
+		public boolean hasNext() {
+			return this.nextSlot >= 0;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (!this.hasNext()){
+				throw new NoSuchElementException();
+			}
+			this.currentSlot = this.nextSlot;
+			this.nextSlot = primitiveMap.nextSlot(this.currentSlot);
+			int slot = this.currentSlot;
+			return new SimpleEntry<K, V>(toKey(primitiveMap.keyAt(slot)), primitiveMap.valueAt(slot)) {
+				private static final long serialVersionUID = -4934862385137425339L;
+				@Override
+				public V setValue(V value) {
+					primitiveMap.setValueAt(slot, value);
+					return super.setValue(value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			Assert.isTrue(this.currentSlot >= 0, "'next' must be called before 'remove'");
+			primitiveMap.remove(primitiveMap.keyAt(this.currentSlot));
+			this.currentSlot = -1;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Growable byte buffer meant to be reused (e.g., per thread) to encode variable length 
+ * values whose length must be written before their bytes, so such values are written
+ * without allocating intermediate arrays.<br>
+ * Once {@link #reset()}, buffers which grew larger than {@link #MAX_RETAINED_SIZE} are
+ * shrunk back, so large values are not retained.<br>
+ * Instances of this class are not thread-safe.
+ */
+public final class ScratchBuffer extends ByteArrayOutputStream {
+
+	public static final int MAX_RETAINED_SIZE = 65536;
+
+	private static final int INITIAL_SIZE = 256;
+
+	/**
+	 * 
+	 */
+	public ScratchBuffer(){
+		super(INITIAL_SIZE);
+	}
+
+	/**
+	 * Encodes the given {@link String} as UTF-8 bytes appending them to this buffer 
+	 * (unpaired surrogates are encoded as '?', same as {@link String#getBytes(java.nio.charset.Charset)}).
+	 */
+	public void writeUtf8(String value){
+		int length = value.length();
+		this.ensureCapacity(this.count + length * 3);
+		byte[] buf = this.buf;
+		int count = this.count;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80){
+				buf[count++] = (byte) c;
+			}
+			else if (c < 0x800){
+				buf[count++] = (byte) (0xC0 | (c >> 6));
+				buf[count++] = (byte) (0x80 | (c & 0x3F));
+			}
+			else if (Character.isSurrogate(c)){
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))){
+					int codePoint = Character.toCodePoint(c, value.charAt(++i));
+					buf[count++] = (byte) (0xF0 | (codePoint >> 18));
+					buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+					buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+					buf[count++] = (byte) (0x80 | (codePoint & 0x3F));
+				}
+				else {
+					buf[count++] = '?';
+				}
+			}
+			else {
+				buf[count++] = (byte) (0xE0 | (c >> 12));
+				buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buf[count++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		this.count = count;
+	}
+
+	/**
+	 * Returns the internal buffer of which the first {@link #size()} bytes are valid.
+	 */
+	public byte[] getBuffer(){
+		return this.buf;
+	}
+
+	/**
+	 * Writes the valid bytes of this buffer to the given {@link DataOutput}.
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.write(this.buf, 0, this.count);
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		if (this.buf.length > MAX_RETAINED_SIZE){
+			this.buf = new byte[INITIAL_SIZE];
+		}
+	}
+
+	/**
+	 * 
+	 */
+	private void ensureCapacity(int capacity){
+		if (capacity > this.buf.length){
+			byte[] newBuf = new byte[Math.max(capacity, this.buf.length << 1)];
+			System.arraycopy(this.buf, 0, newBuf, 0, this.count);
+			this.buf = newBuf;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import io.dstream.support.Serializer;
+
+/**
+ * Binary encoding of values spilled to disk (e.g., by the shuffle of the local
+ * execution engine or by the join buffer), which delegates to the {@link Serializer}
+ * returned by {@link Serializer#getInstance()}.
+ */
+public final class SpillCodec {
+
+	private SpillCodec(){}
+
+	/**
+	 * Writes the given value to the given {@link DataOutput}.
+	 */
+	public static void write(Object value, DataOutput out) throws IOException {
+		Serializer.getInstance().write(value, out);
+	}
+
+	/**
+	 * Reads the value previously written by {@link #write(Object, DataOutput)}
+	 * from the given {@link DataInput}.
+	 */
+	public static Object read(DataInput in) throws IOException {
+		return Serializer.getInstance().read(in);
+	}
+}
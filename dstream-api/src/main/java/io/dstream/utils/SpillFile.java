@@ -0,0 +1,248 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Temporary file holding values spilled to disk (see {@link SpillCodec}), shared by
+ * the shuffle and join buffers of the local execution engine and by the grouping of
+ * the Tez unordered input.<br>
+ * The file is written once via {@link #getOutput()} and then read (possibly several times)
+ * via {@link #getInput()} or {@link #iterator(long, ValueReader, boolean)}.
+ * Spill files are not registered for deletion on JVM exit, so it is the responsibility
+ * of the owner to {@link #delete()} them (or read them with <i>deleteWhenRead</i>).<br>
+ * Instances of this class are not thread-safe.
+ */
+public final class SpillFile {
+
+	/**
+	 * Default size (in bytes) of the I/O buffer used to write and read spill files.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+	private final File file;
+
+	private final int bufferSize;
+
+	private DataOutputStream out;
+
+	/**
+	 * Creates new spill file in the given directory (created if it does not exist)
+	 * using {@link #DEFAULT_BUFFER_SIZE}.
+	 *
+	 * @param spillDirectory directory where spill file is created
+	 * @param prefix prefix of the spill file name
+	 */
+	public SpillFile(File spillDirectory, String prefix){
+		this(spillDirectory, prefix, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates new spill file in the given directory (created if it does not exist).
+	 *
+	 * @param spillDirectory directory where spill file is created
+	 * @param prefix prefix of the spill file name
+	 * @param bufferSize size (in bytes) of the I/O buffer used to write and read this spill file
+	 */
+	public SpillFile(File spillDirectory, String prefix, int bufferSize){
+		Assert.notNull(spillDirectory, "'spillDirectory' must not be null");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+		try {
+			spillDirectory.mkdirs();
+			this.file = File.createTempFile(prefix, ".spill", spillDirectory);
+			this.bufferSize = bufferSize;
+			this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.file), bufferSize));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to create spill file in " + spillDirectory, e);
+		}
+	}
+
+	/**
+	 * Returns the output to write this spill file, which must be closed
+	 * via {@link #closeOutput()} before this file is read.
+	 */
+	public DataOutputStream getOutput(){
+		Assert.notNull(this.out, "Output of spill file " + this.file + " is closed");
+		return this.out;
+	}
+
+	/**
+	 * Flushes and closes the output of this spill file. Has no effect if already closed.
+	 */
+	public void closeOutput(){
+		if (this.out != null){
+			try {
+				this.out.close();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to write spill file " + this.file, e);
+			}
+			finally {
+				this.out = null;
+			}
+		}
+	}
+
+	/**
+	 * Returns new input to read this spill file from the beginning.
+	 * The output is closed first if it was not already.
+	 */
+	public DataInputStream getInput(){
+		this.closeOutput();
+		try {
+			return new DataInputStream(new BufferedInputStream(new FileInputStream(this.file), this.bufferSize));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to open spill file " + this.file, e);
+		}
+	}
+
+	/**
+	 * Returns {@link SpillIterator} over the first <i>count</i> values of this spill file,
+	 * each read by the given {@link ValueReader}. The input is closed once all values are read
+	 * or when the iterator is closed.
+	 *
+	 * @param count the amount of values to read
+	 * @param valueReader reads single value from the input
+	 * @param deleteWhenRead whether this file should be deleted once all values are read
+	 * (or the iterator is closed)
+	 */
+	public <T> SpillIterator<T> iterator(long count, ValueReader<T> valueReader, boolean deleteWhenRead){
+		return new SpillIterator<T>(count, valueReader, deleteWhenRead);
+	}
+
+	/**
+	 * Returns the size of this spill file in bytes.
+	 */
+	public long length(){
+		return this.file.length();
+	}
+
+	/**
+	 * Closes the output of this spill file (ignoring failures) and deletes it.
+	 */
+	public void delete(){
+		if (this.out != null){
+			try {
+				this.out.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+			this.out = null;
+		}
+		this.file.delete();
+	}
+
+	@Override
+	public String toString(){
+		return this.file.toString();
+	}
+
+	/**
+	 * Reads single value from the input of the {@link SpillFile}.
+	 */
+	@FunctionalInterface
+	public interface ValueReader<T> {
+		T read(DataInput in) throws IOException;
+	}
+
+	/**
+	 * {@link Iterator} over the values of the {@link SpillFile}.
+	 * See {@link SpillFile#iterator(long, ValueReader, boolean)}.
+	 */
+	public final class SpillIterator<T> implements Iterator<T>, AutoCloseable {
+		private final ValueReader<T> valueReader;
+
+		private final boolean deleteWhenRead;
+
+		private DataInputStream in;
+
+		private long remaining;
+
+		private boolean closed;
+
+		private SpillIterator(long count, ValueReader<T> valueReader, boolean deleteWhenRead){
+			this.remaining = count;
+			this.valueReader = valueReader;
+			this.deleteWhenRead = deleteWhenRead;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.remaining == 0){
+				this.close();
+			}
+			return this.remaining > 0;
+		}
+
+		@Override
+		public T next() {
+			if (!this.hasNext()){
+				throw new NoSuchElementException();
+			}
+			try {
+				if (this.in == null){
+					this.in = getInput();
+				}
+				T value = this.valueReader.read(this.in);
+				this.remaining--;
+				return value;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to read spill file " + file, e);
+			}
+		}
+
+		/**
+		 * Closes the input (deleting the {@link SpillFile} if requested), so no more values are read.
+		 */
+		@Override
+		public void close(){
+			if (!this.closed){
+				this.closed = true;
+				this.remaining = 0;
+				if (this.in != null){
+					try {
+						this.in.close();
+					}
+					catch (IOException e) {
+						// ignore
+					}
+					this.in = null;
+				}
+				if (this.deleteWhenRead){
+					delete();
+				}
+			}
+		}
+	}
+}
@@ -17,9 +17,9 @@
  */
 package io.dstream.utils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Definition of Tuple structures. 
@@ -27,7 +27,11 @@ import java.util.List;
 public interface Tuples {
 	
 	/**
-	 * 
+	 * Implementation of all Tuple structures which holds its values in the array of the exact
+	 * size of the tuple (i.e., arity), so each tuple amounts to only two objects.<br>
+	 * Its hash code is computed once and cached until the tuple is modified (see {@link #add(Object...)}),
+	 * while {@link #compareTo(Object)} compares tuples value by value, so tuples could be sorted
+	 * (e.g., sort-based shuffle or sort-merge join).
 	 */
 	public static class Tuple implements Serializable, Comparable<Object>,
 			Tuple2<Object, Object>,
@@ -36,66 +40,170 @@ public interface Tuples {
 			Tuple5<Object, Object, Object, Object, Object>,
 			Tuple6<Object, Object, Object, Object, Object, Object> {
 		
-		private static final long serialVersionUID = 3141806564307095593L;
+		private static final long serialVersionUID = -2510316224186406531L;
+		
+		private Object[] values;
 		
-		private final List<Object> values;
+		private transient int hash;
 		
 		public Tuple(Object... values){
-			this.values = new ArrayList<>(values.length);
-			this.add(values);
+			this(values, values.length);
+		}
+		
+		private Tuple(Object[] values, int size){
+			this.values = Arrays.copyOf(values, size, Object[].class);
 		}
 		
-		private Tuple(int initialSize){
-			this.values = new ArrayList<>(initialSize);
+		/**
+		 * Returns new tuple with the values of this tuple followed by the provided value
+		 * (this tuple is not modified).
+		 */
+		public Tuple append(Object value){
+			Tuple appended = new Tuple(this.values, this.values.length + 1);
+			appended.values[this.values.length] = value;
+			return appended;
 		}
 		
 		@SuppressWarnings("unchecked")
 		public <T> T get(int idx) {
-			return (T) this.values.get(idx);
+			return (T) this.values[idx];
 		}
 		
 		public void add(Object... values){
-			for (Object value : values) {
-				this.values.add(value);
+			if (values.length > 0){
+				int size = this.values.length;
+				this.values = Arrays.copyOf(this.values, size + values.length);
+				System.arraycopy(values, 0, this.values, size, values.length);
+				this.hash = 0;
 			}
 		}
 		
 		public int size(){
-			return this.values.size();
+			return this.values.length;
 		}
 		
 		public Tuple clone(){
-			Tuple cloned = new Tuple(this.values.size());
-			cloned.values.addAll(this.values);
-			return cloned;
+			return new Tuple(this.values, this.values.length);
 		}
 		
 		@Override
 		public String toString(){
-			return values.toString(); 
+			return Arrays.toString(this.values); 
 		}
 		
+		/**
+		 * Same as {@link java.util.List#hashCode()} of its values.
+		 */
 		@Override
 		public int hashCode(){
-			int hashCode = this.values.hashCode();
+			int hashCode = this.hash;
+			if (hashCode == 0){
+				hashCode = Arrays.hashCode(this.values);
+				this.hash = hashCode;
+			}
 			return hashCode;
 		}
 		
 		@Override
 		public boolean equals(Object obj) {
+			if (obj == this){
+				return true;
+			}
 			if (obj instanceof Tuple){
 				Tuple that = (Tuple) obj;
-				return this.values.equals(that.values);
+				return this.values.length == that.values.length 
+						&& this.hashCode() == that.hashCode()
+						&& Arrays.equals(this.values, that.values);
 			}
 	        return false;
 	    }
 
+		/**
+		 * Compares tuples value by value where the first non-equal values determine the order
+		 * (a tuple which is a prefix of the other tuple is ordered first).
+		 * Values of the same type are compared via {@link Comparable} (if implemented) and <i>null</i>
+		 * is ordered first. Values of different types are ordered by the name of their type and 
+		 * non-{@link Comparable} values by their hash code and, if hash codes collide, by their
+		 * serialized form, so unequal values are never ordered as equal.
+		 * 
+		 * @throws ClassCastException if two unequal non-{@link Comparable} values can not be ordered
+		 * (e.g., they are not {@link Serializable} or serialize to the same bytes).
+		 */
 		@Override
 		public int compareTo(Object that) {
-			if (this.equals(that)){
+			Tuple thatTuple = (Tuple) that;
+			int size = Math.min(this.values.length, thatTuple.values.length);
+			for (int i = 0; i < size; i++) {
+				int result = compareValues(this.values[i], thatTuple.values[i]);
+				if (result != 0){
+					return result;
+				}
+			}
+			return Integer.compare(this.values.length, thatTuple.values.length);
+		}
+		
+		/**
+		 * 
+		 */
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private static int compareValues(Object left, Object right){
+			if (left == right){
+				return 0;
+			}
+			else if (left == null){
+				return -1;
+			}
+			else if (right == null){
+				return 1;
+			}
+			else if (left.getClass() != right.getClass()){
+				return left.getClass().getName().compareTo(right.getClass().getName());
+			}
+			else if (left instanceof Comparable){
+				return ((Comparable)left).compareTo(right);
+			}
+			else if (left.equals(right)){
 				return 0;
-			}	
-			return -1;
+			}
+			else {
+				int result = Integer.compare(left.hashCode(), right.hashCode());
+				if (result == 0){
+					result = compareSerialized(left, right);
+				}
+				return result;
+			}
+		}
+		
+		/**
+		 * Orders unequal non-{@link Comparable} values with the same hash code by their
+		 * serialized bytes (compared as unsigned).
+		 */
+		private static int compareSerialized(Object left, Object right){
+			if (left instanceof Serializable){
+				byte[] leftBytes = serialize(left);
+				byte[] rightBytes = serialize(right);
+				int size = Math.min(leftBytes.length, rightBytes.length);
+				for (int i = 0; i < size; i++) {
+					int result = Integer.compare(leftBytes[i] & 0xff, rightBytes[i] & 0xff);
+					if (result != 0){
+						return result;
+					}
+				}
+				if (leftBytes.length != rightBytes.length){
+					return Integer.compare(leftBytes.length, rightBytes.length);
+				}
+			}
+			throw new ClassCastException("Unequal values of " + left.getClass().getName() 
+					+ " have the same hash code and can not be ordered. Make them Comparable.");
+		}
+		
+		/**
+		 * 
+		 */
+		private static byte[] serialize(Object value){
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			SerializationUtils.serialize(value, bos);
+			return bos.toByteArray();
 		}
 	}
 	
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class BroadcastJoinFunctionTests {
+	
+	private final DStreamExecutionGraph broadcastGraph = new DStreamExecutionGraph(String.class, "dim", Collections.emptyList());
+
+	@Test
+	public void joinWithDuplicateAndNullKeys(){
+		BroadcastJoinFunction joiner = new BroadcastJoinFunction(this.broadcastGraph, 
+				l -> ((String)l).split("-")[1], r -> ((String)r).startsWith("B-null") ? null : ((String)r).split("-")[1]);
+		joiner.setBroadcastValues(new ArrayList<>(Arrays.asList("B-foo", "B-null", "B-bar", "B-foo")));
+		
+		List<String> result = joiner.apply(Stream.of("A-foo", "A-baz", "A-bar", "A-null"))
+				.map(s -> s.toString()).collect(Collectors.toList());
+		assertEquals(3, result.size());
+		assertEquals("[A-foo, B-foo]", result.get(0));
+		assertEquals("[A-foo, B-foo]", result.get(1));
+		assertEquals("[A-bar, B-bar]", result.get(2));
+	}
+	
+	@Test
+	public void joinIsRepeatable(){
+		BroadcastJoinFunction joiner = new BroadcastJoinFunction(this.broadcastGraph, l -> l, r -> r);
+		joiner.setBroadcastValues(new ArrayList<>(Arrays.asList("a", "b")));
+		
+		assertEquals(1, joiner.apply(Stream.of("a")).count());
+		assertEquals(2, joiner.apply(Stream.of("a", "b", "c")).count());
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void failWithoutBroadcastValues(){
+		BroadcastJoinFunction joiner = new BroadcastJoinFunction(this.broadcastGraph, l -> l, r -> r);
+		joiner.apply(Stream.of("a"));
+	}
+}
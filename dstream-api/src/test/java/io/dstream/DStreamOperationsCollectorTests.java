@@ -205,4 +205,47 @@ public class DStreamOperationsCollectorTests {
 		assertEquals("mapKeyValues", context.getOperations().get(2).getLastOperationName());
 		assertEquals("aggregateValues", context.getOperations().get(3).getLastOperationName());
 	}
+
+	@Test
+	public void validateMapSideCombineEnabledForReduceValues() throws Exception {
+		DStream<Entry<Object, Integer>> stream = DStream.ofType(Object.class, "validateMapSideCombine")
+				.reduceValues(s -> s, s -> 1, Integer::sum);
+		assertEquals("mapKeyValues{reducingValues}", this.getMapKeyValuesOperationName(stream, this.streamName));
+	}
+
+	@Test
+	public void validateMapSideCombineDisabledForReduceValuesByOperation() throws Exception {
+		DStream<Entry<Object, Integer>> stream = DStream.ofType(Object.class, "validateMapSideCombine")
+				.reduceValues(s -> s, s -> 1, Integer::sum, false);
+		assertEquals("mapKeyValues", this.getMapKeyValuesOperationName(stream, this.streamName));
+	}
+
+	@Test
+	public void validateMapSideCombineForAggregateValues() throws Exception {
+		DStream<Entry<Object, List<Integer>>> stream = DStream.ofType(Object.class, "validateMapSideCombine")
+				.aggregateValues(s -> s, s -> 1);
+		assertEquals("mapKeyValues", this.getMapKeyValuesOperationName(stream, this.streamName));
+		assertEquals("mapKeyValues{reducingValues}", this.getMapKeyValuesOperationName(stream, this.streamName + "-msc"));
+	}
+
+	@Test
+	public void validateMapSideCombineForAggregateValuesByOperation() throws Exception {
+		DStream<Entry<Object, List<Integer>>> stream = DStream.ofType(Object.class, "validateMapSideCombine")
+				.aggregateValues(s -> s, s -> 1, true);
+		assertEquals("mapKeyValues{reducingValues}", this.getMapKeyValuesOperationName(stream, this.streamName));
+	}
+
+	@Test
+	public void validateMapSideCombineDisabledByStageConfiguration() throws Exception {
+		DStream<Entry<Object, Integer>> stream = DStream.ofType(Object.class, "foo")
+				.reduceValues(s -> s, s -> 1, Integer::sum);
+		assertEquals("mapKeyValues", this.getMapKeyValuesOperationName(stream, this.streamName + "-msc"));
+	}
+
+	private String getMapKeyValuesOperationName(DStream<?> stream, String executionName) throws Exception {
+		Stream<? extends Stream<?>> result = stream.executeAs(executionName).get(1000, TimeUnit.MILLISECONDS);
+		DStreamExecutionGraph context = (DStreamExecutionGraph) result.findFirst().get().findFirst().get();
+		result.close();
+		return context.getOperations().get(0).getLastOperationName();
+	}
 }
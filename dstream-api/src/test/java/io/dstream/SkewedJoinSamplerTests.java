@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import static io.dstream.utils.KVUtils.kv;
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import io.dstream.support.Classifier;
+import io.dstream.utils.Tuples.Tuple2;
+
+public class SkewedJoinSamplerTests {
+	
+	private final DStreamExecutionGraph leftGraph = new DStreamExecutionGraph(String.class, "left", Collections.emptyList());
+	
+	private final DStreamExecutionGraph rightGraph = new DStreamExecutionGraph(String.class, "right", Collections.emptyList());
+
+	@Test
+	public void hotKeysAreSaltedOnHeavierSide(){
+		SkewSaltingFunction leftSalting = new SkewSaltingFunction(3, new SaltClassifier(3));
+		SkewSaltingFunction rightSalting = new SkewSaltingFunction(3, new SaltClassifier(3));
+		SkewSaltingFunction thirdSalting = new SkewSaltingFunction(3, new SaltClassifier(3));
+		SkewedJoinSampler sampler = new SkewedJoinSampler(this.leftGraph, this.rightGraph, leftSalting, rightSalting, 0.4);
+		sampler.addReplicatingFunction(thirdSalting);
+		// 'a' is hot on the left, 'b' is hot on the right while 'c' is not hot
+		sampler.resolveHotKeys(Arrays.asList(kv("a", 6L), kv("a", 2L), kv("b", 1L), kv("c", 1L)), 
+				Arrays.asList(kv("a", 1L), kv("b", 4L), kv("c", 3L)));
+		
+		List<Entry<Object, Object>> left = leftSalting.apply(entries("a=1", "a=2", "a=3", "b=4", "c=5"))
+				.collect(Collectors.toList());
+		assertEquals(3 + 3 + 1, left.size());
+		assertEquals(3, left.stream().limit(3).map(Entry::getKey).distinct().count());
+		assertTrue(left.stream().limit(3).allMatch(e -> e.getKey().equals(tuple2("a", 0)) 
+				|| e.getKey().equals(tuple2("a", 1)) || e.getKey().equals(tuple2("a", 2))));
+		assertEquals(Arrays.asList(tuple2("b", 0), tuple2("b", 1), tuple2("b", 2), "c"), 
+				left.stream().skip(3).map(Entry::getKey).collect(Collectors.toList()));
+		
+		List<Entry<Object, Object>> right = rightSalting.apply(entries("a=1", "b=2", "c=3"))
+				.collect(Collectors.toList());
+		assertEquals(3 + 1 + 1, right.size());
+		assertEquals(Arrays.asList(tuple2("a", 0), tuple2("a", 1), tuple2("a", 2)), 
+				right.stream().limit(3).map(Entry::getKey).collect(Collectors.toList()));
+		assertTrue(Arrays.asList(tuple2("b", 0), tuple2("b", 1), tuple2("b", 2)).contains(right.get(3).getKey()));
+		assertEquals("c", right.get(4).getKey());
+		
+		assertEquals(3 + 3 + 1, thirdSalting.apply(entries("a=1", "b=2", "c=3")).count());
+	}
+	
+	@Test
+	public void noHotKeys(){
+		SkewSaltingFunction leftSalting = new SkewSaltingFunction(3, new SaltClassifier(3));
+		SkewSaltingFunction rightSalting = new SkewSaltingFunction(3, new SaltClassifier(3));
+		SkewedJoinSampler sampler = new SkewedJoinSampler(this.leftGraph, this.rightGraph, leftSalting, rightSalting, 0.9);
+		sampler.resolveHotKeys(Arrays.asList(kv("a", 1L), kv("b", 1L)), Collections.emptyList());
+		
+		assertEquals(Arrays.asList("a", "b"), 
+				leftSalting.apply(entries("a=1", "b=2")).map(Entry::getKey).collect(Collectors.toList()));
+		assertEquals(0, rightSalting.apply(entries()).count());
+	}
+	
+	@Test
+	public void saltingIsRoundRobin(){
+		SkewSaltingFunction salting = new SkewSaltingFunction(2, new SaltClassifier(2));
+		HashMap<Object, Boolean> hotKeys = new HashMap<>();
+		hotKeys.put("a", true);
+		salting.setHotKeys(hotKeys);
+		
+		List<Object> keys = salting.apply(entries("a=1", "a=2", "a=3", "a=4"))
+				.map(Entry::getKey).collect(Collectors.toList());
+		assertEquals(2, keys.stream().filter(key -> key.equals(tuple2("a", 0))).count());
+		assertEquals(2, keys.stream().filter(key -> key.equals(tuple2("a", 1))).count());
+	}
+	
+	@Test
+	public void replicationIsOncePerPartition(){
+		// 5 salts spread across 2 partitions
+		SkewSaltingFunction salting = new SkewSaltingFunction(5, new SaltClassifier(2));
+		HashMap<Object, Boolean> hotKeys = new HashMap<>();
+		hotKeys.put("a", false);
+		salting.setHotKeys(hotKeys);
+		
+		assertEquals(Arrays.asList(tuple2("a", 0), tuple2("a", 1), "b"), 
+				salting.apply(entries("a=1", "b=2")).map(Entry::getKey).collect(Collectors.toList()));
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void failWithoutHotKeys(){
+		new SkewSaltingFunction(2, new SaltClassifier(2)).apply(entries("a=1"));
+	}
+	
+	/**
+	 * Classifies salted keys by their salt.
+	 */
+	private static class SaltClassifier extends Classifier {
+		private static final long serialVersionUID = 1L;
+
+		SaltClassifier(int classificationSize) {
+			super(classificationSize);
+		}
+
+		@Override
+		protected int doGetClassificationId(Object input) {
+			return (Integer)((Tuple2<?, ?>)input)._2() % this.getSize();
+		}
+	}
+	
+	private static Stream<Entry<Object, Object>> entries(String... keyValuePairs){
+		return Stream.of(keyValuePairs).map(keyValuePair -> kv(keyValuePair.split("=")[0], keyValuePair.split("=")[1]));
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.dstream.utils.KVUtils;
+
+public class SpillableJoinBufferTests {
+	
+	private File spillDirectory;
+	
+	@Before
+	public void before() throws Exception {
+		this.spillDirectory = Files.createTempDirectory("dstream-join-test").toFile();
+	}
+	
+	@After
+	public void after(){
+		Stream.of(this.spillDirectory.listFiles()).forEach(File::delete);
+		this.spillDirectory.delete();
+	}
+	
+	@Test
+	public void bufferInMemoryWhenThresholdNotProvided(){
+		SpillableJoinBuffer buffer = new SpillableJoinBuffer(new ArrayList<>(), 0, this.spillDirectory);
+		Stream.of("a", "b", "c").forEach(buffer::add);
+		buffer.seal();
+		assertEquals(Arrays.asList("a", "b", "c"), buffer.stream().collect(Collectors.toList()));
+		assertEquals(0, buffer.getSpilledValues());
+		assertEquals(0, this.spillDirectory.listFiles().length);
+	}
+	
+	@Test
+	public void spillAndScanRepeatedly(){
+		List<Object> bufferedValues = new ArrayList<>();
+		SpillableJoinBuffer buffer = new SpillableJoinBuffer(bufferedValues, 2, this.spillDirectory);
+		List<Object> values = Arrays.asList("a", 1, 2L, KVUtils.kv("k", 3.0), null, "b");
+		values.forEach(buffer::add);
+		buffer.seal();
+		
+		assertEquals(2, bufferedValues.size());
+		assertEquals(4, buffer.getSpilledValues());
+		assertTrue(buffer.getSpilledBytes() > 0);
+		for (int i = 0; i < 3; i++) {
+			try (Stream<Object> scan = buffer.stream()) {
+				assertEquals(values, scan.collect(Collectors.toList()));
+			}
+		}
+		// partially consumed scan
+		try (Stream<Object> scan = buffer.stream()) {
+			assertEquals(Arrays.asList("a", 1, 2L), scan.limit(3).collect(Collectors.toList()));
+		}
+		assertEquals(4, buffer.getScanCount());
+		
+		assertEquals(1, this.spillDirectory.listFiles().length);
+		buffer.close();
+		assertEquals(0, this.spillDirectory.listFiles().length);
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void failToAddToSealedBuffer(){
+		SpillableJoinBuffer buffer = new SpillableJoinBuffer(new ArrayList<>(), 0, this.spillDirectory);
+		buffer.seal();
+		buffer.add("a");
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void failToScanUnsealedBuffer(){
+		SpillableJoinBuffer buffer = new SpillableJoinBuffer(new ArrayList<>(), 0, this.spillDirectory);
+		buffer.add("a");
+		buffer.stream();
+	}
+}
@@ -16,11 +16,17 @@
  * limitations under the License.
  */
 package io.dstream;
+import static io.dstream.utils.KVUtils.kv;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
+import java.io.File;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.junit.Test;
@@ -91,6 +97,206 @@ public class StreamJoinerFunctionTests {
 		assertEquals("[A-bar, B-bar]", result.get(1));
 	}
 	
+	@Test
+	public void twoWayHashJoinWithSmallerLeft(){
+		Stream<Stream<?>> streams = Stream.of(lb.stream(), la.stream());
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(s -> ((String)s).substring(2), s -> ((String)s).substring(2));
+		List<String> result = joiner.apply(streams).map(s -> s.toString()).collect(Collectors.toList());
+		assertEquals(2, result.size());
+		assertEquals("[B-foo, A-foo]", result.get(0));
+		assertEquals("[B-bar, A-bar]", result.get(1));
+	}
+	
+	@Test
+	public void twoWayHashJoinWithSmallerRight(){
+		Stream<Stream<?>> streams = Stream.of(lc.stream(), lb.stream());
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(s -> ((String)s).substring(2), s -> ((String)s).substring(2));
+		List<String> result = joiner.apply(streams).map(s -> s.toString()).collect(Collectors.toList());
+		assertEquals(2, result.size());
+		assertEquals("[C-foo, B-foo]", result.get(0));
+		assertEquals("[C-bar, B-bar]", result.get(1));
+	}
+	
+	@Test
+	public void twoWayHashJoinHashesSmallerLeft(){
+		AtomicInteger rightValuesRead = new AtomicInteger();
+		Stream<String> right = Stream.iterate(0, i -> i + 1).limit(1000).map(i -> "C-" + i).peek(s -> rightValuesRead.incrementAndGet());
+		Stream<Stream<?>> streams = Stream.of(Stream.of("A-0", "A-1"), right);
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(s -> ((String)s).substring(2), s -> ((String)s).substring(2));
+		Iterator<?> joined = joiner.apply(streams).iterator();
+		assertEquals("[A-0, C-0]", joined.next().toString());
+		assertEquals("[A-1, C-1]", joined.next().toString());
+		assertEquals(3, rightValuesRead.get());
+		assertFalse(joined.hasNext());
+		assertEquals(1000, rightValuesRead.get());
+	}
+	
+	@Test
+	public void twoWayHashJoinHashesSmallerRight(){
+		AtomicInteger leftValuesRead = new AtomicInteger();
+		Stream<String> left = Stream.iterate(0, i -> i + 1).limit(1000).map(i -> "C-" + i).peek(s -> leftValuesRead.incrementAndGet());
+		Stream<Stream<?>> streams = Stream.of(left, Stream.of("B-1", "B-0"));
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(s -> ((String)s).substring(2), s -> ((String)s).substring(2));
+		Iterator<?> joined = joiner.apply(streams).iterator();
+		assertEquals("[C-0, B-0]", joined.next().toString());
+		assertEquals("[C-1, B-1]", joined.next().toString());
+		assertEquals(3, leftValuesRead.get());
+		assertFalse(joined.hasNext());
+	}
+	
+	@Test
+	public void twoWayHashJoinWithSpilledBuffer(){
+		Stream<Stream<?>> streams = Stream.of(lc.stream(), la.stream());
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.setJoinBufferSpilling(1, System.getProperty("java.io.tmpdir"));
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(s -> ((String)s).substring(2), s -> ((String)s).substring(2));
+		List<String> result = joiner.apply(streams).map(s -> s.toString()).sorted().collect(Collectors.toList());
+		assertEquals(Arrays.asList("[C-bar, A-bar]", "[C-baz, A-baz]", "[C-foo, A-foo]"), result);
+	}
+	
+	@Test
+	public void twoWayGraceHashJoin(){
+		List<String> left = IntStream.range(0, 1000).mapToObj(i -> "L-" + i % 50).collect(Collectors.toList());
+		List<String> right = IntStream.range(0, 200).mapToObj(i -> i % 10 == 0 ? "R-null" : "R-" + i % 100).collect(Collectors.toList());
+		// right (smaller) side exceeds the threshold, so it is partitioned, and its partitions again
+		this.assertGraceHashJoin(left, right, 10);
+	}
+	
+	@Test
+	public void twoWayGraceHashJoinWithHotKey(){
+		List<String> left = IntStream.range(0, 100).mapToObj(i -> "L-" + i % 2).collect(Collectors.toList());
+		List<String> right = IntStream.range(0, 50).mapToObj(i -> "R-0").collect(Collectors.toList());
+		// partition of the hot key never gets below the threshold, so it is eventually hashed in memory
+		this.assertGraceHashJoin(left, right, 10);
+	}
+	
+	private void assertGraceHashJoin(List<String> left, List<String> right, long spillThreshold){
+		File spillDirectory = new File(System.getProperty("java.io.tmpdir"), "dstream-grace-join-tests");
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.setJoinBufferSpilling(spillThreshold, spillDirectory.getAbsolutePath());
+		joiner.addCheckPoint(1);
+		SerFunction<Object, Object> keyExtractor = s -> ((String)s).endsWith("null") ? null : ((String)s).substring(2);
+		joiner.addJoinKeyExtractors(keyExtractor, keyExtractor);
+		List<String> result = joiner.apply(Stream.of(left.stream(), right.stream())).map(s -> s.toString()).sorted().collect(Collectors.toList());
+		
+		List<String> expected = left.stream()
+				.flatMap(l -> right.stream().filter(r -> keyExtractor.apply(r) != null && keyExtractor.apply(r).equals(keyExtractor.apply(l))).map(r -> "[" + l + ", " + r + "]"))
+				.sorted().collect(Collectors.toList());
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, result);
+		assertEquals(0, spillDirectory.list().length);
+	}
+	
+	@Test
+	public void twoWayHashJoinWithDuplicateAndNullKeys(){
+		List<String> left = Arrays.asList(new String[]{"A-foo", "A-foo", "A-null"});
+		List<String> right = Arrays.asList(new String[]{"B-foo", "B-null", "B-bar", "B-foo"});
+		Stream<Stream<?>> streams = Stream.of(left.stream(), right.stream());
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.addCheckPoint(1);
+		SerFunction<Object, Object> keyExtractor = s -> ((String)s).endsWith("null") ? null : ((String)s).substring(2);
+		joiner.addJoinKeyExtractors(keyExtractor, keyExtractor);
+		List<String> result = joiner.apply(streams).map(s -> s.toString()).collect(Collectors.toList());
+		assertEquals(4, result.size());
+		assertEquals(4, result.stream().filter(s -> s.equals("[A-foo, B-foo]")).count());
+	}
+	
+	@Test
+	public void twoWayHashJoinWithResidualPredicate(){
+		Stream<Stream<?>> streams = Stream.of(la.stream(), lc.stream());
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(s -> ((String)s).substring(2), s -> ((String)s).substring(2));
+		SerPredicate<Tuple2<String, String>> p = tuple2 -> !tuple2._1().endsWith("bar");
+		joiner.addTransformationOrPredicate("filter", p);
+		List<String> result = joiner.apply(streams).map(s -> s.toString()).collect(Collectors.toList());
+		assertEquals(2, result.size());
+		assertEquals("[A-foo, C-foo]", result.get(0));
+		assertEquals("[A-baz, C-baz]", result.get(1));
+	}
+	
+	@Test
+	public void twoWayCrossJoinWithSpilledBuffer(){
+		Stream<Stream<?>> streams = Stream.of(la.stream(), lc.stream());
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.setJoinBufferSpilling(1, System.getProperty("java.io.tmpdir"));
+		Stream<?> mergedStream = joiner.apply(streams);
+		List<String> result = mergedStream.map(s -> s.toString()).collect(Collectors.toList());
+		assertEquals(la.size()*lc.size(), result.size());
+		assertEquals("[A-foo, C-foo]", result.get(0));
+		assertEquals("[A-foo, C-abc]", result.get(3));
+		assertEquals("[A-baz, C-abc]", result.get(11));
+	}
+	
+	@Test
+	public void twoWaySortMergeJoinWithSpilledBuffer(){
+		Stream<?> left = Stream.of(kv(1, Arrays.asList("A-1", "A-1'").iterator()), kv(2, Arrays.asList("A-2").iterator()));
+		Stream<?> right = Stream.of(kv(1, Arrays.asList("B-1", "B-1'", "B-1''").iterator()), kv(2, Arrays.asList("B-2", "B-2'").iterator()));
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s, true);
+		joiner.addCheckPoint(1);
+		joiner.setJoinBufferSpilling(1, System.getProperty("java.io.tmpdir"));
+		List<String> result = joiner.apply(Stream.of(left, right)).map(s -> s.toString()).collect(Collectors.toList());
+		assertEquals(8, result.size());
+		assertEquals("[A-1, B-1]", result.get(0));
+		assertEquals("[A-1', B-1'']", result.get(5));
+		assertEquals("[A-2, B-2']", result.get(7));
+	}
+	
+	@Test
+	public void twoWaySortMergeJoin(){
+		Stream<?> left = Stream.of(kv(1, Arrays.asList("A-1", "A-1'").iterator()), kv(3, Arrays.asList("A-3").iterator()), 
+				kv(4, Arrays.asList("A-4").iterator()));
+		Stream<?> right = Stream.of(kv(0, Arrays.asList("B-0").iterator()), kv(1, Arrays.asList("B-1").iterator()), 
+				kv(4, Arrays.asList("B-4", "B-4'").iterator()), kv(5, Arrays.asList("B-5").iterator()));
+		Stream<Stream<?>> streams = Stream.of(left, right);
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s, true);
+		joiner.addCheckPoint(1);
+		Stream<?> mergedStream = joiner.apply(streams);
+		List<String> result = mergedStream.map(s -> s.toString()).peek(System.out::println).collect(Collectors.toList());
+		assertEquals(4, result.size());
+		assertEquals("[A-1, B-1]", result.get(0));
+		assertEquals("[A-1', B-1]", result.get(1));
+		assertEquals("[A-4, B-4]", result.get(2));
+		assertEquals("[A-4, B-4']", result.get(3));
+	}
+	
+	@Test
+	public void threeWaySortMergeJoinWithKeysAndPredicate(){
+		Stream<?> left = Stream.of(kv("a", Arrays.asList("a-1", "a-2").iterator()), kv("b", Arrays.asList("b-1").iterator()));
+		Stream<?> middle = Stream.of(kv("a", Arrays.asList("1-x", "2-y", "3-z").iterator()), kv("b", Arrays.asList("1-x").iterator()));
+		Stream<?> right = Stream.of(kv("a", Arrays.asList("x", "y").iterator()), kv("c", Arrays.asList("x").iterator()));
+		Stream<Stream<?>> streams = Stream.of(left, middle, right);
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s, true);
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(l -> ((String)l).split("-")[1], m -> ((String)m).split("-")[0]);
+		joiner.addCheckPoint(1);
+		SerPredicate<Tuple3<String, String, String>> p = tuple3 -> tuple3._3().equals("y");
+		joiner.addTransformationOrPredicate("filter", p);
+		Stream<?> mergedStream = joiner.apply(streams);
+		List<String> result = mergedStream.map(s -> s.toString()).peek(System.out::println).collect(Collectors.toList());
+		assertEquals(2, result.size());
+		assertEquals("[a-1, 1-x, y]", result.get(0));
+		assertEquals("[a-2, 2-y, y]", result.get(1));
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void sortMergeJoinWithIncomparableKeys(){
+		Stream<?> left = Stream.of(kv(1, Arrays.asList("A-1").iterator()));
+		Stream<?> right = Stream.of(kv("1", Arrays.asList("B-1").iterator()));
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s, true);
+		joiner.addCheckPoint(1);
+		joiner.apply(Stream.of(left, right)).count();
+	}
+	
 	@Test
 	public void crossJoin(){ // 4 way
 		Stream<Stream<?>> streams = Stream.of(la.stream(), lb.stream(), lc.stream(), ld.stream());
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.function;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import io.dstream.utils.KVUtils;
+
+public class KeyCountingFunctionTests {
+
+	@Test
+	public void validateKeyCounting(){
+		KeyCountingFunction<String, String> func = new KeyCountingFunction<>(s -> s, 10);
+		List<Entry<String, Long>> result = func.apply(Stream.of("hello", "bye", "hello")).collect(Collectors.toList());
+		assertEquals(2, result.size());
+		assertEquals(KVUtils.kv("hello", 2L), result.get(0));
+		assertEquals(KVUtils.kv("bye", 1L), result.get(1));
+	}
+
+	@Test
+	public void validateKeyCountingWithBoundedBuffer(){
+		KeyCountingFunction<String, String> func = new KeyCountingFunction<>(s -> s, 2);
+		List<Entry<String, Long>> result = func.apply(Stream.of("a", "b", "a", "c", "a")).collect(Collectors.toList());
+		assertEquals(4, result.size());
+		assertEquals(KVUtils.kv("a", 2L), result.get(0));
+		assertEquals(KVUtils.kv("b", 1L), result.get(1));
+		assertEquals(KVUtils.kv("c", 1L), result.get(2));
+		assertEquals(KVUtils.kv("a", 1L), result.get(3));
+	}
+
+	@Test
+	public void validateKeyCountingWithBoundedBufferAndMixedKeys(){
+		KeyCountingFunction<Object, Object> func = new KeyCountingFunction<>(s -> s, 2);
+		List<Entry<Object, Long>> result = func.apply(Stream.of(1, 2, 1, "x", 3)).collect(Collectors.toList());
+		assertEquals(4, result.size());
+		assertEquals(KVUtils.kv(1, 2L), result.get(0));
+		assertEquals(KVUtils.kv(2, 1L), result.get(1));
+		assertEquals(KVUtils.kv("x", 1L), result.get(2));
+		assertEquals(KVUtils.kv(3, 1L), result.get(3));
+	}
+}
@@ -68,4 +68,60 @@ public class KeyValueMappingFunctionTests {
 		assertEquals("bye", secondResult.getKey());
 		assertEquals(1, secondResult.getValue());
 	}
+
+	@Test
+	public void validateKVMapperWithBoundedCombineBuffer(){
+		KeyValueMappingFunction<String, String, Integer> kvFunc = new KeyValueMappingFunction<String, String, Integer>(s -> s, s -> 1, Integer::sum, 2, 1);
+		List<Entry<String, Integer>> result = kvFunc.apply(Stream.of("a", "b", "a", "c", "a", "b", "b")).collect(Collectors.toList());
+		assertEquals(5, result.size());
+		assertEquals(KVUtils.kv("a", 2), result.get(0));
+		assertEquals(KVUtils.kv("b", 1), result.get(1));
+		assertEquals(KVUtils.kv("c", 1), result.get(2));
+		assertEquals(KVUtils.kv("a", 1), result.get(3));
+		assertEquals(KVUtils.kv("b", 2), result.get(4));
+	}
+
+	@Test
+	public void validateKVMapperSwitchesToPassThrough(){
+		KeyValueMappingFunction<String, String, Integer> kvFunc = new KeyValueMappingFunction<String, String, Integer>(s -> s, s -> 1, Integer::sum, 4, 0.5);
+		List<Entry<String, Integer>> result = kvFunc.apply(Stream.of("a", "b", "c", "a", "a", "a", "b")).collect(Collectors.toList());
+		assertEquals(6, result.size());
+		assertEquals(KVUtils.kv("a", 2), result.get(0));
+		assertEquals(KVUtils.kv("b", 1), result.get(1));
+		assertEquals(KVUtils.kv("c", 1), result.get(2));
+		assertEquals(KVUtils.kv("a", 1), result.get(3));
+		assertEquals(KVUtils.kv("a", 1), result.get(4));
+		assertEquals(KVUtils.kv("b", 1), result.get(5));
+	}
+
+	@Test
+	public void validateKVMapperSwitchesToPassThroughWhenCardinalityRises(){
+		KeyValueMappingFunction<String, String, Integer> kvFunc = new KeyValueMappingFunction<String, String, Integer>(s -> s, s -> 1, Integer::sum, 4, 0.5);
+		List<Entry<String, Integer>> result = kvFunc.apply(Stream.of("a", "b", "a", "b", "c", "d", "e", "f", "c", "c")).collect(Collectors.toList());
+		assertEquals(8, result.size());
+		assertEquals(KVUtils.kv("a", 2), result.get(0));
+		assertEquals(KVUtils.kv("b", 2), result.get(1));
+		assertEquals(KVUtils.kv("c", 1), result.get(2));
+		assertEquals(KVUtils.kv("f", 1), result.get(5));
+		assertEquals(KVUtils.kv("c", 1), result.get(6));
+		assertEquals(KVUtils.kv("c", 1), result.get(7));
+	}
+
+	@Test
+	public void validateKVMapperKeepsCombiningWithGoodRatio(){
+		KeyValueMappingFunction<String, String, Integer> kvFunc = new KeyValueMappingFunction<String, String, Integer>(s -> s, s -> 1, Integer::sum, 4, 0.5);
+		List<Entry<String, Integer>> result = kvFunc.apply(Stream.of("a", "b", "a", "a", "b", "a", "b")).collect(Collectors.toList());
+		assertEquals(2, result.size());
+		assertEquals(KVUtils.kv("a", 4), result.get(0));
+		assertEquals(KVUtils.kv("b", 3), result.get(1));
+	}
+
+	@Test
+	public void validateKVMapperCombinesLazily(){
+		KeyValueMappingFunction<Integer, Integer, Integer> kvFunc = new KeyValueMappingFunction<Integer, Integer, Integer>(s -> s, s -> 1, Integer::sum, 10, 1);
+		List<Entry<Integer, Integer>> result = kvFunc.apply(Stream.iterate(0, i -> i + 1)).limit(5).collect(Collectors.toList());
+		assertEquals(5, result.size());
+		assertEquals(KVUtils.kv(0, 1), result.get(0));
+		assertEquals(KVUtils.kv(4, 1), result.get(4));
+	}
 }
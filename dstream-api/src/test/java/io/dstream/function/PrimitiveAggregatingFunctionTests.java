@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import io.dstream.function.PrimitiveAggregatingFunction.Aggregation;
+import io.dstream.utils.KVUtils;
+
+public class PrimitiveAggregatingFunctionTests {
+
+	@Test
+	public void validateCounting(){
+		PrimitiveAggregatingFunction<String> func = PrimitiveAggregatingFunction.counting();
+		List<Entry<Integer, Object>> result = func.apply(Stream.of("a", "b", "c")).collect(Collectors.toList());
+		assertEquals(1, result.size());
+		assertEquals(KVUtils.kv(0, 3L), result.get(0));
+	}
+
+	@Test
+	public void validateCountingOfEmptyStream(){
+		PrimitiveAggregatingFunction<String> func = PrimitiveAggregatingFunction.counting();
+		assertTrue(func.apply(Stream.empty()).count() == 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void validateSumAndCombine(){
+		PrimitiveAggregatingFunction<String> func = PrimitiveAggregatingFunction.ofLongs(Aggregation.SUM, s -> s.length());
+		Object partialA = func.apply(Stream.of("a", "bb")).findFirst().get().getValue();
+		Object partialB = func.apply(Stream.of("ccc")).findFirst().get().getValue();
+		assertEquals(6L, func.getCombiner().apply(partialA, partialB));
+	}
+
+	@Test
+	public void validateMinOfEmptyStream(){
+		PrimitiveAggregatingFunction<String> func = PrimitiveAggregatingFunction.ofDoubles(Aggregation.MIN, s -> s.length());
+		assertTrue(func.apply(Stream.empty()).count() == 0);
+		assertEquals(KVUtils.kv(0, 1d), func.apply(Stream.of("aa", "b")).findFirst().get());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void validateAverage(){
+		PrimitiveAggregatingFunction<String> func = PrimitiveAggregatingFunction.ofLongs(Aggregation.AVERAGE, s -> s.length());
+		Object partialA = func.apply(Stream.of("a", "bb")).findFirst().get().getValue();
+		Object partialB = func.apply(Stream.of("ccc", "dddd", "eeeee")).findFirst().get().getValue();
+		assertEquals(3d, func.getFinisher().apply(func.getCombiner().apply(partialA, partialB)));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void validateAverageOfLargeLongsIsExact(){
+		PrimitiveAggregatingFunction<Long> func = PrimitiveAggregatingFunction.ofLongs(Aggregation.AVERAGE, l -> l);
+		Object partialA = func.apply(Stream.of(Long.MAX_VALUE / 2, 1L)).findFirst().get().getValue();
+		Object partialB = func.apply(Stream.of(-(Long.MAX_VALUE / 2), 2L)).findFirst().get().getValue();
+		assertEquals(0.75d, func.getFinisher().apply(func.getCombiner().apply(partialA, partialB)));
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.local.ri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import io.dstream.DStream;
+import io.dstream.support.HashClassifier;
+import io.dstream.support.PartitionIdHelper;
+
+public class LocalDStreamExecutionEngineTests {
+
+	private static String EXECUTION_NAME = LocalDStreamExecutionEngineTests.class.getSimpleName();
+
+	@Test
+	public void partitionsProcessedByWorkerThreads() throws Exception {
+		HashClassifier classifier = new HashClassifier(4);
+		Future<Stream<Stream<Entry<String, Integer>>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> word, word -> 1, Integer::sum)
+				.map(entry -> {
+					assertTrue(Thread.currentThread().getName().startsWith("dstream-local-wc"));
+					assertEquals((int)classifier.getClassificationId(entry.getKey()), PartitionIdHelper.getPartitionId());
+					return entry;
+				})
+			.executeAs(EXECUTION_NAME + "-threads");
+
+		List<List<Entry<String, Integer>>> resultPartitions = resultFuture.get()
+				.map(partition -> partition.collect(Collectors.toList())).collect(Collectors.toList());
+		assertEquals(4, resultPartitions.size());
+
+		Map<String, Integer> wordCounts = resultPartitions.stream().flatMap(List::stream)
+				.collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+		assertEquals(49, wordCounts.size());
+		assertEquals(Integer.valueOf(5), wordCounts.get("the"));
+		assertEquals(Integer.valueOf(5), wordCounts.get("and"));
+	}
+
+	@Test
+	public void joinWithWorkerThreads() throws Exception {
+		DStream<String> one = DStream.ofType(String.class, "one");
+		DStream<String> two = DStream.ofType(String.class, "two");
+
+		Future<Stream<Stream<String>>> resultFuture = one.classify(a -> a.split("\\s+")[0])
+				.join(two.classify(a -> a.split("\\s+")[2]))
+				.on(t2 -> t2._1().split("\\s+")[0].equals(t2._2().split("\\s+")[2]))
+				.map(t2 -> t2._1().split("\\s+")[1] + " " + t2._2().split("\\s+")[0])
+			.executeAs(EXECUTION_NAME + "-threads");
+
+		List<String> result = resultFuture.get().flatMap(partition -> partition).sorted().collect(Collectors.toList());
+		assertEquals(9, result.size());
+		assertEquals("Amazon Jeff", result.get(0));
+	}
+
+	@Test
+	public void pipelinedFinalStageEvaluatedOnConsumption() throws Exception {
+		HashClassifier classifier = new HashClassifier(4);
+		AtomicInteger evaluatedCounter = new AtomicInteger();
+		Future<Stream<Stream<Entry<String, Integer>>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> word, word -> 1, Integer::sum)
+				.map(entry -> {
+					evaluatedCounter.incrementAndGet();
+					assertEquals((int)classifier.getClassificationId(entry.getKey()), PartitionIdHelper.getPartitionId());
+					return entry;
+				})
+			.executeAs(EXECUTION_NAME + "-pipelined");
+
+		List<Stream<Entry<String, Integer>>> resultPartitions = resultFuture.get().collect(Collectors.toList());
+		assertEquals(4, resultPartitions.size());
+		assertEquals(0, evaluatedCounter.get());
+
+		// consume partitions in reverse order to ensure partition id is bound per element
+		Map<String, Integer> wordCounts = new HashMap<>();
+		for (int i = resultPartitions.size() - 1; i >= 0; i--) {
+			resultPartitions.get(i).forEach(entry -> wordCounts.put(entry.getKey(), entry.getValue()));
+		}
+		assertEquals(49, evaluatedCounter.get());
+		assertEquals(49, wordCounts.size());
+		assertEquals(Integer.valueOf(5), wordCounts.get("the"));
+		assertEquals(Integer.valueOf(5), wordCounts.get("and"));
+	}
+
+	@Test
+	public void pipelinedJoin() throws Exception {
+		DStream<String> one = DStream.ofType(String.class, "one");
+		DStream<String> two = DStream.ofType(String.class, "two");
+
+		Future<Stream<Stream<String>>> resultFuture = one.classify(a -> a.split("\\s+")[0])
+				.join(two.classify(a -> a.split("\\s+")[2]))
+				.on(t2 -> t2._1().split("\\s+")[0].equals(t2._2().split("\\s+")[2]))
+				.map(t2 -> t2._1().split("\\s+")[1] + " " + t2._2().split("\\s+")[0])
+			.executeAs(EXECUTION_NAME + "-pipelined");
+
+		List<String> result = resultFuture.get().flatMap(partition -> partition).sorted().collect(Collectors.toList());
+		assertEquals(9, result.size());
+		assertEquals("Amazon Jeff", result.get(0));
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void failPipelinedWithWorkerThreads() throws Throwable {
+		Future<Stream<Stream<Entry<String, Integer>>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> word, word -> 1, Integer::sum)
+			.executeAs(EXECUTION_NAME + "-pipelined-threads");
+		try {
+			resultFuture.get();
+		}
+		catch (ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Test
+	public void hashShuffleByDefaultWithNonComparableKeys() throws Exception {
+		Future<Stream<Stream<Entry<List<String>, Integer>>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> Arrays.asList(word), word -> 1, Integer::sum)
+			.executeAs(EXECUTION_NAME + "-threads");
+
+		Map<List<String>, Integer> wordCounts = resultFuture.get().flatMap(partition -> partition)
+				.collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+		assertEquals(49, wordCounts.size());
+		assertEquals(Integer.valueOf(5), wordCounts.get(Arrays.asList("the")));
+	}
+
+	@Test
+	public void hashShuffleByDefaultForClassifyFollowedByTransformation() throws Exception {
+		Future<Stream<Stream<String>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.classify(word -> Arrays.asList(word))
+				.map(word -> word + "!")
+			.executeAs(EXECUTION_NAME + "-threads");
+
+		List<String> words = resultFuture.get().flatMap(partition -> partition).collect(Collectors.toList());
+		assertEquals(62, words.size());
+		assertEquals(5, words.stream().filter(word -> word.equals("the!")).count());
+	}
+
+	@Test
+	public void sortShuffleOrdersKeysOfEachPartition() throws Exception {
+		Future<Stream<Stream<Entry<String, Integer>>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> word, word -> 1, Integer::sum)
+			.executeAs(EXECUTION_NAME + "-sort");
+
+		List<List<String>> resultPartitions = resultFuture.get()
+				.map(partition -> partition.map(Entry::getKey).collect(Collectors.toList())).collect(Collectors.toList());
+		assertEquals(4, resultPartitions.size());
+		for (List<String> partitionKeys : resultPartitions) {
+			assertEquals(partitionKeys.stream().sorted().collect(Collectors.toList()), partitionKeys);
+		}
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void sortShuffleWithNonComparableKeys() throws Throwable {
+		Future<Stream<Stream<Entry<List<String>, Integer>>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> Arrays.asList(word), word -> 1, Integer::sum)
+			.executeAs(EXECUTION_NAME + "-sort");
+		try {
+			resultFuture.get();
+		}
+		catch (ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Test
+	public void spillingShuffle() throws Exception {
+		Future<Stream<Stream<Entry<String, Integer>>>> resultFuture = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> word, word -> 1, Integer::sum)
+			.executeAs(EXECUTION_NAME + "-spill");
+
+		Map<String, Integer> wordCounts = resultFuture.get().flatMap(partition -> partition)
+				.collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+		assertEquals(49, wordCounts.size());
+		assertEquals(Integer.valueOf(5), wordCounts.get("the"));
+		assertEquals(Integer.valueOf(5), wordCounts.get("and"));
+	}
+
+	@Test
+	public void joinWithSpillingShuffle() throws Exception {
+		DStream<String> one = DStream.ofType(String.class, "one");
+		DStream<String> two = DStream.ofType(String.class, "two");
+
+		Future<Stream<Stream<String>>> resultFuture = one.classify(a -> a.split("\\s+")[0])
+				.join(two.classify(a -> a.split("\\s+")[2]))
+				.on(t2 -> t2._1().split("\\s+")[0].equals(t2._2().split("\\s+")[2]))
+				.map(t2 -> t2._1().split("\\s+")[1] + " " + t2._2().split("\\s+")[0])
+			.executeAs(EXECUTION_NAME + "-spill");
+
+		List<String> result = resultFuture.get().flatMap(partition -> partition).sorted().collect(Collectors.toList());
+		assertEquals(9, result.size());
+		assertEquals("Amazon Jeff", result.get(0));
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.local.ri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.dstream.support.HashClassifier;
+import io.dstream.utils.KVUtils;
+
+public class ShuffleBufferTests {
+
+	private File spillDirectory;
+
+	@Before
+	public void before() throws Exception {
+		this.spillDirectory = Files.createTempDirectory("dstream-shuffle-tests").toFile();
+	}
+
+	@After
+	public void after() {
+		for (File file : this.spillDirectory.listFiles()) {
+			file.delete();
+		}
+		this.spillDirectory.delete();
+	}
+
+	@Test
+	public void groupKeyValuesWithoutSpilling() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(2), null, false, 0, this.spillDirectory, 1024);
+		this.addWords(shuffleBuffer, 20);
+
+		assertEquals(0, shuffleBuffer.getSpillCount());
+		assertEquals(this.expectedGroups(20), this.collectGroups(shuffleBuffer.getPartitions()));
+	}
+
+	@Test
+	public void spillAndMergeKeyValues() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(2), null, false, 3, this.spillDirectory, 1024);
+		this.addWords(shuffleBuffer, 20);
+
+		assertEquals(6, shuffleBuffer.getSpillCount());
+		assertTrue(shuffleBuffer.getSpilledBytes() > 0);
+		assertTrue(this.spillDirectory.listFiles().length > 0);
+
+		assertEquals(this.expectedGroups(20), this.collectGroups(shuffleBuffer.getPartitions()));
+		assertEquals(0, this.spillDirectory.listFiles().length);
+	}
+
+	@Test
+	public void spillAndMergeSortedKeys() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(2), null, true, 4, this.spillDirectory, 1024);
+		this.addWords(shuffleBuffer, 25);
+
+		List<Entry<Integer, Supplier<Stream<?>>>> partitions = shuffleBuffer.getPartitions();
+		assertEquals(2, partitions.size());
+		for (Entry<Integer, Supplier<Stream<?>>> partition : partitions) {
+			List<Object> keys = partition.getValue().get().map(entry -> ((Entry<?,?>)entry).getKey()).collect(Collectors.toList());
+			assertEquals(keys.stream().sorted().collect(Collectors.toList()), keys);
+		}
+	}
+
+	@Test
+	public void spillAndMergeKeysWithSameHashCode() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(1), null, false, 2, this.spillDirectory, 1024);
+		// "Aa" and "BB" have the same hash code
+		Stream.of("Aa", "BB", "Aa", "BB", "Aa").forEach(key -> shuffleBuffer.add(KVUtils.kv(key, key.toLowerCase())));
+
+		Map<Object, List<Object>> expected = new LinkedHashMap<>();
+		expected.put("Aa", Arrays.asList("aa", "aa", "aa"));
+		expected.put("BB", Arrays.asList("bb", "bb"));
+		assertEquals(expected, this.collectGroups(shuffleBuffer.getPartitions()));
+	}
+
+	@Test
+	public void combineValues() {
+		// only new keys count towards spill threshold, since values of existing keys are folded into their accumulators
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(2), (Integer a, Integer b) -> a + b, false, 6, this.spillDirectory, 1024);
+		this.addWords(shuffleBuffer, 20);
+		assertEquals(0, shuffleBuffer.getSpillCount());
+
+		Map<Object, List<Object>> expected = new LinkedHashMap<>();
+		this.expectedGroups(20).forEach((key, values) ->
+			expected.put(key, Arrays.asList(values.stream().mapToInt(value -> (Integer)value).sum())));
+		assertEquals(expected, this.collectGroups(shuffleBuffer.getPartitions()));
+	}
+
+	@Test
+	public void spillAndMergeCombinedValues() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(2), (Integer a, Integer b) -> a + b, false, 3, this.spillDirectory, 1024);
+		this.addWords(shuffleBuffer, 20);
+
+		assertEquals(6, shuffleBuffer.getSpillCount());
+
+		Map<Object, List<Object>> expected = new LinkedHashMap<>();
+		this.expectedGroups(20).forEach((key, values) ->
+			expected.put(key, Arrays.asList(values.stream().mapToInt(value -> (Integer)value).sum())));
+		assertEquals(expected, this.collectGroups(shuffleBuffer.getPartitions()));
+		assertEquals(0, this.spillDirectory.listFiles().length);
+	}
+
+	@Test
+	public void spillAndMergeValues() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(2), null, false, 3, this.spillDirectory, 1024);
+		List<Object> values = Arrays.asList("a", 1, 2L, 3.0, true, Arrays.asList(1, 2), "b", 4);
+		values.forEach(shuffleBuffer::add);
+
+		List<Object> result = shuffleBuffer.getPartitions().stream()
+				.flatMap(partition -> partition.getValue().get())
+				.collect(Collectors.toList());
+		assertEquals(values.size(), result.size());
+		assertTrue(result.containsAll(values));
+		assertEquals(0, this.spillDirectory.listFiles().length);
+	}
+
+	@Test
+	public void closingPartiallyConsumedPartitionDeletesSpills() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(1), null, false, 3, this.spillDirectory, 1024);
+		this.addWords(shuffleBuffer, 20);
+		assertTrue(this.spillDirectory.listFiles().length > 0);
+
+		try (Stream<?> partition = shuffleBuffer.getPartitions().get(0).getValue().get()){
+			assertTrue(partition.findFirst().isPresent());
+		}
+		assertEquals(0, this.spillDirectory.listFiles().length);
+	}
+
+	@Test
+	public void partitionsAreStreamedOnlyOnce() {
+		ShuffleBuffer shuffleBuffer = new ShuffleBuffer(new HashClassifier(2), null, false, 3, this.spillDirectory, 1024);
+		this.addWords(shuffleBuffer, 4);
+		List<Entry<Integer, Supplier<Stream<?>>>> partitions = shuffleBuffer.getPartitions();
+		for (Entry<Integer, Supplier<Stream<?>>> partition : partitions) {
+			partition.getValue().get().count();
+			try {
+				partition.getValue().get();
+				fail();
+			}
+			catch (IllegalStateException e) {
+				// expected for both spilled and buffered partitions
+			}
+		}
+	}
+
+	private void addWords(ShuffleBuffer shuffleBuffer, int count){
+		for (int i = 0; i < count; i++) {
+			shuffleBuffer.add(KVUtils.kv("key-" + (i % 5), i));
+		}
+	}
+
+	private Map<Object, List<Object>> expectedGroups(int count){
+		Map<Object, List<Object>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			groups.computeIfAbsent("key-" + (i % 5), key -> new ArrayList<>()).add(i);
+		}
+		return groups;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Object, List<Object>> collectGroups(List<Entry<Integer, Supplier<Stream<?>>>> partitions){
+		Map<Object, List<Object>> groups = new LinkedHashMap<>();
+		partitions.stream().flatMap(partition -> partition.getValue().get()).forEach(element -> {
+			Entry<Object, Iterator<Object>> entry = (Entry<Object, Iterator<Object>>) element;
+			List<Object> values = new ArrayList<>();
+			entry.getValue().forEachRemaining(values::add);
+			assertTrue(groups.put(entry.getKey(), values) == null);
+		});
+		return groups;
+	}
+}
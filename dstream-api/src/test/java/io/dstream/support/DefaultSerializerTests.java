@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import static io.dstream.utils.KVUtils.kv;
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+import io.dstream.DStreamConstants;
+import io.dstream.utils.Tuples.Tuple;
+
+public class DefaultSerializerTests {
+
+	@Test
+	public void validateDefaultProvider(){
+		assertEquals(System.getProperty(DStreamConstants.SERIALIZER, DefaultSerializer.class.getName()), 
+				Serializer.getInstance().getClass().getName());
+	}
+
+	@Test
+	public void roundTripBuiltInTypes() throws Exception {
+		DefaultSerializer serializer = new DefaultSerializer();
+		for (Object value : Arrays.asList(null, "foo", "\u00fcn\u00efc\u00f6d\u00e9", 1, -2L, 3.5, true, (short)4, (byte)5, 6.5f, 'c', 
+				kv("k", 1), tuple2("a", tuple2(1L, null)), new ArrayList<>(Arrays.asList("a", kv(1, 2))), new BigDecimal("1.5"))) {
+			assertEquals(value, this.roundTrip(serializer, value));
+		}
+		assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) this.roundTrip(serializer, new byte[]{1, 2, 3}));
+	}
+
+	@Test
+	public void compactForm() throws Exception {
+		DefaultSerializer serializer = new DefaultSerializer();
+		assertEquals(5, this.serialize(serializer, "foo").length);
+		assertEquals(5, this.serialize(serializer, 1).length);
+		assertEquals(2 + 1 + 4 + 5, this.serialize(serializer, tuple2(1, "foo")).length);
+		char[] chars = new char[300];
+		Arrays.fill(chars, 'a');
+		assertEquals(1 + 2 + 300, this.serialize(serializer, new String(chars)).length);
+	}
+
+	@Test
+	public void subclassesFallBackToJavaSerialization() throws Exception {
+		DefaultSerializer serializer = new DefaultSerializer();
+		Object value = this.roundTrip(serializer, new SubTuple("a"));
+		assertSame(SubTuple.class, value.getClass());
+		assertEquals(Collections.singletonList("a"), this.roundTrip(serializer, Collections.singletonList("a")));
+	}
+
+	@Test
+	public void registeredTypeCodec() throws Exception {
+		DefaultSerializer serializer = new DefaultSerializer(Arrays.asList(new PointCodec())){};
+		Point point = new Point(3, 4);
+		byte[] bytes = this.serialize(serializer, kv("p", point));
+		assertEquals(1 + 3 + 2 + 8, bytes.length);
+		@SuppressWarnings("unchecked")
+		Entry<String, Point> entry = (Entry<String, Point>) serializer.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+		assertEquals(3, entry.getValue().x);
+		assertEquals(4, entry.getValue().y);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void unregisteredTypeCodec() throws Exception {
+		DefaultSerializer serializer = new DefaultSerializer(Arrays.asList(new PointCodec())){};
+		byte[] bytes = this.serialize(serializer, new Point(3, 4));
+		new DefaultSerializer().read(new DataInputStream(new ByteArrayInputStream(bytes)));
+	}
+
+	private byte[] serialize(Serializer serializer, Object value) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		serializer.write(value, new DataOutputStream(bos));
+		return bos.toByteArray();
+	}
+
+	private Object roundTrip(Serializer serializer, Object value) throws IOException {
+		byte[] bytes = this.serialize(serializer, value);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		Object result = serializer.read(in);
+		assertTrue(in.available() == 0);
+		return result;
+	}
+
+	private static class SubTuple extends Tuple {
+		private static final long serialVersionUID = 1L;
+
+		SubTuple(Object... values){
+			super(values);
+		}
+	}
+
+	private static class Point {
+		private final int x;
+		private final int y;
+
+		Point(int x, int y){
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	private static class PointCodec implements TypeCodec<Point> {
+		@Override
+		public Class<Point> getType() {
+			return Point.class;
+		}
+
+		@Override
+		public void write(Point value, DataOutput out, Serializer serializer) throws IOException {
+			out.writeInt(value.x);
+			out.writeInt(value.y);
+		}
+
+		@Override
+		public Point read(DataInput in, Serializer serializer) throws IOException {
+			return new Point(in.readInt(), in.readInt());
+		}
+	}
+}
@@ -39,4 +39,12 @@ public class HashClassifierTests {
 		assertEquals((Integer)3, hp.getClassificationId("c"));
 		assertEquals((Integer)0, hp.getClassificationId("d"));
 	}
+
+	@Test
+	public void validatePrimitiveClassificationId(){
+		HashClassifier hp = new HashClassifier(4);
+		for (String value : new String[]{"a", "b", "c", "d", "hello"}) {
+			assertEquals((int)hp.getClassificationId(value), hp.getClassificationIdAsInt(value));
+		}
+	}
 }
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import static io.dstream.utils.KVUtils.kv;
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import io.dstream.DStreamConstants;
+
+public class OffHeapCollectionFactoryTests {
+	
+	private final File mappingDirectory = new File(System.getProperty("java.io.tmpdir"));
+
+	@Test
+	public void validateDefaultProvider(){
+		assertEquals(System.getProperty(DStreamConstants.COLLECTION_FACTORY, DefaultCollectionFactory.class.getName()), 
+				CollectionFactory.getInstance().getClass().getName());
+	}
+	
+	@Test
+	public void appendAndGetMixedTypes(){
+		List<Object> list = new OffHeapCollectionFactory().newList();
+		list.addAll(Arrays.asList("foo", 1, 2L, 3.5, true, null, kv("k", "v"), tuple2("a", 1)));
+		
+		assertEquals(8, list.size());
+		assertEquals("foo", list.get(0));
+		assertEquals(1, list.get(1));
+		assertEquals(2L, list.get(2));
+		assertEquals(3.5, list.get(3));
+		assertEquals(true, list.get(4));
+		assertEquals(null, list.get(5));
+		assertEquals(kv("k", "v"), list.get(6));
+		assertEquals(tuple2("a", 1), list.get(7));
+		assertEquals(Arrays.asList("foo", 1, 2L, 3.5, true, null, kv("k", "v"), tuple2("a", 1)), 
+				list.stream().collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void pagesGrowAndLargeElementsGetOwnPage(){
+		OffHeapList<String> list = new OffHeapList<>(OffHeapList.MIN_PAGE_SIZE * 4, new OffHeapPageAllocator(Long.MAX_VALUE, this.mappingDirectory));
+		IntStream.range(0, 1000).forEach(i -> list.add("value-" + i));
+		char[] large = new char[10000];
+		Arrays.fill(large, 'x');
+		list.add(new String(large));
+		
+		assertEquals(1001, list.size());
+		assertEquals("value-0", list.get(0));
+		assertEquals("value-999", list.get(999));
+		assertEquals(10000, list.get(1000).length());
+		assertEquals(0, list.getMappedBytes());
+	}
+	
+	@Test
+	public void pagesAreMappedBeyondThreshold(){
+		OffHeapList<Integer> list = new OffHeapList<>(OffHeapList.MIN_PAGE_SIZE, new OffHeapPageAllocator(OffHeapList.MIN_PAGE_SIZE * 2, this.mappingDirectory));
+		IntStream.range(0, 1000).forEach(list::add);
+		
+		assertTrue(list.getMappedBytes() > 0);
+		assertEquals(list.getAllocatedBytes() - OffHeapList.MIN_PAGE_SIZE * 2, list.getMappedBytes());
+		assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), list);
+		
+		list.clear();
+		assertEquals(0, list.size());
+		assertEquals(0, list.getMappedBytes());
+		list.add(5);
+		assertEquals((Integer)5, list.get(0));
+	}
+	
+	@Test
+	public void mappedThresholdIsSharedByAllLists(){
+		File listMappingDirectory = new File(this.mappingDirectory, "dstream-offheap-tests");
+		OffHeapPageAllocator pageAllocator = new OffHeapPageAllocator(OffHeapList.MIN_PAGE_SIZE * 2, listMappingDirectory);
+		OffHeapList<Integer> list1 = new OffHeapList<>(OffHeapList.MIN_PAGE_SIZE, pageAllocator);
+		OffHeapList<Integer> list2 = new OffHeapList<>(OffHeapList.MIN_PAGE_SIZE, pageAllocator);
+		OffHeapList<Integer> list3 = new OffHeapList<>(OffHeapList.MIN_PAGE_SIZE, pageAllocator);
+		list1.add(1);
+		list2.add(2);
+		list3.add(3);
+		
+		assertEquals(OffHeapList.MIN_PAGE_SIZE * 2, pageAllocator.getDirectBytes());
+		assertEquals(0, list2.getMappedBytes());
+		assertEquals(OffHeapList.MIN_PAGE_SIZE, list3.getMappedBytes());
+		assertEquals((Integer)3, list3.get(0));
+		assertEquals(1, listMappingDirectory.list().length);
+		
+		list3.clear();
+		assertEquals(0, listMappingDirectory.list().length);
+		
+		list1.clear();
+		assertEquals(OffHeapList.MIN_PAGE_SIZE, pageAllocator.getDirectBytes());
+		list3.add(4);
+		assertEquals(0, list3.getMappedBytes());
+		assertEquals(OffHeapList.MIN_PAGE_SIZE * 2, pageAllocator.getDirectBytes());
+	}
+	
+	@Test
+	public void serializedAsArrayList() throws Exception {
+		List<String> list = new OffHeapCollectionFactory().newList();
+		list.add("a");
+		list.add("b");
+		
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+			oos.writeObject(list);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+			Object result = ois.readObject();
+			assertTrue(result instanceof ArrayList);
+			assertEquals(Arrays.asList("a", "b"), result);
+		}
+	}
+	
+	@Test(expected=UnsupportedOperationException.class)
+	public void failOnSet(){
+		List<String> list = new OffHeapCollectionFactory().newList();
+		list.add("a");
+		list.set(0, "b");
+	}
+	
+	@Test
+	public void groupValuesInMap(){
+		CollectionFactory collectionFactory = new OffHeapCollectionFactory();
+		Map<String, List<Integer>> groupedValues = collectionFactory.newMap();
+		IntStream.range(0, 10).forEach(i -> groupedValues.computeIfAbsent(i % 2 == 0 ? "even" : "odd", k -> collectionFactory.newList()).add(i));
+		
+		assertTrue(groupedValues.get("even") instanceof OffHeapList);
+		assertEquals(Arrays.asList(0, 2, 4, 6, 8), groupedValues.get("even"));
+		assertEquals(Arrays.asList(1, 3, 5, 7, 9), groupedValues.get("odd"));
+	}
+}
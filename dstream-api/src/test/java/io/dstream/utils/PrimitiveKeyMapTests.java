@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class PrimitiveKeyMapTests {
+
+	@Test
+	public void longObjectPutGetRemoveWithRehash(){
+		LongObjectHashMap<String> map = new LongObjectHashMap<>(2);
+		for (long i = 0; i < 10000; i++) {
+			assertNull(map.put(i * 31, "v" + i));
+		}
+		assertEquals(10000, map.size());
+		assertEquals("v5", map.get(155));
+		assertEquals("v5", map.put(155, "x"));
+		assertEquals("x", map.remove(155));
+		assertNull(map.get(155));
+		assertFalse(map.containsKey(155));
+		assertEquals(9999, map.size());
+		map.put(155, "y");
+		assertEquals("y", map.get(155));
+	}
+
+	@Test
+	public void longObjectPreservesInsertionOrder(){
+		LongObjectHashMap<Integer> map = new LongObjectHashMap<>();
+		for (int i = 100; i > 0; i--) {
+			map.put(i, i);
+		}
+		map.remove(100);
+		assertEquals(99, map.firstKey());
+		List<Long> keys = new ArrayList<>();
+		map.forEach((k, v) -> keys.add(k));
+		assertEquals(99, keys.size());
+		assertEquals(Long.valueOf(99), keys.get(0));
+		assertEquals(Long.valueOf(1), keys.get(98));
+	}
+
+	@Test
+	public void longLongAddToAndRemove(){
+		LongLongHashMap map = new LongLongHashMap();
+		assertEquals(1, map.addTo(-7, 1));
+		assertEquals(3, map.addTo(-7, 2));
+		assertEquals(3, map.get(-7, 0));
+		assertEquals(-1, map.get(8, -1));
+		assertEquals(3, map.remove(-7, 0));
+		assertEquals(0, map.remove(-7, 0));
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void integerKeysRemainPrimitive(){
+		PrimitiveKeyMap<Integer, String> map = new PrimitiveKeyMap<>();
+		map.put(1, "a");
+		map.put(2, "b");
+		assertTrue(map.isPrimitive());
+		assertEquals("a", map.get(1));
+		assertNull(map.get(1L));
+		assertNull(map.get("1"));
+		assertTrue(map.containsKey(2));
+		Entry<Integer, String> entry = map.entrySet().iterator().next();
+		assertEquals(Integer.valueOf(1), entry.getKey());
+		entry.setValue("c");
+		assertEquals("c", map.get(1));
+	}
+
+	@Test
+	public void migratesOnMixedKeys(){
+		PrimitiveKeyMap<Object, String> map = new PrimitiveKeyMap<>();
+		map.put(2L, "a");
+		map.put(1L, "b");
+		map.put("foo", "c");
+		assertFalse(map.isPrimitive());
+		assertEquals(Arrays.asList(2L, 1L, "foo"), new ArrayList<>(map.keySet()));
+		assertEquals("b", map.get(1L));
+		map.clear();
+		assertTrue(map.isPrimitive());
+		map.put(3, "d");
+		assertTrue(map.isPrimitive());
+	}
+
+	@Test
+	public void evictsOldestKey(){
+		List<String> evicted = new ArrayList<>();
+		PrimitiveKeyMap<Long, String> map = new PrimitiveKeyMap<Long, String>(2){
+			@Override
+			protected void onEviction(Long key, String value) {
+				evicted.add(key + "=" + value);
+			}
+		};
+		map.put(1L, "a");
+		map.put(2L, "b");
+		map.put(1L, "c");
+		map.put(3L, "d");
+		assertEquals(Arrays.asList("1=c"), evicted);
+		assertEquals(new TreeMap<>(map).toString(), "{2=b, 3=d}");
+	}
+
+	@Test
+	public void entrySetIteratorRemove(){
+		PrimitiveKeyMap<Long, String> map = new PrimitiveKeyMap<>();
+		for (long i = 0; i < 10; i++) {
+			map.put(i, "v" + i);
+		}
+		Iterator<Entry<Long, String>> iterator = map.entrySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().getKey() % 2 == 0){
+				iterator.remove();
+			}
+		}
+		assertEquals(5, map.size());
+		assertEquals(new TreeMap<>(map).keySet().toString(), "[1, 3, 5, 7, 9]");
+	}
+}
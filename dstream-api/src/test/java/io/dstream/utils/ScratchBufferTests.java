@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ScratchBufferTests {
+
+	@Test
+	public void writeUtf8SameAsGetBytes(){
+		ScratchBuffer buffer = new ScratchBuffer();
+		for (String value : Arrays.asList("", "foo", "\u0000\u007f\u0080\u07ff\u0800\uffff", "\ud83d\ude00", "a\ud83db", "\ude00\ud83d")) {
+			buffer.reset();
+			buffer.writeUtf8(value);
+			assertArrayEquals(value, value.getBytes(StandardCharsets.UTF_8), buffer.toByteArray());
+		}
+	}
+
+	@Test
+	public void growsAndShrinks(){
+		ScratchBuffer buffer = new ScratchBuffer();
+		char[] chars = new char[ScratchBuffer.MAX_RETAINED_SIZE];
+		Arrays.fill(chars, '\u0800');
+		buffer.writeUtf8("a");
+		buffer.writeUtf8(new String(chars));
+		assertEquals(1 + chars.length * 3, buffer.size());
+		buffer.reset();
+		assertEquals(0, buffer.size());
+		assertEquals(256, buffer.getBuffer().length);
+	}
+}
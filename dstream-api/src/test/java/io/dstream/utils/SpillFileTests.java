@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.dstream.utils.SpillFile.SpillIterator;
+
+public class SpillFileTests {
+
+	private final File spillDirectory = new File(System.getProperty("java.io.tmpdir"), "dstream-spill-file-tests");
+
+	@Test
+	public void iteratorKeepsFileUnlessDeleteWhenRead() throws Exception {
+		SpillFile spillFile = this.write("a", "b", "c");
+		assertEquals(3, this.readAll(spillFile.iterator(3, SpillCodec::read, false)).size());
+		assertEquals(3, this.readAll(spillFile.iterator(3, SpillCodec::read, true)).size());
+		assertFalse(new File(spillFile.toString()).exists());
+	}
+
+	@Test
+	public void closedIteratorDeletesFile() throws Exception {
+		SpillFile spillFile = this.write("a", "b", "c");
+		SpillIterator<Object> iterator = spillFile.iterator(3, SpillCodec::read, true);
+		assertEquals("a", iterator.next());
+		assertTrue(new File(spillFile.toString()).exists());
+		iterator.close();
+		assertFalse(iterator.hasNext());
+		assertFalse(new File(spillFile.toString()).exists());
+	}
+
+	private SpillFile write(Object... values) throws Exception {
+		SpillFile spillFile = new SpillFile(this.spillDirectory, "dstream-test-");
+		for (Object value : values) {
+			SpillCodec.write(value, spillFile.getOutput());
+		}
+		spillFile.closeOutput();
+		return spillFile;
+	}
+
+	private List<Object> readAll(SpillIterator<Object> iterator){
+		List<Object> values = new ArrayList<>();
+		iterator.forEachRemaining(values::add);
+		return values;
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+import static io.dstream.utils.Tuples.Tuple3.tuple3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import io.dstream.utils.Tuples.Tuple;
+import io.dstream.utils.Tuples.Tuple2;
+
+public class TuplesTests {
+
+	@Test
+	public void equalsAndHashCode(){
+		Tuple2<String, Integer> tuple = tuple2("a", 1);
+		assertEquals(tuple2("a", 1), tuple);
+		assertEquals(Arrays.asList("a", 1).hashCode(), tuple.hashCode());
+		assertFalse(tuple.equals(tuple3("a", 1, null)));
+		assertEquals("[a, 1]", tuple.toString());
+	}
+
+	@Test
+	public void addInvalidatesHashCode(){
+		Tuple tuple = new Tuple("a", 1);
+		int hashCode = tuple.hashCode();
+		Tuple cloned = tuple.clone();
+		cloned.add(2L);
+		assertEquals(3, cloned.size());
+		assertEquals(2, tuple.size());
+		assertEquals(hashCode, tuple.hashCode());
+		assertEquals(Arrays.asList("a", 1, 2L).hashCode(), cloned.hashCode());
+		assertEquals(tuple3("a", 1, 2L), cloned);
+	}
+
+	@Test
+	public void append(){
+		Tuple tuple = new Tuple("a", 1);
+		Tuple appended = tuple.append(null);
+		assertEquals("[a, 1]", tuple.toString());
+		assertEquals("[a, 1, null]", appended.toString());
+		assertEquals(tuple3("a", 1, null), appended);
+	}
+
+	@Test
+	public void compareTo(){
+		List<Tuple2<String, Integer>> tuples = new ArrayList<>();
+		tuples.add(tuple2("b", 1));
+		tuples.add(tuple2("a", 2));
+		tuples.add(tuple2("a", 1));
+		tuples.add(tuple2(null, 5));
+		tuples.add(tuple2("a", null));
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		List<Comparable<Object>> comparables = (List) tuples;
+		Collections.sort(comparables);
+		assertEquals("[[null, 5], [a, null], [a, 1], [a, 2], [b, 1]]", tuples.toString());
+	}
+
+	@Test
+	public void compareToIsSymmetric(){
+		Tuple left = new Tuple("a", 1);
+		Tuple right = new Tuple("a", 2L);
+		Tuple prefix = new Tuple("a");
+		assertEquals(0, left.compareTo(tuple2("a", 1)));
+		assertEquals(-Integer.signum(left.compareTo(right)), Integer.signum(right.compareTo(left)));
+		assertTrue(prefix.compareTo(left) < 0);
+		assertTrue(left.compareTo(prefix) > 0);
+		assertFalse(left.compareTo(right) == 0);
+	}
+
+	@Test
+	public void compareToDoesNotMergeUnequalValuesWithSameHashCode(){
+		Tuple left = new Tuple("a", new CollidingValue("x"));
+		Tuple right = new Tuple("a", new CollidingValue("y"));
+		assertEquals(left.hashCode(), right.hashCode());
+		assertFalse(left.equals(right));
+		assertFalse(left.compareTo(right) == 0);
+		assertEquals(-Integer.signum(left.compareTo(right)), Integer.signum(right.compareTo(left)));
+		assertEquals(0, left.compareTo(new Tuple("a", new CollidingValue("x"))));
+
+		Map<Tuple, String> sorted = new TreeMap<>();
+		sorted.put(left, "x");
+		sorted.put(right, "y");
+		assertEquals(2, sorted.size());
+		assertEquals("x", sorted.get(left));
+		assertEquals("y", sorted.get(right));
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void compareToFailsForUnorderableValuesWithSameHashCode(){
+		new Tuple(new UnorderableValue()).compareTo(new Tuple(new UnorderableValue()));
+	}
+
+	/**
+	 * Non-Comparable value whose instances all share the same hash code.
+	 */
+	private static class CollidingValue implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final String value;
+		CollidingValue(String value){
+			this.value = value;
+		}
+		@Override
+		public int hashCode() {
+			return 1;
+		}
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof CollidingValue && ((CollidingValue)obj).value.equals(this.value);
+		}
+	}
+
+	/**
+	 * Neither Comparable nor Serializable value whose instances all share the same hash code.
+	 */
+	private static class UnorderableValue {
+		@Override
+		public int hashCode() {
+			return 1;
+		}
+	}
+}
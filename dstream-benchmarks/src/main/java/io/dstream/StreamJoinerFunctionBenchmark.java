@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.dstream.SerializableStreamAssets.SerPredicate;
+import io.dstream.utils.Tuples.Tuple2;
+
+/**
+ * Benchmarks two-way predicate (nested loop) and equi (hash) joins performed by {@link StreamJoinerFunction}.<br>
+ * Located in the same package as {@link StreamJoinerFunction} since it is not public.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StreamJoinerFunctionBenchmark {
+
+	@Param({"100", "1000"})
+	public int size;
+
+	private List<String> left;
+
+	private List<String> right;
+
+	@Setup
+	public void setup(){
+		this.left = IntStream.range(0, this.size).mapToObj(i -> "L-" + i).collect(Collectors.toList());
+		this.right = IntStream.range(0, this.size).mapToObj(i -> "R-" + i).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public void predicateJoin(Blackhole blackhole){
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		SerPredicate<Tuple2<String, String>> predicate = t2 -> t2._1().substring(2).equals(t2._2().substring(2));
+		joiner.addCheckPoint(1);
+		joiner.addTransformationOrPredicate("filter", predicate);
+		joiner.apply(Stream.of(this.left.stream(), this.right.stream())).forEach(blackhole::consume);
+	}
+
+	@Benchmark
+	public void equiJoin(Blackhole blackhole){
+		StreamJoinerFunction joiner = new StreamJoinerFunction(s -> s);
+		joiner.addCheckPoint(1);
+		joiner.addJoinKeyExtractors(s -> ((String)s).substring(2), s -> ((String)s).substring(2));
+		joiner.apply(Stream.of(this.left.stream(), this.right.stream())).forEach(blackhole::consume);
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.function;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link KeyValueMappingFunction} with and without values aggregator
+ * (i.e., with and without map-side-combine).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KeyValueMappingFunctionBenchmark {
+
+	@Param({"100000"})
+	public int size;
+
+	@Param({"100", "100000"})
+	public int cardinality;
+
+	private List<String> words;
+
+	private KeyValueMappingFunction<String, String, Integer> mappingFunction;
+
+	private KeyValueMappingFunction<String, String, Integer> aggregatingFunction;
+
+	@Setup
+	public void setup(){
+		this.words = IntStream.range(0, this.size).mapToObj(i -> "word-" + (i % this.cardinality)).collect(Collectors.toList());
+		this.mappingFunction = new KeyValueMappingFunction<>(s -> s, s -> 1);
+		this.aggregatingFunction = new KeyValueMappingFunction<>(s -> s, s -> 1, Integer::sum);
+	}
+
+	@Benchmark
+	public void withoutAggregator(Blackhole blackhole){
+		this.mappingFunction.apply(this.words.stream()).forEach(blackhole::consume);
+	}
+
+	@Benchmark
+	public void withAggregator(Blackhole blackhole){
+		this.aggregatingFunction.apply(this.words.stream()).forEach(blackhole::consume);
+	}
+}
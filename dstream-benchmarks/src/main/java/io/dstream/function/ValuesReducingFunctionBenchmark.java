@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.function;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.dstream.SerializableStreamAssets.SerBinaryOperator;
+import io.dstream.utils.KVUtils;
+
+/**
+ * Benchmarks reduction of shuffled values (i.e., [K, Iterator[V]]) by {@link ValuesReducingFunction}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ValuesReducingFunctionBenchmark {
+
+	@Param({"1000"})
+	public int keys;
+
+	@Param({"10", "100"})
+	public int valuesPerKey;
+
+	private List<Entry<String, List<Integer>>> groupedValues;
+
+	private ValuesReducingFunction<String, Integer, Entry<String, Integer>> reducingFunction;
+
+	@Setup
+	public void setup(){
+		List<Integer> values = Collections.nCopies(this.valuesPerKey, 1);
+		this.groupedValues = IntStream.range(0, this.keys).mapToObj(i -> KVUtils.kv("word-" + i, values)).collect(Collectors.toList());
+		this.reducingFunction = new ValuesReducingFunction<>((SerBinaryOperator<Integer>) (a, b) -> a + b);
+	}
+
+	@Benchmark
+	public void reduceValues(Blackhole blackhole){
+		Stream<Entry<String, Iterator<Integer>>> shuffledValues = this.groupedValues.stream()
+				.map(entry -> KVUtils.kv(entry.getKey(), entry.getValue().iterator()));
+		this.reducingFunction.apply(shuffledValues).forEach(blackhole::consume);
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks classification of keys by {@link HashClassifier}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HashClassifierBenchmark {
+
+	@Param({"4", "64"})
+	public int classificationSize;
+
+	private HashClassifier classifier;
+
+	private String[] keys;
+
+	private int index;
+
+	@Setup
+	public void setup(){
+		this.classifier = new HashClassifier(this.classificationSize);
+		this.keys = IntStream.range(0, 1024).mapToObj(i -> "key-" + i).toArray(String[]::new);
+	}
+
+	@Benchmark
+	public Integer getClassificationId(){
+		return this.classifier.getClassificationId(this.nextKey());
+	}
+
+	@Benchmark
+	public int getClassificationIdAsInt(){
+		return this.classifier.getClassificationIdAsInt(this.nextKey());
+	}
+
+	private String nextKey(){
+		return this.keys[this.index++ & (this.keys.length - 1)];
+	}
+}
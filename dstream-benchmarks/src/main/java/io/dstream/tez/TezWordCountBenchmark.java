@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.dstream.DStream;
+
+/**
+ * Benchmarks end-to-end word count executed by Tez in local mode (see 'tez-site.xml')
+ * shuffling via unordered edge with consumer-side grouping ('hash') vs. ordered edge ('sort'),
+ * see {@link TezConstants#SHUFFLE}.<br>
+ * Source and shuffle mode are passed to 'TezWordCountBenchmark.cfg' as system properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TezWordCountBenchmark {
+
+	private static final String EXECUTION_NAME = TezWordCountBenchmark.class.getSimpleName();
+
+	@Param({"100000", "1000000"})
+	public int lines;
+
+	@Param({"hash", "sort"})
+	public String shuffle;
+
+	private File source;
+
+	private DStream<Entry<String, Integer>> wordCount;
+
+	@Setup
+	public void setup() throws IOException {
+		this.source = File.createTempFile("dstream-wc-", ".txt");
+		try (PrintWriter writer = new PrintWriter(this.source)) {
+			for (int i = 0; i < this.lines; i++) {
+				writer.println("The ship drew on and had safely passed the strait word-" + i);
+			}
+		}
+		System.setProperty("dstream.benchmark.source", this.source.toURI().toString());
+		System.setProperty("dstream.benchmark.shuffle", this.shuffle);
+		this.wordCount = DStream.ofType(String.class, "wc")
+				.flatMap(line -> Stream.of(line.split("\\s+")))
+				.reduceValues(word -> word, word -> 1, Integer::sum);
+	}
+
+	@TearDown
+	public void tearDown(){
+		this.source.delete();
+	}
+
+	@Benchmark
+	public void wordCount(Blackhole blackhole) throws Exception {
+		Stream<Stream<Entry<String, Integer>>> result = this.wordCount.executeAs(EXECUTION_NAME).get();
+		result.forEach(partition -> partition.forEach(blackhole::consume));
+		result.close();
+	}
+}
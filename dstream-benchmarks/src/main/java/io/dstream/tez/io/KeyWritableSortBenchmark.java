@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.WritableComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.dstream.utils.Tuples.Tuple2;
+
+/**
+ * Benchmarks sorting of serialized {@link KeyWritable}s (as done by the sort and merge of the Tez ordered edge) 
+ * comparing raw bytes with {@link KeyWritable.Comparator} vs. deserializing keys for every comparison
+ * (i.e., the behavior without raw comparator).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KeyWritableSortBenchmark {
+
+	@Param({"10000"})
+	public int size;
+
+	@Param({"integer", "string", "tuple"})
+	public String keyType;
+
+	private byte[][] serializedKeys;
+
+	private final WritableComparator rawComparator = WritableComparator.get(KeyWritable.class);
+
+	private final KeyWritable leftKey = new KeyWritable();
+
+	private final KeyWritable rightKey = new KeyWritable();
+
+	private final DataInputBuffer leftBuffer = new DataInputBuffer();
+
+	private final DataInputBuffer rightBuffer = new DataInputBuffer();
+
+	@Setup
+	public void setup() throws IOException {
+		Random random = new Random(42);
+		this.serializedKeys = new byte[this.size][];
+		KeyWritable keyWritable = new KeyWritable();
+		for (int i = 0; i < this.size; i++) {
+			keyWritable.setValue(this.createKey(random.nextInt(this.size)));
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			keyWritable.write(new DataOutputStream(bos));
+			this.serializedKeys[i] = bos.toByteArray();
+		}
+	}
+
+	@Benchmark
+	public byte[][] sortRaw(){
+		byte[][] keys = this.serializedKeys.clone();
+		Arrays.sort(keys, (b1, b2) -> this.rawComparator.compare(b1, 0, b1.length, b2, 0, b2.length));
+		return keys;
+	}
+
+	@Benchmark
+	public byte[][] sortDeserialized(){
+		byte[][] keys = this.serializedKeys.clone();
+		Arrays.sort(keys, (Comparator<byte[]>) this::compareDeserialized);
+		return keys;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private int compareDeserialized(byte[] b1, byte[] b2){
+		try {
+			this.leftBuffer.reset(b1, b1.length);
+			this.rightBuffer.reset(b2, b2.length);
+			this.leftKey.readFields(this.leftBuffer);
+			this.rightKey.readFields(this.rightBuffer);
+			return ((Comparable)this.leftKey.getValue()).compareTo(this.rightKey.getValue());
+		} 
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Object createKey(int value){
+		switch (this.keyType) {
+		case "integer":
+			return value;
+		case "string":
+			return "key-" + value;
+		case "tuple":
+			return Tuple2.tuple2("key-" + (value % 100), (long) value);
+		default:
+			throw new IllegalStateException("Unsupported key type: " + this.keyType);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.dstream.utils.KVUtils;
+import io.dstream.utils.Tuples;
+
+/**
+ * Benchmarks serialization and deserialization of values by {@link TypeAwareWritable}.
+ * Allocation per record is measured by running with GC profiler (i.e., <i>-prof gc</i>).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TypeAwareWritableBenchmark {
+
+	@Param({"integer", "long", "string", "entry", "tuple"})
+	public String valueType;
+
+	private ValueWritable<Object> writable;
+
+	private Object value;
+
+	private ByteArrayOutputStream bytesOut;
+
+	private DataOutputStream dataOut;
+
+	private byte[] serializedValue;
+
+	@Setup
+	public void setup() throws IOException {
+		this.writable = new ValueWritable<>();
+		this.value = this.createValue();
+		this.writable.setValue(this.value);
+		this.bytesOut = new ByteArrayOutputStream();
+		this.dataOut = new DataOutputStream(this.bytesOut);
+		this.writable.write(this.dataOut);
+		this.serializedValue = this.bytesOut.toByteArray();
+	}
+
+	@Benchmark
+	public int write() throws IOException {
+		this.bytesOut.reset();
+		this.writable.write(this.dataOut);
+		return this.bytesOut.size();
+	}
+
+	@Benchmark
+	public int setValueAndWrite() throws IOException {
+		this.bytesOut.reset();
+		this.writable.setValue(this.value);
+		this.writable.write(this.dataOut);
+		return this.bytesOut.size();
+	}
+
+	@Benchmark
+	public Object readFields() throws IOException {
+		this.writable.readFields(new DataInputStream(new ByteArrayInputStream(this.serializedValue)));
+		return this.writable.getValue();
+	}
+
+	private Object createValue(){
+		switch (this.valueType) {
+		case "integer":
+			return 123456;
+		case "long":
+			return 123456789L;
+		case "string":
+			return "The ship drew on and had safely passed the strait";
+		case "entry":
+			return KVUtils.kv("strait", 1);
+		case "tuple":
+			return Tuples.Tuple3.tuple3("strait", 1, 2L);
+		default:
+			throw new IllegalStateException("Unsupported value type: " + this.valueType);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks grouping and counting of {@link Long} keys with {@link PrimitiveKeyMap}
+ * and {@link LongLongHashMap} vs. boxed {@link HashMap}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PrimitiveKeyMapBenchmark {
+
+	@Param({"100000"})
+	public int size;
+
+	@Param({"100", "100000"})
+	public int cardinality;
+
+	private List<Long> keys;
+
+	@Setup
+	public void setup(){
+		this.keys = LongStream.range(0, this.size).mapToObj(i -> i % this.cardinality).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public Map<Object, Object> groupWithHashMap(){
+		Map<Object, Object> groups = new HashMap<>();
+		this.group(groups);
+		return groups;
+	}
+
+	@Benchmark
+	public Map<Object, Object> groupWithPrimitiveKeyMap(){
+		Map<Object, Object> groups = new PrimitiveKeyMap<>();
+		this.group(groups);
+		return groups;
+	}
+
+	@Benchmark
+	public Map<Long, Long> countWithHashMap(){
+		Map<Long, Long> counts = new HashMap<>();
+		for (Long key : this.keys) {
+			counts.merge(key, 1L, Long::sum);
+		}
+		return counts;
+	}
+
+	@Benchmark
+	public LongLongHashMap countWithLongLongHashMap(){
+		LongLongHashMap counts = new LongLongHashMap();
+		for (Long key : this.keys) {
+			counts.addTo(key, 1);
+		}
+		return counts;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void group(Map<Object, Object> groups){
+		for (Long key : this.keys) {
+			((List<Object>) groups.computeIfAbsent(key, k -> new ArrayList<>())).add(key);
+		}
+	}
+}
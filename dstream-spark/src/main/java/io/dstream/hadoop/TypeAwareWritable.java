@@ -17,47 +17,42 @@
 package io.dstream.hadoop;
 
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.nio.ByteBuffer;
 
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import io.dstream.support.Serializer;
 
 /**
- * 
+ * Base {@link NewWritable} which writes its value (prefixed with the byte representing its type) 
+ * using the {@link Serializer} returned by {@link Serializer#getInstance()}.<br>
+ * Values are encoded directly into the {@link DataOutput} when written, so writing values 
+ * (e.g., for each record written to the shuffle) does not allocate in steady state.
  */
 @SuppressWarnings("unchecked")
 public abstract class TypeAwareWritable<T> implements NewWritable<T> {
-	
-    protected T value;
-	
-	private byte valueType = NULL;
-	
-	private final ValueEncoder valueEncoder = new ValueEncoder();
+
+	protected T value;
 
 	/**
-	 * 
+	 *
 	 */
+	@Override
 	public void setValue(T value) {
 		this.value = value;
-		this.determineValueType(value);
-		this.valueType = this.valueEncoder.valueType;
 	}
-	
+
 	/**
-	 * 
+	 *
 	 */
+	@Override
 	public T getValue() {
 		return this.value;
 	}
-	
-	
-	
+
+
+
 	/**
-	 * 
+	 *
 	 */
 	@Override
 	public int hashCode() {
@@ -67,58 +62,25 @@ public abstract class TypeAwareWritable<T> implements NewWritable<T> {
 		}
 		return hashCode;
 	}
-	
+
 	/**
-	 * 
+	 *
 	 */
 	@Override
 	public void write(DataOutput out) throws IOException {
-		out.writeByte(this.valueType);
-		if (this.valueType != NULL){
-			try {
-				out.write(this.valueEncoder.valueBytes);
-			} 
-			catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
+		Serializer.getInstance().write(this.value, out);
 	}
 
 	/**
-	 * 
+	 *
 	 */
 	@Override
 	public void readFields(DataInput in) throws IOException {
-		this.valueType = in.readByte();
-		switch (this.valueType) {
-		case INTEGER:
-			this.value = (T) Integer.valueOf(in.readInt());
-			break;
-		case LONG:
-			this.value = (T) Long.valueOf(in.readLong());
-			break;
-		case NULL:
-			this.value = null;
-			break;
-		case OBJECT:
-			try {
-				ObjectInputStream ois = new ObjectInputStream((DataInputStream) in);
-				T value = (T) ois.readObject();
-				this.value = (T) value;
-			} catch (Exception e) {
-				throw new IllegalStateException(
-						"Failed to deserialize value", e);
-			}
-			break;
-		default:
-			throw new IllegalStateException(
-					"Unsupported or unrecognized value type: "
-							+ this.valueType);
-		}
+		this.value = (T) Serializer.getInstance().read(in);
 	}
-	
+
 	/**
-	 * 
+	 *
 	 */
 	@Override
 	public String toString(){
@@ -128,56 +90,4 @@ public abstract class TypeAwareWritable<T> implements NewWritable<T> {
 			return this.value.toString();
 		}
 	}
-	
-	/**
-	 * NOTE: The below code is temporary and both conversion and ser/deser will be exposed through externally 
-	 * configurable framework!
-	 * 
-	 * @param value
-	 * @return
-	 */
-	private void determineValueType(Object value){
-		if (value instanceof Integer){
-			this.valueEncoder.valueType = INTEGER;
-			this.valueEncoder.valueBytes = ByteBuffer.allocate(4).putInt((Integer)value).array();
-		} 
-		else if (value instanceof Long) {
-			this.valueEncoder.valueType = LONG;
-			this.valueEncoder.valueBytes = ByteBuffer.allocate(8).putLong((Long)value).array();
-		}
-		else if (value == null){
-			this.valueEncoder.valueType = NULL;
-		}
-		else {
-			ObjectOutputStream oos = null;
-			try {
-				ByteArrayOutputStream bos = new ByteArrayOutputStream();
-				oos = new ObjectOutputStream(bos);
-				oos.writeObject(value);
-				this.valueEncoder.valueType = OBJECT;
-				this.valueEncoder.valueBytes = bos.toByteArray();
-			} catch (Exception e) {
-				throw new IllegalStateException("Failed to serialize value: " + value, e);
-			} finally {
-				try {
-					if (oos != null){
-						oos.close();
-					}
-				} catch (Exception e2) {/*ignore*/}
-			}
-		}
-	}
-	
-	private final static byte INTEGER = -128;
-	private final static byte STRING = -127;
-	private final static byte LONG = -126;
-	private final static byte OBJECT = -125;
-	private final static byte NULL = -124;
-	
-	/**
-	 */
-	private class ValueEncoder {
-		private byte valueType;
-		private byte[] valueBytes;
-	}
 }
@@ -25,8 +25,8 @@ package io.dstream.hadoop;
  * 1. Prepend each value with a byte representing its type
  * 2. Write value data as byte[]
  * For fixed formats such as Int, Long etc., its standard byte representation is used (e.g., Int = 4 bytes)
- * For Objects (variable length) object serialization is used with custom se/deser to be exposed for 
- * customization and optimization
+ * For Strings, Tuples, Entries etc. compact binary form is used, while other Objects (variable length) are written
+ * by the registered TypeCodec or object serialization (see io.dstream.support.DefaultSerializer)
  * 
  * This class is not public nor it is meant/designed as thread-safe.
  */
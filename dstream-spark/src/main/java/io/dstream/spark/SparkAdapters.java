@@ -29,6 +29,7 @@ import java.util.stream.StreamSupport;
 import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.support.Aggregators;
 import io.dstream.utils.KVUtils;
+import io.dstream.utils.PrimitiveKeyMap;
 import io.dstream.utils.SingleValueIterator;
 
 /**
@@ -50,7 +51,7 @@ public abstract class SparkAdapters {
 	 * @param inStream
 	 */
 	public static  Stream<Entry<Object, ? extends Iterator<? extends Object>>> groupTuple2Values(Stream<scala.Product2<Object,Object>> inStream){
-		Map<Object, Object> groupedMap = inStream.collect(Collectors.toMap(t2 -> t2._1(), t2 -> t2._2(), Aggregators::aggregateToList));
+		Map<Object, Object> groupedMap = inStream.collect(Collectors.toMap(t2 -> t2._1(), t2 -> t2._2(), Aggregators::aggregateToList, PrimitiveKeyMap::new));
 		
 		Stream<Entry<Object, ? extends Iterator<? extends Object>>> groupedStream = groupedMap.entrySet().stream().map(entry -> {
 			if (entry.getValue() instanceof List){
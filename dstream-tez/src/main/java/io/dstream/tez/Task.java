@@ -44,6 +44,8 @@ final class Task implements Serializable {
 
 	private final int id;
 
+	private final long groupingSpillThreshold;
+
 	private AbstractPartitionedStreamProducingSourceSupplier<?> streamProducingSourceSupplier;
 
 	/**
@@ -52,9 +54,11 @@ final class Task implements Serializable {
 	 * @param name
 	 * @param partitioner
 	 * @param function
+	 * @param groupingSpillThreshold
 	 */
-	private Task(int id, String name, Classifier classifier, SerFunction<Stream<?>, Stream<?>> function){
+	private Task(int id, String name, Classifier classifier, SerFunction<Stream<?>, Stream<?>> function, long groupingSpillThreshold){
 		this.id = id;
+		this.groupingSpillThreshold = groupingSpillThreshold;
 		this.name = name;
 		this.classifier = classifier;
 		this.function = function;
@@ -67,7 +71,8 @@ final class Task implements Serializable {
 	 */
 	static Task build(TaskDescriptor taskDescriptor) {
 		SerFunction<Stream<?>, Stream<?>> taskFunction = adjustTaskFunction(taskDescriptor);
-		Task task = new Task(taskDescriptor.getId(), taskDescriptor.getName(), taskDescriptor.getClassifier(), taskFunction);
+		Task task = new Task(taskDescriptor.getId(), taskDescriptor.getName(), taskDescriptor.getClassifier(), taskFunction,
+				taskDescriptor.getGroupingSpillThreshold());
 		if (taskDescriptor.getSourceSupplier() instanceof AbstractPartitionedStreamProducingSourceSupplier){
 			task.setStreamProducingSourceSupplier((AbstractPartitionedStreamProducingSourceSupplier<?>) taskDescriptor.getSourceSupplier());
 		}
@@ -106,6 +111,16 @@ final class Task implements Serializable {
 		return id;
 	}
 
+	/**
+	 * Returns the amount of values grouped in memory after which unordered
+	 * input of this task is spilled (see {@link TezConstants#GROUPING_SPILL_THRESHOLD}).
+	 *
+	 * @return
+	 */
+	public long getGroupingSpillThreshold() {
+		return groupingSpillThreshold;
+	}
+
 	/**
 	 *
 	 * @return
@@ -25,10 +25,12 @@ import java.util.stream.Stream;
 import org.apache.tez.dag.api.Vertex;
 
 import io.dstream.DStreamConstants;
+import io.dstream.Ops;
 import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.SerializableStreamAssets.SerSupplier;
 import io.dstream.support.Classifier;
 import io.dstream.support.HashClassifier;
+import io.dstream.utils.Assert;
 import io.dstream.utils.ReflectionUtils;
 
 /**
@@ -60,6 +62,10 @@ public class TaskDescriptor {
 
 	private Class<?> inputFormatClass;
 
+	private final boolean orderedInput;
+
+	private final long groupingSpillThreshold;
+
 	/**
 	 * Will create description of a {@link Task} from which Tez {@link Vertex} is created.
 	 * Parallelism and {@link Classifier} of the task (Vertex) is determined
@@ -76,10 +82,12 @@ public class TaskDescriptor {
 	 * @param id
 	 * @param name
 	 * @param operationName
+	 * @param inputOperationName name of the operation consuming the shuffled input of this task, 
+	 *        which determines whether such input must be ordered
 	 * @param executionConfig
 	 * @param previousTaskDescriptor
 	 */
-	public TaskDescriptor(int id, String name, String operationName, Properties executionConfig, TaskDescriptor previousTaskDescriptor){
+	public TaskDescriptor(int id, String name, String operationName, String inputOperationName, Properties executionConfig, TaskDescriptor previousTaskDescriptor){
 		this.name = name;
 		this.id = id;
 		this.operationName = operationName;
@@ -94,6 +102,31 @@ public class TaskDescriptor {
 				? ReflectionUtils.newInstance(grouperProp, new Class[]{int.class}, new Object[]{this.parallelism})
 						: new HashClassifier(this.parallelism);
 				this.setClassifier(classifier);
+		this.orderedInput = Boolean.parseBoolean(executionConfig.getProperty(DStreamConstants.JOIN_SORT_MERGE + name, "false"))
+				|| this.determineShuffleMode(name, inputOperationName, executionConfig);
+		this.groupingSpillThreshold = Long.parseLong(executionConfig.getProperty(TezConstants.GROUPING_SPILL_THRESHOLD,
+				String.valueOf(TezConstants.DEFAULT_GROUPING_SPILL_THRESHOLD)));
+	}
+
+	/**
+	 * Returns <i>true</i> if the input of this task is shuffled via ordered edge, which is
+	 * the case when its operation relies on the key order (e.g., sort-merge join) or when sorted
+	 * output was requested (see {@link TezConstants#SHUFFLE}).
+	 *
+	 * @return
+	 */
+	public boolean isOrderedInput() {
+		return this.orderedInput;
+	}
+
+	/**
+	 * Returns the amount of values grouped in memory by this task after which its
+	 * unordered input is spilled (see {@link TezConstants#GROUPING_SPILL_THRESHOLD}).
+	 *
+	 * @return
+	 */
+	public long getGroupingSpillThreshold() {
+		return this.groupingSpillThreshold;
 	}
 
 	/**
@@ -243,6 +276,19 @@ public class TaskDescriptor {
 		this.classifier = classifier;
 	}
 
+	/**
+	 *
+	 */
+	private boolean determineShuffleMode(String pipelineName, String inputOperationName, Properties executionConfig){
+		String shuffleMode = executionConfig.getProperty(TezConstants.SHUFFLE + pipelineName);
+		if (shuffleMode == null){
+			return !Ops.isHashGrouping(inputOperationName);
+		}
+		Assert.isTrue(shuffleMode.equals("hash") || shuffleMode.equals("sort"),
+				"Unsupported shuffle mode '" + shuffleMode + "' for pipeline '" + pipelineName + "'. Supported modes are 'hash' and 'sort'");
+		return shuffleMode.equals("sort");
+	}
+
 	/**
 	 *
 	 */
@@ -18,18 +18,33 @@
 package io.dstream.tez;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.apache.tez.dag.api.Vertex;
 
 import io.dstream.DStreamExecutionGraph;
 import io.dstream.DStreamOperation;
+import io.dstream.SerializableStreamAssets.SerFunction;
 import io.dstream.support.SourceSupplier;
+import io.dstream.utils.KVUtils;
 
 /**
  *
  */
 class TaskDescriptorChainBuilder {
 
+	/**
+	 * Presents each Key/Value pair of the reduced (grouped) stream as Key/Values pair
+	 * with a single value, which is what the shuffle of such stream would produce.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static final SerFunction<Stream<?>, Stream<?>> singleValueGroupsFunction = stream -> stream
+			.map(entry -> KVUtils.kv(((Entry)entry).getKey(), Collections.singletonList(((Entry)entry).getValue()).iterator()));
+
 	private final List<TaskDescriptor> taskChain;
 
 	private final DStreamExecutionGraph executionGraph;
@@ -54,13 +69,23 @@ class TaskDescriptorChainBuilder {
 	}
 
 	/**
+	 * Builds the chain of {@link TaskDescriptor}s, one for each {@link DStreamOperation}
+	 * unless the operation can be fused with the previous one (see {@link #isFusible(DStreamOperation, DStreamOperation)}),
+	 * so {@link Vertex}s are only created at the shuffle boundaries.
 	 *
 	 * @return
 	 */
 	public List<TaskDescriptor> build(){
 		List<DStreamOperation> streamOperations = this.executionGraph.getOperations();
 
+		DStreamOperation previousOperation = null;
 		for (DStreamOperation streamOperation : streamOperations) {
+			if (this.isFusible(previousOperation, streamOperation)){
+				this.getCurrentTask().andThen(singleValueGroupsFunction.andThen(streamOperation.getStreamOperationFunction()));
+				previousOperation = streamOperation;
+				continue;
+			}
+			previousOperation = streamOperation;
 			TaskDescriptor taskDescriptor;
 			if (streamOperation.getLastOperationName().equals("join") || streamOperation.getLastOperationName().startsWith("union")){
 				String name = this.taskChain.get(this.taskChain.size() - 1).getOperationName();
@@ -72,7 +97,7 @@ class TaskDescriptorChainBuilder {
 				taskDescriptor = this.createTaskDescriptorForStreamCombineOperations(streamOperation);
 			}
 			else {
-				taskDescriptor = this.createTaskDescriptor(streamOperation.getLastOperationName());
+				taskDescriptor = this.createTaskDescriptor(streamOperation);
 			}
 
 			taskDescriptor.andThen(streamOperation.getStreamOperationFunction());
@@ -81,12 +106,28 @@ class TaskDescriptorChainBuilder {
 		return this.taskChain;
 	}
 
+	/**
+	 * Returns <i>true</i> if the given operation does not need the shuffle in front of it, since
+	 * the previous operation already reduced (grouped) the values of its shuffled partition by key
+	 * (e.g., the stage which unwraps the result of 'count' or 'reduce'). Shuffling such stream with the same
+	 * classifier would only deliver every Key/Value pair to the same partition as a single value group,
+	 * so the operation is composed with the task of the previous operation instead.
+	 */
+	private boolean isFusible(DStreamOperation previousOperation, DStreamOperation streamOperation){
+		return previousOperation != null
+				&& (previousOperation.getLastOperationName().equals("reduceValues") || previousOperation.getLastOperationName().equals("aggregateValues"))
+				&& previousOperation.isShuffle()
+				&& previousOperation.getCombinableExecutionGraphs().isEmpty()
+				&& !streamOperation.isShuffle()
+				&& streamOperation.getCombinableExecutionGraphs().isEmpty();
+	}
+
 	/**
 	 * Creates {@link TaskDescriptor} for stream combine operations (i.e., join, union, unionAll)
 	 */
 	private TaskDescriptor createTaskDescriptorForStreamCombineOperations(DStreamOperation streamOperation){
 
-		TaskDescriptor taskDescriptor = this.createTaskDescriptor(streamOperation.getLastOperationName());
+		TaskDescriptor taskDescriptor = this.createTaskDescriptor(streamOperation);
 		for (DStreamExecutionGraph dependentOps : streamOperation.getCombinableExecutionGraphs()) {
 			TaskDescriptorChainBuilder builder = new TaskDescriptorChainBuilder(executionName, dependentOps, executionConfig);
 			List<TaskDescriptor> dependentDescriptors = builder.build();
@@ -123,11 +164,12 @@ class TaskDescriptorChainBuilder {
 	}
 
 	/**
-	 *
+	 * Creates {@link TaskDescriptor} named after the last operation of the given {@link DStreamOperation},
+	 * while its input is shuffled as required by its first operation (the one consuming the shuffled values).
 	 */
-	private TaskDescriptor createTaskDescriptor(String operationName){
-		TaskDescriptor taskDescriptor = new TaskDescriptor(this.sequenceIdCounter++,
-				this.executionGraph.getName(), operationName, this.executionConfig, this.getCurrentTask());
+	private TaskDescriptor createTaskDescriptor(DStreamOperation streamOperation){
+		TaskDescriptor taskDescriptor = new TaskDescriptor(this.sequenceIdCounter++, this.executionGraph.getName(),
+				streamOperation.getLastOperationName(), streamOperation.getFirstOperationName(), this.executionConfig, this.getCurrentTask());
 		this.initializeTaskInputsIfNecessary(taskDescriptor);
 		return taskDescriptor;
 	}
@@ -17,6 +17,8 @@
  */
 package io.dstream.tez;
 
+import io.dstream.DStreamConstants;
+
 public interface TezConstants {
 
 	String CLASSPATH_EXCLUSIONS = "classpath_exclusions";
@@ -25,5 +27,91 @@ public interface TezConstants {
 
 	String UPDATE_CLASSPATH = "update-classpath";
 
-	String CLASSPATH_PATH = "app-classpath";
+	/**
+	 * Identifies the system property which defines the path (relative to the user's home directory)
+	 * of the shared classpath cache where classpath JARs are provisioned, each under the digest of its
+	 * content, so unchanged JARs are uploaded only once. Defaults to '.dstream/classpath-cache'.<br>
+	 * For example:
+	 * <pre>
+	 * -Dclasspath-cache=.dstream/classpath-cache
+	 * </pre>
+	 */
+	String CLASSPATH_CACHE = "classpath-cache";
+
+	/**
+	 * Identifies the system property which defines the amount of days after which the entries of the shared
+	 * classpath cache (see {@link #CLASSPATH_CACHE}) which were not provisioned by any application are deleted.
+	 * Cache is pruned each time the classpath is provisioned, so JARs which change with every build
+	 * (e.g., the one created with 'generate-jar') do not accumulate. Value &lt;= 0 disables pruning. Defaults to 7.<br>
+	 * For example:
+	 * <pre>
+	 * -Dclasspath-cache-max-age=30
+	 * </pre>
+	 */
+	String CLASSPATH_CACHE_MAX_AGE = "classpath-cache-max-age";
+
+	/**
+	 * Identifies the shuffle mode used by Tez for the individual pipeline. Supported modes are:<br>
+	 * <i>hash</i> - values are shuffled via unordered edge and grouped by key on the consumer side, avoiding the sort.
+	 * Keys of each shuffled partition are NOT sorted (they are in the order they were first read). Grouped values
+	 * are spilled to disk once their amount reaches {@link #GROUPING_SPILL_THRESHOLD}.<br>
+	 * <i>sort</i> - values are shuffled via ordered edge, so keys of each shuffled partition are also sorted.
+	 * Set it when the output of the pipeline must be sorted by key.<br>
+	 * If not provided, the mode is determined by the operation consuming the shuffled values: <i>hash</i> for
+	 * operations which only group values by key (i.e., reduceValues, aggregateValues, countByKey, classify,
+	 * hash join and union), otherwise <i>sort</i>. Pipelines using sort-merge join
+	 * (see {@link DStreamConstants#JOIN_SORT_MERGE}) are always shuffled via ordered edge.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.tez.shuffle.foo=sort
+	 * </pre>
+	 * In the above 'foo' would be the name of the pipeline
+	 */
+	String SHUFFLE = "dstream.tez.shuffle.";
+
+	/**
+	 * Identifies the amount of values (not bytes) each task groups in memory from its unordered input
+	 * (see {@link #SHUFFLE}) after which they are spilled to the task's working directory, partitioned
+	 * by the hash of the key, and grouped one spill file at the time. Value &lt;= 0 disables spilling.
+	 * Default is 1000000.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.tez.grouping.spill_threshold=500000
+	 * </pre>
+	 */
+	String GROUPING_SPILL_THRESHOLD = "dstream.tez.grouping.spill_threshold";
+
+	long DEFAULT_GROUPING_SPILL_THRESHOLD = 1000000;
+
+	/**
+	 * Identifies whether Tez session (i.e., Tez AM with its containers) is kept warm after
+	 * the execution, so it could be reused by the subsequent executions (i.e., <i>executeAs</i>)
+	 * with the same execution name and configuration, avoiding AM startup and classpath localization.
+	 * Pooled sessions run in Tez session mode with container reuse enabled. Default is <i>false</i>.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.tez.session.pooled=true
+	 * </pre>
+	 */
+	String SESSION_POOLED = "dstream.tez.session.pooled";
+
+	/**
+	 * Identifies the maximum amount of idle sessions kept warm (see {@link #SESSION_POOLED}).
+	 * Once exceeded, the session which was idle the longest is stopped. Default is 4.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.tez.session.pool_size=4
+	 * </pre>
+	 */
+	String SESSION_POOL_SIZE = "dstream.tez.session.pool_size";
+
+	/**
+	 * Identifies the amount of seconds an idle session is kept warm (see {@link #SESSION_POOLED})
+	 * before it is stopped. Default is 300.<br>
+	 * For example:
+	 * <pre>
+	 * dstream.tez.session.idle_timeout=300
+	 * </pre>
+	 */
+	String SESSION_IDLE_TIMEOUT = "dstream.tez.session.idle_timeout";
 }
@@ -32,12 +32,14 @@ import org.apache.tez.dag.api.DAG;
 import org.apache.tez.dag.api.DataSinkDescriptor;
 import org.apache.tez.dag.api.DataSourceDescriptor;
 import org.apache.tez.dag.api.Edge;
+import org.apache.tez.dag.api.EdgeProperty;
 import org.apache.tez.dag.api.ProcessorDescriptor;
 import org.apache.tez.dag.api.UserPayload;
 import org.apache.tez.dag.api.Vertex;
 import org.apache.tez.mapreduce.input.MRInput;
 import org.apache.tez.mapreduce.output.MROutput;
 import org.apache.tez.runtime.library.conf.OrderedPartitionedKVEdgeConfig;
+import org.apache.tez.runtime.library.conf.UnorderedPartitionedKVEdgeConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,7 +62,9 @@ public class TezDAGBuilder {
 
 	private final ExecutionContextAwareTezClient tezClient;
 
-	private final OrderedPartitionedKVEdgeConfig edgeConf;
+	private final OrderedPartitionedKVEdgeConfig orderedEdgeConf;
+
+	private final UnorderedPartitionedKVEdgeConfig unorderedEdgeConf;
 
 	private final TezDagExecutor dagExecutor;
 
@@ -78,10 +82,13 @@ public class TezDAGBuilder {
 		this.dag = DAG.create(executionName + "_" + System.currentTimeMillis());
 		this.tezClient = tezClient;
 
-		// TODO need to figure out when and why would the Edge be different and
-		// how to configure it
-		this.edgeConf = OrderedPartitionedKVEdgeConfig.newBuilder("io.dstream.tez.io.KeyWritable",
-				"io.dstream.tez.io.ValueWritable", TezDelegatingPartitioner.class.getName(), null).build();
+		this.orderedEdgeConf = OrderedPartitionedKVEdgeConfig.newBuilder("io.dstream.tez.io.KeyWritable",
+				"io.dstream.tez.io.ValueWritable", TezDelegatingPartitioner.class.getName(), null)
+				.setKeyComparatorClass(KeyWritable.Comparator.class.getName())
+				.build();
+		this.unorderedEdgeConf = UnorderedPartitionedKVEdgeConfig.newBuilder("io.dstream.tez.io.KeyWritable",
+				"io.dstream.tez.io.ValueWritable", TezDelegatingPartitioner.class.getName(), null)
+				.build();
 		this.dagExecutor = new TezDagExecutor(this.tezClient, this.dag);
 	}
 
@@ -110,14 +117,14 @@ public class TezDAGBuilder {
 			}
 		}
 		else {
-			this.addEdge(vertex);
+			this.addEdge(vertex, taskDescriptor.isOrderedInput());
 		}
 
 		if (taskDescriptor.getDependentTasksChains() != null) {
 			List<List<TaskDescriptor>> dependentTasksChains = taskDescriptor.getDependentTasksChains();
 			dependentTasksChains.forEach(dependentTasks -> {
 				dependentTasks.forEach(this::addTask);
-				this.addEdge(vertex);
+				this.addEdge(vertex, taskDescriptor.isOrderedInput());
 			});
 		}
 
@@ -140,11 +147,18 @@ public class TezDAGBuilder {
 	}
 
 	/**
+	 * Adds edge from the last vertex to the given vertex. Unless the consumer relies on the
+	 * key order (see {@link TaskDescriptor#isOrderedInput()}) the edge is unordered, so the shuffle
+	 * does not sort and values are grouped by key on the consumer side (see {@link TezTaskProcessor}).
 	 *
 	 * @param vertex
+	 * @param ordered
 	 */
-	private void addEdge(Vertex vertex) {
-		Edge edge = Edge.create(this.lastVertex, vertex, this.edgeConf.createDefaultEdgeProperty());
+	private void addEdge(Vertex vertex, boolean ordered) {
+		EdgeProperty edgeProperty = ordered
+				? this.orderedEdgeConf.createDefaultEdgeProperty()
+						: this.unorderedEdgeConf.createDefaultEdgeProperty();
+		Edge edge = Edge.create(this.lastVertex, vertex, edgeProperty);
 		this.dag.addEdge(edge);
 	}
 
@@ -19,6 +19,7 @@ package io.dstream.tez;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -27,6 +28,7 @@ import java.util.stream.Stream;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.security.Credentials;
 import org.apache.hadoop.yarn.api.records.LocalResource;
 import org.apache.tez.dag.api.TezConfiguration;
@@ -52,6 +54,12 @@ public class TezExecutionDelegate extends AbstractDStreamExecutionDelegate {
 
 	private ExecutionContextAwareTezClient tezClient;
 
+	private Object sessionKey;
+
+	private int sessionPoolSize;
+
+	private long sessionIdleTimeout;
+
 	/**
 	 *
 	 */
@@ -67,6 +75,13 @@ public class TezExecutionDelegate extends AbstractDStreamExecutionDelegate {
 		return new Runnable() {
 			@Override
 			public void run() {
+				if (sessionKey != null){
+					if (tezClient != null){
+						TezSessionPool.getInstance().release(sessionKey, tezClient, sessionPoolSize, sessionIdleTimeout);
+						tezClient = null;
+					}
+					return;
+				}
 				try {
 					logger.info("Stopping TezClient");
 					tezClient.clearAppMasterLocalFiles();
@@ -85,6 +100,8 @@ public class TezExecutionDelegate extends AbstractDStreamExecutionDelegate {
 	@SuppressWarnings("unchecked")
 	@Override
 	protected List<Stream<Stream<?>>>  doExecute(String executionName, Properties executionConfig, DStreamExecutionGraph... executionGraphs) {
+		// may be invoked more then once per execution (e.g., to materialize broadcast streams)
+		this.taskChains.clear();
 		for (DStreamExecutionGraph executionGraph : executionGraphs) {
 			TaskDescriptorChainBuilder builder = new TaskDescriptorChainBuilder(executionName, executionGraph, executionConfig);
 			List<TaskDescriptor> taskDescriptors = builder.build();
@@ -95,7 +112,12 @@ public class TezExecutionDelegate extends AbstractDStreamExecutionDelegate {
 		FileSystem fs = HadoopUtils.getFileSystem(tezConfiguration);
 
 		if (this.tezClient == null){
-			this.createAndTezClient(executionName, fs, tezConfiguration);
+			if (Boolean.parseBoolean(executionConfig.getProperty(TezConstants.SESSION_POOLED, "false"))){
+				this.acquireOrCreateTezSession(executionName, executionConfig, fs, tezConfiguration);
+			}
+			else {
+				this.createAndTezClient(executionName, fs, tezConfiguration);
+			}
 		}
 
 		TezDAGBuilder dagBuilder = new TezDAGBuilder(executionName, this.tezClient, executionConfig);
@@ -126,6 +148,23 @@ public class TezExecutionDelegate extends AbstractDStreamExecutionDelegate {
 		}
 	}
 
+	/**
+	 * Deletes the output of the execution which materialized the dependency (e.g., broadcast stream)
+	 * of the main execution.
+	 */
+	@Override
+	protected void deleteOutput(String output, Properties executionConfig) {
+		if (this.tezClient == null){
+			return;
+		}
+		try {
+			this.tezClient.getFileSystem().delete(new Path(output), true);
+		}
+		catch (Exception e) {
+			logger.warn("Failed to delete output: " + output, e);
+		}
+	}
+
 	/**
 	 *
 	 * @return
@@ -135,13 +174,38 @@ public class TezExecutionDelegate extends AbstractDStreamExecutionDelegate {
 		return null;
 	}
 
+	/**
+	 * Acquires warm Tez session for the given execution name and configuration from {@link TezSessionPool}
+	 * or creates a new one which runs in session mode with container reuse enabled (see {@link TezConstants#SESSION_POOLED}).
+	 * Session is returned to the pool by the close handler.
+	 */
+	private void acquireOrCreateTezSession(String executionName, Properties executionConfig, FileSystem fs, TezConfiguration tezConfiguration){
+		this.sessionKey = Arrays.asList(executionName, new HashMap<>(executionConfig));
+		this.sessionPoolSize = Integer.parseInt(executionConfig.getProperty(TezConstants.SESSION_POOL_SIZE, "4"));
+		this.sessionIdleTimeout = Long.parseLong(executionConfig.getProperty(TezConstants.SESSION_IDLE_TIMEOUT, "300"));
+
+		this.tezClient = TezSessionPool.getInstance().acquire(this.sessionKey);
+		if (this.tezClient == null){
+			tezConfiguration.setBoolean(TezConfiguration.TEZ_AM_SESSION_MODE, true);
+			tezConfiguration.setBoolean(TezConfiguration.TEZ_AM_CONTAINER_REUSE_ENABLED, true);
+			// AM outlives the idle timeout of the pool, so it is stopped by the pool rather than by itself
+			tezConfiguration.setInt(TezConfiguration.TEZ_SESSION_AM_DAG_SUBMIT_TIMEOUT_SECS, (int) this.sessionIdleTimeout + 60);
+			if (tezConfiguration.get(TezConfiguration.TEZ_AM_SESSION_MIN_HELD_CONTAINERS) == null
+					&& executionConfig.containsKey(DStreamConstants.PARALLELISM)){
+				// keep containers of at least one stage warm between DAGs
+				tezConfiguration.setInt(TezConfiguration.TEZ_AM_SESSION_MIN_HELD_CONTAINERS,
+						Integer.parseInt(executionConfig.getProperty(DStreamConstants.PARALLELISM)));
+			}
+			this.createAndTezClient(executionName, fs, tezConfiguration);
+		}
+	}
+
 	/**
 	 *
 	 * @param pipelineSpecification
 	 */
 	private void createAndTezClient(String executionName, FileSystem fs, TezConfiguration tezConfiguration){
-		Map<String, LocalResource> localResources = HadoopUtils.createLocalResources(fs, executionName +
-				"/" + TezConstants.CLASSPATH_PATH);
+		Map<String, LocalResource> localResources = HadoopUtils.createLocalResources(fs);
 		this.tezClient = new ExecutionContextAwareTezClient(executionName,
 				tezConfiguration,
 				localResources,
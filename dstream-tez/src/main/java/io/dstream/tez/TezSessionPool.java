@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tez.client.TezAppMasterStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.dstream.utils.Assert;
+
+/**
+ * Pool of warm (idle) Tez sessions shared by {@link TezExecutionDelegate}s of the same JVM
+ * (see {@link TezConstants#SESSION_POOLED}).<br>
+ * Sessions are keyed (e.g., by execution name and configuration) and leased exclusively, since
+ * Tez session executes one DAG at the time. Released session is kept idle until it is acquired again,
+ * its idle timeout expires or it is evicted by the more recently released session once the pool size
+ * is exceeded, after which it is stopped. Sessions whose AM was shut down are never handed out.
+ */
+final class TezSessionPool {
+
+	private static final Logger logger = LoggerFactory.getLogger(TezSessionPool.class);
+
+	private static final TezSessionPool instance = new TezSessionPool();
+
+	private final LinkedList<IdleSession> idleSessions;
+
+	private final ScheduledExecutorService idleSessionReaper;
+
+	/**
+	 *
+	 */
+	TezSessionPool(){
+		this.idleSessions = new LinkedList<>();
+		this.idleSessionReaper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "tez-session-reaper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Runtime.getRuntime().addShutdownHook(new Thread(this::clear, "tez-session-pool-shutdown"));
+	}
+
+	/**
+	 * Returns the JVM-wide instance of this pool.
+	 */
+	static TezSessionPool getInstance(){
+		return instance;
+	}
+
+	/**
+	 * Returns idle session for the given key (the most recently released one),
+	 * or <i>null</i> if there is none.
+	 */
+	ExecutionContextAwareTezClient acquire(Object key){
+		Assert.notNull(key, "'key' must not be null");
+		List<ExecutionContextAwareTezClient> shutdownSessions = new ArrayList<>();
+		ExecutionContextAwareTezClient session = null;
+		synchronized (this.idleSessions) {
+			Iterator<IdleSession> iterator = this.idleSessions.descendingIterator();
+			while (session == null && iterator.hasNext()) {
+				IdleSession idleSession = iterator.next();
+				if (idleSession.key.equals(key)){
+					iterator.remove();
+					if (this.isAlive(idleSession.session)){
+						session = idleSession.session;
+					}
+					else {
+						shutdownSessions.add(idleSession.session);
+					}
+				}
+			}
+		}
+		shutdownSessions.forEach(this::stop);
+		if (session != null && logger.isInfoEnabled()){
+			logger.info("Reusing Tez session " + session.getClientName());
+		}
+		return session;
+	}
+
+	/**
+	 * Returns the given session to this pool, so it could be acquired by the subsequent execution
+	 * with the same key. Session which was idle the longest is stopped if the amount of idle sessions
+	 * exceeds the <i>poolSize</i>, while the released session is stopped once idle for <i>idleTimeout</i>
+	 * seconds.
+	 */
+	void release(Object key, ExecutionContextAwareTezClient session, int poolSize, long idleTimeout){
+		Assert.notNull(key, "'key' must not be null");
+		Assert.notNull(session, "'session' must not be null");
+		Assert.isTrue(poolSize >= 0, "'poolSize' must be >= 0");
+		IdleSession idleSession = new IdleSession(key, session);
+		List<ExecutionContextAwareTezClient> evictedSessions = new ArrayList<>();
+		synchronized (this.idleSessions) {
+			this.idleSessions.add(idleSession);
+			while (this.idleSessions.size() > poolSize){
+				evictedSessions.add(this.idleSessions.removeFirst().session);
+			}
+		}
+		evictedSessions.forEach(this::stop);
+		if (!evictedSessions.contains(session)){
+			this.idleSessionReaper.schedule(() -> this.expire(idleSession), idleTimeout, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Returns the amount of idle sessions.
+	 */
+	int size(){
+		synchronized (this.idleSessions) {
+			return this.idleSessions.size();
+		}
+	}
+
+	/**
+	 * Stops all idle sessions.
+	 */
+	void clear(){
+		List<IdleSession> sessions;
+		synchronized (this.idleSessions) {
+			sessions = new ArrayList<>(this.idleSessions);
+			this.idleSessions.clear();
+		}
+		sessions.forEach(idleSession -> this.stop(idleSession.session));
+	}
+
+	/**
+	 * Returns <i>true</i> unless AM of the given session was shut down (e.g., it timed out
+	 * waiting for the DAG to be submitted).
+	 */
+	boolean isAlive(ExecutionContextAwareTezClient session){
+		try {
+			return session.getAppMasterStatus() != TezAppMasterStatus.SHUTDOWN;
+		}
+		catch (Exception e) {
+			logger.warn("Failed to determine status of Tez session " + session.getClientName(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * Stops the given session.
+	 */
+	void stop(ExecutionContextAwareTezClient session){
+		try {
+			logger.info("Stopping TezClient");
+			session.clearAppMasterLocalFiles();
+			session.stop();
+		}
+		catch (Exception e) {
+			logger.warn("Failed to stop TezClient", e);
+		}
+	}
+
+	/**
+	 * Stops the given session if it is still idle.
+	 */
+	private void expire(IdleSession idleSession){
+		boolean expired;
+		synchronized (this.idleSessions) {
+			expired = this.idleSessions.remove(idleSession);
+		}
+		if (expired){
+			if (logger.isInfoEnabled()){
+				logger.info("Tez session " + idleSession.session.getClientName() + " expired");
+			}
+			this.stop(idleSession.session);
+		}
+	}
+
+	/**
+	 * Idle session together with its key. Identity of each instance distinguishes
+	 * the individual releases of the same session.
+	 */
+	private static class IdleSession {
+		private final Object key;
+
+		private final ExecutionContextAwareTezClient session;
+
+		IdleSession(Object key, ExecutionContextAwareTezClient session){
+			this.key = key;
+			this.session = session;
+		}
+	}
+}
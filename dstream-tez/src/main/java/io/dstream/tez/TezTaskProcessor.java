@@ -17,6 +17,7 @@
  */
 package io.dstream.tez;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.Comparator;
@@ -36,9 +37,11 @@ import org.apache.tez.mapreduce.processor.SimpleMRProcessor;
 import org.apache.tez.runtime.api.LogicalInput;
 import org.apache.tez.runtime.api.ObjectRegistry;
 import org.apache.tez.runtime.api.ProcessorContext;
+import org.apache.tez.runtime.api.Reader;
 import org.apache.tez.runtime.library.api.KeyValueReader;
 import org.apache.tez.runtime.library.api.KeyValueWriter;
 import org.apache.tez.runtime.library.api.KeyValuesReader;
+import org.apache.tez.runtime.library.input.UnorderedKVInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -101,21 +104,24 @@ public class TezTaskProcessor extends SimpleMRProcessor {
 		}
 
 		List<LogicalInput> sortedInputs = this.getOrderedInputs();
+		Task task = this.getTask();
 
 		List<?> listOfStreams = sortedInputs.stream()
 				.map(input -> {
 					try {
-						return input.getReader();
+						Reader reader = input.getReader();
+						if (input instanceof UnorderedKVInput){
+							// unordered shuffle (see TezDAGBuilder), so values are grouped by key here
+							return StreamUtils.toGroupedStream((KeyValueReader) reader, task.getGroupingSpillThreshold(),
+									new File(this.getContext().getWorkDirs()[0]));
+						}
+						return reader instanceof KeyValueReader ? StreamUtils.toStream((KeyValueReader) reader)
+								: StreamUtils.toStream((KeyValuesReader) reader);
 					} catch (Exception e) {
 						throw new IllegalStateException("Failed to get reader", e);
 					}
-				})
-				.map(reader -> {
-					return reader instanceof KeyValueReader ? StreamUtils.toStream((KeyValueReader) reader)
-							: StreamUtils.toStream((KeyValuesReader) reader);
 				}).collect(Collectors.toList());
 
-		Task task = this.getTask();
 		Stream<?> functionArgument;
 		if (listOfStreams.size() > 0){
 			functionArgument = (Stream<?>) listOfStreams.get(0);
@@ -141,7 +147,10 @@ public class TezTaskProcessor extends SimpleMRProcessor {
 				((Stream<?>)functionArgument).forEach(consume);
 			}
 			else {
-				streamProcessingFunction.apply(functionArgument).forEach(consume);
+				// closed once consumed, releasing resources held by the task (e.g., join buffers)
+				try (Stream<?> resultStream = streamProcessingFunction.apply(functionArgument)){
+					resultStream.forEach(consume);
+				}
 			}
 		}
 		catch (Exception e) {
@@ -17,9 +17,15 @@
  */
 package io.dstream.tez.io;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
 
 import com.google.common.base.Preconditions;
 
@@ -29,49 +35,58 @@ import com.google.common.base.Preconditions;
  * More documentation to follow as its design progresses, but at the moment the mechanism is simple:
  * 1. Prepend each value with a byte representing its type
  * 2. Write value data as byte[]
- * For fixed formats such as Int, Long etc., its standard byte representation is used (e.g., Int = 4 bytes)
- * For Objects (variable length) object serialization is used with custom se/deser to be exposed for
- * customization and optimization
+ * Unlike values, keys are written in order-preserving binary form (see {@link OrderedKeyCodec}),
+ * so they are sorted and merged by {@link Comparator} without being deserialized.
+ * Keys are encoded directly into the DataOutput when written (see {@link #write(DataOutput)}).
  *
  * This class is not public nor it is meant/designed as thread-safe.
  */
-@SuppressWarnings({ "rawtypes", "serial" })
+@SuppressWarnings("serial")
 public class KeyWritable extends TypeAwareWritable<Object> implements WritableComparable<KeyWritable>, Serializable {
 
 	private static boolean ascending = true;
 
+	static {
+		WritableComparator.define(KeyWritable.class, new Comparator());
+	}
+
+	private byte[] keyBytes;
+
 	/**
 	 *
 	 */
 	@Override
 	public void setValue(Object value) {
 		Preconditions.checkState(value != null, "'value' for key must not be null");
-		super.setValue(value);
+		this.value = value;
+		this.keyBytes = null;
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public void write(DataOutput out) throws IOException {
+		OrderedKeyCodec.write(this.value, out);
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		this.value = OrderedKeyCodec.read(in);
+		this.keyBytes = null;
 	}
 
 	/**
 	 *
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public int compareTo(KeyWritable o) {
-		if (this.value instanceof Comparable<?>){
-			int cmp = ((Comparable) this.value).compareTo(o.value);
-			if (!ascending){
-				cmp *= -1;
-			}
-			return cmp;
-		}
-		else {
-			/*
-			 * TODO REVISIT!!!
-			 */
-			if (this.value == o.value){
-				return 0;
-			} else {
-				return -1;
-			}
-		}
+		byte[] b1 = this.getKeyBytes();
+		byte[] b2 = o.getKeyBytes();
+		return compare(b1, 0, b1.length, b2, 0, b2.length);
 	}
 
 	/**
@@ -81,4 +96,56 @@ public class KeyWritable extends TypeAwareWritable<Object> implements WritableCo
 	protected static void setAscending(boolean ascending) {
 		KeyWritable.ascending = ascending;
 	}
+
+	/**
+	 * Returns encoded key used by {@link #compareTo(KeyWritable)} (keys are compared by the 
+	 * {@link Comparator} when sorted).
+	 */
+	private byte[] getKeyBytes(){
+		if (this.keyBytes == null){
+			this.keyBytes = encode(this.value);
+		}
+		return this.keyBytes;
+	}
+
+	/**
+	 *
+	 */
+	private static byte[] encode(Object value){
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			OrderedKeyCodec.write(value, new DataOutputStream(bos));
+			return bos.toByteArray();
+		}
+		catch (Exception e) {
+			throw new IllegalStateException("Failed to serialize key: " + value, e);
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+		int cmp = OrderedKeyCodec.compare(b1, s1, l1, b2, s2, l2);
+		return ascending ? cmp : -cmp;
+	}
+
+	/**
+	 * Raw comparator of {@link KeyWritable}s which compares keys in their binary form 
+	 * (see {@link OrderedKeyCodec}).
+	 */
+	public static class Comparator extends WritableComparator {
+
+		public Comparator() {
+			super(KeyWritable.class);
+		}
+
+		/**
+		 *
+		 */
+		@Override
+		public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+			return KeyWritable.compare(b1, s1, l1, b2, s2, l2);
+		}
+	}
 }
@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.io.WritableComparator;
+
+import io.dstream.support.Serializer;
+import io.dstream.utils.ScratchBuffer;
+import io.dstream.utils.Tuples.Tuple;
+
+/**
+ * Order-preserving binary encoding of keys, where comparing encoded keys byte by byte
+ * (unsigned) yields the same order as comparing the keys themselves, so keys could be
+ * sorted and merged without being deserialized (see {@link KeyWritable.Comparator}).<br>
+ * Each value is prefixed with the byte representing its type:<br>
+ * - {@link Integer} and {@link Long} are written big-endian with the sign bit flipped<br>
+ * - {@link String} is written as UTF-8 bytes of its characters (never containing zero byte) followed by zero byte<br>
+ * - {@link Tuple} is written as its values followed by zero byte, so the shorter tuple is ordered first<br>
+ * - <i>null</i> (e.g., value of {@link Tuple}) is written as its type byte only and ordered first<br>
+ * All other values are written by the {@link Serializer} prefixed with their length, and are 
+ * deserialized when compared unless encoded identically (see {@link #compareObjects(byte[], int, int, byte[], int, int)}),
+ * so keys of such types are slower to sort.<br>
+ * Values of different types are ordered by their type.
+ */
+final class OrderedKeyCodec {
+
+	private static final byte END = 0;
+
+	private static final byte ESCAPE = 1;
+
+	private static final byte NULL = 1;
+
+	private static final byte INTEGER = 2;
+
+	private static final byte LONG = 3;
+
+	private static final byte STRING = 4;
+
+	private static final byte TUPLE = 5;
+
+	private static final byte OBJECT = 6;
+
+	private static final ThreadLocal<ObjectBuffer> OBJECT_BUFFER = ThreadLocal.withInitial(ObjectBuffer::new);
+
+	private OrderedKeyCodec(){}
+
+	/**
+	 * Writes the given value to the given {@link DataOutput}.
+	 */
+	static void write(Object value, DataOutput out) throws IOException {
+		if (value == null){
+			out.writeByte(NULL);
+		}
+		else if (value instanceof Integer){
+			out.writeByte(INTEGER);
+			out.writeInt((Integer)value ^ Integer.MIN_VALUE);
+		}
+		else if (value instanceof Long){
+			out.writeByte(LONG);
+			out.writeLong((Long)value ^ Long.MIN_VALUE);
+		}
+		else if (value instanceof String){
+			out.writeByte(STRING);
+			writeString((String)value, out);
+		}
+		else if (value.getClass() == Tuple.class){
+			Tuple tuple = (Tuple) value;
+			out.writeByte(TUPLE);
+			for (int i = 0; i < tuple.size(); i++) {
+				write(tuple.get(i), out);
+			}
+			out.writeByte(END);
+		}
+		else {
+			ObjectBuffer objectBuffer = OBJECT_BUFFER.get();
+			objectBuffer.buffer.reset();
+			Serializer.getInstance().write(value, objectBuffer.out);
+			out.writeByte(OBJECT);
+			out.writeInt(objectBuffer.buffer.size());
+			objectBuffer.buffer.writeTo(out);
+		}
+	}
+
+	/**
+	 * Reads the value previously written by {@link #write(Object, DataOutput)}
+	 * from the given {@link DataInput}.
+	 */
+	static Object read(DataInput in) throws IOException {
+		return read(in.readByte(), in);
+	}
+
+	/**
+	 * Compares two encoded values.
+	 */
+	static int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+		int p1 = s1;
+		int p2 = s2;
+		int end1 = s1 + l1;
+		int end2 = s2 + l2;
+		while (p1 < end1 && p2 < end2){
+			byte type = b1[p1++];
+			if (type != b2[p2++]){
+				return Integer.compare(type & 0xFF, b2[p2 - 1] & 0xFF);
+			}
+			int length1;
+			int length2;
+			int result;
+			switch (type) {
+			case END:
+			case NULL:
+			case TUPLE:
+				continue;
+			case INTEGER:
+				length1 = length2 = 4;
+				result = WritableComparator.compareBytes(b1, p1, length1, b2, p2, length2);
+				break;
+			case LONG:
+				length1 = length2 = 8;
+				result = WritableComparator.compareBytes(b1, p1, length1, b2, p2, length2);
+				break;
+			case STRING:
+				length1 = terminatedLength(b1, p1, end1);
+				length2 = terminatedLength(b2, p2, end2);
+				result = WritableComparator.compareBytes(b1, p1, length1, b2, p2, length2);
+				break;
+			case OBJECT:
+				length1 = WritableComparator.readInt(b1, p1) + 4;
+				length2 = WritableComparator.readInt(b2, p2) + 4;
+				result = compareObjects(b1, p1 + 4, length1 - 4, b2, p2 + 4, length2 - 4);
+				break;
+			default:
+				throw new IllegalStateException("Unsupported or unrecognized key type: " + type);
+			}
+			if (result != 0){
+				return result;
+			}
+			p1 += length1;
+			p2 += length2;
+		}
+		return Integer.compare(end1 - p1, end2 - p2);
+	}
+
+	/**
+	 * 
+	 */
+	private static Object read(byte type, DataInput in) throws IOException {
+		switch (type) {
+		case NULL:
+			return null;
+		case INTEGER:
+			return in.readInt() ^ Integer.MIN_VALUE;
+		case LONG:
+			return in.readLong() ^ Long.MIN_VALUE;
+		case STRING:
+			return readString(in);
+		case TUPLE:
+			List<Object> values = new ArrayList<>();
+			for (byte valueType = in.readByte(); valueType != END; valueType = in.readByte()) {
+				values.add(read(valueType, in));
+			}
+			return new Tuple(values.toArray());
+		case OBJECT:
+			in.readInt();
+			return Serializer.getInstance().read(in);
+		default:
+			throw new IllegalStateException("Unsupported or unrecognized key type: " + type);
+		}
+	}
+
+	/**
+	 * Compares values which are neither of the types supported by this codec. Values of different 
+	 * classes are ordered by the name of their class, {@link Comparable} values of the same class by 
+	 * their natural order and all other values by their encoded form (hence equal values of such class 
+	 * must be serialized to equal bytes). Only values which are not encoded identically are deserialized.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareObjects(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+		int result = WritableComparator.compareBytes(b1, s1, l1, b2, s2, l2);
+		if (result != 0){
+			Object o1 = readObject(b1, s1, l1);
+			Object o2 = readObject(b2, s2, l2);
+			if (o1.getClass() != o2.getClass()){
+				result = o1.getClass().getName().compareTo(o2.getClass().getName());
+			}
+			else if (o1 instanceof Comparable){
+				result = ((Comparable)o1).compareTo(o2);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 
+	 */
+	private static Object readObject(byte[] bytes, int start, int length) {
+		try {
+			return Serializer.getInstance().read(new DataInputStream(new ByteArrayInputStream(bytes, start, length)));
+		} 
+		catch (IOException e) {
+			throw new IllegalStateException("Failed to deserialize key", e);
+		}
+	}
+
+	/**
+	 * Writes each character as UTF-8 bytes (surrogates are written individually, so the order of bytes
+	 * is the order of characters), where characters 0 and 1 are escaped as 1 followed by 1 and 2 respectively,
+	 * so the terminating zero byte is never ambiguous.
+	 */
+	private static void writeString(String value, DataOutput out) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c <= 0x0001){
+				out.writeByte(ESCAPE);
+				out.writeByte(c + 1);
+			}
+			else if (c <= 0x007F){
+				out.writeByte(c);
+			}
+			else if (c <= 0x07FF){
+				out.writeByte(0xC0 | ((c >> 6) & 0x1F));
+				out.writeByte(0x80 | (c & 0x3F));
+			}
+			else {
+				out.writeByte(0xE0 | ((c >> 12) & 0x0F));
+				out.writeByte(0x80 | ((c >> 6) & 0x3F));
+				out.writeByte(0x80 | (c & 0x3F));
+			}
+		}
+		out.writeByte(END);
+	}
+
+	/**
+	 * 
+	 */
+	private static String readString(DataInput in) throws IOException {
+		StringBuilder value = new StringBuilder();
+		for (int b = in.readUnsignedByte(); b != END; b = in.readUnsignedByte()) {
+			if (b == ESCAPE){
+				value.append((char) (in.readUnsignedByte() - 1));
+			}
+			else if (b < 0x80){
+				value.append((char) b);
+			}
+			else if (b < 0xE0){
+				value.append((char) (((b & 0x1F) << 6) | (in.readUnsignedByte() & 0x3F)));
+			}
+			else {
+				value.append((char) (((b & 0x0F) << 12) | ((in.readUnsignedByte() & 0x3F) << 6) | (in.readUnsignedByte() & 0x3F)));
+			}
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Returns the length of the zero terminated bytes including the terminating byte.
+	 */
+	private static int terminatedLength(byte[] bytes, int start, int end){
+		int p = start;
+		while (p < end && bytes[p] != END){
+			p++;
+		}
+		return p - start + 1;
+	}
+
+	/**
+	 * {@link ScratchBuffer} reused by each thread to write values which are not of the types 
+	 * supported by this codec, since their length precedes their bytes.
+	 */
+	private static class ObjectBuffer {
+		private final ScratchBuffer buffer = new ScratchBuffer();
+
+		private final DataOutputStream out = new DataOutputStream(this.buffer);
+	}
+}
@@ -53,7 +53,7 @@ public class TezDelegatingPartitioner extends HashPartitioner {
 			valueToUse = key.getValue();
 		}
 		if (delegatingClassifier != null){
-			partitionId = delegatingClassifier.getClassificationId(valueToUse);
+			partitionId = delegatingClassifier.getClassificationIdAsInt(valueToUse);
 		}
 		else {
 			partitionId = super.getPartition(valueToUse, null, numPartitions);
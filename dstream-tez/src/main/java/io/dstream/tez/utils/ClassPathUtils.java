@@ -29,10 +29,13 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.UUID;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 
@@ -50,6 +53,9 @@ import com.google.common.base.Preconditions;
 public class ClassPathUtils {
 	private final static Log logger = LogFactory.getLog(ClassPathUtils.class);
 
+	// 1980-01-01 (the earliest time JAR entry can hold) in local time zone
+	private final static long ENTRY_TIME = new GregorianCalendar(1980, Calendar.JANUARY, 1).getTimeInMillis();
+
 	/**
 	 *
 	 * @param resource
@@ -67,7 +73,8 @@ public class ClassPathUtils {
 	}
 
 	/**
-	 * Will create a JAR file from base dir
+	 * Will create a JAR file from base dir. Entries are added in the order of their names and
+	 * with the same modification time, so JAR generated from the unchanged directory has the same content.
 	 *
 	 * @param sourceDir
 	 * @param jarName
@@ -81,7 +88,13 @@ public class ClassPathUtils {
 		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
 		File jarFile = new File(jarName);
 		try {
-			JarOutputStream target = new JarOutputStream(new FileOutputStream(jarFile), manifest);
+			JarOutputStream target = new JarOutputStream(new FileOutputStream(jarFile));
+			// manifest entry is added explicitly, since otherwise it gets the current time
+			JarEntry manifestEntry = new JarEntry(JarFile.MANIFEST_NAME);
+			manifestEntry.setTime(ENTRY_TIME);
+			target.putNextEntry(manifestEntry);
+			manifest.write(target);
+			target.closeEntry();
 			add(sourceDir, sourceDir.getAbsolutePath().length(), target);
 			target.close();
 		}
@@ -93,18 +106,23 @@ public class ClassPathUtils {
 	}
 
 	/**
+	 * Generates the name of the JAR file for the given source directory which is the same
+	 * for every invocation with the same arguments, so JAR generated from the unchanged directory
+	 * (see {@link #toJar(File, String)}) could be reused once provisioned.
 	 *
 	 * @param applicationName
+	 * @param sourceDir
 	 * @return
 	 */
-	public static String generateJarFileName(String applicationName){
+	public static String generateJarFileName(String applicationName, File sourceDir){
 		StringBuffer nameBuffer = new StringBuffer();
 		nameBuffer.append(applicationName);
 		nameBuffer.append("_");
-		nameBuffer.append(UUID.randomUUID().toString());
+		nameBuffer.append(Integer.toHexString(sourceDir.getAbsolutePath().hashCode()));
 		nameBuffer.append(".jar");
 		return nameBuffer.toString();
 	}
+
 	/**
 	 *
 	 * @param source
@@ -125,11 +143,14 @@ public class ClassPathUtils {
 						name += "/";
 					}
 					JarEntry entry = new JarEntry(name.substring(1)); // avoiding absolute path warning
+					entry.setTime(ENTRY_TIME);
 					target.putNextEntry(entry);
 					target.closeEntry();
 				}
 
-				for (File nestedFile : source.listFiles()) {
+				File[] nestedFiles = source.listFiles();
+				Arrays.sort(nestedFiles);
+				for (File nestedFile : nestedFiles) {
 					add(nestedFile, lengthOfOriginalPath, target);
 				}
 
@@ -137,7 +158,7 @@ public class ClassPathUtils {
 			}
 
 			JarEntry entry = new JarEntry(path.replace("\\", "/").substring(1)); // avoiding absolute path warning
-			entry.setTime(source.lastModified());
+			entry.setTime(ENTRY_TIME);
 			try {
 				target.putNextEntry(entry);
 				in = new BufferedInputStream(new FileInputStream(source));
@@ -18,13 +18,27 @@
 package io.dstream.tez.utils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -47,6 +61,14 @@ import io.dstream.tez.TezConstants;
 public class HadoopUtils {
 	private static final Log logger = LogFactory.getLog(HadoopUtils.class);
 
+	private static final String CLASSPATH_CACHE_DEFAULT = ".dstream/classpath-cache";
+
+	private static final String CLASSPATH_CACHE_MAX_AGE_DEFAULT = "7";
+
+	private static final int PROVISIONING_THREADS = 16;
+
+	private static final Map<String, String> digests = new ConcurrentHashMap<String, String>();
+
 	/**
 	 *
 	 * @param configuration
@@ -62,14 +84,14 @@ public class HadoopUtils {
 	}
 
 	/**
-	 * Creates {@link LocalResource}s based on the current user's classpath
+	 * Creates {@link LocalResource}s based on the current user's classpath which is provisioned
+	 * to the shared classpath cache (see {@link TezConstants#CLASSPATH_CACHE}).
 	 *
 	 * @param fs
-	 * @param classPathDir
 	 * @return
 	 */
-	public static Map<String, LocalResource> createLocalResources(FileSystem fs, String classPathDir) {
-		Map<String, LocalResource> localResources = provisionAndLocalizeCurrentClasspath(fs, classPathDir);
+	public static Map<String, LocalResource> createLocalResources(FileSystem fs) {
+		Map<String, LocalResource> localResources = provisionAndLocalizeCurrentClasspath(fs);
 		return localResources;
 	}
 
@@ -111,80 +133,220 @@ public class HadoopUtils {
 	}
 
 	/**
-	 * Will provision current classpath to YARN and return an array of
-	 * {@link Path}s representing provisioned resources
+	 * Will provision current classpath to the shared classpath cache and return the {@link FileStatus}es
+	 * of provisioned resources (see {@link #provisionToCache(FileSystem, List, List)}).
 	 * If 'generate-jar' system property is set it will also generate the JAR for the current
 	 * working directory (mainly used when executing from IDE)
 	 */
-	private static Path[] provisionClassPath(FileSystem fs, String applicationName, String[] classPathExclusions){
+	private static List<FileStatus> provisionClassPath(FileSystem fs, String[] classPathExclusions){
 		String genJarProperty = System.getProperty(TezConstants.GENERATE_JAR);
 		boolean generateJar = genJarProperty != null && Boolean.parseBoolean(genJarProperty);
-		List<Path> provisionedPaths = new ArrayList<Path>();
+		List<File> resources = new ArrayList<File>();
+		List<File> requiredResources = new ArrayList<File>();
 		List<File> generatedJars = new ArrayList<File>();
 
-		boolean confFromHadoopConfDir = generateConfigJarFromHadoopConfDir(fs, applicationName, provisionedPaths, generatedJars);
+		try {
+			boolean confFromHadoopConfDir = generateConfigJarFromHadoopConfDir(requiredResources, generatedJars);
 
-		TezConfiguration tezConf = new TezConfiguration(fs.getConf());
-		boolean provisionTez = true;
-		if (tezConf.get("tez.lib.uris") != null){
-			provisionTez = false;
-		}
-		URL[] classpath = ((URLClassLoader) ClassLoader.getSystemClassLoader()).getURLs();
-		for (URL classpathUrl : classpath) {
-			File f = new File(classpathUrl.getFile());
-			if (f.isDirectory()) {
-				if (generateJar){
-					String jarFileName = ClassPathUtils.generateJarFileName("application");
-					f = doGenerateJar(f, jarFileName, generatedJars, "application");
+			TezConfiguration tezConf = new TezConfiguration(fs.getConf());
+			boolean provisionTez = true;
+			if (tezConf.get("tez.lib.uris") != null){
+				provisionTez = false;
+			}
+			URL[] classpath = ((URLClassLoader) ClassLoader.getSystemClassLoader()).getURLs();
+			for (URL classpathUrl : classpath) {
+				File f = new File(classpathUrl.getFile());
+				if (f.isDirectory()) {
+					if (generateJar){
+						String jarFileName = ClassPathUtils.generateJarFileName("application", f);
+						f = doGenerateJar(f, jarFileName, generatedJars, "application");
+					}
+					else if (f.getName().equals("conf") && !confFromHadoopConfDir){
+						String jarFileName = ClassPathUtils.generateJarFileName("conf_application", f);
+						f = doGenerateJar(f, jarFileName, generatedJars, "configuration");
+					}
+					else {
+						f = null;
+					}
 				}
-				else if (f.getName().equals("conf") && !confFromHadoopConfDir){
-					String jarFileName = ClassPathUtils.generateJarFileName("conf_application");
-					f = doGenerateJar(f, jarFileName, generatedJars, "configuration");
+				if (f != null){
+					if (f.getName().startsWith("tez-") && !provisionTez){
+						logger.info("Skipping provisioning of " + f.getName() + " since Tez libraries are already provisioned");
+						continue;
+					}
+					if (shouldProvision(f.getName(), classPathExclusions)){
+						resources.add(f);
+					}
 				}
-				else {
-					f = null;
+			}
+			return provisionToCache(fs, requiredResources, resources);
+		}
+		finally {
+			for (File generatedJar : generatedJars) {
+				try {
+					generatedJar.delete();
+					generatedJar.getParentFile().delete();
+				} catch (Exception e) {
+					logger.warn("Failed to delete generated jars", e);
 				}
 			}
-			if (f != null){
-				if (f.getName().startsWith("tez-") && !provisionTez){
-					logger.info("Skipping provisioning of " + f.getName() + " since Tez libraries are already provisioned");
-					continue;
+		}
+	}
+
+	/**
+	 * Provisions given resources to the shared classpath cache (see {@link TezConstants#CLASSPATH_CACHE})
+	 * where each resource is stored under the SHA-256 digest of its content (i.e., [cache]/[digest]/[name]),
+	 * so the resource is only uploaded if its content was never provisioned before. Since provisioned
+	 * resources never change, they are localized with {@link LocalResourceVisibility#PRIVATE} visibility,
+	 * allowing YARN to reuse them across applications.<br>
+	 * Resources are provisioned in parallel. Failure to provision any of the <i>requiredResources</i>
+	 * results in exception, while failure to provision any other resource is only logged.<br>
+	 * Once provisioned, the cache is pruned (see {@link #pruneCache(FileSystem, Path)}).
+	 */
+	private static List<FileStatus> provisionToCache(FileSystem fs, List<File> requiredResources, List<File> resources){
+		Path cachePath = new Path(fs.getHomeDirectory(), System.getProperty(TezConstants.CLASSPATH_CACHE, CLASSPATH_CACHE_DEFAULT));
+		List<File> allResources = new ArrayList<File>(requiredResources);
+		allResources.addAll(resources);
+		if (allResources.isEmpty()){
+			return new ArrayList<FileStatus>();
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(allResources.size(), PROVISIONING_THREADS), r -> {
+			Thread thread = new Thread(r, "classpath-provisioner");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<FileStatus>> provisionedResources = new ArrayList<Future<FileStatus>>();
+			for (File resource : allResources) {
+				provisionedResources.add(executor.submit(() -> provisionToCache(fs, resource, cachePath)));
+			}
+			List<FileStatus> statuses = new ArrayList<FileStatus>();
+			for (int i = 0; i < allResources.size(); i++) {
+				File resource = allResources.get(i);
+				try {
+					statuses.add(provisionedResources.get(i).get());
 				}
-				String destinationFilePath = applicationName + "/" + f.getName();
-				Path provisionedPath = new Path(fs.getHomeDirectory(), destinationFilePath);
-				if (shouldProvision(provisionedPath.getName(), classPathExclusions)){
-					try {
-						provisioinResourceToFs(fs, new Path(f.getAbsolutePath()), provisionedPath);
-						provisionedPaths.add(provisionedPath);
-					} catch (Exception e) {
-						logger.warn("Failed to provision " + provisionedPath + "; " + e.getMessage());
-						if (logger.isDebugEnabled()){
-							logger.trace("Failed to provision " + provisionedPath, e);
-						}
+				catch (ExecutionException e) {
+					logger.warn("Failed to provision " + resource + "; " + e.getCause().getMessage());
+					if (logger.isDebugEnabled()){
+						logger.debug("Failed to provision " + resource, e.getCause());
+					}
+					if (requiredResources.contains(resource)){
+						throw new IllegalStateException(e.getCause());
 					}
 				}
 			}
+			pruneCache(fs, cachePath);
+			return statuses;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while provisioning classpath", e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
 
+	/**
+	 * Provisions a single resource to the shared classpath cache unless it is already there.
+	 * Resource is uploaded to a temporary file first and then renamed, so concurrently
+	 * provisioning clients never see partially uploaded resource.
+	 */
+	private static FileStatus provisionToCache(FileSystem fs, File resource, Path cachePath) throws Exception {
+		Path provisionedPath = new Path(new Path(cachePath, digest(resource)), resource.getName());
+		try {
+			FileStatus status = fs.getFileStatus(provisionedPath);
+			if (logger.isDebugEnabled()){
+				logger.debug("Skipping provisioning of " + provisionedPath + " since it already exists.");
+			}
+			/*
+			 * Only the digest directory is touched, since modification time of the resource
+			 * itself is verified by YARN when it is localized.
+			 */
+			fs.setTimes(provisionedPath.getParent(), System.currentTimeMillis(), -1);
+			return status;
+		}
+		catch (FileNotFoundException e) {
+			// not provisioned yet
+		}
+		if (logger.isDebugEnabled()){
+			logger.debug("Provisioning '" + resource + "' to " + provisionedPath);
 		}
+		Path uploadPath = new Path(provisionedPath.getParent(), "." + resource.getName() + "." + UUID.randomUUID() + ".tmp");
+		fs.copyFromLocalFile(new Path(resource.getAbsolutePath()), uploadPath);
+		if (!fs.rename(uploadPath, provisionedPath)){
+			// provisioned concurrently by another client
+			fs.delete(uploadPath, false);
+		}
+		return fs.getFileStatus(provisionedPath);
+	}
 
-		for (File generatedJar : generatedJars) {
+	/**
+	 * Deletes digest directories of the shared classpath cache which were not provisioned (created or reused)
+	 * for longer than {@link TezConstants#CLASSPATH_CACHE_MAX_AGE} days, since each provisioning touches the
+	 * digest directory of the provisioned resource. Failure to prune the cache is only logged.
+	 */
+	private static void pruneCache(FileSystem fs, Path cachePath){
+		long maxAgeDays = Long.parseLong(System.getProperty(TezConstants.CLASSPATH_CACHE_MAX_AGE, CLASSPATH_CACHE_MAX_AGE_DEFAULT));
+		if (maxAgeDays > 0){
+			long expirationTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays);
 			try {
-				generatedJar.delete();
-			} catch (Exception e) {
-				logger.warn("Failed to delete generated jars", e);
+				for (FileStatus digestDirectory : fs.listStatus(cachePath)) {
+					if (digestDirectory.isDirectory() && digestDirectory.getModificationTime() < expirationTime){
+						logger.info("Pruning " + digestDirectory.getPath() + " from classpath cache since it was not provisioned for "
+								+ maxAgeDays + " day(s)");
+						fs.delete(digestDirectory.getPath(), true);
+					}
+				}
+			}
+			catch (Exception e) {
+				logger.warn("Failed to prune classpath cache " + cachePath + "; " + e.getMessage());
 			}
 		}
-		return provisionedPaths.toArray(new Path[]{});
 	}
 
 	/**
-	 *
+	 * Returns hex encoded SHA-256 digest of the given file's content. Digests are remembered
+	 * for the file's path, length and modification time, so unchanged files are read once per JVM.
+	 */
+	private static String digest(File file) throws Exception {
+		String fileKey = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+		String digest = digests.get(fileKey);
+		if (digest == null){
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			try (InputStream in = new DigestInputStream(new FileInputStream(file), messageDigest)) {
+				byte[] buffer = new byte[65536];
+				while (in.read(buffer) != -1){
+					// digest is updated by the stream
+				}
+			}
+			StringBuilder hex = new StringBuilder();
+			for (byte b : messageDigest.digest()) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			digest = hex.toString();
+			digests.put(fileKey, digest);
+		}
+		return digest;
+	}
+
+	/**
+	 * Generates JAR in its own temporary directory, so its (deterministic) name never collides
+	 * with JARs generated concurrently by other processes.
 	 */
 	private static File doGenerateJar(File f, String jarFileName, List<File> generatedJars, String subMessage) {
 		if (logger.isDebugEnabled()){
 			logger.debug("Generating " + subMessage + " JAR: " + jarFileName);
 		}
-		File jarFile = ClassPathUtils.toJar(f, jarFileName);
+		File jarFile;
+		try {
+			jarFile = ClassPathUtils.toJar(f, new File(Files.createTempDirectory("dstream-jar").toFile(), jarFileName).getAbsolutePath());
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Failed to create directory for " + jarFileName, e);
+		}
 		generatedJars.add(jarFile);
 		return jarFile;
 	}
@@ -192,33 +354,21 @@ public class HadoopUtils {
 	/**
 	 *
 	 */
-	private static boolean generateConfigJarFromHadoopConfDir(FileSystem fs, String applicationName, List<Path> provisionedPaths, List<File> generatedJars){
+	private static boolean generateConfigJarFromHadoopConfDir(List<File> requiredResources, List<File> generatedJars){
 		boolean generated = false;
 		String hadoopConfDir = System.getenv().get("HADOOP_CONF_DIR");
 		if (hadoopConfDir != null && hadoopConfDir.trim().length() > 0){
-			String jarFileName = ClassPathUtils.generateJarFileName("conf_");
 			File confDir = new File(hadoopConfDir.trim());
+			String jarFileName = ClassPathUtils.generateJarFileName("conf_", confDir);
 			File jarFile = doGenerateJar(confDir, jarFileName, generatedJars, "configuration (HADOOP_CONF_DIR)");
-			String destinationFilePath = applicationName + "/" + jarFile.getName();
-			Path provisionedPath = new Path(fs.getHomeDirectory(), destinationFilePath);
-
-			try {
-				provisioinResourceToFs(fs, new Path(jarFile.getAbsolutePath()), provisionedPath);
-				provisionedPaths.add(provisionedPath);
-				generated = true;
-			} catch (Exception e) {
-				logger.warn("Failed to provision " + provisionedPath + "; " + e.getMessage());
-				if (logger.isDebugEnabled()){
-					logger.warn("Failed to provision " + provisionedPath, e);
-				}
-				throw new IllegalStateException(e);
-			}
+			requiredResources.add(jarFile);
+			generated = true;
 		}
 
 		String tezConfDir = System.getenv().get("TEZ_CONF_DIR");
 		if (tezConfDir != null && tezConfDir.trim().length() > 0){
-			String jarFileName = ClassPathUtils.generateJarFileName("conf_tez");
 			File confDir = new File(tezConfDir.trim());
+			String jarFileName = ClassPathUtils.generateJarFileName("conf_tez", confDir);
 			File jarFile = doGenerateJar(confDir, jarFileName, generatedJars, "configuration (TEZ_CONF_DIR)");
 
 			try {
@@ -229,22 +379,8 @@ public class HadoopUtils {
 			} catch (Exception e) {
 				throw new IllegalStateException(e);
 			}
-
-			String destinationFilePath = applicationName + "/" + jarFile.getName();
-			Path provisionedPath = new Path(fs.getHomeDirectory(), destinationFilePath);
-
-			try {
-				provisioinResourceToFs(fs, new Path(jarFile.getAbsolutePath()), provisionedPath);
-				provisionedPaths.add(provisionedPath);
-				generated = true;
-			} catch (Exception e) {
-				logger.warn("Failed to provision " + provisionedPath + "; " + e.getMessage());
-				if (logger.isDebugEnabled()){
-					logger.warn("Failed to provision " + provisionedPath, e);
-				}
-				throw new IllegalStateException(e);
-			}
-
+			requiredResources.add(jarFile);
+			generated = true;
 		}
 		return generated;
 	}
@@ -269,11 +405,15 @@ public class HadoopUtils {
 	/**
 	 *
 	 */
-	private static Map<String, LocalResource> createLocalResources(FileSystem fs, Path[] provisionedResourcesPaths) {
+	private static Map<String, LocalResource> createLocalResources(List<FileStatus> provisionedResources) {
 		Map<String, LocalResource> localResources = new LinkedHashMap<String, LocalResource>();
-		for (Path provisionedResourcesPath : provisionedResourcesPaths) {
-			LocalResource localResource = createLocalResource(fs, provisionedResourcesPath);
-			localResources.put(provisionedResourcesPath.getName(), localResource);
+		for (FileStatus provisionedResource : provisionedResources) {
+			LocalResource localResource = LocalResource.newInstance(
+					ConverterUtils.getYarnUrlFromURI(provisionedResource.getPath().toUri()),
+					LocalResourceType.FILE,
+					LocalResourceVisibility.PRIVATE, provisionedResource.getLen(),
+					provisionedResource.getModificationTime());
+			localResources.put(provisionedResource.getPath().getName(), localResource);
 		}
 		return localResources;
 	}
@@ -296,9 +436,9 @@ public class HadoopUtils {
 	/**
 	 *
 	 */
-	private static Map<String, LocalResource> provisionAndLocalizeCurrentClasspath(FileSystem fs, String appName) {
-		Path[] provisionedResourcesPaths = HadoopUtils.provisionClassPath(fs, appName, ClassPathUtils.initClasspathExclusions(TezConstants.CLASSPATH_EXCLUSIONS));
-		Map<String, LocalResource> localResources = HadoopUtils.createLocalResources(fs, provisionedResourcesPaths);
+	private static Map<String, LocalResource> provisionAndLocalizeCurrentClasspath(FileSystem fs) {
+		List<FileStatus> provisionedResources = HadoopUtils.provisionClassPath(fs, ClassPathUtils.initClasspathExclusions(TezConstants.CLASSPATH_EXCLUSIONS));
+		Map<String, LocalResource> localResources = HadoopUtils.createLocalResources(provisionedResources);
 
 		return localResources;
 	}
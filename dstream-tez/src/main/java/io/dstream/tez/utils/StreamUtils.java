@@ -17,8 +17,15 @@
  */
 package io.dstream.tez.utils;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
@@ -26,15 +33,28 @@ import java.util.stream.StreamSupport;
 
 import org.apache.tez.runtime.library.api.KeyValueReader;
 import org.apache.tez.runtime.library.api.KeyValuesReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import io.dstream.support.CollectionFactory;
 import io.dstream.tez.io.KeyWritable;
 import io.dstream.tez.io.ValueWritable;
 import io.dstream.utils.KVUtils;
+import io.dstream.utils.PrimitiveKeyMap;
+import io.dstream.utils.SpillCodec;
+import io.dstream.utils.SpillFile;
+import io.dstream.utils.SpillFile.SpillIterator;
 /**
  *
  */
 public class StreamUtils {
 
+	private static final Logger logger = LoggerFactory.getLogger(StreamUtils.class);
+
+	private static final int SPILL_FAN_OUT = 16;
+
+	private static final int MAX_SPILL_LEVEL = 4;
+
 	/**
 	 *
 	 * @param kvReader
@@ -63,50 +83,295 @@ public class StreamUtils {
 		return targetStream;
 	}
 
+	/**
+	 * Groups Key/Value pairs read from the <i>unordered</i> input (e.g., UnorderedKVInput) by key,
+	 * producing the same {@link Stream} of Key/Values as {@link #toStream(KeyValuesReader)} without
+	 * relying on the keys being sorted. Keys are emitted in the order they were first read.<br>
+	 * The entire input is grouped in memory (values are held in the lists provided
+	 * by {@link CollectionFactory}) upon the first access to the resulting {@link Stream}.
+	 *
+	 * @param kvReader
+	 * @return
+	 *
+	 * @param <K> key type
+	 * @param <V> value type
+	 */
+	public static <K,V> Stream<Entry<K,Iterator<V>>> toGroupedStream(KeyValueReader kvReader) {
+		return toGroupedStream(kvReader, 0, null);
+	}
+
+	/**
+	 * Same as {@link #toGroupedStream(KeyValueReader)}, however once the amount of values grouped
+	 * in memory reaches <i>spillThreshold</i>, grouped values together with the rest of the input are
+	 * written to spill files (created in <i>spillDirectory</i>) partitioned by
+	 * the hash of the key. Each spill file is then grouped on its own (spilling again, with the next bits
+	 * of the hash, if it still exceeds the threshold), so all values of a key are always in the same group,
+	 * while keys of different spill files are emitted in the order of the spill files.<br>
+	 * Spill files are deleted once grouped or when the resulting {@link Stream} is closed.
+	 *
+	 * @param kvReader
+	 * @param spillThreshold the amount of values grouped in memory after which they are spilled
+	 * to disk. Value &lt;= 0 disables spilling.
+	 * @param spillDirectory directory where spill files are created
+	 * @return
+	 *
+	 * @param <K> key type
+	 * @param <V> value type
+	 */
+	public static <K,V> Stream<Entry<K,Iterator<V>>> toGroupedStream(KeyValueReader kvReader, long spillThreshold, File spillDirectory) {
+		GroupingIterator<K,V> groupingIterator = new GroupingIterator<K, V>(new KeyValuePairIterator<K, V>(kvReader), spillThreshold, spillDirectory, 0);
+		Stream<Entry<K,Iterator<V>>> targetStream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(groupingIterator, Spliterator.ORDERED), false);
+		return targetStream.onClose(groupingIterator::close);
+	}
+
+	/**
+	 *
+	 */
+	private static class GroupingIterator<K,V> implements Iterator<Entry<K,Iterator<V>>> {
+		private final Iterator<Entry<K, V>> source;
+
+		private final long spillThreshold;
+
+		private final File spillDirectory;
+
+		private final int spillLevel;
+
+		private Iterator<Entry<K, List<V>>> groups;
+
+		private Iterator<KeyValueSpillFile> spills;
+
+		private SpillIterator<Entry<K, V>> currentSpill;
+
+		private GroupingIterator<K, V> spillGroups;
+
+		GroupingIterator(Iterator<Entry<K, V>> source, long spillThreshold, File spillDirectory, int spillLevel) {
+			this.source = source;
+			this.spillThreshold = spillThreshold;
+			this.spillDirectory = spillDirectory;
+			this.spillLevel = spillLevel;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.groups == null){
+				this.group();
+			}
+			if (this.groups.hasNext()){
+				return true;
+			}
+			while (this.spillGroups == null || !this.spillGroups.hasNext()){
+				if (this.spills == null || !this.spills.hasNext()){
+					return false;
+				}
+				this.currentSpill = this.spills.next().read();
+				this.spillGroups = new GroupingIterator<>(this.currentSpill, this.spillThreshold, this.spillDirectory, this.spillLevel + 1);
+			}
+			return true;
+		}
+
+		@Override
+		public Entry<K, Iterator<V>> next() {
+			if (!this.hasNext()){
+				throw new NoSuchElementException();
+			}
+			if (!this.groups.hasNext()){
+				return this.spillGroups.next();
+			}
+			Entry<K, List<V>> group = this.groups.next();
+			// release the group once it is handed out, since it is only consumed once
+			this.groups.remove();
+			return KVUtils.kv(group.getKey(), group.getValue().iterator());
+		}
+
+		/**
+		 * Deletes spill files which were not yet (fully) grouped.
+		 */
+		void close(){
+			if (this.spillGroups != null){
+				this.spillGroups.close();
+			}
+			if (this.currentSpill != null){
+				this.currentSpill.close();
+			}
+			if (this.spills != null){
+				this.spills.forEachRemaining(KeyValueSpillFile::delete);
+			}
+		}
+
+		/**
+		 * Groups values of the source by key unless the amount of grouped values reaches the spill
+		 * threshold, in which case the source is spilled. Past {@link StreamUtils#MAX_SPILL_LEVEL} levels
+		 * (e.g., values of a single key exceeding the threshold) values are grouped in memory regardless.
+		 */
+		private void group() {
+			CollectionFactory collectionFactory = CollectionFactory.getInstance();
+			PrimitiveKeyMap<K, List<V>> groups = new PrimitiveKeyMap<>();
+			boolean spillable = this.spillThreshold > 0 && this.spillLevel < MAX_SPILL_LEVEL;
+			long groupedValues = 0;
+			while (this.source.hasNext()){
+				Entry<K, V> keyValue = this.source.next();
+				List<V> values = groups.get(keyValue.getKey());
+				if (values == null){
+					values = collectionFactory.newList();
+					groups.put(keyValue.getKey(), values);
+				}
+				values.add(keyValue.getValue());
+				if (spillable && ++groupedValues >= this.spillThreshold){
+					this.spills = this.spill(groups).iterator();
+					break;
+				}
+			}
+			this.groups = groups.entrySet().iterator();
+		}
+
+		/**
+		 * Writes grouped values together with the rest of the source to the spill files
+		 * determined by the hash of the key.
+		 */
+		private List<KeyValueSpillFile> spill(PrimitiveKeyMap<K, List<V>> groups) {
+			KeyValueSpillFile[] spillFiles = new KeyValueSpillFile[SPILL_FAN_OUT];
+			try {
+				groups.forEach((key, values) -> values.forEach(value -> this.spill(spillFiles, key, value)));
+				groups.clear();
+				while (this.source.hasNext()){
+					Entry<K, V> keyValue = this.source.next();
+					this.spill(spillFiles, keyValue.getKey(), keyValue.getValue());
+				}
+			}
+			finally {
+				for (KeyValueSpillFile spillFile : spillFiles) {
+					if (spillFile != null){
+						spillFile.closeOutput();
+					}
+				}
+			}
+			List<KeyValueSpillFile> spills = new ArrayList<>();
+			for (KeyValueSpillFile spillFile : spillFiles) {
+				if (spillFile != null){
+					spills.add(spillFile);
+				}
+			}
+			if (logger.isInfoEnabled()){
+				logger.info("Spilled grouping of unordered input to " + spills.size() + " file(s) at level " + this.spillLevel);
+			}
+			return spills;
+		}
+
+		/**
+		 *
+		 */
+		private void spill(KeyValueSpillFile[] spillFiles, Object key, Object value){
+			// each level partitions by the next bits of the (spread) hash, so spill files split further
+			int spillIndex = ((Objects.hashCode(key) * 0x9E3779B9) >>> (28 - this.spillLevel * 4)) & (SPILL_FAN_OUT - 1);
+			if (spillFiles[spillIndex] == null){
+				spillFiles[spillIndex] = new KeyValueSpillFile(this.spillDirectory);
+			}
+			spillFiles[spillIndex].write(key, value);
+		}
+	}
+
+	/**
+	 * {@link SpillFile} holding Key/Value pairs spilled by {@link GroupingIterator}
+	 * (see {@link SpillCodec}). The file is deleted once read.
+	 */
+	private static class KeyValueSpillFile {
+		private final SpillFile file;
+
+		private long pairs;
+
+		KeyValueSpillFile(File spillDirectory){
+			this.file = new SpillFile(spillDirectory, "dstream-grouping-");
+		}
+
+		void write(Object key, Object value){
+			try {
+				SpillCodec.write(key, this.file.getOutput());
+				SpillCodec.write(value, this.file.getOutput());
+				this.pairs++;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to write spill file " + this.file, e);
+			}
+		}
+
+		void closeOutput(){
+			this.file.closeOutput();
+		}
+
+		/**
+		 * Returns {@link Iterator} over the spilled Key/Value pairs which deletes
+		 * the file once all pairs are read (or it is closed).
+		 */
+		@SuppressWarnings("unchecked")
+		<K,V> SpillIterator<Entry<K, V>> read(){
+			return this.file.iterator(this.pairs, in -> KVUtils.kv((K) SpillCodec.read(in), (V) SpillCodec.read(in)), true);
+		}
+
+		void delete(){
+			this.file.delete();
+		}
+	}
+
+	/**
+	 * Takes keys and values out of the writables, since the reader reuses them.
+	 */
+	private static class KeyValuePairIterator<K,V> implements Iterator<Entry<K,V>> {
+		private final KeyValueReaderIterator<KeyWritable, ValueWritable<V>> kvIterator;
+
+		KeyValuePairIterator(KeyValueReader kvReader){
+			this.kvIterator = new KeyValueReaderIterator<>(kvReader);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.kvIterator.hasNext();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Entry<K, V> next() {
+			Entry<KeyWritable, ValueWritable<V>> kv = this.kvIterator.next();
+			return KVUtils.kv((K) kv.getKey().getValue(), kv.getValue().getValue());
+		}
+	}
+
 	/**
 	 *
 	 */
 	private static class KeyValuesReaderIterator<K,V> implements Iterator<Entry<K,Iterator<V>>> {
 		private final KeyValuesReader kvsReader;
 
-		private Iterator<V> currentValues;
+		/*
+		 * Same as in KeyValueReaderIterator - keeps hasNext() idempotent.
+		 */
+		private Boolean hasNext;
 
 		public KeyValuesReaderIterator(KeyValuesReader kvsReader) {
 			this.kvsReader = kvsReader;
 		}
 
-		@SuppressWarnings("unchecked")
 		@Override
 		public boolean hasNext() {
-			try {
-				boolean hasNext = false;
-				if (this.currentValues == null){
-					if (this.kvsReader.next()){
-						this.currentValues = (Iterator<V>) this.kvsReader.getCurrentValues().iterator();
-						hasNext = this.currentValues.hasNext();
-					}
-				} else {
-					//					if (this.currentValues.hasNext()){
-					//						hasNext = true;
-					//					} else {
-					if (this.kvsReader.next()){
-						this.currentValues = (Iterator<V>) this.kvsReader.getCurrentValues().iterator();
-						hasNext = this.currentValues.hasNext();
-					}
-					//					}
+			if (this.hasNext == null){
+				try {
+					this.hasNext = this.kvsReader.next();
+				}
+				catch (Exception e) {
+					throw new IllegalStateException(e);
 				}
-				return hasNext;
-			}
-			catch (Exception e) {
-				throw new IllegalStateException(e);
 			}
+			return this.hasNext;
 		}
 
 		@SuppressWarnings("unchecked")
 		@Override
 		public Entry<K, Iterator<V>> next() {
+			if (!this.hasNext()){
+				throw new NoSuchElementException();
+			}
 			try {
 				K key = (K) ((KeyWritable)this.kvsReader.getCurrentKey()).getValue();
+				Iterator<Object> currentValues = this.kvsReader.getCurrentValues().iterator();
 				Iterator<V> values = new Iterator<V>() {
 					@Override
 					public boolean hasNext() {
@@ -119,6 +384,7 @@ public class StreamUtils {
 					}
 				};
 				Entry<K, Iterator<V>> entry =  KVUtils.kv(key, values);
+				this.hasNext = null;
 				return entry;
 			}
 			catch (Exception e) {
@@ -133,24 +399,38 @@ public class StreamUtils {
 	private static class KeyValueReaderIterator<K,V> implements Iterator<Entry<K,V>> {
 		private final KeyValueReader kvReader;
 
+		/*
+		 * Result of the last kvReader.next() not yet consumed by next().
+		 * Keeps hasNext() idempotent, since the reader must not be advanced
+		 * again once it returned false (e.g., when pulled through a Spliterator).
+		 */
+		private Boolean hasNext;
+
 		public KeyValueReaderIterator(KeyValueReader kvReader) {
 			this.kvReader = kvReader;
 		}
 		@Override
 		public boolean hasNext() {
-			try {
-				return this.kvReader.next();
-			}
-			catch (Exception e) {
-				throw new IllegalStateException(e);
+			if (this.hasNext == null){
+				try {
+					this.hasNext = this.kvReader.next();
+				}
+				catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
 			}
+			return this.hasNext;
 		}
 
 		@SuppressWarnings("unchecked")
 		@Override
 		public Entry<K, V> next() {
+			if (!this.hasNext()){
+				throw new NoSuchElementException();
+			}
 			try {
 				Entry<K, V> entry = (Entry<K, V>) KVUtils.kv(this.kvReader.getCurrentKey(), this.kvReader.getCurrentValue());
+				this.hasNext = null;
 				return entry;
 			}
 			catch (Exception e) {
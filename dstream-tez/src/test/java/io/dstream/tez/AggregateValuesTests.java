@@ -4,12 +4,12 @@ import static io.dstream.utils.KVUtils.kv;
 import static org.junit.Assert.assertEquals;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 import org.junit.After;
 import org.junit.Test;
@@ -40,20 +40,13 @@ public class AggregateValuesTests extends BaseTezTests {
 		Assert.assertEquals(1, resultStreams.size());
 		Stream<Entry<String, List<Integer>>> firstResultStream = resultStreams.get(0);
 
-		List<Entry<String, List<Integer>>> firstResult = firstResultStream.collect(Collectors.toList());
+		// keys are grouped via unordered edge by default, hence not sorted
+		Map<String, List<Integer>> firstResult = firstResultStream.collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 		Assert.assertEquals(10, firstResult.size());
 
-		Entry<String, List<Integer>> e1 = firstResult.get(0);
-		assertEquals("bar", e1.getKey());
-		assertEquals(3, StreamSupport.stream(e1.getValue().spliterator(), false).count());
-
-		Entry<String, List<Integer>> e2 = firstResult.get(1);
-		assertEquals("baz", e2.getKey());
-		assertEquals(2, StreamSupport.stream(e2.getValue().spliterator(), false).count());
-
-		Entry<String, List<Integer>> e4 = firstResult.get(3);
-		assertEquals("dang", e4.getKey());
-		assertEquals(1, StreamSupport.stream(e4.getValue().spliterator(), false).count());
+		assertEquals(3, firstResult.get("bar").size());
+		assertEquals(2, firstResult.get("baz").size());
+		assertEquals(1, firstResult.get("dang").size());
 
 		result.close();
 	}
@@ -72,20 +65,13 @@ public class AggregateValuesTests extends BaseTezTests {
 		Assert.assertEquals(1, resultStreams.size());
 		Stream<Entry<String, List<Integer>>> firstResultStream = resultStreams.get(0);
 
-		List<Entry<String, List<Integer>>> firstResult = firstResultStream.collect(Collectors.toList());
+		// keys are grouped via unordered edge by default, hence not sorted
+		Map<String, List<Integer>> firstResult = firstResultStream.collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 		Assert.assertEquals(10, firstResult.size());
 
-		Entry<String, List<Integer>> e1 = firstResult.get(0);
-		assertEquals("bar", e1.getKey());
-		assertEquals(3, StreamSupport.stream(e1.getValue().spliterator(), false).count());
-
-		Entry<String, List<Integer>> e2 = firstResult.get(1);
-		assertEquals("baz", e2.getKey());
-		assertEquals(2, StreamSupport.stream(e2.getValue().spliterator(), false).count());
-
-		Entry<String, List<Integer>> e4 = firstResult.get(3);
-		assertEquals("dang", e4.getKey());
-		assertEquals(1, StreamSupport.stream(e4.getValue().spliterator(), false).count());
+		assertEquals(3, firstResult.get("bar").size());
+		assertEquals(2, firstResult.get("baz").size());
+		assertEquals(1, firstResult.get("dang").size());
 
 		result.close();
 	}
@@ -105,20 +91,13 @@ public class AggregateValuesTests extends BaseTezTests {
 		Assert.assertEquals(1, resultStreams.size());
 		Stream<Entry<String, List<Integer>>> firstResultStream = resultStreams.get(0);
 
-		List<Entry<String, List<Integer>>> firstResult = firstResultStream.collect(Collectors.toList());
+		// keys are grouped via unordered edge by default, hence not sorted
+		Map<String, List<Integer>> firstResult = firstResultStream.collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 		Assert.assertEquals(10, firstResult.size());
 
-		Entry<String, List<Integer>> e1 = firstResult.get(0);
-		assertEquals("bar", e1.getKey());
-		assertEquals(3, StreamSupport.stream(e1.getValue().spliterator(), false).count());
-
-		Entry<String, List<Integer>> e2 = firstResult.get(1);
-		assertEquals("baz", e2.getKey());
-		assertEquals(2, StreamSupport.stream(e2.getValue().spliterator(), false).count());
-
-		Entry<String, List<Integer>> e4 = firstResult.get(3);
-		assertEquals("dang", e4.getKey());
-		assertEquals(1, StreamSupport.stream(e4.getValue().spliterator(), false).count());
+		assertEquals(3, firstResult.get("bar").size());
+		assertEquals(2, firstResult.get("baz").size());
+		assertEquals(1, firstResult.get("dang").size());
 
 		result.close();
 	}
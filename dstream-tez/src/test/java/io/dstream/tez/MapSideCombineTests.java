@@ -45,11 +45,12 @@ public class MapSideCombineTests extends BaseTezTests {
 		Assert.assertEquals(1, resultStreams.size());
 		Stream<Entry<String, Integer>> firstResultStream = resultStreams.get(0);
 
+		// keys are grouped via unordered edge by default, hence not sorted
 		List<Entry<String, Integer>> firstResult = firstResultStream.collect(Collectors.toList());
 		Assert.assertEquals(10, firstResult.size());
-		Assert.assertEquals(KVUtils.kv("bar", 3), firstResult.get(0));
-		Assert.assertEquals(KVUtils.kv("dee", 4), firstResult.get(4));
-		Assert.assertEquals(KVUtils.kv("doo", 5), firstResult.get(7));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("bar", 3)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("dee", 4)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("doo", 5)));
 
 		result.close();
 		assertEquals(3, this.bo.getTotalInvocations());
@@ -70,11 +71,12 @@ public class MapSideCombineTests extends BaseTezTests {
 		Assert.assertEquals(1, resultStreams.size());
 		Stream<Entry<String, Integer>> firstResultStream = resultStreams.get(0);
 
+		// keys are grouped via unordered edge by default, hence not sorted
 		List<Entry<String, Integer>> firstResult = firstResultStream.collect(Collectors.toList());
 		Assert.assertEquals(10, firstResult.size());
-		Assert.assertEquals(KVUtils.kv("bar", 3), firstResult.get(0));
-		Assert.assertEquals(KVUtils.kv("dee", 4), firstResult.get(4));
-		Assert.assertEquals(KVUtils.kv("doo", 5), firstResult.get(7));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("bar", 3)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("dee", 4)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("doo", 5)));
 
 		result.close();
 		assertEquals(1, this.bo.getTotalInvocations());
@@ -96,11 +98,12 @@ public class MapSideCombineTests extends BaseTezTests {
 		Assert.assertEquals(1, resultStreams.size());
 		Stream<Entry<String, Integer>> firstResultStream = resultStreams.get(0);
 
+		// keys are grouped via unordered edge by default, hence not sorted
 		List<Entry<String, Integer>> firstResult = firstResultStream.collect(Collectors.toList());
 		Assert.assertEquals(10, firstResult.size());
-		Assert.assertEquals(KVUtils.kv("bar", 3), firstResult.get(0));
-		Assert.assertEquals(KVUtils.kv("dee", 4), firstResult.get(4));
-		Assert.assertEquals(KVUtils.kv("doo", 5), firstResult.get(7));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("bar", 3)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("dee", 4)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("doo", 5)));
 
 		result.close();
 		assertEquals(3, this.bo.getTotalInvocations());
@@ -121,11 +124,12 @@ public class MapSideCombineTests extends BaseTezTests {
 		Assert.assertEquals(1, resultStreams.size());
 		Stream<Entry<String, Integer>> firstResultStream = resultStreams.get(0);
 
+		// keys are grouped via unordered edge by default, hence not sorted
 		List<Entry<String, Integer>> firstResult = firstResultStream.collect(Collectors.toList());
 		Assert.assertEquals(10, firstResult.size());
-		Assert.assertEquals(KVUtils.kv("bar", 3), firstResult.get(0));
-		Assert.assertEquals(KVUtils.kv("dee", 4), firstResult.get(4));
-		Assert.assertEquals(KVUtils.kv("doo", 5), firstResult.get(7));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("bar", 3)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("dee", 4)));
+		Assert.assertTrue(firstResult.contains(KVUtils.kv("doo", 5)));
 
 		result.close();
 		assertEquals(1, this.bo.getTotalInvocations());
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import io.dstream.DStream;
+import io.dstream.DStreamExecutionDelegate;
+import io.dstream.DStreamExecutionGraph;
+import io.dstream.utils.KVUtils;
+
+public class TaskDescriptorChainBuilderTests {
+
+	private final String executionName = TaskDescriptorChainBuilderTests.class.getSimpleName();
+
+	@Test
+	public void reducedStageIsFusedWithReducingTask() throws Exception {
+		List<?> graphAndConfig = this.execute(DStream.ofType(String.class, "fuse").count());
+		DStreamExecutionGraph graph = (DStreamExecutionGraph) graphAndConfig.get(0);
+		assertEquals(3, graph.getOperations().size());
+
+		List<TaskDescriptor> tasks = new TaskDescriptorChainBuilder(this.executionName, graph, (Properties) graphAndConfig.get(1)).build();
+		assertEquals(2, tasks.size());
+		assertEquals("reduceValues", tasks.get(1).getOperationName());
+
+		List<?> result = tasks.get(1).getFunction()
+				.apply(Stream.of(KVUtils.kv(0, Arrays.asList(2L, 3L).iterator())))
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList(5L), result);
+	}
+
+	@Test
+	public void shuffleBoundariesAreKept() throws Exception {
+		assertEquals(2, this.build(DStream.ofType(String.class, "fuse").classify(s -> s)).size());
+		assertEquals(2, this.build(DStream.ofType(String.class, "fuse").map(s -> s)).size());
+		assertEquals(3, this.build(DStream.ofType(String.class, "fuse")
+				.reduceValues(s -> s, s -> 1, Integer::sum)
+				.map(s -> s)
+				.reduceValues(s -> s, s -> 1, Integer::sum)).size());
+	}
+
+	@Test
+	public void edgeIsDeterminedByConsumingOperation() throws Exception {
+		List<TaskDescriptor> classified = this.build(DStream.ofType(String.class, "fuse").classify(s -> s));
+		assertEquals("load", classified.get(1).getOperationName());
+		assertFalse(classified.get(1).isOrderedInput());
+
+		List<TaskDescriptor> reducedAndMapped = this.build(DStream.ofType(String.class, "fuse")
+				.reduceValues(s -> s, s -> 1, Integer::sum)
+				.map(s -> s));
+		assertEquals("map", reducedAndMapped.get(1).getOperationName());
+		assertFalse(reducedAndMapped.get(1).isOrderedInput());
+
+		List<TaskDescriptor> hashJoined = this.build(DStream.ofType(String.class, "fuse").classify(s -> s)
+				.join(DStream.ofType(String.class, "joined").classify(s -> s)).on(t -> true)
+				.map(t -> t));
+		assertEquals("join", hashJoined.get(1).getOperationName());
+		assertFalse(hashJoined.get(1).isOrderedInput());
+
+		List<TaskDescriptor> sortMergeJoined = this.build(DStream.ofType(String.class, "smj").classify(s -> s)
+				.join(DStream.ofType(String.class, "joined").classify(s -> s)).on(t -> true)
+				.map(t -> t));
+		assertEquals("join", sortMergeJoined.get(1).getOperationName());
+		assertTrue(sortMergeJoined.get(1).isOrderedInput());
+	}
+
+	private List<TaskDescriptor> build(DStream<?> stream) throws Exception {
+		List<?> graphAndConfig = this.execute(stream);
+		return new TaskDescriptorChainBuilder(this.executionName, (DStreamExecutionGraph) graphAndConfig.get(0),
+				(Properties) graphAndConfig.get(1)).build();
+	}
+
+	private List<?> execute(DStream<?> stream) throws Exception {
+		return stream.executeAs(this.executionName).get().findFirst().get().collect(Collectors.toList());
+	}
+
+	/**
+	 * {@link DStreamExecutionDelegate} which returns the {@link DStreamExecutionGraph} it was given
+	 * together with the execution configuration.
+	 */
+	public static class GraphCapturingDelegate implements DStreamExecutionDelegate {
+		@Override
+		public Future<Stream<Stream<?>>> execute(String executionName, Properties executionConfig, DStreamExecutionGraph... operationsGroups) {
+			return CompletableFuture.completedFuture(Stream.of(Stream.of(operationsGroups[0], executionConfig)));
+		}
+
+		@Override
+		public Runnable getCloseHandler() {
+			return () -> {};
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.tez.client.TezAppMasterStatus;
+import org.apache.tez.dag.api.TezConfiguration;
+import org.junit.Test;
+
+public class TezSessionPoolTests {
+
+	@Test
+	public void releasedSessionIsReusedByKey(){
+		TezSessionPool pool = new TezSessionPool();
+		StubSession session = new StubSession("a");
+		assertNull(pool.acquire("a"));
+		pool.release("a", session, 2, 60);
+		assertNull(pool.acquire("b"));
+		assertSame(session, pool.acquire("a"));
+		assertNull(pool.acquire("a"));
+		assertFalse(session.stopped);
+	}
+
+	@Test
+	public void sessionIdleTheLongestIsEvicted(){
+		TezSessionPool pool = new TezSessionPool();
+		StubSession s1 = new StubSession("a");
+		StubSession s2 = new StubSession("b");
+		StubSession s3 = new StubSession("c");
+		pool.release("a", s1, 2, 60);
+		pool.release("b", s2, 2, 60);
+		pool.release("c", s3, 2, 60);
+		assertEquals(2, pool.size());
+		assertTrue(s1.stopped);
+		assertNull(pool.acquire("a"));
+		assertSame(s2, pool.acquire("b"));
+		pool.clear();
+		assertTrue(s3.stopped);
+		assertEquals(0, pool.size());
+	}
+
+	@Test
+	public void idleSessionExpires() throws Exception {
+		TezSessionPool pool = new TezSessionPool();
+		StubSession session = new StubSession("a");
+		pool.release("a", session, 2, 0);
+		for (int i = 0; i < 100 && !session.stopped; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, pool.size());
+		assertTrue(session.stopped);
+	}
+
+	@Test
+	public void shutdownSessionIsNotReused(){
+		TezSessionPool pool = new TezSessionPool();
+		StubSession session = new StubSession("a");
+		pool.release("a", session, 2, 60);
+		session.status = TezAppMasterStatus.SHUTDOWN;
+		assertNull(pool.acquire("a"));
+		assertTrue(session.stopped);
+	}
+
+	/**
+	 *
+	 */
+	private static class StubSession extends ExecutionContextAwareTezClient {
+		private volatile boolean stopped;
+
+		private volatile TezAppMasterStatus status = TezAppMasterStatus.READY;
+
+		StubSession(String name) {
+			super(name, new TezConfiguration(new Configuration(false)), Collections.emptyMap(), null, null);
+		}
+
+		@Override
+		public synchronized TezAppMasterStatus getAppMasterStatus() {
+			return this.status;
+		}
+
+		@Override
+		public synchronized void clearAppMasterLocalFiles() {
+			// noop
+		}
+
+		@Override
+		public synchronized void stop() {
+			this.stopped = true;
+		}
+	}
+}
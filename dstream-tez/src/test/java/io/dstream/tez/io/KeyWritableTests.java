@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez.io;
+
+import static io.dstream.utils.Tuples.Tuple2.tuple2;
+import static io.dstream.utils.Tuples.Tuple3.tuple3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.Test;
+
+public class KeyWritableTests {
+
+	@Test
+	public void comparatorIsRegistered(){
+		assertSame(KeyWritable.Comparator.class, WritableComparator.get(KeyWritable.class).getClass());
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		for (Object key : Arrays.asList(0, -1, Integer.MIN_VALUE, Long.MAX_VALUE, "", "foo", "a\u0000\u0001b\u00e9\u4e16\ud83d\ude00",
+				tuple2("a", null), tuple3(1, tuple2(2L, "b"), "c"), new BigDecimal("1.5"))) {
+			assertEquals(key, this.read(this.write(key)));
+		}
+	}
+
+	@Test
+	public void rawOrderMatchesValueOrder() throws Exception {
+		this.assertOrder(Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE);
+		this.assertOrder(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE);
+		this.assertOrder("", "a", "a\u0000", "a\u0001", "a\u0002", "ab", "b", "\u00e9", "\u4e16", "\ud83d\ude00", "\uffff");
+		this.assertOrder(tuple2("a", null), tuple2("a", 1), tuple2("a", 2), tuple3("a", 2, 0), tuple2("b", 0));
+		this.assertOrder(new BigDecimal("-2"), new BigDecimal("1.5"), new BigDecimal("10"));
+	}
+
+	@Test
+	public void mixedTypesAreConsistentlyOrdered() throws Exception {
+		this.assertOrder(-1, 1, 0L, "a", tuple2("a", 1), -1.5, 2.5, new BigDecimal("-2"), new BigDecimal("1.5"), 
+				Collections.singletonList(0), new Date(2), new Date(3));
+
+		List<Object> keys = Arrays.asList(1, 1L, "1", tuple2(1, "1"), 1.0, new BigDecimal("1"), new Date(1), 
+				new ArrayList<>(Arrays.asList(1)), new ArrayList<>(Arrays.asList("1")), new ArrayList<>(Arrays.asList(1, 1)), 
+				new HashSet<>(Arrays.asList(1)), new HashSet<>(Arrays.asList(2)));
+		WritableComparator comparator = WritableComparator.get(KeyWritable.class);
+		for (Object k1 : keys) {
+			for (Object k2 : keys) {
+				int c12 = this.compare(comparator, k1, k2);
+				assertEquals(k1 + " vs " + k2, -c12, this.compare(comparator, k2, k1));
+				for (Object k3 : keys) {
+					if (c12 <= 0 && this.compare(comparator, k2, k3) <= 0){
+						assertTrue(k1 + " vs " + k3, this.compare(comparator, k1, k3) <= 0);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void descending() throws Exception {
+		try {
+			KeyWritable.setAscending(false);
+			byte[] b1 = this.write(1);
+			byte[] b2 = this.write(2);
+			assertEquals(1, Integer.signum(WritableComparator.get(KeyWritable.class).compare(b1, 0, b1.length, b2, 0, b2.length)));
+		} 
+		finally {
+			KeyWritable.setAscending(true);
+		}
+	}
+
+	private void assertOrder(Object... keys) throws IOException {
+		List<byte[]> encodedKeys = new ArrayList<>();
+		for (Object key : keys) {
+			encodedKeys.add(this.write(key));
+		}
+		WritableComparator comparator = WritableComparator.get(KeyWritable.class);
+		for (int i = 0; i < keys.length; i++) {
+			for (int j = 0; j < keys.length; j++) {
+				byte[] b1 = encodedKeys.get(i);
+				byte[] b2 = encodedKeys.get(j);
+				int expected = Integer.signum(Integer.compare(i, j));
+				assertEquals(keys[i] + " vs " + keys[j], expected, Integer.signum(comparator.compare(b1, 0, b1.length, b2, 0, b2.length)));
+				KeyWritable k1 = new KeyWritable();
+				KeyWritable k2 = new KeyWritable();
+				k1.setValue(keys[i]);
+				k2.setValue(keys[j]);
+				assertEquals(expected, Integer.signum(k1.compareTo(k2)));
+			}
+		}
+	}
+
+	private int compare(WritableComparator comparator, Object k1, Object k2) throws IOException {
+		byte[] b1 = this.write(k1);
+		byte[] b2 = this.write(k2);
+		return Integer.signum(comparator.compare(b1, 0, b1.length, b2, 0, b2.length));
+	}
+
+	private byte[] write(Object key) throws IOException {
+		KeyWritable keyWritable = new KeyWritable();
+		keyWritable.setValue(key);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		keyWritable.write(new DataOutputStream(bos));
+		return bos.toByteArray();
+	}
+
+	private Object read(byte[] bytes) throws IOException {
+		KeyWritable keyWritable = new KeyWritable();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		keyWritable.readFields(in);
+		assertEquals(0, in.available());
+		return keyWritable.getValue();
+	}
+}
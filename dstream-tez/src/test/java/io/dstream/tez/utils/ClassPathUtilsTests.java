@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+public class ClassPathUtilsTests {
+
+	@Test
+	public void generatedJarIsDeterministic() throws Exception {
+		File sourceDir = Files.createTempDirectory("classpath-utils").toFile();
+		File nestedDir = new File(sourceDir, "io/dstream");
+		nestedDir.mkdirs();
+		Files.write(new File(nestedDir, "b.properties").toPath(), "b=1".getBytes());
+		Files.write(new File(nestedDir, "a.properties").toPath(), "a=1".getBytes());
+
+		String jarName = ClassPathUtils.generateJarFileName("application", sourceDir);
+		assertEquals(jarName, ClassPathUtils.generateJarFileName("application", sourceDir));
+		assertFalse(jarName.equals(ClassPathUtils.generateJarFileName("application", nestedDir)));
+
+		File jar1 = ClassPathUtils.toJar(sourceDir, new File(sourceDir.getParentFile(), "1_" + jarName).getAbsolutePath());
+		Thread.sleep(2000); // JAR entry time has 2 seconds precision
+		new File(nestedDir, "a.properties").setLastModified(System.currentTimeMillis());
+		File jar2 = ClassPathUtils.toJar(sourceDir, new File(sourceDir.getParentFile(), "2_" + jarName).getAbsolutePath());
+		try {
+			assertArrayEquals(Files.readAllBytes(jar1.toPath()), Files.readAllBytes(jar2.toPath()));
+		}
+		finally {
+			jar1.delete();
+			jar2.delete();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dstream.tez.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.tez.runtime.library.api.KeyValueReader;
+import org.junit.Test;
+
+import io.dstream.tez.io.KeyWritable;
+import io.dstream.tez.io.ValueWritable;
+
+public class StreamUtilsTests {
+
+	@Test
+	public void groupedStreamGroupsUnorderedValuesByKey(){
+		KeyValueReader reader = this.reader("b", 1, "a", 2, "b", 3, 4L, 4, "a", 5, 4L, 6);
+		List<String> groups = StreamUtils.<Object, Integer>toGroupedStream(reader)
+				.map(entry -> entry.getKey() + "=" + this.toList(entry.getValue()))
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList("b=[1, 3]", "a=[2, 5]", "4=[4, 6]"), groups);
+	}
+
+	@Test
+	public void groupedStreamOfMixedPrimitiveKeys(){
+		KeyValueReader reader = this.reader(3, "c", 1, "a", 3, "cc", "x", "n", 1, "aa");
+		List<String> groups = StreamUtils.<Object, String>toGroupedStream(reader)
+				.map(entry -> entry.getKey() + "=" + this.toList(entry.getValue()))
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList("3=[c, cc]", "1=[a, aa]", "x=[n]"), groups);
+	}
+
+	@Test
+	public void groupedStreamOfEmptyInput(){
+		assertEquals(0, StreamUtils.toGroupedStream(this.reader()).count());
+	}
+
+	@Test
+	public void groupedStreamSpillsBeyondThreshold(){
+		File spillDirectory = new File(System.getProperty("java.io.tmpdir"), "dstream-grouping-tests");
+		Object[] keyValues = new Object[2000];
+		for (int i = 0; i < 1000; i++) {
+			keyValues[i * 2] = "key-" + (i % 100);
+			keyValues[i * 2 + 1] = i;
+		}
+		Map<Object, List<Integer>> groups = new HashMap<>();
+		try (Stream<Entry<Object, Iterator<Integer>>> groupedStream = StreamUtils.toGroupedStream(this.reader(keyValues), 30, spillDirectory)) {
+			groupedStream.forEach(entry -> assertNull(groups.put(entry.getKey(), this.toList(entry.getValue()))));
+		}
+		assertEquals(100, groups.size());
+		for (int i = 0; i < 100; i++) {
+			List<Integer> values = groups.get("key-" + i);
+			assertEquals(10, values.size());
+			assertEquals(Integer.valueOf(i), values.get(0));
+			assertEquals(Integer.valueOf(900 + i), values.get(9));
+		}
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	@Test
+	public void groupedStreamOfSingleKeyBeyondThreshold(){
+		File spillDirectory = new File(System.getProperty("java.io.tmpdir"), "dstream-grouping-tests");
+		KeyValueReader reader = this.reader(1L, "a", 1L, "b", 1L, "c", 1L, "d", 1L, "e");
+		List<String> groups = StreamUtils.<Object, String>toGroupedStream(reader, 2, spillDirectory)
+				.map(entry -> entry.getKey() + "=" + this.toList(entry.getValue()))
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList("1=[a, b, c, d, e]"), groups);
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	@Test
+	public void closingGroupedStreamDeletesSpills(){
+		File spillDirectory = new File(System.getProperty("java.io.tmpdir"), "dstream-grouping-tests");
+		KeyValueReader reader = this.reader("a", 1, "b", 2, "c", 3, "d", 4, "e", 5, "f", 6);
+		try (Stream<Entry<Object, Iterator<Integer>>> groupedStream = StreamUtils.toGroupedStream(reader, 2, spillDirectory)) {
+			assertEquals(1, groupedStream.limit(1).count());
+		}
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	private <V> List<V> toList(Iterator<V> values){
+		List<V> list = new ArrayList<>();
+		values.forEachRemaining(list::add);
+		return list;
+	}
+
+	/**
+	 * Returns {@link KeyValueReader} over the given key/value pairs which
+	 * reuses its writables the same way Tez readers do.
+	 */
+	private KeyValueReader reader(Object... keyValues){
+		KeyWritable kw = new KeyWritable();
+		ValueWritable<Object> vw = new ValueWritable<>();
+		return new KeyValueReader() {
+			int index = -2;
+			@Override
+			public boolean next() {
+				this.index += 2;
+				if (this.index < keyValues.length){
+					kw.setValue(keyValues[this.index]);
+					vw.setValue(keyValues[this.index + 1]);
+					return true;
+				}
+				return false;
+			}
+			@Override
+			public Object getCurrentKey() {
+				return kw;
+			}
+			@Override
+			public Object getCurrentValue() {
+				return vw;
+			}
+		};
+	}
+}